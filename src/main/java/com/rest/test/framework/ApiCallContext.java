@@ -0,0 +1,36 @@
+package com.rest.test.framework;
+
+import com.rest.test.framework.network.RestNetworkUtil;
+import com.rest.test.framework.util.RequestTemplate.VariableResolver;
+
+/**
+ * Context in which an {@link ApiCallExecutor} runs the API calls.
+ * <br>
+ * It provides the variables visible to the calls and the rest util sending the requests.
+ * Functional tests use the variables of the test suite, each virtual user of a load test has its own context.
+ * @author SrinivasDonapati
+ *
+ */
+public interface ApiCallContext extends VariableResolver {
+
+	/**
+	 * Returns the variable value visible to the API call
+	 * @param variableName
+	 * @return Variable value, null if the variable is not declared
+	 */
+	@Override
+	String getVariableValue(String variableName);
+
+	/**
+	 * Storing variable declared by the API call
+	 * @param variableName
+	 * @param variableValue Variable value, null removes the variable
+	 */
+	void setVariableValue(String variableName, String variableValue);
+
+	/**
+	 * Returns the rest util used for sending the API calls
+	 * @return {@link RestNetworkUtil}
+	 */
+	RestNetworkUtil getRestUtil();
+}
@@ -0,0 +1,748 @@
+package com.rest.test.framework;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.ApiTestInfo.VariableInfo;
+import com.rest.test.framework.expression.ConditionExpression;
+import com.rest.test.framework.network.RequestTimings;
+import com.rest.test.framework.network.RequestTimings.Phase;
+import com.rest.test.framework.network.RestNetworkUtil.RestCallResponse;
+import com.rest.test.framework.unit.RestJsonUnitTest;
+import com.rest.test.framework.unit.RestStringUnitTest;
+import com.rest.test.framework.unit.RestXmlUnitTest;
+import com.rest.test.framework.util.ApiTestConstants;
+import com.rest.test.framework.util.DataUtil;
+import com.rest.test.framework.util.DataUtil.VARIABLE_VALUE_TYPE;
+import com.rest.test.framework.util.ParsedResponse;
+import com.rest.test.framework.util.StreamingExtractor.ExtractedValues;
+
+/**
+ * Executes a single API call of a test file
+ * <li>Resolving the variables used in URL and request body</li>
+ * <li>Sending the request, or polling it</li>
+ * <li>Checking the HTTP status, fetching variables from the response and evaluating the test</li>
+ * <br>
+ * The {@link ApiCallInfo} is only read, resolved URL, request body and response are kept by the executor.
+ * So the same API call can be run by many executors at the same time, each with its own {@link ApiCallContext}.
+ * <br>
+ * Variables declared by the API call are kept in a {@link VariableStore.Scope#STEP} store of the executor,
+ * so its URL, test condition and log message use its own values even if other calls running at the same time declare them too.
+ * They are copied to the context once the URL is resolved, and once the response is evaluated.
+ * @author SrinivasDonapati
+ *
+ */
+public class ApiCallExecutor {
+	private static final AtomicLong lastSystemTime = new AtomicLong();
+	// Script engines are not thread safe, each thread creates its engine once
+	private static final ThreadLocal<ScriptEngine> SCRIPT_ENGINE = new ThreadLocal<ScriptEngine>() {
+		@Override
+		protected ScriptEngine initialValue() {
+			return new ScriptEngineManager().getEngineByName("JavaScript");
+		}
+	};
+
+	private final ApiCallInfo apiCallInfo;
+	private final ApiCallContext context;
+	private final VariableStore stepVariables;
+	private final int randomNumber;
+	private final long systemTime;
+
+	private boolean isLogEnabled = true;
+	private boolean isScriptEngineEnabled = false;
+	private boolean isAdaptivePolling = true;
+	private String url;
+	private String request;
+	private RestCallResponse restCallResponse;
+	private CompletableFuture<RestCallResponse> startedPoll;
+	private long pollStartTime;
+	private long responseTime;
+	private final RequestTimings timings = new RequestTimings();
+
+	/**
+	 * Creating executor with new RANDOM_VALUE and SYSTEM_TIME values
+	 * @param apiCallInfo API call to be run
+	 * @param context Variables and rest util used by the API call
+	 */
+	public ApiCallExecutor(ApiCallInfo apiCallInfo, ApiCallContext context) {
+		this(apiCallInfo, context, nextRandomNumber(), nextSystemTime());
+	}
+
+	/**
+	 * Creating executor
+	 * @param apiCallInfo API call to be run
+	 * @param context Variables and rest util used by the API call
+	 * @param randomNumber Value of RANDOM_VALUE
+	 * @param systemTime Value of SYSTEM_TIME
+	 */
+	public ApiCallExecutor(ApiCallInfo apiCallInfo, ApiCallContext context, int randomNumber, long systemTime) {
+		this.apiCallInfo = apiCallInfo;
+		this.context = context;
+		this.stepVariables = new VariableStore(VariableStore.Scope.STEP, context);
+		this.randomNumber = randomNumber;
+		this.systemTime = systemTime;
+	}
+
+	/**
+	 * Returns the value of RANDOM_VALUE used by the API call
+	 * @return
+	 */
+	public int getRandomNumber() {
+		return randomNumber;
+	}
+
+	/**
+	 * Returns the value of SYSTEM_TIME used by the API call
+	 * @return
+	 */
+	public long getSystemTime() {
+		return systemTime;
+	}
+
+	/**
+	 * Returns a random number with the length 4, used as RANDOM_VALUE
+	 * @return
+	 */
+	public static int nextRandomNumber() {
+		return 1000 + ThreadLocalRandom.current().nextInt(9000);
+	}
+
+	/**
+	 * Returns the current time in milliseconds used as SYSTEM_TIME.<br>
+	 * Values are unique within the JVM, so API calls running at the same time never get the same value.
+	 * @return
+	 */
+	public static long nextSystemTime() {
+		while (true) {
+			long last = lastSystemTime.get();
+			long next = Math.max(System.currentTimeMillis(), last + 1);
+			if (lastSystemTime.compareAndSet(last, next)) {
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * Running the API call completely, used when the call is not run as JUNIT test
+	 * @throws Exception
+	 */
+	public void execute() throws Exception {
+		long startTime;
+		if (isPollStarted()) {
+			startTime = pollStartTime;
+		} else {
+			resolve();
+			startTime = System.nanoTime();
+		}
+		try {
+			if (apiCallInfo.isPoll()) {
+				poll();
+			} else {
+				send();
+			}
+		} finally {
+			responseTime = System.nanoTime() - startTime;
+		}
+		evaluate(restCallResponse);
+	}
+
+	/**
+	 * Resolving API Call dependencies <br>
+	 * <li>Fetching constant variables</li>
+	 * <li>Replacing variables in URL and Request Body</li>
+	 */
+	public void resolve() {
+		long startTime = System.nanoTime();
+		initializeConstantVariables();
+
+		// Rendering the templates compiled while reading the property file
+		String randomValue = String.valueOf(randomNumber);
+		String systemTimeValue = String.valueOf(systemTime);
+		String url = apiCallInfo.getUrlTemplate().render(stepVariables, randomValue, systemTimeValue, API_TEST_INFO_TYPE.URL.toString());
+		String requestBody = apiCallInfo.getRequestTemplate().render(stepVariables, randomValue, systemTimeValue, API_TEST_INFO_TYPE.REQUEST.toString());
+
+		this.url = url;
+		this.request = requestBody;
+		publishVariables();
+		timings.add(Phase.RESOLVE, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Sending the resolved request
+	 * @return {@link RestCallResponse}
+	 * @throws Exception
+	 */
+	public RestCallResponse send() throws Exception {
+		// The response of the previous poll is not needed anymore
+		releaseResponse();
+		restCallResponse = context.getRestUtil().sendRequest(apiCallInfo, getUrl(), getRequest());
+		if (restCallResponse != null) {
+			timings.add(restCallResponse.getTimings());
+		}
+		return restCallResponse;
+	}
+
+	/**
+	 * Handling the response of the API call<br>
+	 * <li>Checking the HTTP status</li>
+	 * <li>Fetching variable information</li>
+	 * <li>Evaluating test</li>
+	 * @param restCallResponse Response of the API call
+	 */
+	public void evaluate(RestCallResponse restCallResponse) {
+		this.restCallResponse = restCallResponse;
+		if (restCallResponse == null ) {
+			String assertionMessage = "UnSuccessfull request !\n";
+			throw new AssertionError(assertionMessage);
+		}
+
+		if (apiCallInfo.getReqStatus() != restCallResponse.getStatus()) {
+			String assertionMessage = "Expected Request status " + apiCallInfo.getReqStatus()
+					+ ", But current request status is " + restCallResponse.getStatus();
+			throw new AssertionError(assertionMessage);
+		}
+
+		long startTime = System.nanoTime();
+		try {
+			initializeDynamicVariables();
+			logMessage();
+			evaluateTest();
+		} finally {
+			publishVariables();
+			timings.add(Phase.EVALUATE, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Copying the variables declared by the API call to the context, the step store is emptied
+	 */
+	private void publishVariables() {
+		for (String variableName : stepVariables.getVariables().keySet()) {
+			context.setVariableValue(variableName, stepVariables.getVariables().remove(variableName));
+		}
+	}
+
+	/**
+	 * Polling request using POLL_TIME and POLL_INTERVAL of the API call, see {@link #getPollSchedule()}
+	 * @return Response satisfying the poll, it's evaluated by {@code evaluate}
+	 * @throws Exception
+	 */
+	public RestCallResponse poll() throws Exception {
+		return poll(getPollSchedule());
+	}
+
+	/**
+	 * Polling request after a fixed interval, to check the status of the triggered operation on server
+	 * @param pollDuration Time in milliseconds
+	 * @param pollInterval Time in milliseconds
+	 * @return Response satisfying the poll, it's evaluated by {@code evaluate}
+	 * @throws Exception
+	 */
+	public RestCallResponse poll(long pollDuration, long pollInterval) throws Exception {
+		return poll(PollSchedule.fixed(pollDuration, pollInterval));
+	}
+
+	/**
+	 * Polling request, to check the status of the triggered operation on server.
+	 * <br>
+	 * Attempts are sent by the {@link PollScheduler} until a response has the expected status and satisfies the test condition,
+	 * or has the expected response if the API call has no test condition. Log message is printed only by {@code evaluate}.
+	 * <br>
+	 * If the poll was started by {@link #startPoll()}, its result is taken instead of polling again.
+	 * @param schedule Delays between the attempts
+	 * @return Response satisfying the poll, it's evaluated by {@code evaluate}
+	 * @throws Exception
+	 */
+	public RestCallResponse poll(PollSchedule schedule) throws Exception {
+		CompletableFuture<RestCallResponse> poll = startedPoll;
+		startedPoll = null;
+		try {
+			return PollScheduler.await(poll != null ? poll : pollAsync(schedule));
+		} catch (AssertionError AE) {
+			String assertionMessage =  "This poll request has been unsuccessfull !\n";
+			assertionMessage += AE.getMessage();
+			throw new AssertionError(assertionMessage);
+		}
+	}
+
+	/**
+	 * Resolving the API call and starting its poll with {@link #getPollSchedule()}, without waiting for the result.
+	 * <br>
+	 * No thread is held while the poll runs. Once the returned future is completed,
+	 * {@code execute} or {@code poll} take its result without blocking.
+	 * @return Future completed with the response satisfying the poll
+	 */
+	public CompletableFuture<RestCallResponse> startPoll() {
+		resolve();
+		pollStartTime = System.nanoTime();
+		startedPoll = pollAsync(getPollSchedule());
+		return startedPoll;
+	}
+
+	/**
+	 * Returns the poll started by {@link #startPoll()}
+	 * @return Future completed with the response satisfying the poll, null if the poll is not started or its result is taken
+	 */
+	public CompletableFuture<RestCallResponse> getStartedPoll() {
+		return startedPoll;
+	}
+
+	/**
+	 * Checks whether the poll was started by {@link #startPoll()}, and its result is not taken yet
+	 * @return
+	 */
+	public boolean isPollStarted() {
+		return startedPoll != null;
+	}
+
+	/**
+	 * Returns the time the poll was started by {@link #startPoll()}
+	 * @return Time in {@link System#nanoTime()}
+	 */
+	public long getPollStartTime() {
+		return pollStartTime;
+	}
+
+	/**
+	 * Polling request without waiting for the result
+	 * @param schedule Delays between the attempts
+	 * @return Future completed with the response satisfying the poll
+	 */
+	public CompletableFuture<RestCallResponse> pollAsync(PollSchedule schedule) {
+		// Requests are resolved once, all the attempts send the same URL and body
+		final String url = getUrl();
+		final String request = getRequest();
+		return PollScheduler.poll(new PollScheduler.Attempt<RestCallResponse>() {
+			@Override
+			public CompletableFuture<RestCallResponse> send() {
+				// The response of the previous attempt is not needed anymore
+				releaseResponse();
+				return context.getRestUtil().sendRequestAsync(apiCallInfo, url, request);
+			}
+
+			@Override
+			public void check(RestCallResponse response) {
+				checkPollResponse(response);
+			}
+		}, schedule);
+	}
+
+	/**
+	 * Returns the schedule of the poll, built from POLL_TIME and POLL_INTERVAL of the API call.
+	 * <br>
+	 * Polls back off up to the poll interval if adaptive polling is enabled, otherwise they wait the poll interval between the attempts.
+	 * @return {@link PollSchedule}
+	 */
+	public PollSchedule getPollSchedule() {
+		if (isAdaptivePolling) {
+			return PollSchedule.backoff(getPollDuration(), getPollInterval());
+		}
+		return PollSchedule.fixed(getPollDuration(), getPollInterval());
+	}
+
+	/**
+	 * Returns the poll duration of the API call
+	 * @return Time in milliseconds
+	 */
+	public long getPollDuration() {
+		return apiCallInfo.getPollTime() > 0 ? apiCallInfo.getPollTime() * 1000 : PollSchedule.DEFAULT_POLL_DURATION;
+	}
+
+	/**
+	 * Returns the poll interval of the API call
+	 * @return Time in milliseconds
+	 */
+	public long getPollInterval() {
+		return apiCallInfo.getPollInterval() > 0 ? apiCallInfo.getPollInterval() * 1000 : PollSchedule.DEFAULT_POLL_INTERVAL;
+	}
+
+	/**
+	 * Checking a response of the poll, without printing the log message.
+	 * The test condition decides whether the polled operation is finished, the response is compared only without test condition.
+	 * @param restCallResponse
+	 */
+	private void checkPollResponse(RestCallResponse restCallResponse) {
+		this.restCallResponse = restCallResponse;
+		if (restCallResponse == null ) {
+			String assertionMessage = "UnSuccessfull request !\n";
+			throw new AssertionError(assertionMessage);
+		}
+		if (restCallResponse.getTimings() != null) {
+			timings.add(restCallResponse.getTimings());
+		}
+
+		if (apiCallInfo.getReqStatus() != restCallResponse.getStatus()) {
+			String assertionMessage = "Expected Request status " + apiCallInfo.getReqStatus()
+					+ ", But current request status is " + restCallResponse.getStatus();
+			throw new AssertionError(assertionMessage);
+		}
+
+		long startTime = System.nanoTime();
+		try {
+			initializeDynamicVariables();
+			String testCondition = apiCallInfo.getTestCondition();
+			if (testCondition != null && testCondition.trim().length() > 0) {
+				evaluateExpectedExpression();
+			} else {
+				evaluateTest();
+			}
+		} finally {
+			timings.add(Phase.EVALUATE, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Evaluating test
+	 * <li>Evaluating test condition</li>
+	 * <li>Comparing responses</li>
+	 */
+	private void evaluateTest()
+	{
+		evaluateExpectedExpression();
+
+		if (!apiCallInfo.isCompareResponse()) {
+			return;
+		}
+
+		String expectedResponse = apiCallInfo.getResponse();
+		String currentResponse = restCallResponse.getResponse();
+
+		// skipping comparing responses, if expected and actual responses are empty
+		if ((currentResponse == null || currentResponse.trim().length() == 0)
+				&& (expectedResponse == null || expectedResponse.trim().length() == 0)) {
+			return;
+		}
+
+		ParsedResponse parsedResponse = restCallResponse.getParsedResponse();
+		if (parsedResponse.isJson()) {
+			RestJsonUnitTest restJsonUnitTest = new RestJsonUnitTest(expectedResponse, parsedResponse, false);
+			restJsonUnitTest.execute();
+		} else if (parsedResponse.isXml()) {
+			RestXmlUnitTest restXmlUnitTest = new RestXmlUnitTest(expectedResponse, currentResponse, !apiCallInfo.isCompareWhitespace());
+			restXmlUnitTest.execute();
+		} else {
+			expectedResponse = expectedResponse == null ? "" : expectedResponse.trim();
+			currentResponse = currentResponse == null ? "" : currentResponse.trim();
+			String assertionMessage = "Expected and current results are not matching :";
+			if (!new RestStringUnitTest(expectedResponse, currentResponse, !apiCallInfo.isCompareWhitespace()).compare()) {
+				throw new AssertionError(assertionMessage);
+			}
+		}
+	}
+
+	/**
+	 * Evaluating test condition, parsed once by {@link ApiCallInfo} and evaluated with the variables of the API call and its context
+	 */
+	private void evaluateExpectedExpression() {
+		String testCondition = apiCallInfo.getTestCondition();
+		if (testCondition == null || testCondition.trim().length() == 0) return;
+
+		if (isScriptEngineEnabled) {
+			evaluateScriptExpression();
+			return;
+		}
+
+		ConditionExpression expression = apiCallInfo.getTestConditionExpression();
+		if (expression == null) {
+			String assertionMessage =  "Errors while evaluating expression : " + testCondition + "\n";
+			assertionMessage += apiCallInfo.getTestConditionError() + "\n";
+			assertionMessage += "Enable script engine conditions in the suite configuration to evaluate it as JavaScript\n";
+			throw new AssertionError(assertionMessage);
+		}
+
+		if (!expression.isSatisfied(stepVariables)) {
+			testCondition = apiCallInfo.getTestConditionTemplate().render(stepVariables, null, null, "Expected Expression");
+			String assertionMessage =  "Evaluation result of expected expression is False for : " + testCondition;
+			throw new AssertionError(assertionMessage);
+		}
+	}
+
+	/**
+	 * Evaluating test condition by the JavaScript engine, the variables are replaced in the condition text
+	 */
+	private void evaluateScriptExpression() {
+		String testCondition = apiCallInfo.getTestConditionTemplate().render(stepVariables, null, null, "Expected Expression");
+
+		ScriptEngine engine = SCRIPT_ENGINE.get();
+		if (engine == null) {
+			throw new AssertionError("No JavaScript engine available for evaluating expression : " + testCondition);
+		}
+		try {
+			boolean result = Boolean.parseBoolean(String.valueOf(engine.eval(testCondition)));
+
+			if (!result) {
+				String assertionMessage =  "Evaluation result of expected expression is False for : " + testCondition;
+				throw new AssertionError(assertionMessage);
+			}
+		}
+		catch (ScriptException e) {
+			e.printStackTrace();
+
+			String assertionMessage =  "Errors while evaluating expression : " + testCondition;
+			assertionMessage += e.getMessage() + "\n";
+			throw new AssertionError(assertionMessage);
+		}
+	}
+
+	/**
+	 * Fetching constant variables from test info
+	 */
+	private void initializeConstantVariables()
+	{
+		List<VariableInfo> variableList;
+
+		variableList = apiCallInfo.getVariableList();
+
+		if (variableList != null && variableList.size() > 0) {
+			for (VariableInfo varInfo : variableList) {
+				String variableName = varInfo.getVariableName();
+				String variableValue = varInfo.getVariableValue();
+
+				if (DataUtil.getVariableValueType(variableValue) == VARIABLE_VALUE_TYPE.CONSTANT) {
+					variableValue = variableValue.replace(ApiTestConstants.PROPERTY_VARIABLE_RANDOM, randomNumber
+							+ "");
+					variableValue = variableValue.replace(ApiTestConstants.PROPERTY_VARIABLE_SYS_TIME, systemTime
+							+ "");
+
+					// Storing variable values in the step, copied to the context once the URL is resolved
+					stepVariables.setVariableValue(variableName, variableValue);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fetching dynamic variables from the response
+	 */
+	private void initializeDynamicVariables() {
+		List<VariableInfo> variableList;
+		variableList = apiCallInfo.getVariableList();
+		ExtractedValues extractedValues = restCallResponse.getExtractedValues();
+
+		if (variableList != null && variableList.size() > 0) {
+			for (VariableInfo varInfo : variableList) {
+				String variableName = varInfo.getVariableName();
+				String variableValue = varInfo.getVariableValue();
+
+				String parsedVariableValue = null;
+
+				VARIABLE_VALUE_TYPE variableType = DataUtil.getVariableValueType(variableValue);
+
+				if (variableType != VARIABLE_VALUE_TYPE.CONSTANT && extractedValues != null) {
+					parsedVariableValue = getExtractedValue(variableValue, variableType, extractedValues);
+				}
+				else if (variableType == VARIABLE_VALUE_TYPE.JSON_PATH) {
+					Object responseValue = DataUtil.getJsonPathValue(variableValue, restCallResponse.getParsedResponse());
+					parsedVariableValue = responseValue + "";
+
+				}
+				else if (variableType == VARIABLE_VALUE_TYPE.XML_PATH) {
+					Object responseValue = DataUtil.getXpathValue(variableValue, restCallResponse.getParsedResponse());
+				    parsedVariableValue = responseValue + "";
+				}
+
+				if (parsedVariableValue != null) {
+					// Storing variable values in the step, copied to the context once the response is evaluated
+					stepVariables.setVariableValue(variableName, parsedVariableValue);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the value of a path extracted while streaming the response, with the errors of {@link DataUtil}
+	 * @param path JSON path or XPath
+	 * @param variableType
+	 * @param extractedValues
+	 * @return
+	 */
+	private String getExtractedValue(String path, VARIABLE_VALUE_TYPE variableType, ExtractedValues extractedValues) {
+		String value = extractedValues.getValue(path);
+		if (value != null) {
+			return value;
+		}
+		if (variableType == VARIABLE_VALUE_TYPE.XML_PATH) {
+			String assertionMessage = "Unable to parse XPath  : " + path.replace("XPATH:", "");
+			throw new AssertionError(assertionMessage);
+		}
+		if (extractedValues.getError() != null) {
+			String assertionMessage = "Invalid JSON : " + extractedValues.getError();
+			throw new AssertionError(assertionMessage);
+		}
+		String assertionMessage = "Unable to find value for JSON Path : " + path;
+		throw new AssertionError(assertionMessage);
+	}
+
+	/**
+	 * Returns detailed assertion message
+	 * @return Assertion message
+	 */
+	public String getRequestAssertionMessage() {
+		String assertionMessage =	"\nRequest Details:\n";
+		assertionMessage		+=	"----------------\n";
+
+		assertionMessage		+=	"*Base URL		: " + context.getRestUtil().getBaseUrl() + "\n";
+		assertionMessage		+=	"*Request URL	: " + apiCallInfo.getMethod() + ":" + getUrl() +"\n";
+		if (getRequest() != null) {
+			assertionMessage	+=	"*Request Body 	: " + getRequest() + "\n\n";
+		}
+
+		assertionMessage		+=	"*Expected Status: " + apiCallInfo.getReqStatus() + "\n";
+		if (apiCallInfo.getResponse() != null) {
+			assertionMessage	+=	"*Sample Response: " + apiCallInfo.getResponse() + "\n\n";
+		}
+
+		if (apiCallInfo.getTestCondition()!= null ) {
+			assertionMessage	+=	"*Test Condition : " + apiCallInfo.getTestCondition() + "\n";
+		}
+
+		if (apiCallInfo.getVariableList()!= null && apiCallInfo.getVariableList().size() > 0 ) {
+			assertionMessage	+=	"*Variable Declarions :\n";
+			int i = 1;
+			for (VariableInfo variableInfo : apiCallInfo.getVariableList()) {
+				String variableName = variableInfo.getVariableName();
+				String variableValue = variableInfo.getVariableValue();
+				assertionMessage += (i ++) + ". " + variableName + "=" + variableValue + "\n";
+			}
+		}
+
+		if (restCallResponse != null) {
+			assertionMessage	+=	"*Current Status		: " + restCallResponse.getStatus() + "\n";
+			if (restCallResponse.getExtractedValues() != null) {
+				assertionMessage	+=	"*Current Response	: Not kept, variables are extracted while streaming the response\n";
+			} else {
+				assertionMessage	+=	"*Current Response	: " + restCallResponse.getResponse() + "\n";
+			}
+		}
+
+		return assertionMessage;
+	}
+
+	/**
+	 * Printing the message of the API Test, provided using property LOG_MSG
+	 */
+	private void logMessage() {
+		if (!isLogEnabled) {
+			return;
+		}
+
+		if (apiCallInfo.getLogMessage() != null && apiCallInfo.getLogMessage().trim().length() > 0) {
+			String logMessage = apiCallInfo.getLogMessage().trim();
+
+			String logMessagePrefix = "Log[" + apiCallInfo.getApiTestInfo().getTestName() + "." + apiCallInfo.getName()+ "]";
+			logMessagePrefix += ":\n";
+
+			//Printing test details, If the log message is marked to print test details
+			if (logMessage.equalsIgnoreCase(ApiTestConstants.PROPERTY_TEST_DETAILS)) {
+				logMessage = getRequestAssertionMessage();
+				System.out.println(logMessagePrefix + logMessage);
+				return;
+			}
+
+			String resLogMessage = logMessage;
+			try {
+				// replacing variables with the values
+				resLogMessage = apiCallInfo.getLogMessageTemplate().render(stepVariables, null, null, "LOG");
+			}catch(Exception  | AssertionError e){
+			}
+			System.out.println(logMessagePrefix + resLogMessage);
+		}
+	}
+
+	/**
+	 * Enabling/Disabling printing of LOG_MSG
+	 * @param isLogEnabled
+	 */
+	public void setLogEnabled(boolean isLogEnabled) {
+		this.isLogEnabled = isLogEnabled;
+	}
+
+	/**
+	 * Evaluating the test condition by the JavaScript script engine instead of the built-in expressions
+	 * @param isScriptEngineEnabled
+	 */
+	public void setScriptEngineEnabled(boolean isScriptEngineEnabled) {
+		this.isScriptEngineEnabled = isScriptEngineEnabled;
+	}
+
+	/**
+	 * Polling with backoff and jitter up to POLL_INTERVAL, or after the fixed POLL_INTERVAL as older versions did
+	 * @param isAdaptivePolling
+	 */
+	public void setAdaptivePolling(boolean isAdaptivePolling) {
+		this.isAdaptivePolling = isAdaptivePolling;
+	}
+
+	/**
+	 * Returns the API call run by this executor
+	 * @return {@link ApiCallInfo}
+	 */
+	public ApiCallInfo getApiCallInfo() {
+		return apiCallInfo;
+	}
+
+	/**
+	 * Returns the resolved URL, or the declared URL if the call is not resolved yet
+	 * @return
+	 */
+	public String getUrl() {
+		return url != null ? url : apiCallInfo.getUrl();
+	}
+
+	/**
+	 * Returns the resolved request body, or the declared body if the call is not resolved yet
+	 * @return
+	 */
+	public String getRequest() {
+		return url != null ? request : apiCallInfo.getRequest();
+	}
+
+	/**
+	 * Returns the last response received
+	 * @return {@link RestCallResponse}
+	 */
+	public RestCallResponse getRestCallResponse() {
+		return restCallResponse;
+	}
+
+	/**
+	 * Releasing the body of the last response, once the API call is evaluated and reported.<br>
+	 * The status and headers of the response stay available.
+	 */
+	public void releaseResponse() {
+		if (restCallResponse != null) {
+			restCallResponse.release();
+		}
+	}
+
+	/**
+	 * Returns the time taken by {@code execute} for sending the request, including polling
+	 * @return Time in nanoseconds
+	 */
+	public long getResponseTime() {
+		return responseTime;
+	}
+
+	/**
+	 * Returns the time spent in each phase of the API call, summed over all the requests sent while polling
+	 * @return {@link RequestTimings}
+	 */
+	public RequestTimings getTimings() {
+		return timings;
+	}
+
+	/**
+	 * Enum to define data type
+	 * @author SrinivasDonapati
+	 */
+	private enum API_TEST_INFO_TYPE {
+		URL, REQUEST, RESPONSE
+	}
+}
@@ -0,0 +1,173 @@
+package com.rest.test.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.ApiTestInfo.VariableInfo;
+
+/**
+ * Dependency graph of the API calls of a test file, built from the variables each call uses and declares.
+ * <br><br>
+ * An API call depends on
+ * <li>the last earlier call declaring a variable it uses in URL, request, test condition or log message</li>
+ * <li>earlier calls using or declaring a variable it declares again, so values are not overwritten too early</li>
+ * <li>the first call of the file, which sets up the test class (usually the login)</li>
+ * <li>all earlier calls, if it has a WAIT_TIME</li>
+ * <li>the last earlier call with a WAIT_TIME, so no call starts before an earlier wait is over</li>
+ * <li>earlier calls on the same resource, if either of the two calls is not a GET, so writes are not reordered with
+ * the reads and writes around them. Calls are on the same resource if one URL path is the other one or below it,
+ * variables in the path matching any segment</li>
+ * Calls without a dependency between them can be run at the same time.
+ * @author SrinivasDonapati
+ *
+ */
+public class ApiCallGraph {
+	private final Map<Long, Set<Long>> dependencyMap = new HashMap<>();
+
+	public ApiCallGraph(ApiTestInfo apiTestInfo) {
+		List<ApiCallInfo> apiCallList = apiTestInfo.getApiReqList();
+
+		Map<String, Long> lastDeclarations = new HashMap<>();
+		Map<String, List<Long>> usagesSinceDeclaration = new HashMap<>();
+		List<Long> previousCalls = new ArrayList<>();
+		List<ApiCallInfo> previousResourceCalls = new ArrayList<>();
+		Long lastWaitCall = null;
+
+		for (ApiCallInfo apiCallInfo : apiCallList) {
+			Set<Long> dependencies = new LinkedHashSet<>();
+
+			if (!previousCalls.isEmpty()) {
+				dependencies.add(previousCalls.get(0));
+			}
+
+			if (apiCallInfo.getWaitTime() > 0) {
+				dependencies.addAll(previousCalls);
+				lastWaitCall = apiCallInfo.getId();
+			} else if (lastWaitCall != null) {
+				dependencies.add(lastWaitCall);
+			}
+
+			String[] resource = getResource(apiCallInfo);
+			boolean isRead = isRead(apiCallInfo);
+			for (ApiCallInfo previousCall : previousResourceCalls) {
+				if ((!isRead || !isRead(previousCall)) && isSameResource(resource, getResource(previousCall))) {
+					dependencies.add(previousCall.getId());
+				}
+			}
+
+			for (String variableName : getVariablesUsed(apiCallInfo)) {
+				Long declaringCall = lastDeclarations.get(variableName);
+				if (declaringCall != null) {
+					dependencies.add(declaringCall);
+				}
+				List<Long> usages = usagesSinceDeclaration.get(variableName);
+				if (usages == null) {
+					usages = new ArrayList<>();
+					usagesSinceDeclaration.put(variableName, usages);
+				}
+				usages.add(apiCallInfo.getId());
+			}
+
+			for (String variableName : getVariablesDeclared(apiCallInfo)) {
+				Long declaringCall = lastDeclarations.get(variableName);
+				if (declaringCall != null) {
+					dependencies.add(declaringCall);
+				}
+				List<Long> usages = usagesSinceDeclaration.remove(variableName);
+				if (usages != null) {
+					dependencies.addAll(usages);
+				}
+				lastDeclarations.put(variableName, apiCallInfo.getId());
+			}
+
+			dependencies.remove(apiCallInfo.getId());
+			dependencyMap.put(apiCallInfo.getId(), dependencies);
+			previousCalls.add(apiCallInfo.getId());
+			previousResourceCalls.add(apiCallInfo);
+		}
+	}
+
+	/**
+	 * Returns ids of the API calls, which have to be finished before running the passed call
+	 * @param apiCallInfo
+	 * @return Set of API call ids
+	 */
+	public Set<Long> getDependencies(ApiCallInfo apiCallInfo) {
+		Set<Long> dependencies = dependencyMap.get(apiCallInfo.getId());
+		return dependencies == null ? Collections.<Long> emptySet() : Collections.unmodifiableSet(dependencies);
+	}
+
+	/**
+	 * Checks whether the API call only reads its resource
+	 * @param apiCallInfo
+	 * @return true for GET, HEAD and OPTIONS calls
+	 */
+	private static boolean isRead(ApiCallInfo apiCallInfo) {
+		String method = apiCallInfo.getMethod();
+		return method == null || "GET".equalsIgnoreCase(method.trim()) || "HEAD".equalsIgnoreCase(method.trim())
+				|| "OPTIONS".equalsIgnoreCase(method.trim());
+	}
+
+	/**
+	 * Returns the path segments of the API call's URL, without query and trailing slash
+	 * @param apiCallInfo
+	 * @return
+	 */
+	private static String[] getResource(ApiCallInfo apiCallInfo) {
+		String url = apiCallInfo.getUrl() == null ? "" : apiCallInfo.getUrl().trim();
+		url = url.split("[?#]")[0];
+		while (url.endsWith("/")) {
+			url = url.substring(0, url.length() - 1);
+		}
+		return url.split("/");
+	}
+
+	/**
+	 * Checks whether one resource is the other one or below it, a segment with a variable matches any segment
+	 * @param resource
+	 * @param otherResource
+	 * @return
+	 */
+	private static boolean isSameResource(String[] resource, String[] otherResource) {
+		int length = Math.min(resource.length, otherResource.length);
+		for (int i = 0; i < length; i++) {
+			if (!resource[i].equals(otherResource[i]) && resource[i].indexOf('{') < 0 && otherResource[i].indexOf('{') < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the variable names used by the API call
+	 * @param apiCallInfo
+	 * @return
+	 */
+	private Set<String> getVariablesUsed(ApiCallInfo apiCallInfo) {
+		Set<String> variables = new LinkedHashSet<>();
+		variables.addAll(apiCallInfo.getUrlTemplate().getVariableNames());
+		variables.addAll(apiCallInfo.getRequestTemplate().getVariableNames());
+		variables.addAll(apiCallInfo.getTestConditionTemplate().getVariableNames());
+		variables.addAll(apiCallInfo.getLogMessageTemplate().getVariableNames());
+		return variables;
+	}
+
+	/**
+	 * Returns the variable names declared by the API call in TEST_VARS
+	 * @param apiCallInfo
+	 * @return
+	 */
+	private Set<String> getVariablesDeclared(ApiCallInfo apiCallInfo) {
+		Set<String> variables = new LinkedHashSet<>();
+		for (VariableInfo variableInfo : apiCallInfo.getVariableList()) {
+			variables.add(variableInfo.getVariableName());
+		}
+		return variables;
+	}
+}
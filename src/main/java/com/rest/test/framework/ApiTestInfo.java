@@ -5,12 +5,20 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.json.JSONArray;
 
+import com.rest.test.framework.expression.ConditionExpression;
+import com.rest.test.framework.network.HeaderSet;
 import com.rest.test.framework.network.RestNetworkUtil.RestCallResponse;
 import com.rest.test.framework.util.ApiTestConstants;
+import com.rest.test.framework.util.DataUtil;
+import com.rest.test.framework.util.DataUtil.VARIABLE_VALUE_TYPE;
 import com.rest.test.framework.util.PerformanceTracker;
+import com.rest.test.framework.util.RequestTemplate;
+import com.rest.test.framework.util.StreamingExtractor;
 
 
 /**
@@ -74,6 +82,23 @@ public class ApiTestInfo {
 		return reqInfo;
 	}
 	
+	/**
+	 * Creating a new test info with the API calls of this one, used for each run of a compiled test file.
+	 * <br>
+	 * Compiled templates, conditions and paths are shared by the copies, runtime information and responses are not copied.
+	 * @return {@link ApiTestInfo}
+	 */
+	public ApiTestInfo copy() {
+		ApiTestInfo copy = new ApiTestInfo();
+		copy.testName = testName;
+		copy.propertyFilePath = propertyFilePath;
+		for (ApiCallInfo apiCallInfo : apiCallList) {
+			ApiCallInfo apiCallCopy = copy.createApiCallInfo(apiCallInfo.name, apiCallInfo.lineNumberInPropertyFile);
+			apiCallCopy.copyDefinition(apiCallInfo);
+		}
+		return copy;
+	}
+	
 	/**
 	 * Returns file path of the test file
 	 * @return
@@ -103,19 +128,62 @@ public class ApiTestInfo {
 		private String response = null;
 		private List<VariableInfo> variableList = new ArrayList<VariableInfo>();
 		private Map<String, String> headers;
+		private HeaderSet headerSet = HeaderSet.EMPTY;
 		private String testCondition;
 		private boolean poll = false;
 		private boolean compareResponse = false;
+		private boolean compareWhitespace = false;
 		private RestCallResponse restCallResponse;
 		private boolean isFirstTest;
 		private boolean isLastTest;
 		private int lineNumberInPropertyFile;
 		private String logMessage;
+		// Compiled while reading the property file, rendered by each run of the call
+		private RequestTemplate urlTemplate = RequestTemplate.compile(null);
+		private RequestTemplate requestTemplate = RequestTemplate.compile(null);
+		private RequestTemplate testConditionTemplate = RequestTemplate.compile(null);
+		private RequestTemplate logMessageTemplate = RequestTemplate.compile(null);
+		private ConditionExpression testConditionExpression;
+		private String testConditionError;
+		private boolean streamResponse = false;
+		private StreamingExtractor responseExtractor;
 
 		private int pollTime;
 		private int pollInterval;
 		private int waitTime;
 		
+		/**
+		 * Copying the properties read from the test file, compiled values are immutable and shared
+		 * @param apiCallInfo
+		 */
+		private void copyDefinition(ApiCallInfo apiCallInfo)
+		{
+			url = apiCallInfo.url;
+			method = apiCallInfo.method;
+			reqStatus = apiCallInfo.reqStatus;
+			request = apiCallInfo.request;
+			response = apiCallInfo.response;
+			variableList = new ArrayList<>(apiCallInfo.variableList);
+			headers = apiCallInfo.headers != null ? new HashMap<>(apiCallInfo.headers) : null;
+			headerSet = apiCallInfo.headerSet;
+			testCondition = apiCallInfo.testCondition;
+			poll = apiCallInfo.poll;
+			compareResponse = apiCallInfo.compareResponse;
+			compareWhitespace = apiCallInfo.compareWhitespace;
+			logMessage = apiCallInfo.logMessage;
+			urlTemplate = apiCallInfo.urlTemplate;
+			requestTemplate = apiCallInfo.requestTemplate;
+			testConditionTemplate = apiCallInfo.testConditionTemplate;
+			logMessageTemplate = apiCallInfo.logMessageTemplate;
+			testConditionExpression = apiCallInfo.testConditionExpression;
+			testConditionError = apiCallInfo.testConditionError;
+			streamResponse = apiCallInfo.streamResponse;
+			responseExtractor = apiCallInfo.responseExtractor;
+			pollTime = apiCallInfo.pollTime;
+			pollInterval = apiCallInfo.pollInterval;
+			waitTime = apiCallInfo.waitTime;
+		}
+		
 		/**
 		 * Returns the Test Class instance of the API call
 		 * @return {@link ApiTestInfo}
@@ -153,7 +221,8 @@ public class ApiTestInfo {
 		}
 		
 		/**
-		 * Returns the HTTP Response information of the API call
+		 * Returns the HTTP Response information of the API call.<br>
+		 * The body of the response is released once the API call test finishes, only its status and headers are kept.
 		 * @return Object of {@link RestCallResponse }
 		 */
 		public RestCallResponse getRestCallResponse()
@@ -243,6 +312,16 @@ public class ApiTestInfo {
 		public void setUrl(String url)
 		{
 			this.url = url;
+			this.urlTemplate = RequestTemplate.compile(url);
+		}
+		
+		/**
+		 * Returns the compiled URL
+		 * @return {@link RequestTemplate}
+		 */
+		public RequestTemplate getUrlTemplate()
+		{
+			return urlTemplate;
 		}
 		
 		/**
@@ -284,6 +363,16 @@ public class ApiTestInfo {
 		public void setRequest(String request)
 		{
 			this.request = request;
+			this.requestTemplate = RequestTemplate.compile(request);
+		}
+		
+		/**
+		 * Returns the compiled request body
+		 * @return {@link RequestTemplate}
+		 */
+		public RequestTemplate getRequestTemplate()
+		{
+			return requestTemplate;
 		}
 		
 		/**
@@ -315,6 +404,9 @@ public class ApiTestInfo {
 				if (varList != null && varList.length() > 0) {
 					for (int i = 0; i < varList.length(); i++) {
 						String str = varList.getString(i);
+						if (str.indexOf("=") == -1) {
+							throw new IllegalArgumentException("Variable '" + str + "' is not in the form name=value");
+						}
 						String variableName = varList.getString(i).substring(0, str.indexOf("="));
 						String variableValue = varList.getString(i).substring(str.indexOf("=") + 1, str.length());
 						if (variableName != null && variableName.trim().length() > 0) {
@@ -326,6 +418,7 @@ public class ApiTestInfo {
 					}
 				}
 			}
+			updateResponseExtractor();
 		}
 	
 		
@@ -340,6 +433,44 @@ public class ApiTestInfo {
 		public void setTestCondition(String testCondition)
 		{
 			this.testCondition = testCondition;
+			this.testConditionTemplate = RequestTemplate.compile(testCondition);
+			this.testConditionExpression = null;
+			this.testConditionError = null;
+			if (testCondition != null && testCondition.trim().length() > 0) {
+				try {
+					this.testConditionExpression = ConditionExpression.compile(testCondition);
+				} catch (IllegalArgumentException e) {
+					// Reported when the call is evaluated, the condition can still be run by the script engine
+					this.testConditionError = e.getMessage();
+				}
+			}
+		}
+		
+		/**
+		 * Returns the compiled test condition
+		 * @return {@link RequestTemplate}
+		 */
+		public RequestTemplate getTestConditionTemplate()
+		{
+			return testConditionTemplate;
+		}
+		
+		/**
+		 * Returns the parsed test condition
+		 * @return {@link ConditionExpression}, null if there is no condition or it is not valid
+		 */
+		public ConditionExpression getTestConditionExpression()
+		{
+			return testConditionExpression;
+		}
+		
+		/**
+		 * Returns the error of parsing the test condition
+		 * @return null if the condition is valid
+		 */
+		public String getTestConditionError()
+		{
+			return testConditionError;
 		}
 		
 		/**
@@ -358,6 +489,88 @@ public class ApiTestInfo {
 		public void setCompareResponse(boolean compareResponse)
 		{
 			this.compareResponse = compareResponse;
+			updateResponseExtractor();
+		}
+		
+		/**
+		 * Checks whether the white spaces of the response are compared as they are
+		 * @return
+		 */
+		public boolean isCompareWhitespace()
+		{
+			return compareWhitespace;
+		}
+		
+		/**
+		 * Comparing the white spaces of the response as they are.
+		 * <br>
+		 * By default tabs and line breaks of the response are compared as spaces.
+		 * @param compareWhitespace
+		 */
+		public void setCompareWhitespace(boolean compareWhitespace)
+		{
+			this.compareWhitespace = compareWhitespace;
+		}
+		
+		/**
+		 * Checks whether the variables are extracted while reading the response
+		 * @return
+		 */
+		public boolean isStreamResponse()
+		{
+			return streamResponse;
+		}
+		
+		/**
+		 * Extracting the variables while reading the response, without keeping the response.
+		 * <br>
+		 * Used only if all the JSON paths or XPaths of the variables are simple (see {@link StreamingExtractor})
+		 * and the response is not needed otherwise, i.e. it is not compared or logged by TEST_DETAILS.
+		 * The response is read completely in other cases.
+		 * @param streamResponse
+		 */
+		public void setStreamResponse(boolean streamResponse)
+		{
+			this.streamResponse = streamResponse;
+			updateResponseExtractor();
+		}
+		
+		/**
+		 * Returns the extractor of the variables, if the response is streamed
+		 * @return {@link StreamingExtractor}, null if the response is read completely
+		 */
+		public StreamingExtractor getResponseExtractor()
+		{
+			return responseExtractor;
+		}
+		
+		private void updateResponseExtractor()
+		{
+			responseExtractor = null;
+			if (!streamResponse || compareResponse
+					|| (logMessage != null && logMessage.trim().equalsIgnoreCase(ApiTestConstants.PROPERTY_TEST_DETAILS))) {
+				return;
+			}
+			
+			List<String> paths = new ArrayList<>();
+			for (VariableInfo varInfo : variableList) {
+				String variableValue = varInfo.getVariableValue();
+				if (DataUtil.getVariableValueType(variableValue) == VARIABLE_VALUE_TYPE.CONSTANT) {
+					continue;
+				}
+				if (!StreamingExtractor.isStreamable(variableValue)) {
+					return;
+				}
+				paths.add(variableValue);
+			}
+			if (paths.isEmpty()) {
+				return;
+			}
+			try {
+				responseExtractor = StreamingExtractor.compile(paths);
+			} catch (IllegalArgumentException e) {
+				// JSON paths and XPaths mixed
+			}
 		}
 		
 		/**
@@ -418,6 +631,9 @@ public class ApiTestInfo {
 				if (headerList != null && headerList.length() > 0) {
 					for (int i = 0; i < headerList.length(); i++) {
 						String str = headerList.getString(i);
+						if (str.indexOf("=") == -1) {
+							throw new IllegalArgumentException("Header '" + str + "' is not in the form name=value");
+						}
 						String headerKey = headerList.getString(i).substring(0, str.indexOf("="));
 						String headerValue = headerList.getString(i).substring(str.indexOf("=") + 1, str.length());
 						
@@ -432,6 +648,26 @@ public class ApiTestInfo {
 					}
 				}
 			}
+			headerSet = HeaderSet.of(headers);
+		}
+		
+		/**
+		 * Returns the headers of the API call compiled into a {@link HeaderSet}
+		 * @return {@link HeaderSet}, empty if the API call has no headers
+		 */
+		public HeaderSet getHeaderSet()
+		{
+			return headerSet;
+		}
+		
+		/**
+		 * Returns the headers of a request of the API call, its headers replace the base headers with the same name
+		 * @param baseHeaders Headers of the rest util
+		 * @return {@link HeaderSet}, the same instance while the base headers don't change
+		 */
+		public HeaderSet getRequestHeaders(HeaderSet baseHeaders)
+		{
+			return baseHeaders.merge(headerSet);
 		}
 		
 		/**
@@ -451,6 +687,17 @@ public class ApiTestInfo {
 		public void setLogMessage(String logMessage)
 		{
 			this.logMessage = logMessage;
+			this.logMessageTemplate = RequestTemplate.compile(logMessage != null ? logMessage.trim() : null);
+			updateResponseExtractor();
+		}
+		
+		/**
+		 * Returns the compiled log message
+		 * @return {@link RequestTemplate}
+		 */
+		public RequestTemplate getLogMessageTemplate()
+		{
+			return logMessageTemplate;
 		}
 
 	}
@@ -507,6 +754,9 @@ public class ApiTestInfo {
 		private Long testSuiteId = null;
 		private Long testClassId = null;
 		private PerformanceTracker performanceTracker;
+		private VariableStore variableStore;
+		private AtomicInteger pendingApiCalls;
+		private final Map<Long, ApiCallExecutor> startedPolls = new ConcurrentHashMap<>();
 		
 		/**
 		 * Returns current test class id, useful in finding current testsuite
@@ -549,6 +799,54 @@ public class ApiTestInfo {
 		{
 			this.performanceTracker = performanceTracker;
 		}
+		
+		/**
+		 * Returns the variables declared by the test class, when they are kept out of the suite variables
+		 * @return {@link VariableStore} of {@link VariableStore.Scope#FILE} scope, null if the variables are stored in the suite
+		 */
+		public VariableStore getVariableStore()
+		{
+			return variableStore;
+		}
+
+		public void setVariableStore(VariableStore variableStore)
+		{
+			this.variableStore = variableStore;
+		}
+		
+		/**
+		 * Returns the number of API calls yet to finish, while the calls are run in parallel
+		 * @return Pending call count, null if the calls are run one after another
+		 */
+		public AtomicInteger getPendingApiCalls()
+		{
+			return pendingApiCalls;
+		}
+
+		public void setPendingApiCalls(AtomicInteger pendingApiCalls)
+		{
+			this.pendingApiCalls = pendingApiCalls;
+		}
+
+		/**
+		 * Keeping the executor of an API call whose poll is started by the runner, before the test of the call is run
+		 * @param apiCallId
+		 * @param apiCallExecutor
+		 */
+		public void putStartedPoll(Long apiCallId, ApiCallExecutor apiCallExecutor)
+		{
+			startedPolls.put(apiCallId, apiCallExecutor);
+		}
+
+		/**
+		 * Returns the executor of an API call whose poll is started by the runner, the executor is removed
+		 * @param apiCallId
+		 * @return {@link ApiCallExecutor}, null if the poll of the call is not started
+		 */
+		public ApiCallExecutor takeStartedPoll(Long apiCallId)
+		{
+			return startedPolls.remove(apiCallId);
+		}
 
 
 	}
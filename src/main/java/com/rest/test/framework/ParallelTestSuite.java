@@ -0,0 +1,80 @@
+package com.rest.test.framework;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Test;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+
+import com.rest.test.framework.util.ThreadUtil;
+
+/**
+ * Test suite running its tests concurrently on a bounded thread pool.
+ * <br>
+ * Used by {@link RestApiBaseTestSuite} to run independent property files in parallel,
+ * the suite returns after all of its tests are finished.
+ * @author SrinivasDonapati
+ *
+ */
+public class ParallelTestSuite extends TestSuite {
+	private static final AtomicInteger suiteCount = new AtomicInteger();
+
+	private final int maxParallelTests;
+	private final boolean isVirtualThreads;
+
+	/**
+	 * @param maxParallelTests Maximum number of tests running at the same time
+	 */
+	public ParallelTestSuite(int maxParallelTests) {
+		this(maxParallelTests, false);
+	}
+
+	/**
+	 * @param maxParallelTests Maximum number of tests running at the same time
+	 * @param isVirtualThreads Runs the tests on virtual threads, if the JVM supports them
+	 */
+	public ParallelTestSuite(int maxParallelTests, boolean isVirtualThreads) {
+		this.maxParallelTests = Math.max(1, maxParallelTests);
+		this.isVirtualThreads = isVirtualThreads;
+	}
+
+	@Override
+	public void run(final TestResult result) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxParallelTests, Math.max(1, testCount())),
+				ThreadUtil.newThreadFactory("RestApiTest-" + suiteCount.incrementAndGet(), isVirtualThreads));
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (Enumeration<Test> e = tests(); e.hasMoreElements();) {
+				final Test test = e.nextElement();
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						if (!result.shouldStop()) {
+							runTest(test, result);
+						}
+					}
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					result.stop();
+					return;
+				} catch (Exception e) {
+					result.addError(this, e.getCause() != null ? e.getCause() : e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package com.rest.test.framework;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delays between the attempts of a polled API call (API_POLL).
+ * <br>
+ * <li>The first attempts are sent after a short, fixed interval, so operations finishing quickly are noticed quickly</li>
+ * <li>Then the interval grows exponentially up to the maximum interval (POLL_INTERVAL)</li>
+ * <li>Each delay is shortened by a random part (jitter), so calls started together don't keep polling together</li>
+ * <li>Attempts are sent until the poll duration (POLL_TIME) is over, the last one at the end of the duration</li>
+ * <br>
+ * Jitter only shortens the delays, an attempt is never sent later than the maximum interval after the previous one.
+ * @author SrinivasDonapati
+ *
+ */
+public class PollSchedule {
+	public static final long DEFAULT_POLL_DURATION = 300 * 1000;
+	public static final long DEFAULT_POLL_INTERVAL = 5 * 1000;
+	public static final int DEFAULT_FAST_POLL_ATTEMPTS = 3;
+	public static final long DEFAULT_FAST_POLL_INTERVAL = 250;
+	public static final long DEFAULT_INITIAL_INTERVAL = 500;
+	public static final double DEFAULT_MULTIPLIER = 2;
+	public static final double DEFAULT_JITTER = 0.2;
+
+	private final long duration;
+	private final int fastPollAttempts;
+	private final long fastPollInterval;
+	private final long initialInterval;
+	private final long maxInterval;
+	private final double multiplier;
+	private final double jitter;
+
+	private PollSchedule(final Builder builder) {
+		this.duration = builder.duration;
+		this.fastPollAttempts = builder.fastPollAttempts;
+		this.maxInterval = builder.maxInterval;
+		// Intervals of the fast poll and the backoff never exceed the maximum interval
+		this.fastPollInterval = Math.min(builder.fastPollInterval, builder.maxInterval);
+		this.initialInterval = Math.min(builder.initialInterval, builder.maxInterval);
+		this.multiplier = builder.multiplier;
+		this.jitter = builder.jitter;
+	}
+
+	/**
+	 * Returns the schedule polling after the same interval, as older versions did
+	 * @param duration Time in milliseconds
+	 * @param interval Time in milliseconds
+	 * @return {@link PollSchedule}
+	 */
+	public static PollSchedule fixed(long duration, long interval) {
+		return new Builder().setDuration(duration).setMaxInterval(interval)
+				.setFastPollAttempts(0).setInitialInterval(interval).setMultiplier(1).setJitter(0).build();
+	}
+
+	/**
+	 * Returns the schedule with the default fast poll, backoff and jitter
+	 * @param duration Time in milliseconds
+	 * @param maxInterval Time in milliseconds
+	 * @return {@link PollSchedule}
+	 */
+	public static PollSchedule backoff(long duration, long maxInterval) {
+		return new Builder().setDuration(duration).setMaxInterval(maxInterval).build();
+	}
+
+	/**
+	 * Returns the delay before the next attempt
+	 * @param attempts Number of attempts sent so far
+	 * @return Time in milliseconds
+	 */
+	public long getDelay(int attempts) {
+		long delay;
+		if (attempts <= fastPollAttempts) {
+			delay = fastPollInterval;
+		} else {
+			double backoff = initialInterval * Math.pow(multiplier, attempts - fastPollAttempts - 1);
+			delay = (long) Math.min(maxInterval, backoff);
+		}
+		if (jitter > 0 && delay > 0) {
+			delay -= (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+		}
+		return delay;
+	}
+
+	/**
+	 * Returns the time attempts are sent for
+	 * @return Time in milliseconds
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	public int getFastPollAttempts() {
+		return fastPollAttempts;
+	}
+
+	public long getFastPollInterval() {
+		return fastPollInterval;
+	}
+
+	public long getInitialInterval() {
+		return initialInterval;
+	}
+
+	public long getMaxInterval() {
+		return maxInterval;
+	}
+
+	public double getMultiplier() {
+		return multiplier;
+	}
+
+	public double getJitter() {
+		return jitter;
+	}
+
+	@Override
+	public String toString() {
+		return "PollSchedule[duration=" + duration + ", fastPollAttempts=" + fastPollAttempts
+				+ ", fastPollInterval=" + fastPollInterval + ", initialInterval=" + initialInterval
+				+ ", maxInterval=" + maxInterval + ", multiplier=" + multiplier + ", jitter=" + jitter + "]";
+	}
+
+	/**
+	 * Builder of poll schedule
+	 * @author SrinivasDonapati
+	 */
+	public static class Builder {
+		private long duration = DEFAULT_POLL_DURATION;
+		private int fastPollAttempts = DEFAULT_FAST_POLL_ATTEMPTS;
+		private long fastPollInterval = DEFAULT_FAST_POLL_INTERVAL;
+		private long initialInterval = DEFAULT_INITIAL_INTERVAL;
+		private long maxInterval = DEFAULT_POLL_INTERVAL;
+		private double multiplier = DEFAULT_MULTIPLIER;
+		private double jitter = DEFAULT_JITTER;
+
+		/**
+		 * Setting the time attempts are sent for
+		 * @param duration Time in milliseconds
+		 * @return
+		 */
+		public Builder setDuration(long duration) {
+			this.duration = duration;
+			return this;
+		}
+
+		/**
+		 * Setting the number of attempts sent after the fast poll interval, before the backoff starts
+		 * @param fastPollAttempts
+		 * @return
+		 */
+		public Builder setFastPollAttempts(int fastPollAttempts) {
+			this.fastPollAttempts = fastPollAttempts;
+			return this;
+		}
+
+		/**
+		 * Setting the interval of the fast poll
+		 * @param fastPollInterval Time in milliseconds
+		 * @return
+		 */
+		public Builder setFastPollInterval(long fastPollInterval) {
+			this.fastPollInterval = fastPollInterval;
+			return this;
+		}
+
+		/**
+		 * Setting the first interval of the backoff
+		 * @param initialInterval Time in milliseconds
+		 * @return
+		 */
+		public Builder setInitialInterval(long initialInterval) {
+			this.initialInterval = initialInterval;
+			return this;
+		}
+
+		/**
+		 * Setting the maximum interval between two attempts
+		 * @param maxInterval Time in milliseconds
+		 * @return
+		 */
+		public Builder setMaxInterval(long maxInterval) {
+			this.maxInterval = maxInterval;
+			return this;
+		}
+
+		/**
+		 * Setting the factor the interval grows by after each attempt of the backoff, 1 for a fixed interval
+		 * @param multiplier
+		 * @return
+		 */
+		public Builder setMultiplier(double multiplier) {
+			this.multiplier = multiplier;
+			return this;
+		}
+
+		/**
+		 * Setting the part of each delay which is random, 0 for no jitter
+		 * @param jitter Between 0 and 1
+		 * @return
+		 */
+		public Builder setJitter(double jitter) {
+			this.jitter = jitter;
+			return this;
+		}
+
+		/**
+		 * Builds the poll schedule
+		 * @return {@link PollSchedule}
+		 * @throws IllegalArgumentException if a value is out of range
+		 */
+		public PollSchedule build() {
+			if (duration < 0) {
+				throw new IllegalArgumentException("Invalid poll duration : " + duration);
+			}
+			if (maxInterval < 0 || fastPollInterval < 0 || initialInterval < 0) {
+				throw new IllegalArgumentException("Invalid poll interval : " + Math.min(maxInterval, Math.min(fastPollInterval, initialInterval)));
+			}
+			if (fastPollAttempts < 0) {
+				throw new IllegalArgumentException("Invalid fast poll attempts : " + fastPollAttempts);
+			}
+			if (multiplier < 1) {
+				throw new IllegalArgumentException("Invalid poll multiplier : " + multiplier);
+			}
+			if (jitter < 0 || jitter > 1) {
+				throw new IllegalArgumentException("Invalid poll jitter : " + jitter);
+			}
+			return new PollSchedule(this);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.rest.test.framework;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs polls on the {@link StepTimer} shared by all the suites and virtual users of the JVM.
+ * <br>
+ * <li>No thread is held between the attempts of a poll, the next attempt is scheduled on the timer</li>
+ * <li>Attempts are sent asynchronously, the response is checked on a worker thread of the timer once it's received</li>
+ * <li>Only the check of the attempt is run for each response, the caller evaluates the response which satisfied it</li>
+ * <br>
+ * The timer thread only schedules the attempts, transports without asynchronous requests send them on the worker threads.
+ * @author SrinivasDonapati
+ *
+ */
+public class PollScheduler {
+	/**
+	 * A single attempt of a poll
+	 * @param <T> Result of the attempt
+	 */
+	public interface Attempt<T> {
+		/**
+		 * Sending the attempt
+		 * @return Future completed with the result of the attempt
+		 */
+		CompletableFuture<T> send();
+
+		/**
+		 * Checking the result of the attempt
+		 * @param result
+		 * @throws AssertionError if the poll has to go on
+		 */
+		void check(T result);
+	}
+
+	/**
+	 * Starting a poll, the first attempt is sent on the calling thread
+	 * @param attempt
+	 * @param schedule Delays between the attempts
+	 * @return Future completed with the first result passing the check,
+	 * or with the {@link AssertionError} of the last check once the poll duration is over.
+	 * Cancelling it stops the poll.
+	 */
+	public static <T> CompletableFuture<T> poll(Attempt<T> attempt, PollSchedule schedule) {
+		PollRun<T> pollRun = new PollRun<>(attempt, schedule);
+		pollRun.run();
+		return pollRun.result;
+	}
+
+	/**
+	 * Waiting for the result of a poll, the poll is stopped if the thread is interrupted
+	 * @param poll
+	 * @return
+	 * @throws Exception thrown by the attempt
+	 */
+	public static <T> T await(CompletableFuture<T> poll) throws Exception {
+		try {
+			return poll.get();
+		} catch (InterruptedException e) {
+			poll.cancel(false);
+			throw e;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * State of a running poll, scheduled on the timer for each attempt
+	 */
+	private static class PollRun<T> implements Runnable, BiConsumer<T, Throwable> {
+		private final Attempt<T> attempt;
+		private final PollSchedule schedule;
+		private final long deadline;
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+		private int attempts;
+		private AssertionError lastError;
+
+		PollRun(Attempt<T> attempt, PollSchedule schedule) {
+			this.attempt = attempt;
+			this.schedule = schedule;
+			this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(schedule.getDuration());
+		}
+
+		/**
+		 * Sending the next attempt, the response is handled by {@code accept}
+		 */
+		@Override
+		public void run() {
+			if (result.isDone()) {
+				return;
+			}
+			attempts++;
+			try {
+				attempt.send().whenCompleteAsync(this, StepTimer.getExecutor());
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		@Override
+		public void accept(T response, Throwable error) {
+			if (result.isDone()) {
+				return;
+			}
+			if (error != null) {
+				result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+				return;
+			}
+			try {
+				attempt.check(response);
+				result.complete(response);
+			} catch (AssertionError e) {
+				lastError = e;
+				scheduleNext();
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		private void scheduleNext() {
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining <= 0) {
+				result.completeExceptionally(lastError);
+				return;
+			}
+			// The last attempt is sent at the end of the poll duration
+			long delay = Math.min(schedule.getDelay(attempts), remaining);
+			if (!result.isDone()) {
+				StepTimer.schedule(this, delay, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+}
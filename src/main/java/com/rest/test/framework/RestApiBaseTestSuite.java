@@ -2,19 +2,19 @@ package com.rest.test.framework;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.net.CookieHandler;
-import java.net.CookieManager;
-import java.net.CookiePolicy;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.JUnit4TestAdapter;
+import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.junit.runner.RunWith;
@@ -23,8 +23,12 @@ import org.junit.runners.Parameterized.Parameters;
 
 import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
 import com.rest.test.framework.ApiTestInfo.RunTimeTestInfo;
+import com.rest.test.framework.load.LoadTest;
+import com.rest.test.framework.load.LoadTestConfiguration;
+import com.rest.test.framework.network.ResponseMemoryBudget;
 import com.rest.test.framework.network.RestNetworkUtil;
 import com.rest.test.framework.util.PerformanceTracker;
+import com.rest.test.framework.util.TestPlanValidator;
 
 /**
  * This is the base class used for creating test suites. <br>
@@ -59,19 +63,20 @@ import com.rest.test.framework.util.PerformanceTracker;
 @RunWith(AllTests.class)
 public class RestApiBaseTestSuite {
 	private static RestApiBaseTestSuite testSuite = null;
-	private static Map<Long, RestApiBaseTestSuite> suiteMap = new HashMap<>();
+	private static final Map<Long, RestApiBaseTestSuite> suiteMap = new ConcurrentHashMap<>();
 	
 	private RestNetworkUtil restUtil;
 	private List<ApiTestInfo> apiTestList = new ArrayList<>();
-	private Map<String, String> suiteVariableMap = new HashMap<String, String>();
+	private final VariableStore suiteVariables = new VariableStore(VariableStore.Scope.SUITE);
 	
 	private List<Object> testList;
 	private List<String> propertyFileList;
 	
-	private int propertyFileTestCount = 0;
-	private int apiTestCount = 0;
+	private AtomicInteger apiTestCount = new AtomicInteger();
+	private AtomicInteger completedTestCount = new AtomicInteger();
 	
 	private RestAuthenticator restAuthenticator;
+	private RestSuiteConfiguration suiteConfiguration;
 
 	/**
 	 * Initializing the test suite
@@ -91,8 +96,8 @@ public class RestApiBaseTestSuite {
 		if (testSuite != null) {
 			RestNetworkUtil restUtil = new RestNetworkUtil();
 			testSuite.restUtil = restUtil;
-			testSuite.propertyFileTestCount = 0;
-			testSuite.apiTestCount = 0;
+			testSuite.apiTestCount.set(0);
+			testSuite.completedTestCount.set(0);
 			testSuite.testList = testList;
 		}
 	}
@@ -109,15 +114,29 @@ public class RestApiBaseTestSuite {
 		Long suiteId = addTestSuite(testSuite);
 		
 		testSuite.propertyFileList = new ArrayList();
+		for (Object test : testSuite.testList) {
+			if (test instanceof String) {
+				testSuite.propertyFileList.add(test.toString());
+			}
+		}
 		
-		TestSuite suite = new TestSuite();
+		// Compiling all the property files in parallel, the tests below use the compiled files
+		TestPlanValidator validator = new TestPlanValidator(Thread.currentThread().getContextClassLoader());
+		List<String> errors = validator.load(testSuite.propertyFileList);
+		if (!errors.isEmpty()) {
+			throw new AssertionError(TestPlanValidator.getErrorMessage(errors));
+		}
+		
+		List<Test> tests = new ArrayList<>();
 		for (int i = 0; i < testSuite.testList.size(); i++) {
 			if (testSuite.testList.get(i) instanceof String) {
-				testSuite.propertyFileList.add(testSuite.testList.get(i).toString());
-				suite.addTest(new JUnit4TestAdapter(PropertyTester.class));
+				String propertyFile = testSuite.testList.get(i).toString();
+				// Property file is read while creating the adapter
+				RestApiBaseTest.setPropertyFile(propertyFile);
+				tests.add(new JUnit4TestAdapter(PropertyTester.class));
 			} else {
 				Class test = (Class) testSuite.testList.get(i);
-				suite.addTest(new JUnit4TestAdapter(test));
+				tests.add(new JUnit4TestAdapter(test));
 			}
 			
 			ApiTestInfo apiTestInfo = RestApiBaseTest.getApiTestInfo();	
@@ -128,10 +147,73 @@ public class RestApiBaseTestSuite {
 		}
 		
 		// Setting up test suite
-		if (testSuite != null) {
-			testSuite.setUpSuite();
+		testSuite.setUpSuite();
+		testSuite.validateTests(validator);
+		
+		return testSuite.buildTestSuite(tests);
+	}
+	
+	/**
+	 * Validating the API calls of the property files, once the suite variables are set by {@code setUpSuite}.
+	 * <br>
+	 * Variables are checked only if all the tests are property files, custom test classes may set any variable.
+	 * @param validator Validator with the compiled property files
+	 */
+	private void validateTests(TestPlanValidator validator) {
+		if (suiteConfiguration != null && !suiteConfiguration.isTestValidation()) {
+			return;
+		}
+		boolean isScriptEngineConditions = suiteConfiguration != null && suiteConfiguration.isScriptEngineConditions();
+		boolean isVariableCheck = propertyFileList.size() == testList.size();
+		// Parallel files and load tests store the variables of a file in its own scope
+		boolean isFileVariables = suiteConfiguration != null
+				&& (suiteConfiguration.isParallelTests() || suiteConfiguration.getLoadTestConfiguration() != null);
+		List<String> errors = validator.validate(suiteVariables.getVariables().keySet(), isScriptEngineConditions, isVariableCheck,
+				isFileVariables);
+		if (!errors.isEmpty()) {
+			tearDownSuite();
+			throw new AssertionError(TestPlanValidator.getErrorMessage(errors));
 		}
+	}
+	
+	/**
+	 * Adding the tests to JUNIT test suite.<br>
+	 * In parallel mode consecutive property files are grouped into a {@link ParallelTestSuite},
+	 * and each of them gets its own variable map.
+	 * In load test mode property files are run by {@link LoadTest}.
+	 * @param tests
+	 * @return
+	 */
+	private TestSuite buildTestSuite(List<Test> tests) {
+		TestSuite suite = new TestSuite();
+		boolean isParallel = suiteConfiguration != null && suiteConfiguration.isParallelTests();
+		LoadTestConfiguration loadTestConfiguration = suiteConfiguration != null
+				? suiteConfiguration.getLoadTestConfiguration() : null;
 		
+		ParallelTestSuite parallelSuite = null;
+		for (int i = 0; i < tests.size(); i++) {
+			if (loadTestConfiguration != null && testList.get(i) instanceof String) {
+				tests.set(i, new LoadTest(this, apiTestList.get(i), loadTestConfiguration));
+			}
+			
+			if (!isParallel) {
+				suite.addTest(tests.get(i));
+				continue;
+			}
+			
+			if (testList.get(i) instanceof String) {
+				if (parallelSuite == null) {
+					parallelSuite = new ParallelTestSuite(suiteConfiguration.getMaxParallelTests(),
+							suiteConfiguration.isVirtualThreads());
+					suite.addTest(parallelSuite);
+				}
+				apiTestList.get(i).getRunTimeTestInfo().setVariableStore(suiteVariables.newChild(VariableStore.Scope.FILE));
+				parallelSuite.addTest(tests.get(i));
+			} else {
+				parallelSuite = null;
+				suite.addTest(tests.get(i));
+			}
+		}
 		return suite;
 	}
 	
@@ -141,6 +223,25 @@ public class RestApiBaseTestSuite {
 	 */
 	public final void initConfig(RestSuiteConfiguration config)
 	{
+		this.suiteConfiguration = config;
+		
+		ResponseMemoryBudget memoryBudget = ResponseMemoryBudget.getDefault();
+		if(config.getResponseMemoryLimit() >= 0) {
+			memoryBudget.setResponseLimit(config.getResponseMemoryLimit());
+		}
+		if(config.getTotalResponseMemoryLimit() >= 0) {
+			memoryBudget.setTotalLimit(config.getTotalResponseMemoryLimit());
+		}
+		if(config.getResponseSpillLocation() != null && config.getResponseSpillLocation().trim().length() > 0) {
+			File spillDirectory = new File(config.getResponseSpillLocation().trim());
+			spillDirectory.mkdirs();
+			memoryBudget.setSpillDirectory(spillDirectory);
+		}
+		
+		if(config.getRestTransport() != null) {
+			getRestUtil().setTransport(config.getRestTransport());
+		}
+		
 		if(config.getBaseUrl() != null) {
 			getRestUtil().setBaseUrl(config.getBaseUrl());
 		}
@@ -174,8 +275,7 @@ public class RestApiBaseTestSuite {
 
 		@Parameters(name = "{0}")
 		public static Collection<Object[]> data() throws Exception{
-			setPropertyFile(testSuite.propertyFileList.get(testSuite.propertyFileTestCount++));
-			
+			// Property file is passed by the test suite, before creating the test
 			return RestApiBaseTest.data();
 		}
 	}
@@ -186,7 +286,7 @@ public class RestApiBaseTestSuite {
 	 * @return Variable value
 	 */
 	public String getVariableValue(String variableName) {
-		return suiteVariableMap.get(variableName);
+		return suiteVariables.getVariableValue(variableName);
 	}
 
 	/**
@@ -196,33 +296,72 @@ public class RestApiBaseTestSuite {
 	 * @return
 	 */
 	public String setVariableValue(String variableName, String variableValue) {
-		return suiteVariableMap.put(variableName, variableValue);
+		return suiteVariables.setVariableValue(variableName, variableValue);
+	}
+	
+	/**
+	 * Returns the variable value visible to the test class, test class's variables are looked up before suite variables
+	 * @param apiTestInfo Test class info
+	 * @param variableName
+	 * @return Variable value
+	 */
+	public String getVariableValue(ApiTestInfo apiTestInfo, String variableName) {
+		return getVariableStore(apiTestInfo).getVariableValue(variableName);
+	}
+	
+	/**
+	 * Storing variable declared by the test class, in test class's variables if it has them, otherwise in suite
+	 * @param apiTestInfo Test class info
+	 * @param variableName
+	 * @param variableValue
+	 * @return
+	 */
+	public String setVariableValue(ApiTestInfo apiTestInfo, String variableName, String variableValue) {
+		return getVariableStore(apiTestInfo).setVariableValue(variableName, variableValue);
+	}
+	
+	/**
+	 * Returns the variables of the test class, the suite variables if the test class doesn't have its own
+	 * @param apiTestInfo Test class info
+	 * @return {@link VariableStore}
+	 */
+	public VariableStore getVariableStore(ApiTestInfo apiTestInfo) {
+		RunTimeTestInfo runTimeTestInfo = apiTestInfo.getRunTimeTestInfo();
+		VariableStore variableStore = runTimeTestInfo != null ? runTimeTestInfo.getVariableStore() : null;
+		return variableStore != null ? variableStore : suiteVariables;
+	}
+	
+	/**
+	 * Returns the variables of the suite, shared by all the tests
+	 * @return {@link VariableStore}
+	 */
+	public VariableStore getSuiteVariables() {
+		return suiteVariables;
 	}
 
 	/**
-	 * Returning all the variables
+	 * Returning the suite variables, changes made to the map are written through to the suite variables
 	 * @return Variable map
 	 */
 	public Map getVariableMap() {
-		return suiteVariableMap;
+		return suiteVariables.getVariables();
 	}
 	
 	/**
 	 * Clears all the variables stored
 	 */
 	public void clearVariables() {
-		suiteVariableMap.clear();
+		suiteVariables.clear();
 	}
 	
 	/**
 	 * Callback before running test suite
 	 */
 	public void setUpSuite() {
-		CookieHandler.setDefault( new CookieManager( null, CookiePolicy.ACCEPT_ALL ) );
 		if(restAuthenticator != null) {
 			try {
 				restAuthenticator.setRestUtil(restUtil);
-				restAuthenticator.setUp();
+				restAuthenticator.start();
 			} catch (Exception e) {
 				String assertionMessage =  "Error while setting up Authenticator !\n";
 				StringWriter errors = new StringWriter();
@@ -242,16 +381,20 @@ public class RestApiBaseTestSuite {
 		
 		if(restAuthenticator != null) {
 			try {
-				restAuthenticator.tearDown();
+				restAuthenticator.stop();
 			} catch (Exception e) {
 				String assertionMessage =  "Error while clearing up Authenticator !\n";
 				StringWriter errors = new StringWriter();
 				e.printStackTrace(new PrintWriter(errors));
 				String stackTrace = errors.toString();
 				assertionMessage += stackTrace;
+				restUtil.close();
 				assertTrue(assertionMessage, false);
 			}
 		}
+		
+		// Releasing the connections kept alive for the suite
+		restUtil.close();
 	}
 	
 	/**
@@ -259,7 +402,7 @@ public class RestApiBaseTestSuite {
 	 * @param apiTestInfo {@link ApiTestInfo}
 	 */
 	public void setUpClass(ApiTestInfo apiTestInfo) {
-		this.apiTestCount++;
+		this.apiTestCount.incrementAndGet();
 	}
 
 	/**
@@ -267,7 +410,8 @@ public class RestApiBaseTestSuite {
 	 * @param apiTestInfo {@link ApiTestInfo}
 	 */
 	public void tearDownClass(ApiTestInfo apiTestInfo) {
-		if (this.apiTestCount == this.testList.size()) {
+		// Test classes may finish in any order in parallel mode, suite is teared down after the last one
+		if (this.completedTestCount.incrementAndGet() == this.testList.size()) {
 			this.tearDownSuite();
 		}
 	}
@@ -278,7 +422,7 @@ public class RestApiBaseTestSuite {
 	 * @return {@link RestApiBaseTestSuite} instance
 	 */
 	public static RestApiBaseTestSuite getTestSuite(Long id) {
-		return suiteMap.get(id);
+		return id != null ? suiteMap.get(id) : null;
 	}
 	
 	/**
@@ -287,7 +431,7 @@ public class RestApiBaseTestSuite {
 	 * @return {@link RestApiBaseTestSuite} instance
 	 */
 	public static RestApiBaseTestSuite getTestSuite(ApiTestInfo apiTestInfo) {
-		return suiteMap.get(apiTestInfo.getRunTimeTestInfo().getTestSuiteId());
+		return getTestSuite(apiTestInfo.getRunTimeTestInfo().getTestSuiteId());
 	}
 	
 	/**
@@ -296,7 +440,7 @@ public class RestApiBaseTestSuite {
 	 * @return {@link RestApiBaseTestSuite} instance
 	 */
 	public static RestApiBaseTestSuite getTestSuite(ApiCallInfo apiCallInfo) {
-		return suiteMap.get(apiCallInfo.getApiTestInfo().getRunTimeTestInfo().getTestSuiteId());
+		return getTestSuite(apiCallInfo.getApiTestInfo());
 	}
 	
 	/**
@@ -307,10 +451,9 @@ public class RestApiBaseTestSuite {
 	 */
 	private static Long addTestSuite(RestApiBaseTestSuite suite) {
 		Long id = getRandomId();
-		while(suiteMap.containsKey(id)) {
+		while(suiteMap.putIfAbsent(id, suite) != null) {
 			id = getRandomId(); 
 		}
-		suiteMap.put(id, suite);
 		return id;
 	}
 	
@@ -337,4 +480,12 @@ public class RestApiBaseTestSuite {
 		return restUtil;
 	}
 	
+	/**
+	 * Returns the configuration passed through {@code initConfig}
+	 * @return {@link RestSuiteConfiguration}, null if the suite is not configured
+	 */
+	public RestSuiteConfiguration getConfiguration() {
+		return suiteConfiguration;
+	}
+	
 }
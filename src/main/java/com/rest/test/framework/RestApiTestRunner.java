@@ -0,0 +1,376 @@
+package com.rest.test.framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+import org.junit.runners.model.Statement;
+import org.junit.runners.parameterized.BlockJUnit4ClassRunnerWithParameters;
+import org.junit.runners.parameterized.ParametersRunnerFactory;
+import org.junit.runners.parameterized.TestWithParameters;
+
+import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.network.RestNetworkUtil.RestCallResponse;
+import com.rest.test.framework.util.ThreadUtil;
+
+/**
+ * JUNIT runner of {@link RestApiBaseTest}.
+ * <br>
+ * Runs the API calls of a test class one after another like {@link Parameterized}.
+ * If the suite enables parallel API calls, independent calls are run at the same time
+ * following the dependencies of {@link ApiCallGraph}.
+ * <br>
+ * WAIT_TIME of an API call is waited for before the test of the call is started, so it's not part of the test time.
+ * Parallel calls are submitted once their dependencies are finished and their wait is over on the {@link StepTimer},
+ * waiting calls don't hold a thread of the pool. The poll of a parallel call is started before the call is submitted,
+ * and its test evaluates the result once the poll is finished.
+ * @author SrinivasDonapati
+ *
+ */
+public class RestApiTestRunner extends Parameterized {
+	private static final RunnerScheduler SERIAL_SCHEDULER = new RunnerScheduler() {
+		@Override
+		public void schedule(Runnable childStatement) {
+			childStatement.run();
+		}
+
+		@Override
+		public void finished() {
+		}
+	};
+
+	private final List<Filter> filters = new ArrayList<>();
+	private boolean isSorted = false;
+	private volatile ApiCallRun currentRun = null;
+
+	public RestApiTestRunner(Class<?> klass) throws Throwable {
+		super(klass);
+	}
+
+	@Override
+	protected Statement childrenInvoker(final RunNotifier notifier) {
+		final Statement statement = super.childrenInvoker(notifier);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				ApiCallRun run = createRun();
+				if (run == null) {
+					statement.evaluate();
+					return;
+				}
+
+				currentRun = run;
+				setScheduler(run);
+				try {
+					statement.evaluate();
+				} finally {
+					currentRun = null;
+					setScheduler(SERIAL_SCHEDULER);
+					run.apiTestInfo.getRunTimeTestInfo().setPendingApiCalls(null);
+				}
+			}
+		};
+	}
+
+	@Override
+	protected void runChild(Runner runner, RunNotifier notifier) {
+		ApiCallRun run = currentRun;
+		if (run == null || !(runner instanceof ApiCallRunner)) {
+			if (runner instanceof ApiCallRunner) {
+				awaitWaitTime(((ApiCallRunner) runner).getApiCallInfo());
+			}
+			super.runChild(runner, notifier);
+			return;
+		}
+
+		ApiCallInfo apiCallInfo = ((ApiCallRunner) runner).getApiCallInfo();
+		try {
+			run.awaitDependencies(apiCallInfo);
+			if (!run.isWaitScheduled(apiCallInfo)) {
+				awaitWaitTime(apiCallInfo);
+			}
+			super.runChild(runner, notifier);
+		} finally {
+			run.finish(apiCallInfo);
+		}
+	}
+
+	/**
+	 * Waiting for the WAIT_TIME of an API call run one after another, the next calls of the file can't start before
+	 * @param apiCallInfo
+	 */
+	private static void awaitWaitTime(ApiCallInfo apiCallInfo) {
+		if (apiCallInfo == null || apiCallInfo.getWaitTime() <= 0) {
+			return;
+		}
+		try {
+			StepTimer.sleep(apiCallInfo.getWaitTime(), TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void filter(Filter filter) throws NoTestsRemainException {
+		super.filter(filter);
+		filters.add(filter);
+	}
+
+	@Override
+	public void sort(Sorter sorter) {
+		super.sort(sorter);
+		// Dependencies are only followed in declaration order
+		isSorted = true;
+	}
+
+	/**
+	 * Creating the run of parallel API calls, if the suite enables them
+	 * @return null if the API calls have to run one after another
+	 */
+	private ApiCallRun createRun() {
+		if (isSorted) {
+			return null;
+		}
+
+		List<ApiCallInfo> activeCalls = new ArrayList<>();
+		for (Runner child : getChildren()) {
+			if (!(child instanceof ApiCallRunner) || ((ApiCallRunner) child).getApiCallInfo() == null) {
+				return null;
+			}
+			if (shouldRun(child)) {
+				activeCalls.add(((ApiCallRunner) child).getApiCallInfo());
+			}
+		}
+		if (activeCalls.size() < 2) {
+			return null;
+		}
+
+		ApiTestInfo apiTestInfo = activeCalls.get(0).getApiTestInfo();
+		RestApiBaseTestSuite testSuite = RestApiBaseTestSuite.getTestSuite(apiTestInfo);
+		RestSuiteConfiguration config = testSuite != null ? testSuite.getConfiguration() : null;
+		if (config == null || !config.isParallelApiCalls()) {
+			return null;
+		}
+
+		return new ApiCallRun(apiTestInfo, activeCalls, config.getMaxParallelApiCalls(), config.isVirtualThreads());
+	}
+
+	private boolean shouldRun(Runner child) {
+		for (Filter filter : filters) {
+			if (!filter.shouldRun(describeChild(child))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A single run of the API calls of a test class, scheduling the calls on a bounded thread pool.
+	 * <br>
+	 * Calls are scheduled in declaration order, which is the order of the active calls, and only depend on earlier calls.
+	 * A call is submitted to the pool once its dependencies are finished and its WAIT_TIME is over,
+	 * so calls waiting for other calls or for their wait time don't hold a thread and the pool can't deadlock.
+	 */
+	private static class ApiCallRun implements RunnerScheduler {
+		private final ApiTestInfo apiTestInfo;
+		private final ApiCallGraph apiCallGraph;
+		private final List<ApiCallInfo> activeCalls;
+		private final Map<Long, CompletableFuture<Void>> finishedCalls = new HashMap<>();
+		private final Set<Long> scheduledWaits = new HashSet<>();
+		private final ExecutorService executor;
+		private final List<Future<?>> futures = new ArrayList<>();
+		private int scheduledCalls = 0;
+
+		ApiCallRun(ApiTestInfo apiTestInfo, List<ApiCallInfo> activeCalls, int maxParallelCalls, boolean isVirtualThreads) {
+			this.apiTestInfo = apiTestInfo;
+			this.apiCallGraph = new ApiCallGraph(apiTestInfo);
+			this.activeCalls = activeCalls;
+			for (ApiCallInfo apiCallInfo : activeCalls) {
+				finishedCalls.put(apiCallInfo.getId(), new CompletableFuture<Void>());
+			}
+			apiTestInfo.getRunTimeTestInfo().setPendingApiCalls(new AtomicInteger(activeCalls.size()));
+			executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxParallelCalls, activeCalls.size())),
+					ThreadUtil.newThreadFactory("RestApiTest-" + apiTestInfo.getTestName(), isVirtualThreads));
+		}
+
+		/**
+		 * Returns a future completed once the dependencies of the call are finished
+		 * @param apiCallInfo
+		 * @return
+		 */
+		private CompletableFuture<Void> getDependencies(ApiCallInfo apiCallInfo) {
+			List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+			for (Long dependency : apiCallGraph.getDependencies(apiCallInfo)) {
+				CompletableFuture<Void> finished = finishedCalls.get(dependency);
+				// Dependency is filtered out of this run otherwise
+				if (finished != null) {
+					dependencies.add(finished);
+				}
+			}
+			return CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[dependencies.size()]));
+		}
+
+		void awaitDependencies(ApiCallInfo apiCallInfo) {
+			try {
+				getDependencies(apiCallInfo).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// Calls are finished normally, even if their test failed
+			}
+		}
+
+		/**
+		 * Checks whether the WAIT_TIME of the call was waited for before submitting it
+		 * @param apiCallInfo
+		 * @return
+		 */
+		synchronized boolean isWaitScheduled(ApiCallInfo apiCallInfo) {
+			return scheduledWaits.contains(apiCallInfo.getId());
+		}
+
+		void finish(ApiCallInfo apiCallInfo) {
+			CompletableFuture<Void> finished = finishedCalls.get(apiCallInfo.getId());
+			if (finished != null) {
+				finished.complete(null);
+			}
+		}
+
+		@Override
+		public synchronized void schedule(final Runnable childStatement) {
+			if (scheduledCalls >= activeCalls.size()) {
+				futures.add(executor.submit(childStatement));
+				return;
+			}
+			final ApiCallInfo apiCallInfo = activeCalls.get(scheduledCalls++);
+			CompletableFuture<Void> ready = getDependencies(apiCallInfo);
+			if (apiCallInfo.getWaitTime() > 0) {
+				scheduledWaits.add(apiCallInfo.getId());
+				ready = ready.thenCompose(new Function<Void, CompletableFuture<Void>>() {
+					@Override
+					public CompletableFuture<Void> apply(Void result) {
+						return StepTimer.delay(apiCallInfo.getWaitTime(), TimeUnit.SECONDS);
+					}
+				});
+			}
+			if (apiCallInfo.isPoll() && !apiCallInfo.isFirstTest()) {
+				ready = ready.thenCompose(new Function<Void, CompletableFuture<Void>>() {
+					@Override
+					public CompletableFuture<Void> apply(Void result) {
+						return startPoll(apiCallInfo);
+					}
+				});
+			}
+			futures.add(ready.thenRunAsync(childStatement, executor));
+		}
+
+		/**
+		 * Starting the poll of a call before its test is submitted, so the call doesn't hold a thread of the pool while polling.
+		 * The test takes the result of the poll and evaluates it.<br>
+		 * The first call is polled by its test, as it sets up the test class.
+		 * @param apiCallInfo
+		 * @return Future completed once the poll is finished, whatever its result
+		 */
+		private CompletableFuture<Void> startPoll(ApiCallInfo apiCallInfo) {
+			RestApiBaseTestSuite testSuite = RestApiBaseTestSuite.getTestSuite(apiCallInfo);
+			if (testSuite == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			try {
+				ApiCallExecutor apiCallExecutor = RestApiBaseTest.newApiCallExecutor(testSuite, apiCallInfo,
+						ApiCallExecutor.nextRandomNumber(), ApiCallExecutor.nextSystemTime());
+				CompletableFuture<RestCallResponse> poll = apiCallExecutor.startPoll();
+				apiTestInfo.getRunTimeTestInfo().putStartedPoll(apiCallInfo.getId(), apiCallExecutor);
+				return poll.handle(new BiFunction<RestCallResponse, Throwable, Void>() {
+					@Override
+					public Void apply(RestCallResponse response, Throwable error) {
+						// Failed polls are reported by the test of the call
+						return null;
+					}
+				});
+			} catch (Exception | AssertionError e) {
+				// The call is polled by its test, which reports the error
+				apiTestInfo.getRunTimeTestInfo().takeStartedPoll(apiCallInfo.getId());
+				return CompletableFuture.completedFuture(null);
+			}
+		}
+
+		@Override
+		public void finished() {
+			try {
+				for (Future<?> future : getFutures()) {
+					try {
+						future.get();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		private synchronized List<Future<?>> getFutures() {
+			return new ArrayList<>(futures);
+		}
+	}
+
+	/**
+	 * Runner of a single API call, keeps the {@link ApiCallInfo} passed as test parameter
+	 */
+	public static class ApiCallRunner extends BlockJUnit4ClassRunnerWithParameters {
+		private final ApiCallInfo apiCallInfo;
+
+		public ApiCallRunner(TestWithParameters test) throws InitializationError {
+			super(test);
+			ApiCallInfo callInfo = null;
+			for (Object parameter : test.getParameters()) {
+				if (parameter instanceof ApiCallInfo) {
+					callInfo = (ApiCallInfo) parameter;
+				}
+			}
+			this.apiCallInfo = callInfo;
+		}
+
+		/**
+		 * Returns the API call run by this runner
+		 * @return {@link ApiCallInfo}
+		 */
+		public ApiCallInfo getApiCallInfo() {
+			return apiCallInfo;
+		}
+	}
+
+	/**
+	 * Factory creating {@link ApiCallRunner} for each API call
+	 */
+	public static class ApiCallRunnerFactory implements ParametersRunnerFactory {
+		@Override
+		public Runner createRunnerForTestWithParameters(TestWithParameters test) throws InitializationError {
+			return new ApiCallRunner(test);
+		}
+	}
+}
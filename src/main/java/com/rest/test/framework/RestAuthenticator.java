@@ -1,9 +1,14 @@
 package com.rest.test.framework;
 
+import com.rest.test.framework.network.CredentialCache;
 import com.rest.test.framework.network.RestNetworkUtil;
+import com.rest.test.framework.network.TokenProvider;
 
 /**
  * Base class for Authentication
+ * <br>
+ * An authenticator either adds the headers of its login to the rest util in {@code setUp},
+ * or returns a {@link TokenProvider} whose credential is cached, refreshed before it expires and added to each request.
  * @author SrinivasDonapati
  *
  */
@@ -13,6 +18,8 @@ public abstract class RestAuthenticator {
 	
 	public RestNetworkUtil restUtil = null;
 	
+	private CredentialCache credentialCache = null;
+	
 	/**
 	 * Returns currently used rest util
 	 * @return {@link RestNetworkUtil}
@@ -26,4 +33,65 @@ public abstract class RestAuthenticator {
 	{
 		this.restUtil = restUtil;
 	}
+	
+	/**
+	 * Returns the provider of the credential sent with each request, override it for tokens which expire
+	 * @return {@link TokenProvider}, null if the headers are added to the rest util by {@code setUp}
+	 */
+	public TokenProvider getTokenProvider()
+	{
+		return null;
+	}
+	
+	/**
+	 * Returns the refresh margin of the credential, the time before the expiry it's refreshed at
+	 * @return Time in milliseconds
+	 */
+	public long getRefreshMargin()
+	{
+		return CredentialCache.DEFAULT_REFRESH_MARGIN;
+	}
+	
+	/**
+	 * Returns the credential of the token provider
+	 * @return {@link CredentialCache}, null if there is no token provider or the authenticator is not started
+	 */
+	public CredentialCache getCredentialCache()
+	{
+		return credentialCache;
+	}
+	
+	/**
+	 * Setting up the authenticator, then fetching the first credential of the token provider,
+	 * so a failing login fails the setup instead of the first test
+	 * @throws Exception if the credential can't be fetched
+	 */
+	public void start() throws Exception
+	{
+		setUp();
+		TokenProvider tokenProvider = getTokenProvider();
+		if (tokenProvider != null) {
+			credentialCache = new CredentialCache(tokenProvider, restUtil, getRefreshMargin());
+			restUtil.setCredentialCache(credentialCache);
+			credentialCache.getCredential();
+		}
+	}
+	
+	/**
+	 * Tearing down the authenticator, the credential is not sent or refreshed anymore
+	 */
+	public void stop()
+	{
+		try {
+			tearDown();
+		} finally {
+			if (credentialCache != null) {
+				credentialCache.close();
+				if (restUtil != null && restUtil.getCredentialCache() == credentialCache) {
+					restUtil.setCredentialCache(null);
+				}
+				credentialCache = null;
+			}
+		}
+	}
 }
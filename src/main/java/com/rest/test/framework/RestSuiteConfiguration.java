@@ -1,5 +1,10 @@
 package com.rest.test.framework;
 
+import com.rest.test.framework.load.LoadTestConfiguration;
+import com.rest.test.framework.network.PooledHttpTransport;
+import com.rest.test.framework.network.ResponseMemoryBudget;
+import com.rest.test.framework.network.RestTransport;
+
 /**
  * This class is for setting Test suite configuration.
  * <br>
@@ -9,11 +14,27 @@ package com.rest.test.framework;
  */
 public class RestSuiteConfiguration
 {
+	private static final int DEFAULT_MAX_PARALLEL_TESTS = 8;
+	private static final int DEFAULT_MAX_PARALLEL_API_CALLS = 8;
+	
 	private String baseUrl;
 	private boolean trackPerformance;
 	private boolean appendPerformanceResults;
 	private String performanceRecordLocation;
 	private RestAuthenticator restAuthenticator;
+	private RestTransport restTransport;
+	private boolean parallelTests;
+	private int maxParallelTests;
+	private boolean parallelApiCalls;
+	private int maxParallelApiCalls;
+	private boolean virtualThreads;
+	private LoadTestConfiguration loadTestConfiguration;
+	private boolean scriptEngineConditions;
+	private long responseMemoryLimit;
+	private long totalResponseMemoryLimit;
+	private String responseSpillLocation;
+	private boolean testValidation;
+	private boolean adaptivePolling;
 
 	private RestSuiteConfiguration(final Builder builder) {
 		this.baseUrl = builder.baseUrl;
@@ -21,6 +42,19 @@ public class RestSuiteConfiguration
 		this.performanceRecordLocation = builder.performanceRecordLocation;
 		this.restAuthenticator = builder.restAuthenticator;
 		this.appendPerformanceResults = builder.appendPerformanceResults;
+		this.restTransport = builder.restTransport;
+		this.parallelTests = builder.parallelTests;
+		this.maxParallelTests = builder.maxParallelTests;
+		this.parallelApiCalls = builder.parallelApiCalls;
+		this.maxParallelApiCalls = builder.maxParallelApiCalls;
+		this.virtualThreads = builder.virtualThreads;
+		this.loadTestConfiguration = builder.loadTestConfiguration;
+		this.scriptEngineConditions = builder.scriptEngineConditions;
+		this.responseMemoryLimit = builder.responseMemoryLimit;
+		this.totalResponseMemoryLimit = builder.totalResponseMemoryLimit;
+		this.responseSpillLocation = builder.responseSpillLocation;
+		this.testValidation = builder.testValidation;
+		this.adaptivePolling = builder.adaptivePolling;
 	}
 	
 	/**
@@ -68,6 +102,123 @@ public class RestSuiteConfiguration
 		return restAuthenticator;
 	}
 	
+	/**
+	 * Returns the transport used for sending HTTP requests
+	 * @return
+	 */
+	public RestTransport getRestTransport()
+	{
+		return restTransport;
+	}
+	
+	/**
+	 * Checks whether the property files are run in parallel
+	 * @return Status of the parallel mode
+	 */
+	public boolean isParallelTests()
+	{
+		return parallelTests;
+	}
+
+	/**
+	 * Returns the maximum number of property files running at the same time in parallel mode
+	 * @return
+	 */
+	public int getMaxParallelTests()
+	{
+		return maxParallelTests;
+	}
+	
+	/**
+	 * Checks whether independent API calls of a property file are run in parallel
+	 * @return
+	 */
+	public boolean isParallelApiCalls()
+	{
+		return parallelApiCalls;
+	}
+
+	/**
+	 * Returns the maximum number of API calls of a property file running at the same time
+	 * @return
+	 */
+	public int getMaxParallelApiCalls()
+	{
+		return maxParallelApiCalls;
+	}
+	
+	/**
+	 * Checks whether parallel property files and API calls run on virtual threads
+	 * @return
+	 */
+	public boolean isVirtualThreads()
+	{
+		return virtualThreads;
+	}
+	
+	/**
+	 * Returns the load test configuration
+	 * @return {@link LoadTestConfiguration}, null if the property files are run as functional tests
+	 */
+	public LoadTestConfiguration getLoadTestConfiguration()
+	{
+		return loadTestConfiguration;
+	}
+	
+	/**
+	 * Checks whether test conditions are evaluated by the JavaScript script engine instead of the built-in expressions
+	 * @return
+	 */
+	public boolean isScriptEngineConditions()
+	{
+		return scriptEngineConditions;
+	}
+	
+	/**
+	 * Returns the maximum size of a response body kept in memory
+	 * @return Size in bytes, -1 if not set
+	 */
+	public long getResponseMemoryLimit()
+	{
+		return responseMemoryLimit;
+	}
+	
+	/**
+	 * Returns the maximum size of all the response bodies kept in memory
+	 * @return Size in bytes, -1 if not set
+	 */
+	public long getTotalResponseMemoryLimit()
+	{
+		return totalResponseMemoryLimit;
+	}
+	
+	/**
+	 * Returns the directory of the response bodies written to files
+	 * @return
+	 */
+	public String getResponseSpillLocation()
+	{
+		return responseSpillLocation;
+	}
+	
+	/**
+	 * Checks whether the API calls of the property files are validated before running the suite
+	 * @return
+	 */
+	public boolean isTestValidation()
+	{
+		return testValidation;
+	}
+	
+	/**
+	 * Checks whether polls back off up to POLL_INTERVAL instead of waiting POLL_INTERVAL between all the attempts
+	 * @return
+	 */
+	public boolean isAdaptivePolling()
+	{
+		return adaptivePolling;
+	}
+	
 	
 	/**
 	 * This builder class is used to pass test configuration
@@ -80,6 +231,19 @@ public class RestSuiteConfiguration
 		private boolean appendPerformanceResults;
 		private String performanceRecordLocation;
 		private RestAuthenticator restAuthenticator;
+		private RestTransport restTransport;
+		private boolean parallelTests;
+		private int maxParallelTests = DEFAULT_MAX_PARALLEL_TESTS;
+		private boolean parallelApiCalls;
+		private int maxParallelApiCalls = DEFAULT_MAX_PARALLEL_API_CALLS;
+		private boolean virtualThreads;
+		private LoadTestConfiguration loadTestConfiguration;
+		private boolean scriptEngineConditions;
+		private long responseMemoryLimit = -1;
+		private long totalResponseMemoryLimit = -1;
+		private String responseSpillLocation;
+		private boolean testValidation = true;
+		private boolean adaptivePolling = true;
 		
 		
 		/**
@@ -105,7 +269,9 @@ public class RestSuiteConfiguration
 		}
 
 		/**
-		 * Enabling/Disabling performance result append option
+		 * Enabling/Disabling performance result append option.<br>
+		 * Runs are appended to the binary performance log of each test class ({@code <test>.perf}),
+		 * use {@code PerformanceLog} to generate the CSV and HTML views of all the runs.
 		 * @param appendPerformanceResults
 		 * @return
 		 */
@@ -137,6 +303,175 @@ public class RestSuiteConfiguration
 			return this;
 		}
 		
+		/**
+		 * Passing the transport used for sending HTTP requests, {@link PooledHttpTransport} is used by default
+		 * @param restTransport
+		 * @return
+		 */
+		public Builder setRestTransport(RestTransport restTransport)
+		{
+			this.restTransport = restTransport;
+			return this;
+		}
+		
+		/**
+		 * Enabling/Disabling parallel mode.
+		 * <br>
+		 * Consecutive property files of the suite run concurrently, test classes passed to the suite run alone
+		 * and act as a barrier between them. Variables declared in a property file are visible only to that file,
+		 * suite variables stay shared between all the files.
+		 * @param parallelTests
+		 * @return
+		 */
+		public Builder setParallelTests(boolean parallelTests)
+		{
+			this.parallelTests = parallelTests;
+			return this;
+		}
+		
+		/**
+		 * Setting the maximum number of property files running at the same time in parallel mode
+		 * @param maxParallelTests
+		 * @return
+		 */
+		public Builder setMaxParallelTests(int maxParallelTests)
+		{
+			this.maxParallelTests = maxParallelTests;
+			return this;
+		}
+		
+		/**
+		 * Enabling/Disabling parallel API calls.
+		 * <br>
+		 * API calls of a property file, which don't depend on each other through TEST_VARS, run at the same time.
+		 * See {@link ApiCallGraph} for the dependency rules.
+		 * @param parallelApiCalls
+		 * @return
+		 */
+		public Builder setParallelApiCalls(boolean parallelApiCalls)
+		{
+			this.parallelApiCalls = parallelApiCalls;
+			return this;
+		}
+		
+		/**
+		 * Setting the maximum number of API calls of a property file running at the same time
+		 * @param maxParallelApiCalls
+		 * @return
+		 */
+		public Builder setMaxParallelApiCalls(int maxParallelApiCalls)
+		{
+			this.maxParallelApiCalls = maxParallelApiCalls;
+			return this;
+		}
+		
+		/**
+		 * Running parallel property files and API calls on virtual threads, if the JVM supports them (Java 21 or later).
+		 * <br>
+		 * Platform threads are used on older JVMs. Use {@code LoadTestConfiguration.Builder.setVirtualThreads} for load tests.
+		 * @param virtualThreads
+		 * @return
+		 */
+		public Builder setVirtualThreads(boolean virtualThreads)
+		{
+			this.virtualThreads = virtualThreads;
+			return this;
+		}
+		
+		/**
+		 * Running the property files of the suite as load tests, with the virtual users of the configuration.
+		 * <br>
+		 * Test classes passed to the suite are still run as functional tests.
+		 * @param loadTestConfiguration
+		 * @return
+		 */
+		public Builder setLoadTestConfiguration(LoadTestConfiguration loadTestConfiguration)
+		{
+			this.loadTestConfiguration = loadTestConfiguration;
+			return this;
+		}
+		
+		/**
+		 * Evaluating test conditions by the JavaScript engine of javax.script, as older versions did.
+		 * <br>
+		 * Conditions are parsed once and evaluated by the framework by default, enable this only for conditions
+		 * using JavaScript beyond the built-in expressions, e.g. {@code typeof}, array literals, regular expression literals
+		 * or functions other than the string and math ones. Test files using them are reported by the validation
+		 * of the suite until this is enabled. The JVM must provide a JavaScript engine (Nashorn was removed in Java 15).
+		 * @param scriptEngineConditions
+		 * @return
+		 */
+		public Builder setScriptEngineConditions(boolean scriptEngineConditions)
+		{
+			this.scriptEngineConditions = scriptEngineConditions;
+			return this;
+		}
+		
+		/**
+		 * Setting the maximum size of a response body kept in memory, larger bodies are written to temporary files.
+		 * <br>
+		 * Default is {@link ResponseMemoryBudget#DEFAULT_RESPONSE_LIMIT}. The limits are shared by all the suites of the JVM.
+		 * @param responseMemoryLimit Size in bytes
+		 * @return
+		 */
+		public Builder setResponseMemoryLimit(long responseMemoryLimit)
+		{
+			this.responseMemoryLimit = responseMemoryLimit;
+			return this;
+		}
+		
+		/**
+		 * Setting the maximum size of all the response bodies kept in memory at the same time,
+		 * bodies exceeding it are written to temporary files.
+		 * <br>
+		 * Default is a quarter of the maximum heap. Bodies are released once their API call is evaluated.
+		 * @param totalResponseMemoryLimit Size in bytes
+		 * @return
+		 */
+		public Builder setTotalResponseMemoryLimit(long totalResponseMemoryLimit)
+		{
+			this.totalResponseMemoryLimit = totalResponseMemoryLimit;
+			return this;
+		}
+		
+		/**
+		 * Setting the directory of the response bodies written to files, the temporary directory is used by default
+		 * @param responseSpillLocation
+		 * @return
+		 */
+		public Builder setResponseSpillLocation(String responseSpillLocation)
+		{
+			this.responseSpillLocation = responseSpillLocation;
+			return this;
+		}
+		
+		/**
+		 * Validating the API calls of all the property files once the suite is set up, before any API is called.
+		 * <br>
+		 * Unsupported methods, test conditions which can't be parsed and variables not declared by any TEST_VARS of the suite
+		 * fail the suite with all the errors found. Enabled by default, syntax errors of the files are always reported.
+		 * @param testValidation
+		 * @return
+		 */
+		public Builder setTestValidation(boolean testValidation)
+		{
+			this.testValidation = testValidation;
+			return this;
+		}
+		
+		/**
+		 * Polling API_POLL calls with backoff and jitter up to POLL_INTERVAL, starting with a few fast attempts.
+		 * <br>
+		 * Enabled by default, see {@link PollSchedule}. Disable it to wait POLL_INTERVAL between all the attempts, as older versions did.
+		 * @param adaptivePolling
+		 * @return
+		 */
+		public Builder setAdaptivePolling(boolean adaptivePolling)
+		{
+			this.adaptivePolling = adaptivePolling;
+			return this;
+		}
+		
 		/**
 		 * Builds the configuration passed, and returns the configuration object
 		 * @return {@link RestSuiteConfiguration}
@@ -0,0 +1,128 @@
+package com.rest.test.framework;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.rest.test.framework.util.ThreadUtil;
+
+/**
+ * Timer shared by the API calls of all the suites and virtual users of the JVM, used for polls and WAIT_TIME.
+ * <br>
+ * A waiting API call is a task in the timer's queue, not a sleeping thread. The single timer thread only hands due tasks
+ * over to the worker threads, so a task blocking on a request, a credential fetch or a large response
+ * never delays the other waits and polls of the JVM. Worker threads are virtual threads if the JVM supports them,
+ * so blocked tasks don't hold platform threads. Otherwise at most {@link #MAX_PLATFORM_WORKERS} platform threads are created
+ * as needed and end when they are idle, more blocked tasks than that delay the next ones.
+ * @author SrinivasDonapati
+ *
+ */
+public class StepTimer {
+	private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1,
+			ThreadUtil.newThreadFactory("StepTimer", false));
+	/**
+	 * Maximum number of platform worker threads, used if the JVM doesn't support virtual threads.
+	 * Tasks due while all of them are busy wait in the queue of the workers.
+	 */
+	public static final int MAX_PLATFORM_WORKERS = 256;
+	private static final ExecutorService WORKERS = createWorkers();
+
+	static {
+		// Waits cancelled by interrupted threads don't stay in the queue
+		TIMER.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Creating the worker threads, a new virtual thread for each task if the JVM supports them,
+	 * otherwise at most {@link #MAX_PLATFORM_WORKERS} platform threads, ended when they are idle
+	 * @return
+	 */
+	private static ExecutorService createWorkers() {
+		if (ThreadUtil.isVirtualThreadSupported()) {
+			return Executors.newCachedThreadPool(ThreadUtil.newThreadFactory("StepWorker", true));
+		}
+		ThreadPoolExecutor workers = new ThreadPoolExecutor(MAX_PLATFORM_WORKERS, MAX_PLATFORM_WORKERS, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), ThreadUtil.newThreadFactory("StepWorker", false));
+		workers.allowCoreThreadTimeOut(true);
+		return workers;
+	}
+
+	/**
+	 * Running the task on a worker thread after the delay
+	 * @param task
+	 * @param delay
+	 * @param unit
+	 * @return {@link ScheduledFuture} of the task, cancelling it before the delay is over drops the task
+	 */
+	public static ScheduledFuture<?> schedule(final Runnable task, long delay, TimeUnit unit) {
+		return TIMER.schedule(new Runnable() {
+			@Override
+			public void run() {
+				WORKERS.execute(task);
+			}
+		}, delay, unit);
+	}
+
+	/**
+	 * Returns a future completed on a worker thread after the delay, steps chained to it run once the delay is over
+	 * @param delay
+	 * @param unit
+	 * @return {@link CompletableFuture}
+	 */
+	public static CompletableFuture<Void> delay(long delay, TimeUnit unit) {
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+		if (delay <= 0) {
+			future.complete(null);
+			return future;
+		}
+		final ScheduledFuture<?> task = schedule(new Runnable() {
+			@Override
+			public void run() {
+				future.complete(null);
+			}
+		}, delay, unit);
+		future.whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void result, Throwable error) {
+				if (future.isCancelled()) {
+					task.cancel(false);
+				}
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Waiting on the calling thread until the delay is over, for callers which can't continue asynchronously
+	 * @param delay
+	 * @param unit
+	 * @throws InterruptedException
+	 */
+	public static void sleep(long delay, TimeUnit unit) throws InterruptedException {
+		CompletableFuture<Void> future = delay(delay, unit);
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			throw e;
+		} catch (ExecutionException e) {
+			// Delays are only completed normally or cancelled
+		}
+	}
+
+	/**
+	 * Returns the executor of the worker threads, running the steps continued after a wait or a response
+	 * @return {@link Executor}
+	 */
+	public static Executor getExecutor() {
+		return WORKERS;
+	}
+}
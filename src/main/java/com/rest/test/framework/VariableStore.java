@@ -0,0 +1,146 @@
+package com.rest.test.framework;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.rest.test.framework.util.RequestTemplate.VariableResolver;
+
+/**
+ * Variables of a scope, looked up in the parent scope when they are not declared in this one.
+ * <br>
+ * The variables are kept in a {@link ConcurrentHashMap}:
+ * <li>Lookups don't lock, and never block the writes of other threads</li>
+ * <li>A write only updates its own entry, whatever the number of variables</li>
+ * <li>{@link #getVariables()} returns the map itself, writes through it are seen by all the lookups</li>
+ * <br>
+ * Suite variables such as auth tokens are shared by all the files and virtual users through the parent scopes,
+ * while the variables declared by a file or a virtual user stay in its own store.
+ * @author SrinivasDonapati
+ *
+ */
+public class VariableStore implements VariableResolver
+{
+	/**
+	 * Scopes of the variables, from the widest to the narrowest
+	 */
+	public enum Scope
+	{
+		/**
+		 * Variables of the test suite, visible to all the tests
+		 */
+		SUITE,
+		/**
+		 * Variables of a property file run in parallel with other files
+		 */
+		FILE,
+		/**
+		 * Variables of a virtual user of a load test
+		 */
+		VIRTUAL_USER,
+		/**
+		 * Variables declared by a single API call, copied to the context of the call once they are stored
+		 */
+		STEP
+	}
+
+	private final Scope scope;
+	private final VariableResolver parent;
+	private final Map<String, String> variables = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Creating a store without parent scope
+	 * @param scope
+	 */
+	public VariableStore(Scope scope)
+	{
+		this(scope, null);
+	}
+
+	/**
+	 * @param scope
+	 * @param parent Variables looked up when they are not declared in this store, can be null
+	 */
+	public VariableStore(Scope scope, VariableResolver parent)
+	{
+		this.scope = scope;
+		this.parent = parent;
+	}
+
+	/**
+	 * Creating a store of a narrower scope, whose lookups fall back on this store
+	 * @param scope
+	 * @return {@link VariableStore}
+	 */
+	public VariableStore newChild(Scope scope)
+	{
+		return new VariableStore(scope, this);
+	}
+
+	public Scope getScope()
+	{
+		return scope;
+	}
+
+	/**
+	 * Returns the variable value, looked up in the parent scopes if it's not declared in this store
+	 * @param variableName
+	 * @return Variable value, null if the variable is not declared
+	 */
+	@Override
+	public String getVariableValue(String variableName)
+	{
+		String variableValue = variables.get(variableName);
+		if (variableValue == null && parent != null) {
+			return parent.getVariableValue(variableName);
+		}
+		return variableValue;
+	}
+
+	/**
+	 * Storing the variable in this store
+	 * @param variableName
+	 * @param variableValue Variable value, null removes the variable
+	 * @return Previous value in this store
+	 */
+	public String setVariableValue(String variableName, String variableValue)
+	{
+		if (variableValue == null) {
+			return variables.remove(variableName);
+		}
+		return variables.put(variableName, variableValue);
+	}
+
+	/**
+	 * Storing all the variables in this store
+	 * @param variableMap Variables to store, null values remove the variables
+	 */
+	public void setVariables(Map<String, String> variableMap)
+	{
+		for (Map.Entry<String, String> entry : variableMap.entrySet()) {
+			setVariableValue(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Returns the variables declared in this store, without the parent scopes
+	 * @return Live map of the store, changes are written through to the store
+	 */
+	public Map<String, String> getVariables()
+	{
+		return variables;
+	}
+
+	/**
+	 * Removes all the variables of this store
+	 */
+	public void clear()
+	{
+		variables.clear();
+	}
+
+	@Override
+	public String toString()
+	{
+		return scope + variables.toString();
+	}
+}
@@ -0,0 +1,95 @@
+package com.rest.test.framework.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.rest.test.framework.util.RequestTemplate.VariableResolver;
+
+/**
+ * Test condition of an API call, parsed once into a tree and evaluated with the variables of each call.
+ * <br>
+ * The language is the subset of JavaScript the conditions are written with:
+ * <li>Variables as value {@code {count} > 0} or inside strings {@code '{status}' == 'DONE'}</li>
+ * <li>Comparisons {@code == != === !== < <= > >=}, boolean logic {@code && || !} and conditional {@code ? :}</li>
+ * <li>Arithmetic {@code + - * / %}, {@code +} concatenates strings</li>
+ * <li>String functions called as methods or functions, e.g. {@code '{name}'.startsWith('abc')}, {@code '{list}'.length},
+ * {@code contains('{name}', 'abc')}, see {@link ExpressionFunction}</li>
+ * <br>
+ * Variable values are bound while evaluating, they are never parsed as part of the expression.
+ * @author SrinivasDonapati
+ *
+ */
+public class ConditionExpression
+{
+	private final String source;
+	private final ExpressionNode root;
+	private final List<String> variableNames;
+
+	private ConditionExpression(String source, ExpressionNode root)
+	{
+		this.source = source;
+		this.root = root;
+		Set<String> variables = new LinkedHashSet<>();
+		root.collectVariables(variables);
+		this.variableNames = Collections.unmodifiableList(new ArrayList<>(variables));
+	}
+
+	/**
+	 * Parsing the condition
+	 * @param source Test condition
+	 * @return {@link ConditionExpression}
+	 * @throws IllegalArgumentException if the condition is not valid
+	 */
+	public static ConditionExpression compile(String source)
+	{
+		if (source == null) {
+			throw new IllegalArgumentException("Expression is null");
+		}
+		return new ConditionExpression(source, new ExpressionParser(source).parse());
+	}
+
+	/**
+	 * Evaluating the condition
+	 * @param resolver Values of the variables
+	 * @return Result, a Boolean, Double, String or null
+	 * @throws AssertionError if a variable is not defined
+	 */
+	public Object evaluate(VariableResolver resolver)
+	{
+		return root.evaluate(resolver);
+	}
+
+	/**
+	 * Checks whether the condition is true, like the JavaScript evaluation the result must be true or "true"
+	 * @param resolver Values of the variables
+	 * @return
+	 * @throws AssertionError if a variable is not defined
+	 */
+	public boolean isSatisfied(VariableResolver resolver)
+	{
+		return Boolean.parseBoolean(String.valueOf(evaluate(resolver)));
+	}
+
+	/**
+	 * Returns the names of the variables used, in the order of their first use
+	 * @return
+	 */
+	public List<String> getVariableNames()
+	{
+		return variableNames;
+	}
+
+	public String getSource()
+	{
+		return source;
+	}
+
+	@Override
+	public String toString()
+	{
+		return source;
+	}
+}
@@ -0,0 +1,170 @@
+package com.rest.test.framework.expression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Built-in functions of {@link ConditionExpression}.
+ * <br>
+ * Functions are called as {@code contains({name}, 'abc')} or as method of the first argument {@code '{name}'.contains('abc')}.
+ * JavaScript names of the string methods are accepted too (e.g. includes, toLowerCase), and {@code length} as property.
+ * @author SrinivasDonapati
+ *
+ */
+enum ExpressionFunction
+{
+	CONTAINS(2, 2, "contains", "includes") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).contains(text(args[1]));
+		}
+	},
+	STARTS_WITH(2, 2, "startsWith") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).startsWith(text(args[1]));
+		}
+	},
+	ENDS_WITH(2, 2, "endsWith") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).endsWith(text(args[1]));
+		}
+	},
+	INDEX_OF(2, 2, "indexOf") {
+		@Override
+		Object apply(Object[] args) {
+			return (double) text(args[0]).indexOf(text(args[1]));
+		}
+	},
+	LENGTH(1, 1, "length") {
+		@Override
+		Object apply(Object[] args) {
+			return (double) text(args[0]).length();
+		}
+	},
+	IS_EMPTY(1, 1, "isEmpty") {
+		@Override
+		Object apply(Object[] args) {
+			return args[0] == null || text(args[0]).trim().isEmpty();
+		}
+	},
+	LOWER(1, 1, "lower", "toLowerCase") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).toLowerCase();
+		}
+	},
+	UPPER(1, 1, "upper", "toUpperCase") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).toUpperCase();
+		}
+	},
+	TRIM(1, 1, "trim") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).trim();
+		}
+	},
+	SUBSTRING(2, 3, "substring") {
+		@Override
+		Object apply(Object[] args) {
+			String value = text(args[0]);
+			int beginIndex = Math.max(0, Math.min(value.length(), (int) ExpressionNode.toNumber(args[1])));
+			int endIndex = args.length > 2 ? Math.max(0, Math.min(value.length(), (int) ExpressionNode.toNumber(args[2]))) : value.length();
+			return value.substring(Math.min(beginIndex, endIndex), Math.max(beginIndex, endIndex));
+		}
+	},
+	/** Full match of a regular expression */
+	MATCHES(2, 2, "matches") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]).matches(text(args[1]));
+		}
+	},
+	NUMBER(1, 1, "number", "Number", "parseFloat") {
+		@Override
+		Object apply(Object[] args) {
+			return ExpressionNode.toNumber(args[0]);
+		}
+	},
+	INTEGER(1, 1, "parseInt") {
+		@Override
+		Object apply(Object[] args) {
+			double value = ExpressionNode.toNumber(args[0]);
+			return Double.isNaN(value) || Double.isInfinite(value) ? value : (double) (long) value;
+		}
+	},
+	STRING(1, 1, "string", "String", "toString") {
+		@Override
+		Object apply(Object[] args) {
+			return text(args[0]);
+		}
+	},
+	ABS(1, 1, "abs") {
+		@Override
+		Object apply(Object[] args) {
+			return Math.abs(ExpressionNode.toNumber(args[0]));
+		}
+	},
+	MIN(2, 2, "min") {
+		@Override
+		Object apply(Object[] args) {
+			return Math.min(ExpressionNode.toNumber(args[0]), ExpressionNode.toNumber(args[1]));
+		}
+	},
+	MAX(2, 2, "max") {
+		@Override
+		Object apply(Object[] args) {
+			return Math.max(ExpressionNode.toNumber(args[0]), ExpressionNode.toNumber(args[1]));
+		}
+	};
+
+	private static final Map<String, ExpressionFunction> FUNCTIONS = new HashMap<>();
+	static {
+		for (ExpressionFunction function : values()) {
+			for (String name : function.names) {
+				FUNCTIONS.put(name, function);
+			}
+		}
+	}
+
+	private final int minArgs;
+	private final int maxArgs;
+	private final String[] names;
+
+	private ExpressionFunction(int minArgs, int maxArgs, String... names)
+	{
+		this.minArgs = minArgs;
+		this.maxArgs = maxArgs;
+		this.names = names;
+	}
+
+	abstract Object apply(Object[] args);
+
+	/**
+	 * Returns the function of the name
+	 * @param name
+	 * @return null if there is no such function
+	 */
+	static ExpressionFunction forName(String name)
+	{
+		return FUNCTIONS.get(name);
+	}
+
+	/**
+	 * Checks whether the function accepts the number of arguments
+	 * @param argCount
+	 * @return
+	 */
+	boolean acceptsArgs(int argCount)
+	{
+		return argCount >= minArgs && argCount <= maxArgs;
+	}
+
+	private static String text(Object value)
+	{
+		return value == null ? "" : ExpressionNode.toText(value);
+	}
+}
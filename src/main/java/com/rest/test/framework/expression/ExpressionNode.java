@@ -0,0 +1,447 @@
+package com.rest.test.framework.expression;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.rest.test.framework.util.RequestTemplate;
+import com.rest.test.framework.util.RequestTemplate.VariableResolver;
+
+/**
+ * Node of a parsed {@link ConditionExpression}.
+ * <br>
+ * Values follow the JavaScript rules the conditions were written for: numbers are doubles,
+ * {@code ==} converts strings to numbers when compared with a number, {@code +} concatenates when a side is a string,
+ * and {@code &&}/{@code ||} return one of their operands.
+ * @author SrinivasDonapati
+ *
+ */
+abstract class ExpressionNode
+{
+	private static final Pattern DECIMAL_NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?|[+-]?Infinity");
+	private static final Pattern RADIX_NUMBER = Pattern.compile("0([xX][0-9a-fA-F]+|[oO][0-7]+|[bB][01]+)");
+
+	abstract Object evaluate(VariableResolver resolver);
+
+	/**
+	 * Adding the names of the variables used by the node
+	 * @param variableNames
+	 */
+	void collectVariables(Set<String> variableNames)
+	{
+	}
+
+	/**
+	 * Literal value
+	 */
+	static class Literal extends ExpressionNode
+	{
+		private final Object value;
+
+		Literal(Object value)
+		{
+			this.value = value;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			return value;
+		}
+	}
+
+	/**
+	 * String literal with variables, e.g. {@code '{status}'}
+	 */
+	static class Text extends ExpressionNode
+	{
+		private final RequestTemplate template;
+
+		Text(RequestTemplate template)
+		{
+			this.template = template;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			return template.render(resolver, null, null, "Expected Expression");
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			variableNames.addAll(template.getVariableNames());
+		}
+	}
+
+	/**
+	 * Variable used as value, e.g. {@code {count} > 0}.<br>
+	 * Numbers, true, false and null are converted, other values are strings.
+	 */
+	static class Variable extends ExpressionNode
+	{
+		private final String name;
+
+		Variable(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			String value = resolver.getVariableValue(name);
+			if (value == null) {
+				throw RequestTemplate.missingVariableError(name, "Expected Expression");
+			}
+			return parseValue(value);
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			variableNames.add(name);
+		}
+	}
+
+	static class Not extends ExpressionNode
+	{
+		private final ExpressionNode operand;
+
+		Not(ExpressionNode operand)
+		{
+			this.operand = operand;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			return !isTrue(operand.evaluate(resolver));
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			operand.collectVariables(variableNames);
+		}
+	}
+
+	static class Negate extends ExpressionNode
+	{
+		private final ExpressionNode operand;
+		private final boolean isMinus;
+
+		Negate(ExpressionNode operand, boolean isMinus)
+		{
+			this.operand = operand;
+			this.isMinus = isMinus;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			double value = toNumber(operand.evaluate(resolver));
+			return isMinus ? -value : value;
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			operand.collectVariables(variableNames);
+		}
+	}
+
+	/**
+	 * Operators with two operands
+	 */
+	static class Binary extends ExpressionNode
+	{
+		private final String operator;
+		private final ExpressionNode left;
+		private final ExpressionNode right;
+
+		Binary(String operator, ExpressionNode left, ExpressionNode right)
+		{
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			Object leftValue = left.evaluate(resolver);
+			switch (operator) {
+			case "&&":
+				return isTrue(leftValue) ? right.evaluate(resolver) : leftValue;
+			case "||":
+				return isTrue(leftValue) ? leftValue : right.evaluate(resolver);
+			default:
+				break;
+			}
+
+			Object rightValue = right.evaluate(resolver);
+			switch (operator) {
+			case "==":
+				return looseEquals(leftValue, rightValue);
+			case "!=":
+				return !looseEquals(leftValue, rightValue);
+			case "===":
+				return strictEquals(leftValue, rightValue);
+			case "!==":
+				return !strictEquals(leftValue, rightValue);
+			case "<":
+			case "<=":
+			case ">":
+			case ">=":
+				return compare(operator, leftValue, rightValue);
+			case "+":
+				if (leftValue instanceof String || rightValue instanceof String) {
+					return toText(leftValue) + toText(rightValue);
+				}
+				return toNumber(leftValue) + toNumber(rightValue);
+			case "-":
+				return toNumber(leftValue) - toNumber(rightValue);
+			case "*":
+				return toNumber(leftValue) * toNumber(rightValue);
+			case "/":
+				return toNumber(leftValue) / toNumber(rightValue);
+			case "%":
+				return toNumber(leftValue) % toNumber(rightValue);
+			default:
+				throw new IllegalStateException("Unknown operator " + operator);
+			}
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			left.collectVariables(variableNames);
+			right.collectVariables(variableNames);
+		}
+	}
+
+	/**
+	 * Conditional operator {@code condition ? value : otherValue}
+	 */
+	static class Conditional extends ExpressionNode
+	{
+		private final ExpressionNode condition;
+		private final ExpressionNode value;
+		private final ExpressionNode otherValue;
+
+		Conditional(ExpressionNode condition, ExpressionNode value, ExpressionNode otherValue)
+		{
+			this.condition = condition;
+			this.value = value;
+			this.otherValue = otherValue;
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			return isTrue(condition.evaluate(resolver)) ? value.evaluate(resolver) : otherValue.evaluate(resolver);
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			condition.collectVariables(variableNames);
+			value.collectVariables(variableNames);
+			otherValue.collectVariables(variableNames);
+		}
+	}
+
+	/**
+	 * Call of a built-in function, methods and properties of values are called as functions with the value as first argument
+	 */
+	static class Call extends ExpressionNode
+	{
+		private final ExpressionFunction function;
+		private final ExpressionNode[] arguments;
+		// Regular expression of matches, compiled while parsing if it is a literal
+		private final Pattern pattern;
+
+		Call(ExpressionFunction function, List<ExpressionNode> arguments)
+		{
+			this.function = function;
+			this.arguments = arguments.toArray(new ExpressionNode[arguments.size()]);
+			if (function == ExpressionFunction.MATCHES && this.arguments.length == 2 && this.arguments[1] instanceof Literal) {
+				this.pattern = Pattern.compile(toText(this.arguments[1].evaluate(null)));
+			} else {
+				this.pattern = null;
+			}
+		}
+
+		@Override
+		Object evaluate(VariableResolver resolver)
+		{
+			Object[] values = new Object[arguments.length];
+			for (int i = 0; i < arguments.length; i++) {
+				values[i] = arguments[i].evaluate(resolver);
+			}
+			if (pattern != null) {
+				return pattern.matcher(toText(values[0])).matches();
+			}
+			return function.apply(values);
+		}
+
+		@Override
+		void collectVariables(Set<String> variableNames)
+		{
+			for (ExpressionNode argument : arguments) {
+				argument.collectVariables(variableNames);
+			}
+		}
+	}
+
+	/**
+	 * Converting a variable value, numbers, true, false and null are converted, other values are kept as strings
+	 * @param value
+	 * @return
+	 */
+	static Object parseValue(String value)
+	{
+		String trimmedValue = value.trim();
+		if (trimmedValue.equals("true") || trimmedValue.equals("false")) {
+			return Boolean.valueOf(trimmedValue);
+		}
+		if (trimmedValue.equals("null")) {
+			return null;
+		}
+		Double number = parseNumber(trimmedValue);
+		return number != null ? number : value;
+	}
+
+	/**
+	 * Converting a numeric literal of JavaScript, i.e. decimal numbers with optional exponent (e.g. 1.5e3, .5, 5.),
+	 * hexadecimal, octal and binary integers (e.g. 0x1F, 0o17, 0b101) and Infinity
+	 * @param text Text without leading or trailing whitespace
+	 * @return Number, null if the text is not a numeric literal
+	 */
+	static Double parseNumber(String text)
+	{
+		try {
+			if (DECIMAL_NUMBER.matcher(text).matches()) {
+				return Double.valueOf(text);
+			}
+			if (RADIX_NUMBER.matcher(text).matches()) {
+				char radix = Character.toLowerCase(text.charAt(1));
+				int base = radix == 'x' ? 16 : radix == 'o' ? 8 : 2;
+				return new BigInteger(text.substring(2), base).doubleValue();
+			}
+		} catch (NumberFormatException e) {
+			// Only texts matching the literals are converted
+		}
+		return null;
+	}
+
+	/**
+	 * Truth value of JavaScript, false, 0, NaN, empty string and null are false
+	 * @param value
+	 * @return
+	 */
+	static boolean isTrue(Object value)
+	{
+		if (value == null) {
+			return false;
+		}
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		if (value instanceof Double) {
+			double number = (Double) value;
+			return number != 0 && !Double.isNaN(number);
+		}
+		return toText(value).length() > 0;
+	}
+
+	static double toNumber(Object value)
+	{
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof Double) {
+			return (Double) value;
+		}
+		if (value instanceof Boolean) {
+			return (Boolean) value ? 1 : 0;
+		}
+		String text = toText(value).trim();
+		if (text.isEmpty()) {
+			return 0;
+		}
+		Double number = parseNumber(text);
+		return number != null ? number : Double.NaN;
+	}
+
+	/**
+	 * String value, whole numbers are written without fraction (e.g. 200 instead of 200.0)
+	 * @param value
+	 * @return
+	 */
+	static String toText(Object value)
+	{
+		if (value instanceof Double) {
+			double number = (Double) value;
+			if (number == Math.rint(number) && !Double.isInfinite(number) && Math.abs(number) < 1e15) {
+				return String.valueOf((long) number);
+			}
+		}
+		return String.valueOf(value);
+	}
+
+	private static boolean looseEquals(Object left, Object right)
+	{
+		if (left == null || right == null) {
+			return left == right;
+		}
+		if (left instanceof Double || right instanceof Double || left instanceof Boolean || right instanceof Boolean) {
+			if (left instanceof Boolean && right instanceof Boolean) {
+				return left.equals(right);
+			}
+			return toNumber(left) == toNumber(right);
+		}
+		return toText(left).equals(toText(right));
+	}
+
+	private static boolean strictEquals(Object left, Object right)
+	{
+		if (left == null || right == null) {
+			return left == right;
+		}
+		if (left.getClass() != right.getClass()) {
+			return false;
+		}
+		return left instanceof Double ? toNumber(left) == toNumber(right) : left.equals(right);
+	}
+
+	/**
+	 * Relational operators, strings are compared as text and other values as numbers.
+	 * Like JavaScript, comparisons with a value which is not a number are false.
+	 */
+	private static boolean compare(String operator, Object left, Object right)
+	{
+		double leftNumber;
+		double rightNumber;
+		if (left instanceof String && right instanceof String) {
+			leftNumber = ((String) left).compareTo((String) right);
+			rightNumber = 0;
+		} else {
+			leftNumber = toNumber(left);
+			rightNumber = toNumber(right);
+		}
+		switch (operator) {
+		case "<":
+			return leftNumber < rightNumber;
+		case "<=":
+			return leftNumber <= rightNumber;
+		case ">":
+			return leftNumber > rightNumber;
+		default:
+			return leftNumber >= rightNumber;
+		}
+	}
+}
@@ -0,0 +1,401 @@
+package com.rest.test.framework.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rest.test.framework.util.RequestTemplate;
+
+/**
+ * Recursive descent parser of {@link ConditionExpression}, operators and their precedence are the ones of JavaScript
+ * <pre>
+ * conditional    : or ['?' conditional ':' conditional]
+ * or             : and {'||' and}
+ * and            : equality {'&&' equality}
+ * equality       : relational {('==' | '!=' | '===' | '!==') relational}
+ * relational     : additive {('<' | '<=' | '>' | '>=') additive}
+ * additive       : multiplicative {('+' | '-') multiplicative}
+ * multiplicative : unary {('*' | '/' | '%') unary}
+ * unary          : ('!' | '-' | '+') unary | postfix
+ * postfix        : primary {'.' name ['(' arguments ')']}
+ * primary        : number | string | {variable} | true | false | null | name '(' arguments ')' | '(' conditional ')'
+ * </pre>
+ * @author SrinivasDonapati
+ *
+ */
+class ExpressionParser
+{
+	private static final String[] OPERATORS = {
+		"===", "!==", "==", "!=", "<=", ">=", "&&", "||",
+		"<", ">", "!", "+", "-", "*", "/", "%", "?", ":", "(", ")", ",", "."
+	};
+
+	private enum TokenType
+	{
+		NUMBER, STRING, VARIABLE, NAME, OPERATOR, END
+	}
+
+	private static class Token
+	{
+		private final TokenType type;
+		private final String text;
+		private final int position;
+
+		Token(TokenType type, String text, int position)
+		{
+			this.type = type;
+			this.text = text;
+			this.position = position;
+		}
+	}
+
+	private final String source;
+	private final List<Token> tokens;
+	private int index;
+
+	ExpressionParser(String source)
+	{
+		this.source = source;
+		this.tokens = tokenize(source);
+	}
+
+	/**
+	 * Parsing the whole expression
+	 * @return Root node
+	 * @throws IllegalArgumentException if the expression is not valid
+	 */
+	ExpressionNode parse()
+	{
+		if (peek().type == TokenType.END) {
+			throw error("Empty expression", peek());
+		}
+		ExpressionNode node = parseConditional();
+		if (peek().type != TokenType.END) {
+			throw error("Unexpected '" + peek().text + "'", peek());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseConditional()
+	{
+		ExpressionNode condition = parseOr();
+		if (accept("?")) {
+			ExpressionNode value = parseConditional();
+			expect(":");
+			ExpressionNode otherValue = parseConditional();
+			return new ExpressionNode.Conditional(condition, value, otherValue);
+		}
+		return condition;
+	}
+
+	private ExpressionNode parseOr()
+	{
+		ExpressionNode node = parseAnd();
+		while (accept("||")) {
+			node = new ExpressionNode.Binary("||", node, parseAnd());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseAnd()
+	{
+		ExpressionNode node = parseEquality();
+		while (accept("&&")) {
+			node = new ExpressionNode.Binary("&&", node, parseEquality());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseEquality()
+	{
+		ExpressionNode node = parseRelational();
+		String operator;
+		while ((operator = acceptAny("==", "!=", "===", "!==")) != null) {
+			node = new ExpressionNode.Binary(operator, node, parseRelational());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseRelational()
+	{
+		ExpressionNode node = parseAdditive();
+		String operator;
+		while ((operator = acceptAny("<", "<=", ">", ">=")) != null) {
+			node = new ExpressionNode.Binary(operator, node, parseAdditive());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseAdditive()
+	{
+		ExpressionNode node = parseMultiplicative();
+		String operator;
+		while ((operator = acceptAny("+", "-")) != null) {
+			node = new ExpressionNode.Binary(operator, node, parseMultiplicative());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseMultiplicative()
+	{
+		ExpressionNode node = parseUnary();
+		String operator;
+		while ((operator = acceptAny("*", "/", "%")) != null) {
+			node = new ExpressionNode.Binary(operator, node, parseUnary());
+		}
+		return node;
+	}
+
+	private ExpressionNode parseUnary()
+	{
+		if (accept("!")) {
+			return new ExpressionNode.Not(parseUnary());
+		}
+		if (accept("-")) {
+			return new ExpressionNode.Negate(parseUnary(), true);
+		}
+		if (accept("+")) {
+			return new ExpressionNode.Negate(parseUnary(), false);
+		}
+		return parsePostfix();
+	}
+
+	private ExpressionNode parsePostfix()
+	{
+		ExpressionNode node = parsePrimary();
+		while (accept(".")) {
+			Token name = next();
+			if (name.type != TokenType.NAME) {
+				throw error("Expected method name", name);
+			}
+			List<ExpressionNode> arguments = new ArrayList<>();
+			arguments.add(node);
+			if (accept("(")) {
+				parseArguments(arguments);
+			} else if (!name.text.equals("length")) {
+				throw error("Unknown property '" + name.text + "'", name);
+			}
+			node = call(name, arguments);
+		}
+		return node;
+	}
+
+	private ExpressionNode parsePrimary()
+	{
+		Token token = next();
+		switch (token.type) {
+		case NUMBER:
+			return new ExpressionNode.Literal(ExpressionNode.parseNumber(token.text));
+		case STRING:
+			RequestTemplate template = RequestTemplate.compile(token.text);
+			return template.getVariableNames().isEmpty() ? new ExpressionNode.Literal(token.text) : new ExpressionNode.Text(template);
+		case VARIABLE:
+			return new ExpressionNode.Variable(token.text);
+		case NAME:
+			switch (token.text) {
+			case "true":
+				return new ExpressionNode.Literal(Boolean.TRUE);
+			case "false":
+				return new ExpressionNode.Literal(Boolean.FALSE);
+			case "null":
+			case "undefined":
+				return new ExpressionNode.Literal(null);
+			default:
+				break;
+			}
+			if (token.text.equals("Math") && accept(".")) {
+				// Math.abs(..), Math.min(..) and Math.max(..) of JavaScript
+				token = next();
+			}
+			if (token.type != TokenType.NAME || !accept("(")) {
+				throw error("Unknown name '" + token.text + "', variables are written as {name}", token);
+			}
+			List<ExpressionNode> arguments = new ArrayList<>();
+			parseArguments(arguments);
+			return call(token, arguments);
+		case OPERATOR:
+			if (token.text.equals("(")) {
+				ExpressionNode node = parseConditional();
+				expect(")");
+				return node;
+			}
+			throw error("Unexpected '" + token.text + "'", token);
+		default:
+			throw error("Unexpected end of expression", token);
+		}
+	}
+
+	/**
+	 * Parsing the arguments of a call, after the opening parenthesis
+	 */
+	private void parseArguments(List<ExpressionNode> arguments)
+	{
+		if (accept(")")) {
+			return;
+		}
+		do {
+			arguments.add(parseConditional());
+		} while (accept(","));
+		expect(")");
+	}
+
+	private ExpressionNode call(Token name, List<ExpressionNode> arguments)
+	{
+		ExpressionFunction function = ExpressionFunction.forName(name.text);
+		if (function == null) {
+			throw error("Unknown function '" + name.text + "'", name);
+		}
+		if (!function.acceptsArgs(arguments.size())) {
+			throw error("Wrong number of arguments for '" + name.text + "'", name);
+		}
+		return new ExpressionNode.Call(function, arguments);
+	}
+
+	private Token peek()
+	{
+		return tokens.get(index);
+	}
+
+	private Token next()
+	{
+		Token token = tokens.get(index);
+		if (token.type != TokenType.END) {
+			index++;
+		}
+		return token;
+	}
+
+	private boolean accept(String operator)
+	{
+		Token token = peek();
+		if (token.type == TokenType.OPERATOR && token.text.equals(operator)) {
+			index++;
+			return true;
+		}
+		return false;
+	}
+
+	private String acceptAny(String... operators)
+	{
+		for (String operator : operators) {
+			if (accept(operator)) {
+				return operator;
+			}
+		}
+		return null;
+	}
+
+	private void expect(String operator)
+	{
+		if (!accept(operator)) {
+			throw error("Expected '" + operator + "'", peek());
+		}
+	}
+
+	private IllegalArgumentException error(String message, Token token)
+	{
+		return new IllegalArgumentException(message + " at position " + (token.position + 1) + " of expression : " + source);
+	}
+
+	private List<Token> tokenize(String source)
+	{
+		List<Token> tokens = new ArrayList<>();
+		int position = 0;
+		int length = source.length();
+		while (position < length) {
+			char c = source.charAt(position);
+			if (Character.isWhitespace(c)) {
+				position++;
+			} else if (c == '0' && position + 1 < length && "xXoObB".indexOf(source.charAt(position + 1)) >= 0) {
+				int start = position;
+				position += 2;
+				while (position < length && Character.isLetterOrDigit(source.charAt(position))) {
+					position++;
+				}
+				String number = source.substring(start, position);
+				if (ExpressionNode.parseNumber(number) == null) {
+					throw new IllegalArgumentException("Invalid number '" + number + "' at position " + (start + 1) + " of expression : " + source);
+				}
+				tokens.add(new Token(TokenType.NUMBER, number, start));
+			} else if (Character.isDigit(c) || (c == '.' && position + 1 < length && Character.isDigit(source.charAt(position + 1)))) {
+				int start = position;
+				while (position < length && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+					position++;
+				}
+				if (position < length && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+					position++;
+					if (position < length && (source.charAt(position) == '+' || source.charAt(position) == '-')) {
+						position++;
+					}
+					while (position < length && Character.isDigit(source.charAt(position))) {
+						position++;
+					}
+				}
+				String number = source.substring(start, position);
+				if (ExpressionNode.parseNumber(number) == null) {
+					throw new IllegalArgumentException("Invalid number '" + number + "' at position " + (start + 1) + " of expression : " + source);
+				}
+				tokens.add(new Token(TokenType.NUMBER, number, start));
+			} else if (c == '\'' || c == '"') {
+				int start = position;
+				StringBuilder value = new StringBuilder();
+				position++;
+				while (position < length && source.charAt(position) != c) {
+					char next = source.charAt(position);
+					if (next == '\\' && position + 1 < length) {
+						position++;
+						next = source.charAt(position);
+						switch (next) {
+						case 'n':
+							next = '\n';
+							break;
+						case 't':
+							next = '\t';
+							break;
+						case 'r':
+							next = '\r';
+							break;
+						default:
+							break;
+						}
+					}
+					value.append(next);
+					position++;
+				}
+				if (position >= length) {
+					throw new IllegalArgumentException("Unterminated string at position " + (start + 1) + " of expression : " + source);
+				}
+				position++;
+				tokens.add(new Token(TokenType.STRING, value.toString(), start));
+			} else if (c == '{') {
+				int endIndex = source.indexOf('}', position);
+				String variableName = endIndex == -1 ? "" : source.substring(position + 1, endIndex);
+				if (variableName.isEmpty() || variableName.indexOf(':') != -1 || variableName.indexOf('{') != -1) {
+					throw new IllegalArgumentException("Invalid variable at position " + (position + 1) + " of expression : " + source);
+				}
+				tokens.add(new Token(TokenType.VARIABLE, variableName, position));
+				position = endIndex + 1;
+			} else if (Character.isJavaIdentifierStart(c)) {
+				int start = position;
+				while (position < length && Character.isJavaIdentifierPart(source.charAt(position))) {
+					position++;
+				}
+				tokens.add(new Token(TokenType.NAME, source.substring(start, position), start));
+			} else {
+				String operator = null;
+				for (String candidate : OPERATORS) {
+					if (source.startsWith(candidate, position)) {
+						operator = candidate;
+						break;
+					}
+				}
+				if (operator == null) {
+					throw new IllegalArgumentException("Unexpected '" + c + "' at position " + (position + 1) + " of expression : " + source);
+				}
+				tokens.add(new Token(TokenType.OPERATOR, operator, position));
+				position += operator.length();
+			}
+		}
+		tokens.add(new Token(TokenType.END, "end of expression", length));
+		return tokens;
+	}
+}
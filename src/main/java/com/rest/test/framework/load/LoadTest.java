@@ -0,0 +1,107 @@
+package com.rest.test.framework.load;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.Test;
+import junit.framework.TestResult;
+
+import org.junit.runner.Describable;
+import org.junit.runner.Description;
+
+import com.rest.test.framework.ApiTestInfo;
+import com.rest.test.framework.RestApiBaseTestSuite;
+import com.rest.test.framework.RestSuiteConfiguration;
+
+/**
+ * JUNIT test running a property file of the suite as load test.
+ * <br>
+ * Used by {@link RestApiBaseTestSuite} instead of the functional test, if the suite has a {@link LoadTestConfiguration}.
+ * The report is written next to the performance records as {@code <test>_load.csv},
+ * and the test fails if the error rate is above the configured maximum.
+ * The summary of the report is printed with the LOG_MSG of the calls, if the load test prints them.
+ * @author SrinivasDonapati
+ *
+ */
+public class LoadTest implements Test, Describable
+{
+	private static final String DEFAULT_RECORD_LOCATION = "src/test/resources/Performance";
+
+	private final RestApiBaseTestSuite testSuite;
+	private final ApiTestInfo apiTestInfo;
+	private final LoadTestConfiguration config;
+
+	public LoadTest(RestApiBaseTestSuite testSuite, ApiTestInfo apiTestInfo, LoadTestConfiguration config)
+	{
+		this.testSuite = testSuite;
+		this.apiTestInfo = apiTestInfo;
+		this.config = config;
+	}
+
+	@Override
+	public int countTestCases()
+	{
+		return 1;
+	}
+
+	@Override
+	public void run(TestResult result)
+	{
+		result.startTest(this);
+		testSuite.setUpClass(apiTestInfo);
+		try {
+			LoadTestRunner runner = new LoadTestRunner(apiTestInfo, testSuite.getVariableStore(apiTestInfo),
+					testSuite.getRestUtil(), config);
+			RestSuiteConfiguration suiteConfig = testSuite.getConfiguration();
+			runner.setScriptEngineEnabled(suiteConfig != null && suiteConfig.isScriptEngineConditions());
+			runner.setAdaptivePolling(suiteConfig == null || suiteConfig.isAdaptivePolling());
+			LoadTestReport report = runner.run();
+			if (config.isLogMessages()) {
+				System.out.println(report);
+			}
+			report.downloadReport(getReportPath());
+
+			if (report.getErrorRate() > config.getMaxErrorRate()) {
+				String assertionMessage = "Error rate " + report.getErrorRate() + " of the load test is above "
+						+ config.getMaxErrorRate() + "\n";
+				for (String errorMessage : report.getErrorMessages()) {
+					assertionMessage += errorMessage + "\n";
+				}
+				result.addFailure(this, new AssertionFailedError(assertionMessage));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.addError(this, e);
+		} catch (Exception e) {
+			result.addError(this, e);
+		} finally {
+			testSuite.tearDownClass(apiTestInfo);
+			result.endTest(this);
+		}
+	}
+
+	/**
+	 * Returns the path of the load test report, based on the property file path
+	 * @return
+	 */
+	private String getReportPath()
+	{
+		RestSuiteConfiguration suiteConfig = testSuite.getConfiguration();
+		String recordLocation = suiteConfig != null ? suiteConfig.getPerformanceRecordLocation() : null;
+		if (recordLocation == null || recordLocation.trim().length() == 0) {
+			recordLocation = DEFAULT_RECORD_LOCATION;
+		}
+		String propertyFilePath = apiTestInfo.getPropertyFilePath().replace(".properties", "");
+		return recordLocation.trim() + "/" + propertyFilePath + "_load.csv";
+	}
+
+	@Override
+	public Description getDescription()
+	{
+		return Description.createTestDescription("LoadTest", apiTestInfo.getTestName());
+	}
+
+	@Override
+	public String toString()
+	{
+		return "LoadTest[" + apiTestInfo.getTestName() + "]";
+	}
+}
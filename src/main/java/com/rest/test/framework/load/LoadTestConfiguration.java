@@ -0,0 +1,314 @@
+package com.rest.test.framework.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.rest.test.framework.RestAuthenticator;
+
+/**
+ * This class is for setting load test configuration.
+ * <br>
+ * A load test replays the API calls of a property file with concurrent virtual users,
+ * either for a number of iterations or for a duration.
+ * <pre>
+ * LoadTestConfiguration loadConfig = new LoadTestConfiguration.Builder()
+ * 		.setUsers(50)
+ * 		.setDuration(5, TimeUnit.MINUTES)
+ * 		.setRampUp(30, TimeUnit.SECONDS)
+ * 		.build();
+ * </pre>
+ * Set an arrival rate to run an open model instead: new users arrive at the given rate, independent of the
+ * response times, and each of them runs the property file once.
+ * <pre>
+ * LoadTestConfiguration loadConfig = new LoadTestConfiguration.Builder()
+ * 		.setArrivalRate(10, 200)
+ * 		.setRampUp(1, TimeUnit.MINUTES)
+ * 		.setDuration(10, TimeUnit.MINUTES)
+ * 		.setUsers(1000)
+ * 		.build();
+ * </pre>
+ * @author SrinivasDonapati
+ *
+ */
+public class LoadTestConfiguration
+{
+	private int users;
+	private int iterations;
+	private long durationMillis;
+	private long rampUpMillis;
+	private double maxErrorRate;
+	private boolean logMessages;
+	private boolean virtualThreads;
+	private double arrivalRate;
+	private double targetArrivalRate;
+	private Supplier<? extends RestAuthenticator> userAuthenticator;
+
+	private LoadTestConfiguration(final Builder builder) {
+		this.users = Math.max(1, builder.users);
+		// Each user runs the property file once, if neither iterations nor duration are set
+		this.iterations = builder.iterations <= 0 && builder.durationMillis <= 0 ? 1 : builder.iterations;
+		this.durationMillis = builder.durationMillis;
+		this.rampUpMillis = builder.rampUpMillis;
+		this.maxErrorRate = builder.maxErrorRate;
+		this.logMessages = builder.logMessages;
+		this.virtualThreads = builder.virtualThreads;
+		this.arrivalRate = builder.arrivalRate;
+		this.targetArrivalRate = builder.targetArrivalRate;
+		this.userAuthenticator = builder.userAuthenticator;
+	}
+
+	/**
+	 * Returns the number of virtual users running at the same time.<br>
+	 * In the open model it is the maximum number of users, arrivals wait for a free user beyond it.
+	 * @return
+	 */
+	public int getUsers()
+	{
+		return users;
+	}
+
+	/**
+	 * Returns the number of times each virtual user runs the property file
+	 * @return Iterations, 0 if the users run till the duration is over
+	 */
+	public int getIterations()
+	{
+		return iterations;
+	}
+
+	/**
+	 * Returns the duration of the load test
+	 * @return Time in milliseconds, 0 if the users stop after the iterations
+	 */
+	public long getDuration()
+	{
+		return durationMillis;
+	}
+
+	/**
+	 * Returns the time taken to start all the virtual users,
+	 * or to reach the target arrival rate in the open model
+	 * @return Time in milliseconds
+	 */
+	public long getRampUp()
+	{
+		return rampUpMillis;
+	}
+
+	/**
+	 * Returns the ratio of failed API calls accepted, before the load test is failed
+	 * @return Value between 0 and 1
+	 */
+	public double getMaxErrorRate()
+	{
+		return maxErrorRate;
+	}
+
+	/**
+	 * Checks whether LOG_MSG of the API calls are printed by the virtual users, and the report summary by {@link LoadTest}
+	 * @return
+	 */
+	public boolean isLogMessages()
+	{
+		return logMessages;
+	}
+
+	/**
+	 * Checks whether the load test runs the open model, with new users arriving at a rate
+	 * @return
+	 */
+	public boolean isOpenModel()
+	{
+		return arrivalRate > 0 || targetArrivalRate > 0;
+	}
+
+	/**
+	 * Returns the arrival rate of the users at start of the test
+	 * @return Users per second, 0 if the test runs a fixed number of users
+	 */
+	public double getArrivalRate()
+	{
+		return arrivalRate;
+	}
+
+	/**
+	 * Returns the arrival rate of the users reached after ramp up
+	 * @return Users per second
+	 */
+	public double getTargetArrivalRate()
+	{
+		return targetArrivalRate;
+	}
+
+	/**
+	 * Checks whether the virtual users run on virtual threads
+	 * @return
+	 */
+	public boolean isVirtualThreads()
+	{
+		return virtualThreads;
+	}
+
+	/**
+	 * Returns the supplier creating an authenticator for each virtual user
+	 * @return Supplier, null if the virtual users share the login of the suite
+	 */
+	public Supplier<? extends RestAuthenticator> getUserAuthenticator()
+	{
+		return userAuthenticator;
+	}
+
+
+	/**
+	 * This builder class is used to pass load test configuration
+	 * @author SrinivasDonapati
+	 *
+	 */
+	public static class Builder {
+		private int users = 1;
+		private int iterations;
+		private long durationMillis;
+		private long rampUpMillis;
+		private double maxErrorRate;
+		private boolean logMessages;
+		private boolean virtualThreads;
+		private double arrivalRate;
+		private double targetArrivalRate;
+		private Supplier<? extends RestAuthenticator> userAuthenticator;
+
+		/**
+		 * Sets the number of virtual users running at the same time
+		 * @param users
+		 * @return
+		 */
+		public Builder setUsers(int users)
+		{
+			this.users = users;
+			return this;
+		}
+
+		/**
+		 * Sets the number of times each virtual user runs the property file.
+		 * <br>
+		 * If neither iterations nor duration are set, each user runs the property file once.
+		 * In the open model it is the total number of arrivals.
+		 * @param iterations
+		 * @return
+		 */
+		public Builder setIterations(int iterations)
+		{
+			this.iterations = iterations;
+			return this;
+		}
+
+		/**
+		 * Sets the duration of the load test, users don't start a new iteration after it
+		 * @param duration
+		 * @param unit
+		 * @return
+		 */
+		public Builder setDuration(long duration, TimeUnit unit)
+		{
+			this.durationMillis = unit.toMillis(duration);
+			return this;
+		}
+
+		/**
+		 * Sets the time taken to start all the virtual users, users are started at even intervals.
+		 * <br>
+		 * In the open model it is the time taken to change the arrival rate to the target rate.
+		 * @param rampUp
+		 * @param unit
+		 * @return
+		 */
+		public Builder setRampUp(long rampUp, TimeUnit unit)
+		{
+			this.rampUpMillis = unit.toMillis(rampUp);
+			return this;
+		}
+
+		/**
+		 * Sets the ratio of failed API calls accepted, before the load test is failed. Default is 0.
+		 * @param maxErrorRate Value between 0 and 1
+		 * @return
+		 */
+		public Builder setMaxErrorRate(double maxErrorRate)
+		{
+			this.maxErrorRate = maxErrorRate;
+			return this;
+		}
+
+		/**
+		 * Enabling/Disabling printing LOG_MSG of the API calls by the virtual users, and the summary of the report
+		 * by the load tests of a suite
+		 * @param logMessages
+		 * @return
+		 */
+		public Builder setLogMessages(boolean logMessages)
+		{
+			this.logMessages = logMessages;
+			return this;
+		}
+
+		/**
+		 * Running the open model, new users arrive at a fixed rate independent of the response times.
+		 * <br>
+		 * Each arrival runs the property file once with a new user. The latency is measured from the time
+		 * the arrival was scheduled at, so the delay of a slow server or a busy load generator is not omitted.
+		 * @param arrivalRate Users per second
+		 * @return
+		 */
+		public Builder setArrivalRate(double arrivalRate)
+		{
+			return setArrivalRate(arrivalRate, arrivalRate);
+		}
+
+		/**
+		 * Running the open model, with the arrival rate changing linearly during the ramp up
+		 * @param arrivalRate Users per second at start of the test
+		 * @param targetArrivalRate Users per second after the ramp up
+		 * @return
+		 */
+		public Builder setArrivalRate(double arrivalRate, double targetArrivalRate)
+		{
+			this.arrivalRate = arrivalRate;
+			this.targetArrivalRate = targetArrivalRate;
+			return this;
+		}
+
+		/**
+		 * Running the virtual users on virtual threads, if the JVM supports them (Java 21 or later).
+		 * <br>
+		 * Waiting for responses, polls and WAIT_TIME don't hold a platform thread, so a lot more users can be run.
+		 * Raise the connection limits of the transport along with the users, see {@code PooledHttpTransport.Builder}.
+		 * @param virtualThreads
+		 * @return
+		 */
+		public Builder setVirtualThreads(boolean virtualThreads)
+		{
+			this.virtualThreads = virtualThreads;
+			return this;
+		}
+
+		/**
+		 * Passing the supplier creating an authenticator for each virtual user.
+		 * <br>
+		 * Each user logs in with its own authenticator, the users share the login of the suite by default.
+		 * @param userAuthenticator
+		 * @return
+		 */
+		public Builder setUserAuthenticator(Supplier<? extends RestAuthenticator> userAuthenticator)
+		{
+			this.userAuthenticator = userAuthenticator;
+			return this;
+		}
+
+		/**
+		 * Builds the configuration passed, and returns the configuration object
+		 * @return {@link LoadTestConfiguration}
+		 */
+		public LoadTestConfiguration build() {
+			return new LoadTestConfiguration(this);
+		}
+	}
+}
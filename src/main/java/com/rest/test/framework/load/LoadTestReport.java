@@ -0,0 +1,480 @@
+package com.rest.test.framework.load;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.rest.test.framework.ApiTestInfo;
+import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.network.RequestTimings;
+import com.rest.test.framework.network.RequestTimings.Phase;
+import com.rest.test.framework.util.LatencyHistogram;
+
+/**
+ * Throughput and latency of a load test, collected from all the virtual users.
+ * <br>
+ * Results are kept per API call of the property file, and written as CSV by {@code downloadReport}.
+ * @author SrinivasDonapati
+ *
+ */
+public class LoadTestReport
+{
+	private static final String COMMA_DELIMITER = ",";
+	private static final String NEW_LINE_SEPARATOR = "\n";
+	private static final int MAX_ERROR_MESSAGES = 10;
+
+	private static final String FILE_HEADER = "S.No,API,URL,Count,Errors,Min(ms),Avg(ms),P50(ms),P90(ms),P99(ms),P99.9(ms),Max(ms),Throughput(req/s)";
+
+	private final String testName;
+	private final int users;
+	// API ids follow the declaration order
+	private final Map<Long, ApiCallStats> apiStats = new TreeMap<>();
+	private final List<String> errorMessages = Collections.synchronizedList(new ArrayList<String>());
+	private final AtomicLong iterations = new AtomicLong();
+	private final AtomicLong failedIterations = new AtomicLong();
+	private final AtomicLong totalStartDelay = new AtomicLong();
+	private final AtomicLong maxStartDelay = new AtomicLong();
+	private final LatencyHistogram iterationLatency = new LatencyHistogram();
+	private long startTime;
+	private long endTime;
+
+	public LoadTestReport(ApiTestInfo apiTestInfo, int users)
+	{
+		this.testName = apiTestInfo.getTestName();
+		this.users = users;
+		for (ApiCallInfo apiCallInfo : apiTestInfo.getApiReqList()) {
+			apiStats.put(apiCallInfo.getId(), new ApiCallStats(apiCallInfo));
+		}
+	}
+
+	void start()
+	{
+		startTime = System.nanoTime();
+	}
+
+	void finish()
+	{
+		endTime = System.nanoTime();
+	}
+
+	/**
+	 * Adding the result of an API call run by a virtual user
+	 * @param apiCallInfo
+	 * @param responseTime Time in nanoseconds, 0 if the request was not sent
+	 * @param timings Time spent in each phase of the API call
+	 * @param error Error of the API call, null if it succeeded
+	 */
+	void addResult(ApiCallInfo apiCallInfo, long responseTime, RequestTimings timings, Throwable error)
+	{
+		ApiCallStats stats = apiStats.get(apiCallInfo.getId());
+		if (stats != null) {
+			stats.add(responseTime, timings, error != null);
+		}
+		if (error != null) {
+			addError(apiCallInfo.getName() + ": " + error.getMessage());
+		}
+	}
+
+	/**
+	 * Adding an error, which is not caused by an API call (e.g. login of a virtual user)
+	 * @param message
+	 */
+	void addError(String message)
+	{
+		if (errorMessages.size() < MAX_ERROR_MESSAGES) {
+			errorMessages.add(message);
+		}
+	}
+
+	/**
+	 * Adding the time an arrival of the open model waited, before its user started
+	 * @param startDelay Time in nanoseconds
+	 */
+	void addStartDelay(long startDelay)
+	{
+		totalStartDelay.addAndGet(startDelay);
+		while (true) {
+			long max = maxStartDelay.get();
+			if (startDelay <= max || maxStartDelay.compareAndSet(max, startDelay)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Adding the result of an iteration run by a virtual user
+	 * @param isSuccess true if all the API calls of the iteration succeeded
+	 * @param latency Time from the intended start to the end of the iteration, in nanoseconds
+	 */
+	void iterationCompleted(boolean isSuccess, long latency)
+	{
+		iterations.incrementAndGet();
+		iterationLatency.record(latency);
+		if (!isSuccess) {
+			failedIterations.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the name of the test class
+	 * @return
+	 */
+	public String getTestName()
+	{
+		return testName;
+	}
+
+	/**
+	 * Returns the number of virtual users
+	 * @return
+	 */
+	public int getUsers()
+	{
+		return users;
+	}
+
+	/**
+	 * Returns the number of iterations run by all the virtual users
+	 * @return
+	 */
+	public long getIterations()
+	{
+		return iterations.get();
+	}
+
+	/**
+	 * Returns the number of iterations stopped by a failed API call
+	 * @return
+	 */
+	public long getFailedIterations()
+	{
+		return failedIterations.get();
+	}
+
+	/**
+	 * Returns the time taken by the iterations, from their intended start to their end.
+	 * <br>
+	 * For the open model, the intended start is the time the arrival was scheduled at,
+	 * so the time an arrival waited for a free user or thread is included.
+	 * @return {@link LatencyHistogram}
+	 */
+	public LatencyHistogram getIterationLatency()
+	{
+		return iterationLatency;
+	}
+
+	/**
+	 * Returns the average time arrivals of the open model waited, before their users started.
+	 * <br>
+	 * A high value means the server or the load generator can't keep up with the arrival rate.
+	 * @return Time in nanoseconds
+	 */
+	public long getAvgStartDelay()
+	{
+		long count = iterations.get();
+		return count == 0 ? 0 : totalStartDelay.get() / count;
+	}
+
+	/**
+	 * Returns the maximum time an arrival of the open model waited, before its user started
+	 * @return Time in nanoseconds
+	 */
+	public long getMaxStartDelay()
+	{
+		return maxStartDelay.get();
+	}
+
+	/**
+	 * Returns the time taken by the load test
+	 * @return Time in milliseconds
+	 */
+	public long getElapsedTime()
+	{
+		long end = endTime > 0 ? endTime : System.nanoTime();
+		return TimeUnit.NANOSECONDS.toMillis(end - startTime);
+	}
+
+	/**
+	 * Returns the results of each API call, in the order of the property file
+	 * @return
+	 */
+	public List<ApiCallStats> getApiCallStats()
+	{
+		return new ArrayList<>(apiStats.values());
+	}
+
+	/**
+	 * Returns the number of API calls run
+	 * @return
+	 */
+	public long getRequestCount()
+	{
+		long count = 0;
+		for (ApiCallStats stats : apiStats.values()) {
+			count += stats.getCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of API calls failed
+	 * @return
+	 */
+	public long getErrorCount()
+	{
+		long errors = 0;
+		for (ApiCallStats stats : apiStats.values()) {
+			errors += stats.getErrors();
+		}
+		return errors;
+	}
+
+	/**
+	 * Returns the ratio of failed API calls
+	 * @return Value between 0 and 1
+	 */
+	public double getErrorRate()
+	{
+		long count = getRequestCount();
+		return count == 0 ? 0 : (double) getErrorCount() / count;
+	}
+
+	/**
+	 * Returns the API calls run per second by all the virtual users
+	 * @return
+	 */
+	public double getThroughput()
+	{
+		return throughput(getRequestCount());
+	}
+
+	/**
+	 * Returns the first errors occurred in the load test
+	 * @return
+	 */
+	public List<String> getErrorMessages()
+	{
+		return new ArrayList<>(errorMessages);
+	}
+
+	private double throughput(long count)
+	{
+		long elapsedTime = getElapsedTime();
+		return elapsedTime == 0 ? 0 : count * 1000.0 / elapsedTime;
+	}
+
+	/**
+	 * Writing the report as CSV file
+	 * @param filePath
+	 */
+	public void downloadReport(String filePath)
+	{
+		File file = new File(filePath);
+		if (file.getParentFile() != null && !file.getParentFile().exists()) {
+			file.getParentFile().mkdirs();
+		}
+
+		FileWriter fileWriter = null;
+		try {
+			fileWriter = new FileWriter(file);
+			fileWriter.append(FILE_HEADER);
+			for (Phase phase : Phase.values()) {
+				fileWriter.append(COMMA_DELIMITER).append(phase.getLabel()).append("(ms)");
+			}
+			fileWriter.append(NEW_LINE_SEPARATOR);
+
+			int sno = 1;
+			for (ApiCallStats stats : apiStats.values()) {
+				fileWriter.append(String.valueOf(sno++)).append(COMMA_DELIMITER);
+				fileWriter.append(stats.getApiName()).append(COMMA_DELIMITER);
+				fileWriter.append(stats.getUrl()).append(COMMA_DELIMITER);
+				fileWriter.append(String.valueOf(stats.getCount())).append(COMMA_DELIMITER);
+				fileWriter.append(String.valueOf(stats.getErrors())).append(COMMA_DELIMITER);
+				appendLatency(fileWriter, stats.getLatency());
+				fileWriter.append(format(throughput(stats.getCount())));
+				for (Phase phase : Phase.values()) {
+					fileWriter.append(COMMA_DELIMITER).append(formatTime(stats.getAvgPhaseTime(phase)));
+				}
+				fileWriter.append(NEW_LINE_SEPARATOR);
+			}
+
+			fileWriter.append(COMMA_DELIMITER + "Total" + COMMA_DELIMITER + COMMA_DELIMITER);
+			fileWriter.append(String.valueOf(getRequestCount())).append(COMMA_DELIMITER);
+			fileWriter.append(String.valueOf(getErrorCount())).append(COMMA_DELIMITER);
+			fileWriter.append(COMMA_DELIMITER + COMMA_DELIMITER + COMMA_DELIMITER
+					+ COMMA_DELIMITER + COMMA_DELIMITER + COMMA_DELIMITER + COMMA_DELIMITER);
+			fileWriter.append(format(getThroughput()));
+			fileWriter.append(NEW_LINE_SEPARATOR);
+
+			fileWriter.append(COMMA_DELIMITER + "Iteration" + COMMA_DELIMITER + COMMA_DELIMITER);
+			fileWriter.append(String.valueOf(getIterations())).append(COMMA_DELIMITER);
+			fileWriter.append(String.valueOf(getFailedIterations())).append(COMMA_DELIMITER);
+			appendLatency(fileWriter, iterationLatency);
+			fileWriter.append(format(throughput(getIterations())));
+			fileWriter.append(NEW_LINE_SEPARATOR);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			try {
+				if (fileWriter != null) {
+					fileWriter.flush();
+					fileWriter.close();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static void appendLatency(FileWriter fileWriter, LatencyHistogram latency) throws IOException
+	{
+		fileWriter.append(format(latency.getMin())).append(COMMA_DELIMITER);
+		fileWriter.append(format(latency.getMean())).append(COMMA_DELIMITER);
+		fileWriter.append(format(latency.getPercentile(50))).append(COMMA_DELIMITER);
+		fileWriter.append(format(latency.getPercentile(90))).append(COMMA_DELIMITER);
+		fileWriter.append(format(latency.getPercentile(99))).append(COMMA_DELIMITER);
+		fileWriter.append(format(latency.getPercentile(99.9))).append(COMMA_DELIMITER);
+		fileWriter.append(format(latency.getMax())).append(COMMA_DELIMITER);
+	}
+
+	private static String formatTime(long nanos)
+	{
+		return format(nanos / 1000000.0);
+	}
+
+	private static String format(double value)
+	{
+		return String.format(Locale.ROOT, "%.2f", value);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder report = new StringBuilder();
+		report.append("Load test[").append(testName).append("]: ")
+				.append(users).append(" users, ")
+				.append(getIterations()).append(" iterations, ")
+				.append(getRequestCount()).append(" requests, ")
+				.append(getErrorCount()).append(" errors in ")
+				.append(getElapsedTime()).append(" ms, ")
+				.append(format(getThroughput())).append(" req/s");
+		if (maxStartDelay.get() > 0) {
+			report.append(", start delay avg=").append(formatTime(getAvgStartDelay()))
+					.append(", max=").append(formatTime(getMaxStartDelay())).append(" ms");
+		}
+		report.append("\n");
+		if (iterationLatency.getCount() > 0) {
+			report.append("  Iteration: avg=").append(format(iterationLatency.getMean()))
+					.append(", p50=").append(format(iterationLatency.getPercentile(50)))
+					.append(", p90=").append(format(iterationLatency.getPercentile(90)))
+					.append(", p99=").append(format(iterationLatency.getPercentile(99)))
+					.append(", p99.9=").append(format(iterationLatency.getPercentile(99.9)))
+					.append(", max=").append(format(iterationLatency.getMax())).append(" ms\n");
+		}
+
+		for (ApiCallStats stats : apiStats.values()) {
+			LatencyHistogram latency = stats.getLatency();
+			report.append("  ").append(stats.getApiName())
+					.append(": count=").append(stats.getCount())
+					.append(", errors=").append(stats.getErrors())
+					.append(", avg=").append(format(latency.getMean()))
+					.append(", p50=").append(format(latency.getPercentile(50)))
+					.append(", p90=").append(format(latency.getPercentile(90)))
+					.append(", p99=").append(format(latency.getPercentile(99)))
+					.append(", p99.9=").append(format(latency.getPercentile(99.9)))
+					.append(", max=").append(format(latency.getMax())).append(" ms\n");
+			report.append("    phases:");
+			for (Phase phase : Phase.values()) {
+				report.append(" ").append(phase.getLabel()).append("=").append(formatTime(stats.getAvgPhaseTime(phase)));
+			}
+			report.append(" ms\n");
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Results of a single API call of the property file
+	 */
+	public static class ApiCallStats
+	{
+		private final String apiName;
+		private final String url;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final RequestTimings timings = new RequestTimings();
+		private long count;
+		private long errors;
+		private long timingsCount;
+
+		ApiCallStats(ApiCallInfo apiCallInfo)
+		{
+			this.apiName = apiCallInfo.getName();
+			this.url = apiCallInfo.getMethod() + ":" + (apiCallInfo.getUrl() != null ? apiCallInfo.getUrl().split("\\?")[0] : "");
+		}
+
+		synchronized void add(long responseTime, RequestTimings requestTimings, boolean isError)
+		{
+			count++;
+			if (isError) {
+				errors++;
+			}
+			if (requestTimings != null) {
+				timings.add(requestTimings);
+				timingsCount++;
+			}
+			if (responseTime > 0) {
+				latency.record(responseTime);
+			}
+		}
+
+		public String getApiName()
+		{
+			return apiName;
+		}
+
+		/**
+		 * Returns the declared URL of the API call, without the query
+		 * @return
+		 */
+		public String getUrl()
+		{
+			return url;
+		}
+
+		public synchronized long getCount()
+		{
+			return count;
+		}
+
+		public synchronized long getErrors()
+		{
+			return errors;
+		}
+
+		/**
+		 * Returns the average time spent in a phase of the API call
+		 * @param phase
+		 * @return Time in nanoseconds
+		 */
+		public synchronized long getAvgPhaseTime(Phase phase)
+		{
+			return timingsCount == 0 ? 0 : timings.get(phase) / timingsCount;
+		}
+
+		/**
+		 * Returns the response times of the API call, with microsecond resolution
+		 * @return {@link LatencyHistogram}
+		 */
+		public LatencyHistogram getLatency()
+		{
+			return latency;
+		}
+	}
+}
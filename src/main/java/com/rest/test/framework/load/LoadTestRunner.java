@@ -0,0 +1,298 @@
+package com.rest.test.framework.load;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.rest.test.framework.ApiTestInfo;
+import com.rest.test.framework.network.RestNetworkUtil;
+import com.rest.test.framework.util.ApiTestPropertyReader;
+import com.rest.test.framework.util.RequestTemplate.VariableResolver;
+import com.rest.test.framework.util.ThreadUtil;
+
+/**
+ * Runs the API calls of a property file as load test, with the virtual users of {@link LoadTestConfiguration}.
+ * <br><br>
+ * Each virtual user gets a session of the rest util passed (same connections and headers, own cookies),
+ * its own variables and new RANDOM_VALUE and SYSTEM_TIME values for each API call.
+ * The {@link ApiTestInfo} is shared by all the users and never modified.
+ * <pre>
+ * LoadTestReport report = new LoadTestRunner("Twitter/tweet_test.properties", restUtil, loadConfig).run();
+ * report.downloadReport("target/tweet_test_load.csv");
+ * </pre>
+ * With an arrival rate, users are started on schedule instead (open model), see {@code LoadTestConfiguration.Builder.setArrivalRate}.
+ * <br>
+ * Enable {@code RestSuiteConfiguration.Builder.setLoadTestConfiguration} to run all the property files of a suite as load tests.
+ * @author SrinivasDonapati
+ *
+ */
+public class LoadTestRunner
+{
+	private final ApiTestInfo apiTestInfo;
+	private final VariableResolver parentVariables;
+	private final RestNetworkUtil restUtil;
+	private final LoadTestConfiguration config;
+	private final LoadTestReport report;
+	private long deadline;
+	private ExecutorService executor;
+	private boolean isScriptEngineEnabled;
+	private boolean isAdaptivePolling = true;
+
+	/**
+	 * Creating load test of a property file
+	 * @param propertyFilePath Class path of the property file
+	 * @param restUtil Rest util, whose sessions are used by the virtual users
+	 * @param config {@link LoadTestConfiguration}
+	 * @throws Exception
+	 */
+	public LoadTestRunner(String propertyFilePath, RestNetworkUtil restUtil, LoadTestConfiguration config) throws Exception
+	{
+		this(readApiTestInfo(propertyFilePath), restUtil, config);
+	}
+
+	/**
+	 * Creating load test of a test class
+	 * @param apiTestInfo Test class info
+	 * @param restUtil Rest util, whose sessions are used by the virtual users
+	 * @param config {@link LoadTestConfiguration}
+	 */
+	public LoadTestRunner(ApiTestInfo apiTestInfo, RestNetworkUtil restUtil, LoadTestConfiguration config)
+	{
+		this(apiTestInfo, null, restUtil, config);
+	}
+
+	/**
+	 * Creating load test of a test class
+	 * @param apiTestInfo Test class info
+	 * @param parentVariables Variables visible to all the users (e.g. suite variables), only read by the users, can be null
+	 * @param restUtil Rest util, whose sessions are used by the virtual users
+	 * @param config {@link LoadTestConfiguration}
+	 */
+	public LoadTestRunner(ApiTestInfo apiTestInfo, VariableResolver parentVariables, RestNetworkUtil restUtil, LoadTestConfiguration config)
+	{
+		this.apiTestInfo = apiTestInfo;
+		this.parentVariables = parentVariables;
+		this.restUtil = restUtil;
+		this.config = config;
+		this.report = new LoadTestReport(apiTestInfo, config.getUsers());
+	}
+
+	private static ApiTestInfo readApiTestInfo(String propertyFilePath) throws Exception
+	{
+		InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(propertyFilePath);
+		if (in == null) {
+			throw new IllegalArgumentException("Property file not found: " + propertyFilePath);
+		}
+		ApiTestPropertyReader props = new ApiTestPropertyReader();
+		try {
+			props.load(in);
+		} finally {
+			in.close();
+		}
+		ApiTestInfo apiTestInfo = props.getApiTestInfo();
+		apiTestInfo.setPropertyFilePath(propertyFilePath);
+		return apiTestInfo;
+	}
+
+	/**
+	 * Running the load test, returns after all the virtual users are finished
+	 * @return {@link LoadTestReport}
+	 * @throws InterruptedException
+	 */
+	public LoadTestReport run() throws InterruptedException
+	{
+		int users = config.getUsers();
+		executor = Executors.newFixedThreadPool(users,
+				ThreadUtil.newThreadFactory("LoadTest-" + apiTestInfo.getTestName(), config.isVirtualThreads()));
+		report.start();
+		deadline = config.getDuration() > 0 ? System.currentTimeMillis() + config.getDuration() : Long.MAX_VALUE;
+		try {
+			if (config.isOpenModel()) {
+				runArrivals();
+				return report;
+			}
+			
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < users; i++) {
+				long rampUpDelay = config.getRampUp() * i / users;
+				futures.add(new VirtualUser(i + 1, this, rampUpDelay).start());
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					throw e;
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			report.finish();
+		}
+		return report;
+	}
+
+	/**
+	 * Running the open model, a new user is started at the scheduled time of each arrival.
+	 * <br>
+	 * Arrivals are never skipped. If all the users are busy, the arrival waits for a free user
+	 * and the waiting time is added to the latency of its API calls.
+	 * @throws InterruptedException
+	 */
+	private void runArrivals() throws InterruptedException
+	{
+		final Semaphore freeUsers = new Semaphore(config.getUsers());
+		long startTime = System.nanoTime();
+		long duration = TimeUnit.MILLISECONDS.toNanos(config.getDuration());
+
+		for (long arrival = 0; config.getIterations() <= 0 || arrival < config.getIterations(); arrival++) {
+			long arrivalTime = getArrivalTime(arrival);
+			if (arrivalTime == Long.MAX_VALUE || (duration > 0 && arrivalTime >= duration)) {
+				break;
+			}
+
+			final long intendedStartTime = startTime + arrivalTime;
+			long waitTime = intendedStartTime - System.nanoTime();
+			if (waitTime > 0) {
+				TimeUnit.NANOSECONDS.sleep(waitTime);
+			}
+
+			freeUsers.acquire();
+			final VirtualUser user = new VirtualUser(arrival + 1, this, 0);
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					user.runArrival(intendedStartTime).whenComplete(new BiConsumer<Void, Throwable>() {
+						@Override
+						public void accept(Void result, Throwable error) {
+							freeUsers.release();
+						}
+					});
+				}
+			});
+		}
+
+		// Waiting for the users of the last arrivals
+		freeUsers.acquire(config.getUsers());
+	}
+
+	/**
+	 * Returns the time of an arrival since start of the test.
+	 * <br>
+	 * During ramp up the arrival rate changes linearly, so the number of arrivals till time t is
+	 * {@code rate * t + (targetRate - rate) * t * t / (2 * rampUp)}, which is solved for t.
+	 * @param arrival Number of the arrival, starting with 0
+	 * @return Time in nanoseconds, Long.MAX_VALUE if the arrival never happens
+	 */
+	long getArrivalTime(long arrival)
+	{
+		double rate = config.getArrivalRate();
+		double targetRate = config.getTargetArrivalRate();
+		double rampUp = config.getRampUp() / 1000.0;
+		double rampUpArrivals = rampUp * (rate + targetRate) / 2;
+
+		double seconds;
+		if (rampUp > 0 && rate != targetRate && arrival < rampUpArrivals) {
+			double acceleration = (targetRate - rate) / (2 * rampUp);
+			seconds = (-rate + Math.sqrt(rate * rate + 4 * acceleration * arrival)) / (2 * acceleration);
+		} else if (targetRate <= 0) {
+			return Long.MAX_VALUE;
+		} else if (rampUp > 0 && rate != targetRate) {
+			seconds = rampUp + (arrival - rampUpArrivals) / targetRate;
+		} else {
+			seconds = arrival / targetRate;
+		}
+		return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * Checks whether a virtual user starts another iteration
+	 * @param iteration Number of iterations finished by the user
+	 * @return
+	 */
+	boolean shouldContinue(int iteration)
+	{
+		if (Thread.currentThread().isInterrupted()) {
+			return false;
+		}
+		if (config.getIterations() > 0 && iteration >= config.getIterations()) {
+			return false;
+		}
+		return System.currentTimeMillis() < deadline;
+	}
+
+	/**
+	 * Returns the executor running the API calls of the users, while the load test runs
+	 * @return
+	 */
+	Executor getExecutor()
+	{
+		return executor;
+	}
+
+	ApiTestInfo getApiTestInfo()
+	{
+		return apiTestInfo;
+	}
+
+	VariableResolver getParentVariables()
+	{
+		return parentVariables;
+	}
+
+	RestNetworkUtil getRestUtil()
+	{
+		return restUtil;
+	}
+
+	LoadTestConfiguration getConfiguration()
+	{
+		return config;
+	}
+
+	boolean isScriptEngineEnabled()
+	{
+		return isScriptEngineEnabled;
+	}
+
+	/**
+	 * Evaluating the test conditions by the JavaScript script engine instead of the built-in expressions
+	 * @param isScriptEngineEnabled
+	 */
+	public void setScriptEngineEnabled(boolean isScriptEngineEnabled)
+	{
+		this.isScriptEngineEnabled = isScriptEngineEnabled;
+	}
+
+	boolean isAdaptivePolling()
+	{
+		return isAdaptivePolling;
+	}
+
+	/**
+	 * Polling with backoff and jitter up to POLL_INTERVAL, or after the fixed POLL_INTERVAL
+	 * @param isAdaptivePolling
+	 */
+	public void setAdaptivePolling(boolean isAdaptivePolling)
+	{
+		this.isAdaptivePolling = isAdaptivePolling;
+	}
+
+	/**
+	 * Returns the report of the load test, filled while the test runs
+	 * @return {@link LoadTestReport}
+	 */
+	public LoadTestReport getReport()
+	{
+		return report;
+	}
+}
@@ -0,0 +1,367 @@
+package com.rest.test.framework.load;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import com.rest.test.framework.ApiCallContext;
+import com.rest.test.framework.ApiCallExecutor;
+import com.rest.test.framework.ApiTestInfo;
+import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.RestAuthenticator;
+import com.rest.test.framework.StepTimer;
+import com.rest.test.framework.VariableStore;
+import com.rest.test.framework.network.RestNetworkUtil;
+
+/**
+ * A virtual user of a load test, running the API calls of a property file.
+ * <br>
+ * Each user has its own variables, session (headers and cookies) and authenticator.
+ * Variables not declared by the user are looked up in the parent variables of the runner, which are never modified.
+ * <br>
+ * With a fixed number of users, each user runs the property file again and again ({@code run}).
+ * With an arrival rate, a new user runs the property file once for each arrival ({@code runArrival}).
+ * <br>
+ * A user holds a thread of the load test only while it runs API calls, ramp up delays, WAIT_TIMEs and polls
+ * are scheduled on the {@link StepTimer} and the user continues on the executor of the load test.
+ * @author SrinivasDonapati
+ *
+ */
+class VirtualUser implements ApiCallContext
+{
+	private final long userId;
+	private final LoadTestRunner runner;
+	private final ApiTestInfo apiTestInfo;
+	private final LoadTestConfiguration config;
+	private final LoadTestReport report;
+	private final long rampUpDelay;
+	private final Executor executor;
+	private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+	private final VariableStore variableStore;
+	private RestNetworkUtil restUtil;
+	private RestAuthenticator authenticator;
+
+	VirtualUser(long userId, LoadTestRunner runner, long rampUpDelay)
+	{
+		this.userId = userId;
+		this.runner = runner;
+		this.apiTestInfo = runner.getApiTestInfo();
+		this.config = runner.getConfiguration();
+		this.report = runner.getReport();
+		this.rampUpDelay = rampUpDelay;
+		this.executor = runner.getExecutor();
+		this.variableStore = new VariableStore(VariableStore.Scope.VIRTUAL_USER, runner.getParentVariables());
+	}
+
+	/**
+	 * Running the property file again and again, until the runner stops the user
+	 * @return Future completed once the user is finished and its session is ended
+	 */
+	CompletableFuture<Void> start()
+	{
+		continueAsync(StepTimer.delay(rampUpDelay, TimeUnit.MILLISECONDS).thenRunAsync(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					startSession();
+				} catch (Exception e) {
+					finish(e);
+					return;
+				}
+				runIterations(0);
+			}
+		}, executor));
+		return finished;
+	}
+
+	/**
+	 * Running the iterations of the user from the passed one.<br>
+	 * Iterations finished on the calling thread are run in a loop, an iteration waiting for a WAIT_TIME
+	 * continues the loop on the executor once it's finished.
+	 * @param firstIteration Number of iterations finished by the user
+	 */
+	private void runIterations(int firstIteration)
+	{
+		for (int iteration = firstIteration; runner.shouldContinue(iteration); iteration++) {
+			final long iterationStart = System.nanoTime();
+			CompletableFuture<Boolean> result = runIteration(0);
+			if (!result.isDone()) {
+				final int nextIteration = iteration + 1;
+				continueAsync(result.thenAcceptAsync(new Consumer<Boolean>() {
+					@Override
+					public void accept(Boolean isSuccess) {
+						report.iterationCompleted(isSuccess, System.nanoTime() - iterationStart);
+						runIterations(nextIteration);
+					}
+				}, executor));
+				return;
+			}
+			try {
+				report.iterationCompleted(result.join(), System.nanoTime() - iterationStart);
+			} catch (CompletionException e) {
+				finish(e.getCause());
+				return;
+			}
+		}
+		finish(null);
+	}
+
+	/**
+	 * Running the property file once for an arrival of the open model
+	 * @param intendedStartTime Time the arrival was scheduled at, in {@link System#nanoTime()}
+	 * @return Future completed once the user is finished and its session is ended
+	 */
+	CompletableFuture<Void> runArrival(final long intendedStartTime)
+	{
+		long startDelay = Math.max(0, System.nanoTime() - intendedStartTime);
+		report.addStartDelay(startDelay);
+		try {
+			startSession();
+		} catch (Exception e) {
+			finish(e);
+			return finished;
+		}
+		runIteration(startDelay).whenComplete(new BiConsumer<Boolean, Throwable>() {
+			@Override
+			public void accept(Boolean isSuccess, Throwable error) {
+				if (error == null) {
+					report.iterationCompleted(isSuccess, System.nanoTime() - intendedStartTime);
+				}
+				finish(error);
+			}
+		});
+		return finished;
+	}
+
+	/**
+	 * Finishing the user once, if a step continued on the executor fails
+	 * @param stage
+	 */
+	private void continueAsync(CompletableFuture<?> stage)
+	{
+		stage.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object result, Throwable error) {
+				if (error != null) {
+					finish(error);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Ending the session of the user and completing its future, only the first call has an effect
+	 * @param error Error stopping the user, null if the user is finished normally
+	 */
+	private synchronized void finish(Throwable error)
+	{
+		if (finished.isDone()) {
+			return;
+		}
+		if (error instanceof CompletionException && error.getCause() != null) {
+			error = error.getCause();
+		}
+		if (error != null) {
+			error.printStackTrace();
+			report.addError("User " + userId + ": " + error.getMessage());
+		}
+		endSession();
+		finished.complete(null);
+	}
+
+	/**
+	 * Creating the session of the user, and logging in if the users have their own authenticator
+	 */
+	private void startSession() throws Exception
+	{
+		restUtil = runner.getRestUtil().newSession();
+		if (config.getUserAuthenticator() != null) {
+			authenticator = config.getUserAuthenticator().get();
+			authenticator.setRestUtil(restUtil);
+			authenticator.start();
+		}
+	}
+
+	private void endSession()
+	{
+		if (authenticator != null) {
+			try {
+				authenticator.stop();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			authenticator = null;
+		}
+		if (restUtil != null) {
+			restUtil.close();
+		}
+	}
+
+	/**
+	 * Running all the API calls of the property file once.<br>
+	 * The iteration stops at the first failed API call, as the next calls usually depend on it.
+	 * <br>
+	 * A WAIT_TIME or a poll doesn't hold the thread of the user: the wait and the poll attempts are scheduled on the {@link StepTimer},
+	 * and the iteration continues on the executor of the load test once they are over.
+	 * <br>
+	 * Each API call is measured from its intended start: the steps of a late arrival are all shifted by its start delay,
+	 * so the delay is added to the latency of every API call, and the time an arrival waited
+	 * for a free user or thread is not omitted from the results of its later steps.
+	 * @param startDelay Time between the intended and actual start of the iteration, in nanoseconds
+	 * @return Future of the iteration, true if all the API calls succeeded
+	 */
+	private CompletableFuture<Boolean> runIteration(long startDelay)
+	{
+		CompletableFuture<Boolean> result = new CompletableFuture<>();
+		runSteps(0, false, null, startDelay, result);
+		return result;
+	}
+
+	/**
+	 * Running the API calls of the iteration from the passed one, until a call waits for its WAIT_TIME or its poll
+	 * @param firstStep Index of the first API call
+	 * @param isWaitOver true if the WAIT_TIME of the first API call is already over
+	 * @param startedCall Executor of the first API call whose poll is finished, null if it's not polled yet
+	 * @param startDelay
+	 * @param result Future of the iteration
+	 */
+	private void runSteps(int firstStep, boolean isWaitOver, ApiCallExecutor startedCall, long startDelay, CompletableFuture<Boolean> result)
+	{
+		try {
+			List<ApiCallInfo> apiCallList = apiTestInfo.getApiReqList();
+			for (int step = firstStep; step < apiCallList.size(); step++) {
+				ApiCallInfo apiCallInfo = apiCallList.get(step);
+				String apiName = apiCallInfo.getName();
+				if (apiName == null || apiName.trim().length() == 0) {
+					break;
+				}
+
+				if (apiCallInfo.getWaitTime() > 0 && !(isWaitOver && step == firstStep)) {
+					continueSteps(StepTimer.delay(apiCallInfo.getWaitTime(), TimeUnit.SECONDS), step, null, startDelay, result);
+					return;
+				}
+
+				ApiCallExecutor apiCallExecutor = step == firstStep ? startedCall : null;
+				if (apiCallExecutor == null) {
+					apiCallExecutor = newApiCallExecutor(apiCallInfo);
+					if (apiCallInfo.isPoll() && startPoll(apiCallExecutor)) {
+						continueSteps(apiCallExecutor.getStartedPoll(), step, apiCallExecutor, startDelay, result);
+						return;
+					}
+				}
+
+				if (!runStep(apiCallExecutor, apiCallInfo, startDelay)) {
+					result.complete(false);
+					return;
+				}
+			}
+			result.complete(true);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.completeExceptionally(e);
+		} catch (Exception e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Continuing the iteration on the executor once a WAIT_TIME or a poll is over, no thread is held meanwhile
+	 * @param stage Wait or poll of the API call
+	 * @param step Index of the API call
+	 * @param startedCall Executor of the API call whose poll is started, null for a wait
+	 * @param startDelay
+	 * @param result Future of the iteration
+	 */
+	private void continueSteps(CompletableFuture<?> stage, final int step, final ApiCallExecutor startedCall, final long startDelay,
+			final CompletableFuture<Boolean> result)
+	{
+		stage.handleAsync(new BiFunction<Object, Throwable, Void>() {
+			@Override
+			public Void apply(Object value, Throwable error) {
+				// A failed poll is reported by its step
+				runSteps(step, true, startedCall, startDelay, result);
+				return null;
+			}
+		}, executor).whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void value, Throwable error) {
+				if (error != null) {
+					result.completeExceptionally(error);
+				}
+			}
+		});
+	}
+
+	private ApiCallExecutor newApiCallExecutor(ApiCallInfo apiCallInfo)
+	{
+		ApiCallExecutor apiCallExecutor = new ApiCallExecutor(apiCallInfo, this);
+		apiCallExecutor.setLogEnabled(config.isLogMessages());
+		apiCallExecutor.setScriptEngineEnabled(runner.isScriptEngineEnabled());
+		apiCallExecutor.setAdaptivePolling(runner.isAdaptivePolling());
+		return apiCallExecutor;
+	}
+
+	/**
+	 * Starting the poll of an API call
+	 * @param apiCallExecutor
+	 * @return false if the API call can't be resolved, the error is reported by running the step
+	 */
+	private static boolean startPoll(ApiCallExecutor apiCallExecutor)
+	{
+		try {
+			apiCallExecutor.startPoll();
+			return true;
+		} catch (Exception | AssertionError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Running an API call of the iteration and adding its result to the report, the result of a started poll is evaluated
+	 * @param apiCallExecutor
+	 * @param apiCallInfo
+	 * @param startDelay Time between the intended and actual start of the iteration, in nanoseconds
+	 * @return true if the API call succeeded
+	 * @throws InterruptedException
+	 */
+	private boolean runStep(ApiCallExecutor apiCallExecutor, ApiCallInfo apiCallInfo, long startDelay) throws InterruptedException
+	{
+		try {
+			apiCallExecutor.execute();
+			report.addResult(apiCallInfo, apiCallExecutor.getResponseTime() + startDelay, apiCallExecutor.getTimings(), null);
+			return true;
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Exception | AssertionError e) {
+			long responseTime = apiCallExecutor.getResponseTime();
+			report.addResult(apiCallInfo, responseTime > 0 ? responseTime + startDelay : 0, apiCallExecutor.getTimings(), e);
+			return false;
+		} finally {
+			apiCallExecutor.releaseResponse();
+		}
+	}
+
+	@Override
+	public String getVariableValue(String variableName)
+	{
+		return variableStore.getVariableValue(variableName);
+	}
+
+	@Override
+	public void setVariableValue(String variableName, String variableValue)
+	{
+		variableStore.setVariableValue(variableName, variableValue);
+	}
+
+	@Override
+	public RestNetworkUtil getRestUtil()
+	{
+		return restUtil;
+	}
+}
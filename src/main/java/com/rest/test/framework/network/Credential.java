@@ -0,0 +1,101 @@
+package com.rest.test.framework.network;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credential fetched by a {@link TokenProvider}, the headers sent with each request until it expires.
+ * <br>
+ * A credential is not modified after it's created, so it's shared by all the threads sending requests.
+ * @author SrinivasDonapati
+ *
+ */
+public class Credential
+{
+	/**
+	 * Expiry time of a credential which doesn't expire
+	 */
+	public static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+	private final HeaderSet headers;
+	private final long expiryTime;
+
+	/**
+	 * @param headers Headers sent with each request, e.g. Authorization
+	 * @param expiryTime Expiry time in milliseconds since the epoch, {@link #NEVER_EXPIRES} if it doesn't expire
+	 */
+	public Credential(Map<String, String> headers, long expiryTime)
+	{
+		this.headers = HeaderSet.of(headers);
+		this.expiryTime = expiryTime;
+	}
+
+	/**
+	 * Creating a credential sending the token as bearer token in the Authorization header
+	 * @param token Access token
+	 * @param expiresIn Time the token is valid for, 0 or less if it doesn't expire
+	 * @param unit Unit of expiresIn
+	 * @return {@link Credential}
+	 */
+	public static Credential bearerToken(String token, long expiresIn, TimeUnit unit)
+	{
+		long expiryTime = expiresIn > 0 ? System.currentTimeMillis() + unit.toMillis(expiresIn) : NEVER_EXPIRES;
+		return new Credential(Collections.singletonMap("Authorization", "Bearer " + token), expiryTime);
+	}
+
+	/**
+	 * Returns the headers sent with each request
+	 * @return Unmodifiable map
+	 */
+	public Map<String, String> getHeaders()
+	{
+		return headers.toMap();
+	}
+
+	/**
+	 * Returns the headers sent with each request
+	 * @return {@link HeaderSet}
+	 */
+	public HeaderSet getHeaderSet()
+	{
+		return headers;
+	}
+
+	/**
+	 * Returns the expiry time in milliseconds since the epoch
+	 * @return {@link #NEVER_EXPIRES} if the credential doesn't expire
+	 */
+	public long getExpiryTime()
+	{
+		return expiryTime;
+	}
+
+	/**
+	 * Checks whether the credential is expired
+	 * @param currentTime Time in milliseconds since the epoch
+	 * @return
+	 */
+	public boolean isExpired(long currentTime)
+	{
+		return currentTime >= expiryTime;
+	}
+
+	/**
+	 * Checks whether the credential expires within the given time
+	 * @param currentTime Time in milliseconds since the epoch
+	 * @param margin Time in milliseconds
+	 * @return
+	 */
+	public boolean isExpiring(long currentTime, long margin)
+	{
+		return expiryTime != NEVER_EXPIRES && currentTime >= expiryTime - margin;
+	}
+
+	@Override
+	public String toString()
+	{
+		// Header values are secrets, only the names are printed
+		return "Credential[headers=" + headers.toMap().keySet() + ", expiryTime=" + expiryTime + "]";
+	}
+}
@@ -0,0 +1,294 @@
+package com.rest.test.framework.network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Credential of a {@link TokenProvider}, shared by all the requests of a rest util and its sessions.
+ * <br>
+ * <li>The credential is fetched on first use and kept until it's about to expire</li>
+ * <li>Only one fetch is in flight at a time, all the threads needing a credential wait for it</li>
+ * <li>A credential about to expire is refreshed in the background, requests keep using it meanwhile</li>
+ * <li>A refresh is scheduled before the credential expires, so idle periods of a long run don't make requests wait for it</li>
+ * <li>The refresh margin is at most half the lifetime of a credential, short-lived tokens are not refreshed right after their fetch</li>
+ * <li>A credential rejected by the server is refreshed once by the rest util, which sends the request again with the new credential</li>
+ * <br>
+ * A failed background refresh is retried after {@link #RETRY_DELAY} ms, requests wait for a fetch only once the credential is expired.
+ * @author SrinivasDonapati
+ *
+ */
+public class CredentialCache
+{
+	/**
+	 * Time before the expiry the credential is refreshed at, in milliseconds
+	 */
+	public static final long DEFAULT_REFRESH_MARGIN = 30 * 1000;
+	/**
+	 * Time between background refreshes after a failure, in milliseconds
+	 */
+	public static final long RETRY_DELAY = 1000;
+
+	private static final ScheduledExecutorService REFRESH_EXECUTOR = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "credential-refresh-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final TokenProvider tokenProvider;
+	private final RestNetworkUtil restUtil;
+	private final long refreshMargin;
+
+	private volatile Credential credential;
+	private volatile long credentialMargin;
+	private final AtomicReference<CompletableFuture<Credential>> pendingRefresh = new AtomicReference<>();
+	private final ThreadLocal<Boolean> isFetching = new ThreadLocal<>();
+	private volatile ScheduledFuture<?> scheduledRefresh;
+	private volatile long nextBackgroundRefresh;
+	private volatile boolean isClosed;
+	private final AtomicLong refreshCount = new AtomicLong();
+
+	/**
+	 * Creating the cache with the default refresh margin
+	 * @param tokenProvider
+	 * @param restUtil Rest util passed to the token provider
+	 */
+	public CredentialCache(TokenProvider tokenProvider, RestNetworkUtil restUtil)
+	{
+		this(tokenProvider, restUtil, DEFAULT_REFRESH_MARGIN);
+	}
+
+	/**
+	 * @param tokenProvider
+	 * @param restUtil Rest util passed to the token provider
+	 * @param refreshMargin Time before the expiry the credential is refreshed at, in milliseconds
+	 */
+	public CredentialCache(TokenProvider tokenProvider, RestNetworkUtil restUtil, long refreshMargin)
+	{
+		if (refreshMargin < 0) {
+			throw new IllegalArgumentException("Invalid refresh margin : " + refreshMargin);
+		}
+		this.tokenProvider = tokenProvider;
+		this.restUtil = restUtil;
+		this.refreshMargin = refreshMargin;
+	}
+
+	/**
+	 * Returns the credential, fetching it if there is none or it's expired
+	 * @return {@link Credential}, null while the token provider is fetching on this thread
+	 * @throws Exception if the credential can't be fetched
+	 */
+	public Credential getCredential() throws Exception
+	{
+		if (isFetching.get() != null) {
+			// Requests of the token provider are sent without the credential
+			return null;
+		}
+		Credential current = credential;
+		long currentTime = System.currentTimeMillis();
+		if (current == null || current.isExpired(currentTime)) {
+			return await(startRefresh(false));
+		}
+		if (current.isExpiring(currentTime, credentialMargin) && currentTime >= nextBackgroundRefresh) {
+			startRefresh(true);
+		}
+		return current;
+	}
+
+	/**
+	 * Fetching a new credential, whichever credential is cached.
+	 * A fetch already in flight is waited for instead of starting another one.
+	 * Use {@link #refresh(Credential)} after the server rejected a credential.
+	 * @return {@link Credential}
+	 * @throws Exception if the credential can't be fetched
+	 */
+	public Credential refresh() throws Exception
+	{
+		return refresh(null);
+	}
+
+	/**
+	 * Fetching a new credential after the server rejected one.
+	 * <br>
+	 * If the cached credential already replaced the rejected one, it's returned without fetching.
+	 * So threads getting a rejection one after another for the same credential cause a single fetch.
+	 * A fetch already in flight is waited for instead of starting another one.
+	 * @param rejected Credential sent with the rejected request, null to fetch in any case
+	 * @return {@link Credential}
+	 * @throws Exception if the credential can't be fetched
+	 */
+	public Credential refresh(Credential rejected) throws Exception
+	{
+		if (isFetching.get() != null) {
+			throw new IllegalStateException("Credential is refreshed by the token provider");
+		}
+		if (rejected != null) {
+			Credential current = credential;
+			if (current != null && current != rejected && !current.isExpired(System.currentTimeMillis())) {
+				return current;
+			}
+		}
+		return await(startRefresh(false));
+	}
+
+	/**
+	 * Fetching a new credential after the server rejected one, without blocking the calling thread.
+	 * <br>
+	 * Works like {@link #refresh(Credential)}, the fetch runs on the refresh threads.
+	 * @param rejected Credential sent with the rejected request, null to fetch in any case
+	 * @return Future completed with the {@link Credential}
+	 */
+	public CompletableFuture<Credential> refreshAsync(Credential rejected)
+	{
+		if (rejected != null) {
+			Credential current = credential;
+			if (current != null && current != rejected && !current.isExpired(System.currentTimeMillis())) {
+				return CompletableFuture.completedFuture(current);
+			}
+		}
+		return startRefresh(true);
+	}
+
+	/**
+	 * Returns the number of credentials fetched
+	 * @return
+	 */
+	public long getRefreshCount()
+	{
+		return refreshCount.get();
+	}
+
+	/**
+	 * Cancelling the scheduled refresh, the credential is not refreshed anymore
+	 */
+	public void close()
+	{
+		isClosed = true;
+		ScheduledFuture<?> refresh = scheduledRefresh;
+		if (refresh != null) {
+			refresh.cancel(false);
+		}
+		credential = null;
+	}
+
+	/**
+	 * Starting a fetch unless one is already in flight
+	 * @param isBackground true to fetch on the refresh threads, otherwise the fetch runs on the calling thread
+	 * @return Future of the fetch in flight
+	 */
+	private CompletableFuture<Credential> startRefresh(boolean isBackground)
+	{
+		while (true) {
+			CompletableFuture<Credential> refresh = pendingRefresh.get();
+			if (refresh != null) {
+				return refresh;
+			}
+			final CompletableFuture<Credential> newRefresh = new CompletableFuture<>();
+			if (!pendingRefresh.compareAndSet(null, newRefresh)) {
+				continue;
+			}
+			if (isBackground) {
+				REFRESH_EXECUTOR.execute(new Runnable() {
+					@Override
+					public void run() {
+						fetch(newRefresh);
+					}
+				});
+			} else {
+				fetch(newRefresh);
+			}
+			return newRefresh;
+		}
+	}
+
+	private void fetch(CompletableFuture<Credential> refresh)
+	{
+		isFetching.set(Boolean.TRUE);
+		try {
+			if (isClosed) {
+				throw new IllegalStateException("Credential cache is closed");
+			}
+			Credential newCredential = tokenProvider.fetchCredential(restUtil);
+			if (newCredential == null) {
+				throw new IllegalStateException("Token provider returned no credential");
+			}
+			// Set before the credential, so a request seeing the new credential never uses the margin of the previous one
+			credentialMargin = getRefreshMargin(newCredential, System.currentTimeMillis());
+			credential = newCredential;
+			refreshCount.incrementAndGet();
+			scheduleRefresh(newCredential);
+			// Cleared before completing, so the waiting threads start a new fetch only for a newer expiry
+			pendingRefresh.compareAndSet(refresh, null);
+			refresh.complete(newCredential);
+		} catch (Throwable e) {
+			nextBackgroundRefresh = System.currentTimeMillis() + RETRY_DELAY;
+			pendingRefresh.compareAndSet(refresh, null);
+			refresh.completeExceptionally(e);
+		} finally {
+			isFetching.remove();
+		}
+	}
+
+	private void scheduleRefresh(Credential newCredential)
+	{
+		ScheduledFuture<?> previousRefresh = scheduledRefresh;
+		if (previousRefresh != null) {
+			previousRefresh.cancel(false);
+		}
+		if (isClosed || newCredential.getExpiryTime() == Credential.NEVER_EXPIRES) {
+			return;
+		}
+		long delay = newCredential.getExpiryTime() - credentialMargin - System.currentTimeMillis();
+		scheduledRefresh = REFRESH_EXECUTOR.schedule(new Runnable() {
+			@Override
+			public void run() {
+				if (!isClosed) {
+					startRefresh(false);
+				}
+			}
+		}, Math.max(RETRY_DELAY, delay), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the refresh margin of a credential, at most half of its remaining lifetime
+	 * @param newCredential
+	 * @param currentTime Time in milliseconds since the epoch
+	 * @return Time in milliseconds
+	 */
+	private long getRefreshMargin(Credential newCredential, long currentTime)
+	{
+		if (newCredential.getExpiryTime() == Credential.NEVER_EXPIRES) {
+			return refreshMargin;
+		}
+		long lifetime = Math.max(0, newCredential.getExpiryTime() - currentTime);
+		return Math.min(refreshMargin, lifetime / 2);
+	}
+
+	private static Credential await(CompletableFuture<Credential> refresh) throws Exception
+	{
+		try {
+			return refresh.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package com.rest.test.framework.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+
+/**
+ * Immutable set of request headers, kept as arrays of names and values.
+ * <br>
+ * Header sets are built when the headers are declared, a test file's API call headers when it's compiled
+ * and the suite headers when they are changed, and they are merged into the headers of a request:
+ * <li>Names are compared ignoring case, the headers of the overlay replace the headers with the same name</li>
+ * <li>The overlay keeps its last merge, so merging the same sets again returns the same instance.
+ * An API call's headers are merged onto the same suite headers by every request</li>
+ * <li>The HttpClient headers and the map view are created on first use and kept</li>
+ * @author SrinivasDonapati
+ *
+ */
+public final class HeaderSet
+{
+	public static final HeaderSet EMPTY = new HeaderSet(new String[0], new String[0]);
+
+	/**
+	 * Content-Type sent when the headers don't have one
+	 */
+	public static final String DEFAULT_CONTENT_TYPE = "application/json; charset=utf8";
+
+	private static final String CONTENT_TYPE = "Content-Type";
+
+	private final String[] names;
+	private final String[] values;
+	private final boolean hasContentType;
+
+	private volatile Header[] httpHeaders;
+	private volatile Map<String, String> map;
+	private volatile MergedHeaderSet lastMerge;
+
+	private HeaderSet(String[] names, String[] values)
+	{
+		this.names = names;
+		this.values = values;
+		this.hasContentType = indexOf(CONTENT_TYPE) != -1;
+	}
+
+	/**
+	 * Creating the header set of the map, entries with null names or values are skipped
+	 * @param headers
+	 * @return {@link HeaderSet}
+	 */
+	public static HeaderSet of(Map<String, String> headers)
+	{
+		if (headers == null || headers.isEmpty()) {
+			return EMPTY;
+		}
+		List<String> names = new ArrayList<>(headers.size());
+		List<String> values = new ArrayList<>(headers.size());
+		for (Map.Entry<String, String> entry : headers.entrySet()) {
+			if (entry.getKey() != null && entry.getValue() != null) {
+				put(names, values, entry.getKey(), entry.getValue());
+			}
+		}
+		return create(names, values);
+	}
+
+	/**
+	 * Returns a copy of the set with the header, replacing the header with the same name
+	 * @param name
+	 * @param value Header value, null removes the header
+	 * @return {@link HeaderSet}
+	 */
+	public HeaderSet with(String name, String value)
+	{
+		List<String> newNames = toList(names);
+		List<String> newValues = toList(values);
+		if (value == null) {
+			int index = indexOf(newNames, name);
+			if (index == -1) {
+				return this;
+			}
+			newNames.remove(index);
+			newValues.remove(index);
+		} else {
+			put(newNames, newValues, name, value);
+		}
+		return create(newNames, newValues);
+	}
+
+	/**
+	 * Returns the headers of this set replaced and extended by the headers of the overlay
+	 * @param overlay
+	 * @return {@link HeaderSet}, this set or the overlay if the other one is empty
+	 */
+	public HeaderSet merge(HeaderSet overlay)
+	{
+		if (overlay == null || overlay.isEmpty()) {
+			return this;
+		}
+		if (isEmpty()) {
+			return overlay;
+		}
+		MergedHeaderSet merged = overlay.lastMerge;
+		if (merged != null && merged.base == this) {
+			return merged.result;
+		}
+		List<String> newNames = toList(names);
+		List<String> newValues = toList(values);
+		for (int i = 0; i < overlay.names.length; i++) {
+			put(newNames, newValues, overlay.names[i], overlay.values[i]);
+		}
+		HeaderSet result = create(newNames, newValues);
+		overlay.lastMerge = new MergedHeaderSet(this, result);
+		return result;
+	}
+
+	public int size()
+	{
+		return names.length;
+	}
+
+	public boolean isEmpty()
+	{
+		return names.length == 0;
+	}
+
+	public String getName(int index)
+	{
+		return names[index];
+	}
+
+	public String getValue(int index)
+	{
+		return values[index];
+	}
+
+	/**
+	 * Returns the header value
+	 * @param name Header name, compared ignoring case
+	 * @return Header value, null if the set doesn't have the header
+	 */
+	public String get(String name)
+	{
+		int index = indexOf(name);
+		return index == -1 ? null : values[index];
+	}
+
+	/**
+	 * Checks whether the set has a Content-Type header, transports send {@link #DEFAULT_CONTENT_TYPE} otherwise
+	 * @return
+	 */
+	public boolean hasContentType()
+	{
+		return hasContentType;
+	}
+
+	/**
+	 * Returns the headers as a map
+	 * @return Unmodifiable map, in the order of the set
+	 */
+	public Map<String, String> toMap()
+	{
+		Map<String, String> result = map;
+		if (result == null) {
+			Map<String, String> headers = new LinkedHashMap<>();
+			for (int i = 0; i < names.length; i++) {
+				headers.put(names[i], values[i]);
+			}
+			result = Collections.unmodifiableMap(headers);
+			map = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the headers for HttpClient, the array must not be modified
+	 * @return
+	 */
+	Header[] getHttpHeaders()
+	{
+		Header[] result = httpHeaders;
+		if (result == null) {
+			result = new Header[names.length];
+			for (int i = 0; i < names.length; i++) {
+				result[i] = new BasicHeader(names[i], values[i]);
+			}
+			httpHeaders = result;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString()
+	{
+		return toMap().toString();
+	}
+
+	private int indexOf(String name)
+	{
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOf(List<String> names, String name)
+	{
+		for (int i = 0; i < names.size(); i++) {
+			if (names.get(i).equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void put(List<String> names, List<String> values, String name, String value)
+	{
+		int index = indexOf(names, name);
+		if (index == -1) {
+			names.add(name);
+			values.add(value);
+		} else {
+			names.set(index, name);
+			values.set(index, value);
+		}
+	}
+
+	private static List<String> toList(String[] array)
+	{
+		List<String> list = new ArrayList<>(array.length + 1);
+		Collections.addAll(list, array);
+		return list;
+	}
+
+	private static HeaderSet create(List<String> names, List<String> values)
+	{
+		if (names.isEmpty()) {
+			return EMPTY;
+		}
+		return new HeaderSet(names.toArray(new String[names.size()]), values.toArray(new String[values.size()]));
+	}
+
+	/**
+	 * Result of the last merge of an overlay
+	 */
+	private static class MergedHeaderSet
+	{
+		private final HeaderSet base;
+		private final HeaderSet result;
+
+		MergedHeaderSet(HeaderSet base, HeaderSet result)
+		{
+			this.base = base;
+			this.result = result;
+		}
+	}
+}
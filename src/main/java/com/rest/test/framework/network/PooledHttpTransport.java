@@ -0,0 +1,753 @@
+package com.rest.test.framework.network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.cookie.ClientCookie;
+import org.apache.http.cookie.Cookie;
+import org.apache.http.entity.ContentType;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.ManagedNHttpClientConnection;
+import org.apache.http.nio.conn.NHttpConnectionFactory;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
+
+import com.rest.test.framework.network.RequestTimings.Phase;
+import com.rest.test.framework.network.RestNetworkUtil.RestCallResponse;
+
+/**
+ * Default {@link RestTransport} implementation.
+ * <br>
+ * Keeps the connections alive in a pool (Apache HttpClient), so the TCP and TLS handshakes are done once per connection
+ * instead of once per API call. Idle connections are evicted in the background.
+ * <br>
+ * Asynchronous requests are sent through a non-blocking client (Apache HttpAsyncClient) with its own pool,
+ * which is created on the first asynchronous request and uses the same limits and cookies.
+ * Requests carrying their own cookie store use it instead of the cookies of the transport.
+ * <br>
+ * Blocking requests measure DNS, connect, TLS handshake, send, time to first byte and download separately
+ * ({@code RestCallResponse.getTimings}). Asynchronous requests don't report the phases.
+ * <br>
+ * Bodies of asynchronous responses are collected as they arrive with the limits of the {@link ResponseMemoryBudget},
+ * large bodies are written to a file instead of the heap. Values of a response extractor are extracted from the received body,
+ * off the I/O threads of the client.
+ * <br><br>
+ * Use {@link Builder} to customize the pool:
+ * <pre>
+ * RestTransport transport = new PooledHttpTransport.Builder()
+ * 		.setMaxConnectionsPerHost(50)
+ * 		.setIdleConnectionTimeout(30, TimeUnit.SECONDS)
+ * 		.build();
+ * </pre>
+ * @author SrinivasDonapati
+ *
+ */
+public class PooledHttpTransport implements RestTransport {
+	private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+	private static final int DEFAULT_MAX_CONNECTIONS = 200;
+	private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30 * 1000;
+
+	private final int maxConnectionsPerHost;
+	private final int maxConnections;
+	private final long idleTimeoutMillis;
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final CloseableHttpClient httpClient;
+	// Created on first use, read without locking by each async request
+	private volatile PoolingNHttpClientConnectionManager asyncConnectionManager;
+	private volatile CloseableHttpAsyncClient asyncHttpClient;
+	private final AtomicLong lastAsyncEviction = new AtomicLong();
+	private volatile boolean closed = false;
+	private final CookieStore cookieStore = new BasicCookieStore();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong connectionsCreated = new AtomicLong();
+	
+	private static final String TIMINGS_ATTRIBUTE = "rest.request.timings";
+	// DNS resolver is not given the execution context, blocking requests resolve hosts on the calling thread
+	private static final ThreadLocal<RequestTimings> CURRENT_TIMINGS = new ThreadLocal<>();
+	private static final Header DEFAULT_CONTENT_TYPE_HEADER = new BasicHeader("Content-Type", HeaderSet.DEFAULT_CONTENT_TYPE);
+
+	/**
+	 * Creating a pooled transport with default settings
+	 */
+	public PooledHttpTransport() {
+		this(new Builder());
+	}
+
+	private PooledHttpTransport(final Builder builder) {
+		this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+		this.maxConnections = builder.maxConnections;
+		this.idleTimeoutMillis = builder.idleTimeoutMillis;
+		connectionManager = new PoolingHttpClientConnectionManager(
+				RegistryBuilder.<ConnectionSocketFactory> create()
+						.register("http", new TimedPlainSocketFactory())
+						.register("https", new TimedSSLSocketFactory())
+						.build(),
+				new CountingConnectionFactory(), new TimedDnsResolver());
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+		connectionManager.setMaxTotal(Math.max(maxConnections, maxConnectionsPerHost));
+
+		httpClient = HttpClientBuilder.create()
+				.useSystemProperties()
+				.setConnectionManager(connectionManager)
+				.setDefaultCookieStore(cookieStore)
+				.setRequestExecutor(new TimedRequestExecutor())
+				.evictExpiredConnections()
+				.evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	@Override
+	public RestCallResponse execute(RestHttpRequest request) throws Exception {
+		HttpUriRequest httpRequest = buildRequest(request);
+		requestCount.incrementAndGet();
+
+		RequestTimings timings = new RequestTimings();
+		HttpClientContext context = createContext(request);
+		context.setAttribute(TIMINGS_ATTRIBUTE, timings);
+
+		CloseableHttpResponse httpResponse;
+		CURRENT_TIMINGS.set(timings);
+		try {
+			httpResponse = httpClient.execute(httpRequest, context);
+		} finally {
+			CURRENT_TIMINGS.remove();
+		}
+		try {
+			RestCallResponse restCallResponse = new RestCallResponse();
+			restCallResponse.setStatus(httpResponse.getStatusLine().getStatusCode());
+
+			HttpEntity entity = httpResponse.getEntity();
+			if (entity != null) {
+				long startTime = System.nanoTime();
+				InputStream is = entity.getContent();
+				if (request.getResponseExtractor() != null) {
+					// Reading stops once the values are found, the connection is closed if a large part of the response is left
+					restCallResponse.setExtractedValues(request.getResponseExtractor().extract(is, ResponseBody.getCharset(getContentType(entity))));
+				} else {
+					// Reading the stream completely releases the connection back to the pool
+					restCallResponse.setBody(RestNetworkUtil.readBody(is, getContentType(entity), entity.getContentLength()));
+					EntityUtils.consume(entity);
+				}
+				timings.add(Phase.DOWNLOAD, System.nanoTime() - startTime);
+			}
+			restCallResponse.setHeaders(readHeaders(httpResponse));
+			restCallResponse.setTimings(timings);
+			return restCallResponse;
+		} finally {
+			httpResponse.close();
+		}
+	}
+
+	@Override
+	public CompletableFuture<RestCallResponse> executeAsync(RestHttpRequest request) {
+		final CompletableFuture<RestCallResponse> future = new CompletableFuture<>();
+		try {
+			HttpUriRequest httpRequest = buildRequest(request);
+			CloseableHttpAsyncClient client = getAsyncHttpClient();
+			requestCount.incrementAndGet();
+			client.execute(HttpAsyncMethods.create(httpRequest), new ResponseBodyConsumer(), createContext(request), new FutureCallback<RestCallResponse>() {
+				@Override
+				public void completed(RestCallResponse restCallResponse) {
+					if (request.getResponseExtractor() == null || restCallResponse.getBody() == null) {
+						future.complete(restCallResponse);
+						return;
+					}
+					extractValues(request, restCallResponse, future);
+				}
+
+				@Override
+				public void failed(Exception e) {
+					future.completeExceptionally(e);
+				}
+
+				@Override
+				public void cancelled() {
+					future.cancel(false);
+				}
+			});
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Returns the non-blocking client, creating it on first use.
+	 * <br>
+	 * Only the creation locks the transport, requests sent once the client is started read it without locking.
+	 * @return
+	 * @throws IOReactorException
+	 */
+	private CloseableHttpAsyncClient getAsyncHttpClient() throws IOReactorException {
+		CloseableHttpAsyncClient client = asyncHttpClient;
+		if (client == null || closed) {
+			synchronized (this) {
+				if (closed) {
+					throw new IllegalStateException("Transport is closed");
+				}
+				client = asyncHttpClient;
+				if (client == null) {
+					PoolingNHttpClientConnectionManager manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(),
+							new CountingAsyncConnectionFactory());
+					manager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+					manager.setMaxTotal(Math.max(maxConnections, maxConnectionsPerHost));
+
+					client = HttpAsyncClients.custom()
+							.useSystemProperties()
+							.setConnectionManager(manager)
+							.setDefaultCookieStore(cookieStore)
+							.build();
+					client.start();
+					lastAsyncEviction.set(System.currentTimeMillis());
+					asyncConnectionManager = manager;
+					asyncHttpClient = client;
+				}
+			}
+		}
+		
+		// The non-blocking client doesn't run an evictor thread, idle connections are closed while sending requests,
+		// by the one request winning the update of the eviction time
+		long now = System.currentTimeMillis();
+		long lastEviction = lastAsyncEviction.get();
+		if (now - lastEviction > idleTimeoutMillis / 2 && lastAsyncEviction.compareAndSet(lastEviction, now)) {
+			PoolingNHttpClientConnectionManager manager = asyncConnectionManager;
+			if (manager != null) {
+				manager.closeExpiredConnections();
+				manager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * Extracting the values of the response extractor from the received body, the body is released afterwards.
+	 * Parsing runs on the common pool, the I/O threads of the client keep receiving other responses meanwhile.
+	 * @param request
+	 * @param restCallResponse
+	 * @param future Future of the request, completed with the response
+	 */
+	private static void extractValues(final RestHttpRequest request, final RestCallResponse restCallResponse,
+			final CompletableFuture<RestCallResponse> future) {
+		ForkJoinPool.commonPool().execute(new Runnable() {
+			@Override
+			public void run() {
+				ResponseBody body = restCallResponse.getBody();
+				try {
+					restCallResponse.setExtractedValues(request.getResponseExtractor().extract(body.openStream(), body.getCharset()));
+					restCallResponse.setBody(null);
+					future.complete(restCallResponse);
+				} catch (Exception e) {
+					future.completeExceptionally(e);
+				} finally {
+					body.release();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the Content-Type header of the entity
+	 * @param entity
+	 * @return null if the response has no Content-Type
+	 */
+	private static String getContentType(HttpEntity entity) {
+		Header contentType = entity.getContentType();
+		return contentType == null ? null : contentType.getValue();
+	}
+
+	/**
+	 * Creating the execution context of the request, using the cookie store of the request if it has one
+	 * @param request
+	 * @return
+	 */
+	private HttpClientContext createContext(RestHttpRequest request) {
+		HttpClientContext context = HttpClientContext.create();
+		if (request.getCookieStore() != null) {
+			context.setCookieStore(new CookieStoreBridge(request.getCookieStore(), context));
+		}
+		return context;
+	}
+
+	/**
+	 * Converting {@link RestHttpRequest} into HttpClient request
+	 * @param request
+	 * @return
+	 */
+	private HttpUriRequest buildRequest(RestHttpRequest request) {
+		String reqUrl = request.getUrl();
+		RequestBuilder requestBuilder;
+		try {
+			requestBuilder = RequestBuilder.create(request.getMethod()).setUri(reqUrl);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid url: " + reqUrl);
+		}
+
+		// Header names of a set are unique, the headers are added without looking up the previous ones
+		HeaderSet headers = request.getHeaderSet();
+		if (!headers.hasContentType()) {
+			requestBuilder.addHeader(DEFAULT_CONTENT_TYPE_HEADER);
+		}
+		for (Header header : headers.getHttpHeaders()) {
+			requestBuilder.addHeader(header);
+		}
+
+		if (request.getBody() != null) {
+			requestBuilder.setEntity(new ByteArrayEntity(request.getBody().getBytes(StandardCharsets.UTF_8)));
+		}
+		return requestBuilder.build();
+	}
+
+	/**
+	 * Reading response headers, last value wins for repeated headers
+	 * @param httpResponse
+	 * @return
+	 */
+	private Map<String, String> readHeaders(HttpResponse httpResponse) {
+		Map<String, String> responseHeaders = new HashMap<>();
+		for (Header header : httpResponse.getAllHeaders()) {
+			responseHeaders.put(header.getName(), header.getValue());
+		}
+		return responseHeaders;
+	}
+
+	@Override
+	public TransportStats getStats() {
+		PoolStats poolStats = connectionManager.getTotalStats();
+		int leased = poolStats.getLeased();
+		int available = poolStats.getAvailable();
+		PoolingNHttpClientConnectionManager manager = asyncConnectionManager;
+		if (manager != null) {
+			PoolStats asyncPoolStats = manager.getTotalStats();
+			leased += asyncPoolStats.getLeased();
+			available += asyncPoolStats.getAvailable();
+		}
+		return new TransportStats(requestCount.get(), connectionsCreated.get(), leased, available);
+	}
+
+	@Override
+	public void close() {
+		try {
+			httpClient.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		synchronized (this) {
+			closed = true;
+			if (asyncHttpClient != null) {
+				try {
+					asyncHttpClient.close();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				asyncHttpClient = null;
+				asyncConnectionManager = null;
+			}
+		}
+	}
+
+	/**
+	 * Consumer of the non-blocking client, collecting the body with a {@link ResponseBody.Receiver} as its parts arrive
+	 */
+	private class ResponseBodyConsumer extends AbstractAsyncResponseConsumer<RestCallResponse> {
+		private final ByteBuffer readBuffer = ByteBuffer.allocate(8 * 1024);
+		private HttpResponse httpResponse;
+		private ResponseBody.Receiver receiver;
+
+		@Override
+		protected void onResponseReceived(HttpResponse response) {
+			this.httpResponse = response;
+		}
+
+		@Override
+		protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+			receiver = new ResponseBody.Receiver(PooledHttpTransport.getContentType(entity), entity.getContentLength(), ResponseMemoryBudget.getDefault());
+		}
+
+		@Override
+		protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+			while (decoder.read(readBuffer) > 0) {
+				readBuffer.flip();
+				receiver.write(readBuffer);
+				readBuffer.clear();
+			}
+		}
+
+		@Override
+		protected RestCallResponse buildResult(HttpContext context) throws Exception {
+			RestCallResponse restCallResponse = new RestCallResponse();
+			restCallResponse.setStatus(httpResponse.getStatusLine().getStatusCode());
+			if (receiver != null) {
+				ResponseBody.Receiver finished = receiver;
+				receiver = null;
+				restCallResponse.setBody(finished.finish());
+			}
+			restCallResponse.setHeaders(readHeaders(httpResponse));
+			return restCallResponse;
+		}
+
+		@Override
+		protected void releaseResources() {
+			// The body is not finished if the request failed or was cancelled
+			if (receiver != null) {
+				receiver.abort();
+				receiver = null;
+			}
+		}
+	}
+
+	/**
+	 * Exposes a {@link java.net.CookieStore} to HttpClient, cookies are converted while storing and reading them.
+	 * <br>
+	 * Domain cookies are stored with a leading dot, so they keep matching the sub domains after conversion.
+	 * Only the cookies of the request being sent are read from the store, HttpClient sets the request in the context
+	 * before asking for the cookies.
+	 */
+	private static class CookieStoreBridge implements CookieStore {
+		private final java.net.CookieStore cookieStore;
+		private final HttpContext context;
+
+		CookieStoreBridge(java.net.CookieStore cookieStore, HttpContext context) {
+			this.cookieStore = cookieStore;
+			this.context = context;
+		}
+
+		@Override
+		public void addCookie(Cookie cookie) {
+			if (cookie == null) {
+				return;
+			}
+			HttpCookie httpCookie = new HttpCookie(cookie.getName(), cookie.getValue());
+			boolean isDomainCookie = cookie instanceof ClientCookie
+					&& ((ClientCookie) cookie).containsAttribute(ClientCookie.DOMAIN_ATTR);
+			String domain = cookie.getDomain();
+			httpCookie.setDomain(isDomainCookie && domain != null && !domain.startsWith(".") ? "." + domain : domain);
+			httpCookie.setPath(cookie.getPath() != null ? cookie.getPath() : "/");
+			httpCookie.setSecure(cookie.isSecure());
+			httpCookie.setVersion(0);
+			if (cookie.getExpiryDate() != null) {
+				// Expired cookies have max age 0, which removes them from the store
+				long maxAge = (cookie.getExpiryDate().getTime() - System.currentTimeMillis()) / 1000;
+				httpCookie.setMaxAge(Math.max(0, maxAge));
+			}
+			cookieStore.add(null, httpCookie);
+		}
+
+		@Override
+		public List<Cookie> getCookies() {
+			List<Cookie> cookies = new ArrayList<>();
+			URI uri = getRequestUri();
+			for (HttpCookie httpCookie : uri != null ? cookieStore.get(uri) : cookieStore.getCookies()) {
+				BasicClientCookie cookie = new BasicClientCookie(httpCookie.getName(), httpCookie.getValue());
+				String domain = httpCookie.getDomain();
+				if (domain != null && domain.startsWith(".")) {
+					domain = domain.substring(1);
+					cookie.setAttribute(ClientCookie.DOMAIN_ATTR, domain);
+				}
+				cookie.setDomain(domain);
+				cookie.setPath(httpCookie.getPath());
+				cookie.setSecure(httpCookie.getSecure());
+				cookies.add(cookie);
+			}
+			return cookies;
+		}
+
+		/**
+		 * Returns the URI of the request being sent
+		 * @return null if the context has no request yet
+		 */
+		private URI getRequestUri() {
+			Object target = context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+			Object request = context.getAttribute(HttpCoreContext.HTTP_REQUEST);
+			if (!(target instanceof HttpHost) || !(request instanceof HttpUriRequest)) {
+				return null;
+			}
+			HttpHost host = (HttpHost) target;
+			String path = ((HttpUriRequest) request).getURI().getPath();
+			try {
+				return new URI(host.getSchemeName(), null, host.getHostName(), host.getPort(),
+						path == null || path.isEmpty() ? "/" : path, null, null);
+			} catch (URISyntaxException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean clearExpired(Date date) {
+			// Expired cookies are removed by the store while reading them
+			return false;
+		}
+
+		@Override
+		public void clear() {
+			cookieStore.removeAll();
+		}
+	}
+
+	/**
+	 * Returns the timings of the request executed with the context
+	 * @param context
+	 * @return null if the request is not timed
+	 */
+	private static RequestTimings getTimings(HttpContext context) {
+		Object timings = context != null ? context.getAttribute(TIMINGS_ATTRIBUTE) : null;
+		return timings instanceof RequestTimings ? (RequestTimings) timings : null;
+	}
+
+	/**
+	 * DNS resolver measuring the time taken for resolving the host of a new connection
+	 */
+	private static class TimedDnsResolver implements DnsResolver {
+		@Override
+		public InetAddress[] resolve(String host) throws UnknownHostException {
+			long startTime = System.nanoTime();
+			try {
+				return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+			} finally {
+				RequestTimings timings = CURRENT_TIMINGS.get();
+				if (timings != null) {
+					timings.add(Phase.DNS, System.nanoTime() - startTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Socket factory of HTTP connections measuring the TCP connect
+	 */
+	private static class TimedPlainSocketFactory extends PlainConnectionSocketFactory {
+		@Override
+		public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+				InetSocketAddress localAddress, HttpContext context) throws IOException {
+			long startTime = System.nanoTime();
+			try {
+				return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+			} finally {
+				RequestTimings timings = getTimings(context);
+				if (timings != null) {
+					timings.add(Phase.CONNECT, System.nanoTime() - startTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Socket factory of HTTPS connections, same as {@code SSLConnectionSocketFactory.getSystemSocketFactory}.
+	 * <br>
+	 * The TLS handshake is done by {@code createLayeredSocket} once the socket is connected,
+	 * hence it is measured separately from the TCP connect.
+	 */
+	private static class TimedSSLSocketFactory extends SSLConnectionSocketFactory {
+		TimedSSLSocketFactory() {
+			super((javax.net.ssl.SSLSocketFactory) javax.net.ssl.SSLSocketFactory.getDefault(),
+					split(System.getProperty("https.protocols")),
+					split(System.getProperty("https.cipherSuites")),
+					getDefaultHostnameVerifier());
+		}
+
+		private static String[] split(String value) {
+			if (value == null || value.trim().isEmpty()) {
+				return null;
+			}
+			return value.trim().split(" *, *");
+		}
+
+		@Override
+		public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+				InetSocketAddress localAddress, HttpContext context) throws IOException {
+			long startTime = System.nanoTime();
+			RequestTimings timings = getTimings(context);
+			long tlsTime = timings != null ? timings.get(Phase.TLS) : 0;
+			try {
+				return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+			} finally {
+				if (timings != null) {
+					long handshakeTime = timings.get(Phase.TLS) - tlsTime;
+					timings.add(Phase.CONNECT, System.nanoTime() - startTime - handshakeTime);
+				}
+			}
+		}
+
+		@Override
+		public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+			long startTime = System.nanoTime();
+			try {
+				return super.createLayeredSocket(socket, target, port, context);
+			} finally {
+				RequestTimings timings = getTimings(context);
+				if (timings != null) {
+					timings.add(Phase.TLS, System.nanoTime() - startTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Request executor measuring the time taken for writing the request and receiving the response headers
+	 */
+	private static class TimedRequestExecutor extends HttpRequestExecutor {
+		@Override
+		protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+				throws IOException, HttpException {
+			long startTime = System.nanoTime();
+			try {
+				return super.doSendRequest(request, conn, context);
+			} finally {
+				RequestTimings timings = getTimings(context);
+				if (timings != null) {
+					timings.add(Phase.SEND, System.nanoTime() - startTime);
+				}
+			}
+		}
+
+		@Override
+		protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+				throws HttpException, IOException {
+			long startTime = System.nanoTime();
+			try {
+				return super.doReceiveResponse(request, conn, context);
+			} finally {
+				RequestTimings timings = getTimings(context);
+				if (timings != null) {
+					timings.add(Phase.WAIT, System.nanoTime() - startTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Connection factory counting the newly opened connections, used for reuse metrics
+	 */
+	private class CountingConnectionFactory implements HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> {
+		@Override
+		public ManagedHttpClientConnection create(HttpRoute route, ConnectionConfig config) {
+			connectionsCreated.incrementAndGet();
+			return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+		}
+	}
+
+	/**
+	 * Connection factory of the non-blocking client counting the newly opened connections
+	 */
+	private class CountingAsyncConnectionFactory implements NHttpConnectionFactory<ManagedNHttpClientConnection> {
+		@Override
+		public ManagedNHttpClientConnection create(IOSession session, ConnectionConfig config) {
+			connectionsCreated.incrementAndGet();
+			return ManagedNHttpClientConnectionFactory.INSTANCE.create(session, config);
+		}
+	}
+
+	/**
+	 * This builder class is used to customize the connection pool
+	 * @author SrinivasDonapati
+	 *
+	 */
+	public static class Builder {
+		private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+		private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+		private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+		/**
+		 * Sets the maximum number of connections kept open to a single host
+		 * @param maxConnectionsPerHost
+		 * @return
+		 */
+		public Builder setMaxConnectionsPerHost(int maxConnectionsPerHost)
+		{
+			this.maxConnectionsPerHost = maxConnectionsPerHost;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of connections kept open across all the hosts
+		 * @param maxConnections
+		 * @return
+		 */
+		public Builder setMaxConnections(int maxConnections)
+		{
+			this.maxConnections = maxConnections;
+			return this;
+		}
+
+		/**
+		 * Sets the time after which an unused connection is closed
+		 * @param idleTimeout
+		 * @param unit
+		 * @return
+		 */
+		public Builder setIdleConnectionTimeout(long idleTimeout, TimeUnit unit)
+		{
+			this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+			return this;
+		}
+
+		/**
+		 * Builds the transport
+		 * @return {@link PooledHttpTransport}
+		 */
+		public PooledHttpTransport build() {
+			return new PooledHttpTransport(this);
+		}
+	}
+}
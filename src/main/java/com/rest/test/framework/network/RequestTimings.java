@@ -0,0 +1,115 @@
+package com.rest.test.framework.network;
+
+import java.util.Locale;
+
+/**
+ * Time spent in each phase of an API call.
+ * <br>
+ * Network phases are measured by the {@link RestTransport}, a phase not measured by the transport
+ * (e.g. DNS and connect of a reused connection) stays 0. Resolving the API call and evaluating its response
+ * are measured by {@code ApiCallExecutor}, so the framework overhead is visible next to the network time.
+ * <br>
+ * Timings of several requests (e.g. polling) are summed by {@code add}.
+ * @author SrinivasDonapati
+ *
+ */
+public class RequestTimings
+{
+	/**
+	 * Phases of an API call, in the order they happen
+	 */
+	public enum Phase {
+		/** Resolving the variables of URL and request body */
+		RESOLVE("Resolve"),
+		/** Resolving the host name */
+		DNS("DNS"),
+		/** Opening the TCP connection */
+		CONNECT("Connect"),
+		/** TLS handshake */
+		TLS("TLS"),
+		/** Writing the request */
+		SEND("Send"),
+		/** Waiting for the response headers, time to first byte */
+		WAIT("TTFB"),
+		/** Reading the response body */
+		DOWNLOAD("Download"),
+		/** Checking the status, fetching variables and evaluating the test */
+		EVALUATE("Evaluate");
+
+		private final String label;
+
+		private Phase(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * Returns the name of the phase used in reports
+		 * @return
+		 */
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	private final long[] times = new long[Phase.values().length];
+
+	/**
+	 * Adding time to a phase
+	 * @param phase
+	 * @param nanos Time in nanoseconds
+	 */
+	public void add(Phase phase, long nanos)
+	{
+		times[phase.ordinal()] += Math.max(0, nanos);
+	}
+
+	/**
+	 * Adding the times of all the phases of other timings
+	 * @param other
+	 */
+	public void add(RequestTimings other)
+	{
+		if (other == null) {
+			return;
+		}
+		for (int i = 0; i < times.length; i++) {
+			times[i] += other.times[i];
+		}
+	}
+
+	/**
+	 * Returns the time spent in a phase
+	 * @param phase
+	 * @return Time in nanoseconds
+	 */
+	public long get(Phase phase)
+	{
+		return times[phase.ordinal()];
+	}
+
+	/**
+	 * Returns the time spent in all the phases
+	 * @return Time in nanoseconds
+	 */
+	public long getTotal()
+	{
+		long total = 0;
+		for (long time : times) {
+			total += time;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder timings = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			if (timings.length() > 0) {
+				timings.append(", ");
+			}
+			timings.append(phase.getLabel()).append("=").append(String.format(Locale.ROOT, "%.3f", get(phase) / 1000000.0));
+		}
+		return timings.append(" ms").toString();
+	}
+}
@@ -0,0 +1,535 @@
+package com.rest.test.framework.network;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Raw bytes of a response body, decoded into text only when the text is asked for.
+ * <br>
+ * The bytes are kept as they are received, the text is decoded with the charset of the Content-Type header
+ * and keeps all the white spaces of the response.
+ * <br>
+ * Bodies exceeding the {@link ResponseMemoryBudget} are written to a temporary file and read through a memory mapped buffer,
+ * the text of such a body is decoded each time it's asked for.
+ * The text of a body in heap is kept only if the budget has room for it too, two bytes a character.
+ * {@link #release()} gives back the memory of the body and deletes its file, the body can't be read after that.
+ * <br>
+ * Bodies received in parts by a non-blocking client are collected by a {@link Receiver} with the same limits.
+ * @author SrinivasDonapati
+ *
+ */
+public class ResponseBody
+{
+	/**
+	 * Charset used when the Content-Type header has no charset, the default of JSON
+	 */
+	public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+	private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+	// Larger buffers are not kept by the threads, a few large downloads shouldn't hold memory for the whole run
+	private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+	private static final int MAX_BODY_SIZE = Integer.MAX_VALUE - 8;
+
+	private static final ThreadLocal<byte[]> READ_BUFFER = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[INITIAL_BUFFER_SIZE];
+		}
+	};
+
+	private final byte[] bytes;
+	private final ByteBuffer buffer;
+	private final File file;
+	private final int length;
+	private final Charset charset;
+	private final ResponseMemoryBudget budget;
+	private final AtomicBoolean isReleased = new AtomicBoolean();
+	private volatile String text;
+	// Reserved for the kept text, guarded by this
+	private long textSize;
+
+	/**
+	 * @param bytes Body bytes, not copied
+	 * @param charset Charset of the body, null for {@link #DEFAULT_CHARSET}
+	 */
+	public ResponseBody(byte[] bytes, Charset charset)
+	{
+		this(bytes, charset, null);
+	}
+
+	private ResponseBody(byte[] bytes, Charset charset, ResponseMemoryBudget budget)
+	{
+		this.bytes = bytes;
+		this.buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+		this.file = null;
+		this.length = bytes.length;
+		this.charset = charset == null ? DEFAULT_CHARSET : charset;
+		this.budget = budget;
+	}
+
+	private ResponseBody(File file, ByteBuffer buffer, Charset charset)
+	{
+		this.bytes = null;
+		this.buffer = buffer;
+		this.file = file;
+		this.length = buffer.remaining();
+		this.charset = charset == null ? DEFAULT_CHARSET : charset;
+		this.budget = null;
+	}
+
+	/**
+	 * Reading the stream completely with the budget of {@link ResponseMemoryBudget#getDefault()}, the stream is not closed.
+	 * @param stream Response stream
+	 * @param contentType Content-Type header of the response, can be null
+	 * @param contentLength Length of the body if known, otherwise -1
+	 * @return {@link ResponseBody}
+	 * @throws IOException if reading the stream fails
+	 */
+	public static ResponseBody read(InputStream stream, String contentType, long contentLength) throws IOException
+	{
+		return read(stream, contentType, contentLength, ResponseMemoryBudget.getDefault());
+	}
+
+	/**
+	 * Reading the stream completely, the stream is not closed.
+	 * <br>
+	 * The stream is read into a buffer reused by the thread, grown as needed, the body gets a copy of the exact size.
+	 * The body is written to a file once it exceeds the limit of a response, or if the budget has no room for it.
+	 * @param stream Response stream
+	 * @param contentType Content-Type header of the response, can be null
+	 * @param contentLength Length of the body if known, otherwise -1
+	 * @param budget Memory allowed for the bodies in heap
+	 * @return {@link ResponseBody}
+	 * @throws IOException if reading the stream fails
+	 */
+	public static ResponseBody read(InputStream stream, String contentType, long contentLength, ResponseMemoryBudget budget) throws IOException
+	{
+		Charset charset = getCharset(contentType);
+		long responseLimit = budget.getResponseLimit();
+		if (contentLength > responseLimit) {
+			return spill(stream, null, 0, charset, budget);
+		}
+
+		byte[] buffer = READ_BUFFER.get();
+		if (contentLength >= buffer.length && contentLength < MAX_BODY_SIZE) {
+			// One more byte, the end of the stream is found without growing the buffer
+			buffer = new byte[(int) contentLength + 1];
+		}
+		int length = 0;
+		int count;
+		while ((count = stream.read(buffer, length, buffer.length - length)) != -1) {
+			length += count;
+			if (length > responseLimit) {
+				poolBuffer(buffer);
+				return spill(stream, buffer, length, charset, budget);
+			}
+			if (length == buffer.length) {
+				if (length >= MAX_BODY_SIZE) {
+					return spill(stream, buffer, length, charset, budget);
+				}
+				// Growing up to one byte more than the limit, larger bodies are spilled
+				long size = Math.min(buffer.length * 2L, Math.min(responseLimit, MAX_BODY_SIZE - 1) + 1);
+				buffer = Arrays.copyOf(buffer, (int) size);
+			}
+		}
+		poolBuffer(buffer);
+		if (!budget.reserve(length)) {
+			return spill(null, buffer, length, charset, budget);
+		}
+		return new ResponseBody(Arrays.copyOf(buffer, length), charset, budget);
+	}
+
+	private static void poolBuffer(byte[] buffer)
+	{
+		if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+			READ_BUFFER.set(buffer);
+		}
+	}
+
+	/**
+	 * Writing the body to a temporary file and mapping the file
+	 * @param stream Rest of the stream, null if the stream is read completely
+	 * @param prefix Bytes already read from the stream
+	 * @param prefixLength
+	 * @param charset
+	 * @param budget
+	 * @return {@link ResponseBody}
+	 * @throws IOException
+	 */
+	private static ResponseBody spill(InputStream stream, byte[] prefix, int prefixLength, Charset charset, ResponseMemoryBudget budget) throws IOException
+	{
+		File file = File.createTempFile("response-", ".body", budget.getSpillDirectory());
+		try {
+			long length = prefixLength;
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024)) {
+				if (prefixLength > 0) {
+					out.write(prefix, 0, prefixLength);
+				}
+				if (stream != null) {
+					byte[] buffer = new byte[64 * 1024];
+					int count;
+					while ((count = stream.read(buffer)) != -1) {
+						out.write(buffer, 0, count);
+						length += count;
+						if (length > MAX_BODY_SIZE) {
+							throw new IOException("Response is too large");
+						}
+					}
+				}
+			}
+			return map(file, length, charset, budget);
+		} catch (IOException | RuntimeException e) {
+			file.delete();
+			throw e;
+		}
+	}
+
+	/**
+	 * Mapping the file a body is written to
+	 * @param file
+	 * @param length
+	 * @param charset
+	 * @param budget
+	 * @return {@link ResponseBody}
+	 * @throws IOException
+	 */
+	private static ResponseBody map(File file, long length, Charset charset, ResponseMemoryBudget budget) throws IOException
+	{
+		ByteBuffer buffer;
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+			// The mapping stays valid after closing the channel
+			buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+		budget.recordSpill(length);
+		return new ResponseBody(file, buffer, charset);
+	}
+
+	/**
+	 * Returns the charset of the Content-Type header
+	 * @param contentType Content-Type header, e.g. {@code application/json; charset=UTF-8}
+	 * @return Charset, null if the header has no charset or the charset is not supported
+	 */
+	public static Charset getCharset(String contentType)
+	{
+		if (contentType == null) {
+			return null;
+		}
+		for (String parameter : contentType.split(";")) {
+			int index = parameter.indexOf('=');
+			if (index != -1 && parameter.substring(0, index).trim().equalsIgnoreCase("charset")) {
+				String name = parameter.substring(index + 1).trim();
+				if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+					name = name.substring(1, name.length() - 1);
+				}
+				try {
+					return Charset.forName(name);
+				} catch (IllegalArgumentException e) {
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the body bytes, the array must not be modified.
+	 * <br>
+	 * A body written to a file is copied into a new array, use {@link #getByteBuffer()} to read it without copying.
+	 * @return
+	 */
+	public byte[] getBytes()
+	{
+		checkReleased();
+		if (bytes != null) {
+			return bytes;
+		}
+		byte[] result = new byte[length];
+		buffer.duplicate().get(result);
+		return result;
+	}
+
+	/**
+	 * Returns a read only view of the body bytes
+	 * @return
+	 */
+	public ByteBuffer getByteBuffer()
+	{
+		checkReleased();
+		return buffer.duplicate();
+	}
+
+	/**
+	 * Returns a stream reading the body bytes, e.g. for extracting values without decoding the text
+	 * @return {@link InputStream}
+	 */
+	public InputStream openStream()
+	{
+		final ByteBuffer source = getByteBuffer();
+		return new InputStream() {
+			@Override
+			public int read() {
+				return source.hasRemaining() ? source.get() & 0xFF : -1;
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int count) {
+				if (count == 0) {
+					return 0;
+				}
+				if (!source.hasRemaining()) {
+					return -1;
+				}
+				count = Math.min(count, source.remaining());
+				source.get(bytes, offset, count);
+				return count;
+			}
+
+			@Override
+			public int available() {
+				return source.remaining();
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of bytes of the body
+	 * @return
+	 */
+	public int length()
+	{
+		return length;
+	}
+
+	public Charset getCharset()
+	{
+		return charset;
+	}
+
+	/**
+	 * Checks whether the body is written to a file instead of the heap
+	 * @return
+	 */
+	public boolean isSpilled()
+	{
+		return file != null;
+	}
+
+	/**
+	 * Returns the body text, decoded on first use.
+	 * <br>
+	 * The text of a body written to a file, or of a body the budget has no room for its text, is not kept,
+	 * it's decoded again by each call.
+	 * @return
+	 */
+	public String getText()
+	{
+		checkReleased();
+		String result = text;
+		if (result == null) {
+			if (bytes == null) {
+				return charset.decode(buffer.duplicate()).toString();
+			}
+			result = new String(bytes, charset);
+			keepText(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Keeping the decoded text if the budget has room for it
+	 * @param result
+	 */
+	private synchronized void keepText(String result)
+	{
+		if (text != null || isReleased.get()) {
+			return;
+		}
+		if (budget != null) {
+			long size = 2L * result.length();
+			if (!budget.reserve(size)) {
+				return;
+			}
+			textSize = size;
+		}
+		text = result;
+	}
+
+	/**
+	 * Giving back the memory of the body and deleting its file, called once the response is evaluated
+	 */
+	public void release()
+	{
+		if (!isReleased.compareAndSet(false, true)) {
+			return;
+		}
+		long reservedText;
+		synchronized (this) {
+			text = null;
+			reservedText = textSize;
+			textSize = 0;
+		}
+		if (budget != null) {
+			budget.release(length + reservedText);
+		}
+		if (file != null && !file.delete()) {
+			// Mapped files can't be deleted on some platforms until the mapping is collected
+			file.deleteOnExit();
+		}
+	}
+
+	/**
+	 * Checks whether the body is released
+	 * @return
+	 */
+	public boolean isReleased()
+	{
+		return isReleased.get();
+	}
+
+	private void checkReleased()
+	{
+		if (isReleased.get()) {
+			throw new IllegalStateException("Response body is released");
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return isReleased.get() ? "[released]" : getText();
+	}
+
+	/**
+	 * Collects a body received in parts, with the limits of {@link ResponseBody#read}.
+	 * <br>
+	 * Parts are kept in heap up to the limit of a response, a larger body is written to a temporary file as its parts arrive,
+	 * so it's never held in heap as a whole. A body in heap is written to a file if the budget has no room for it.
+	 * Not thread safe, the parts of a body are received one after another.
+	 */
+	static class Receiver
+	{
+		private final Charset charset;
+		private final ResponseMemoryBudget budget;
+		private final long responseLimit;
+		private byte[] buffer;
+		private int length;
+		private File file;
+		private FileChannel channel;
+		private long fileLength;
+
+		/**
+		 * @param contentType Content-Type header of the response, can be null
+		 * @param contentLength Length of the body if known, otherwise -1
+		 * @param budget Memory allowed for the bodies in heap
+		 */
+		Receiver(String contentType, long contentLength, ResponseMemoryBudget budget)
+		{
+			this.charset = getCharset(contentType);
+			this.budget = budget;
+			this.responseLimit = Math.min(budget.getResponseLimit(), MAX_BODY_SIZE - 1);
+			if (contentLength >= 0 && contentLength <= responseLimit) {
+				buffer = new byte[(int) contentLength];
+			} else {
+				buffer = new byte[(int) Math.min(INITIAL_BUFFER_SIZE, responseLimit)];
+			}
+		}
+
+		/**
+		 * Adding the next part of the body
+		 * @param part Bytes of the part, read completely
+		 * @throws IOException if writing the file fails or the body is too large
+		 */
+		void write(ByteBuffer part) throws IOException
+		{
+			if (channel == null) {
+				int count = part.remaining();
+				if ((long) length + count <= responseLimit) {
+					if (length + count > buffer.length) {
+						long size = Math.max(length + count, Math.min(buffer.length * 2L, responseLimit));
+						buffer = Arrays.copyOf(buffer, (int) size);
+					}
+					part.get(buffer, length, count);
+					length += count;
+					return;
+				}
+				openFile();
+			}
+			while (part.hasRemaining()) {
+				fileLength += channel.write(part);
+			}
+			if (fileLength > MAX_BODY_SIZE) {
+				throw new IOException("Response is too large");
+			}
+		}
+
+		/**
+		 * Returns the body once all of its parts are received
+		 * @return {@link ResponseBody}
+		 * @throws IOException
+		 */
+		ResponseBody finish() throws IOException
+		{
+			if (channel == null) {
+				if (!budget.reserve(length)) {
+					return spill(null, buffer, length, charset, budget);
+				}
+				return new ResponseBody(length == buffer.length ? buffer : Arrays.copyOf(buffer, length), charset, budget);
+			}
+			try {
+				channel.close();
+				channel = null;
+				return map(file, fileLength, charset, budget);
+			} catch (IOException | RuntimeException e) {
+				abort();
+				throw e;
+			}
+		}
+
+		/**
+		 * Deleting the file of a body which is not received completely
+		 */
+		void abort()
+		{
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					// File is deleted anyway
+				}
+				channel = null;
+			}
+			if (file != null) {
+				file.delete();
+			}
+			buffer = null;
+		}
+
+		private void openFile() throws IOException
+		{
+			file = File.createTempFile("response-", ".body", budget.getSpillDirectory());
+			try {
+				channel = new FileOutputStream(file).getChannel();
+				ByteBuffer prefix = ByteBuffer.wrap(buffer, 0, length);
+				while (prefix.hasRemaining()) {
+					fileLength += channel.write(prefix);
+				}
+			} catch (IOException | RuntimeException e) {
+				abort();
+				throw e;
+			}
+			buffer = null;
+			length = 0;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.rest.test.framework.network;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory allowed for the response bodies kept in heap, shared by all the suites of the JVM.
+ * <br>
+ * A body is written to a temporary file instead of the heap if:
+ * <li>It is larger than the limit of a response</li>
+ * <li>The bodies already in heap and the body together exceed the total limit</li>
+ * <br>
+ * The decoded text of a body in heap is kept only if the budget has room for it as well.
+ * The memory of a body and its text is given back when its response is released, once the API call is evaluated.
+ * @author SrinivasDonapati
+ *
+ */
+public class ResponseMemoryBudget
+{
+	public static final long DEFAULT_RESPONSE_LIMIT = 16L * 1024 * 1024;
+	public static final long DEFAULT_TOTAL_LIMIT = Math.max(DEFAULT_RESPONSE_LIMIT, Runtime.getRuntime().maxMemory() / 4);
+
+	private static final ResponseMemoryBudget DEFAULT_BUDGET = new ResponseMemoryBudget();
+
+	private volatile long responseLimit = DEFAULT_RESPONSE_LIMIT;
+	private volatile long totalLimit = DEFAULT_TOTAL_LIMIT;
+	private volatile File spillDirectory;
+
+	private final AtomicLong usedBytes = new AtomicLong();
+	private final AtomicLong spilledBodies = new AtomicLong();
+	private final AtomicLong spilledBytes = new AtomicLong();
+
+	/**
+	 * Returns the budget used by the transports
+	 * @return {@link ResponseMemoryBudget}
+	 */
+	public static ResponseMemoryBudget getDefault()
+	{
+		return DEFAULT_BUDGET;
+	}
+
+	/**
+	 * Returns the maximum size of a body kept in heap
+	 * @return Size in bytes
+	 */
+	public long getResponseLimit()
+	{
+		return responseLimit;
+	}
+
+	/**
+	 * Setting the maximum size of a body kept in heap
+	 * @param responseLimit Size in bytes, 0 to write all the bodies to files
+	 */
+	public void setResponseLimit(long responseLimit)
+	{
+		if (responseLimit < 0) {
+			throw new IllegalArgumentException("Invalid response memory limit : " + responseLimit);
+		}
+		this.responseLimit = responseLimit;
+	}
+
+	/**
+	 * Returns the maximum size of all the bodies kept in heap
+	 * @return Size in bytes
+	 */
+	public long getTotalLimit()
+	{
+		return totalLimit;
+	}
+
+	/**
+	 * Setting the maximum size of all the bodies kept in heap
+	 * @param totalLimit Size in bytes
+	 */
+	public void setTotalLimit(long totalLimit)
+	{
+		if (totalLimit < 0) {
+			throw new IllegalArgumentException("Invalid total response memory limit : " + totalLimit);
+		}
+		this.totalLimit = totalLimit;
+	}
+
+	/**
+	 * Returns the directory of the bodies written to files
+	 * @return Directory, null for the temporary directory of the JVM
+	 */
+	public File getSpillDirectory()
+	{
+		return spillDirectory;
+	}
+
+	/**
+	 * Setting the directory of the bodies written to files
+	 * @param spillDirectory Directory, null for the temporary directory of the JVM
+	 */
+	public void setSpillDirectory(File spillDirectory)
+	{
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Reserving heap for a body
+	 * @param size Size of the body in bytes
+	 * @return true if the body can be kept in heap, the size must be given back by {@link #release(long)}
+	 */
+	boolean reserve(long size)
+	{
+		if (size > responseLimit) {
+			return false;
+		}
+		while (true) {
+			long used = usedBytes.get();
+			if (used + size > totalLimit) {
+				return false;
+			}
+			if (usedBytes.compareAndSet(used, used + size)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Giving back the heap reserved for a body
+	 * @param size
+	 */
+	void release(long size)
+	{
+		usedBytes.addAndGet(-size);
+	}
+
+	void recordSpill(long size)
+	{
+		spilledBodies.incrementAndGet();
+		spilledBytes.addAndGet(size);
+	}
+
+	/**
+	 * Returns the size of the bodies in heap and of their kept texts, which are not released yet
+	 * @return Size in bytes
+	 */
+	public long getUsedBytes()
+	{
+		return usedBytes.get();
+	}
+
+	/**
+	 * Returns the number of bodies written to files
+	 * @return
+	 */
+	public long getSpilledBodies()
+	{
+		return spilledBodies.get();
+	}
+
+	/**
+	 * Returns the size of the bodies written to files
+	 * @return Size in bytes
+	 */
+	public long getSpilledBytes()
+	{
+		return spilledBytes.get();
+	}
+}
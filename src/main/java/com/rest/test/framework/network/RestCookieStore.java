@@ -0,0 +1,262 @@
+package com.rest.test.framework.network;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.CookieStore;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cookie store of a suite or a virtual user, safe for concurrent requests.
+ * <br>
+ * Cookies are indexed by their domain, and by their name and path within the domain.
+ * A lookup reads only the domains of the request host and its parent domains, so the cost doesn't grow with
+ * the cookies of other hosts.
+ * <li>Expired cookies are removed when they are found</li>
+ * <li>Secure cookies are returned only for https URIs</li>
+ * <li>Cookies are ordered by their path, longest first</li>
+ * <br>
+ * Each rest util has its own store, set on the requests it sends, so suites and virtual users running together
+ * don't share sessions through the default {@link java.net.CookieHandler} of the JVM.
+ * @author SrinivasDonapati
+ *
+ */
+public class RestCookieStore implements CookieStore
+{
+	// Domain without the leading dot -> name and path -> cookie
+	private final ConcurrentHashMap<String, Map<String, HttpCookie>> cookiesByDomain = new ConcurrentHashMap<>();
+
+	private static final Comparator<HttpCookie> PATH_LENGTH_ORDER = new Comparator<HttpCookie>() {
+		@Override
+		public int compare(HttpCookie cookie1, HttpCookie cookie2) {
+			return getPath(cookie2).length() - getPath(cookie1).length();
+		}
+	};
+
+	@Override
+	public void add(URI uri, HttpCookie cookie)
+	{
+		if (cookie == null) {
+			throw new NullPointerException("cookie is null");
+		}
+		if (cookie.getDomain() == null) {
+			if (uri == null || uri.getHost() == null) {
+				return;
+			}
+			cookie.setDomain(uri.getHost());
+		}
+		if (cookie.getPath() == null) {
+			cookie.setPath(getDefaultPath(uri));
+		}
+
+		String domain = getDomainKey(cookie.getDomain());
+		Map<String, HttpCookie> cookies = cookiesByDomain.get(domain);
+		if (cookie.hasExpired()) {
+			// Max age 0 removes the cookie
+			if (cookies != null) {
+				cookies.remove(getCookieKey(cookie));
+			}
+			return;
+		}
+		if (cookies == null) {
+			cookies = new ConcurrentHashMap<>();
+			Map<String, HttpCookie> existingCookies = cookiesByDomain.putIfAbsent(domain, cookies);
+			if (existingCookies != null) {
+				cookies = existingCookies;
+			}
+		}
+		cookies.put(getCookieKey(cookie), cookie);
+	}
+
+	@Override
+	public List<HttpCookie> get(URI uri)
+	{
+		if (uri == null) {
+			throw new NullPointerException("uri is null");
+		}
+		List<HttpCookie> result = new ArrayList<>();
+		String host = uri.getHost();
+		if (host == null) {
+			return result;
+		}
+		host = host.toLowerCase(Locale.ROOT);
+		String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+		boolean isSecure = "https".equalsIgnoreCase(uri.getScheme());
+
+		String domain = host;
+		while (true) {
+			addMatchingCookies(cookiesByDomain.get(domain), path, isSecure, result);
+			int index = domain.indexOf('.');
+			if (index == -1) {
+				break;
+			}
+			domain = domain.substring(index + 1);
+		}
+		if (host.indexOf('.') == -1) {
+			// CookieManager stores the cookies of hosts without dots under host.local
+			addMatchingCookies(cookiesByDomain.get(host + ".local"), path, isSecure, result);
+		}
+		if (result.size() > 1) {
+			Collections.sort(result, PATH_LENGTH_ORDER);
+		}
+		return result;
+	}
+
+	@Override
+	public List<HttpCookie> getCookies()
+	{
+		List<HttpCookie> result = new ArrayList<>();
+		for (Map<String, HttpCookie> cookies : cookiesByDomain.values()) {
+			Iterator<HttpCookie> iterator = cookies.values().iterator();
+			while (iterator.hasNext()) {
+				HttpCookie cookie = iterator.next();
+				if (cookie.hasExpired()) {
+					iterator.remove();
+				} else {
+					result.add(cookie);
+				}
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	@Override
+	public List<URI> getURIs()
+	{
+		List<URI> result = new ArrayList<>();
+		for (Map.Entry<String, Map<String, HttpCookie>> entry : cookiesByDomain.entrySet()) {
+			if (entry.getValue().isEmpty()) {
+				continue;
+			}
+			try {
+				result.add(new URI("http", entry.getKey(), "/", null));
+			} catch (URISyntaxException e) {
+				// Domain which can't be a host, not listed
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	@Override
+	public boolean remove(URI uri, HttpCookie cookie)
+	{
+		if (cookie == null) {
+			throw new NullPointerException("cookie is null");
+		}
+		String domain = cookie.getDomain() != null ? cookie.getDomain() : (uri != null ? uri.getHost() : null);
+		if (domain == null) {
+			return false;
+		}
+		Map<String, HttpCookie> cookies = cookiesByDomain.get(getDomainKey(domain));
+		return cookies != null && cookies.remove(getCookieKey(cookie)) != null;
+	}
+
+	@Override
+	public boolean removeAll()
+	{
+		boolean isModified = false;
+		for (Map<String, HttpCookie> cookies : cookiesByDomain.values()) {
+			isModified |= !cookies.isEmpty();
+		}
+		cookiesByDomain.clear();
+		return isModified;
+	}
+
+	/**
+	 * Returns the Cookie header of the request, for clients which don't handle cookies themselves
+	 * @param cookieStore
+	 * @param uri Request URI
+	 * @return Header value, null if there are no cookies for the URI
+	 * @throws IOException
+	 */
+	public static String getCookieHeader(CookieStore cookieStore, URI uri) throws IOException
+	{
+		Map<String, List<String>> cookieHeaders = new CookieManager(cookieStore, CookiePolicy.ACCEPT_ALL)
+				.get(uri, Collections.<String, List<String>>emptyMap());
+		List<String> values = cookieHeaders.get("Cookie");
+		if (values == null || values.isEmpty()) {
+			return null;
+		}
+		StringBuilder header = new StringBuilder();
+		for (String value : values) {
+			if (header.length() > 0) {
+				header.append("; ");
+			}
+			header.append(value);
+		}
+		return header.toString();
+	}
+
+	/**
+	 * Storing the cookies of the Set-Cookie headers of the response
+	 * @param cookieStore
+	 * @param uri Request URI
+	 * @param responseHeaders All the response headers
+	 * @throws IOException
+	 */
+	public static void storeCookies(CookieStore cookieStore, URI uri, Map<String, List<String>> responseHeaders) throws IOException
+	{
+		new CookieManager(cookieStore, CookiePolicy.ACCEPT_ALL).put(uri, responseHeaders);
+	}
+
+	private static void addMatchingCookies(Map<String, HttpCookie> cookies, String path, boolean isSecure, List<HttpCookie> result)
+	{
+		if (cookies == null) {
+			return;
+		}
+		Iterator<HttpCookie> iterator = cookies.values().iterator();
+		while (iterator.hasNext()) {
+			HttpCookie cookie = iterator.next();
+			if (cookie.hasExpired()) {
+				iterator.remove();
+			} else if ((isSecure || !cookie.getSecure()) && isPathMatch(path, getPath(cookie))) {
+				result.add(cookie);
+			}
+		}
+	}
+
+	private static boolean isPathMatch(String requestPath, String cookiePath)
+	{
+		if (!requestPath.startsWith(cookiePath)) {
+			return false;
+		}
+		return requestPath.length() == cookiePath.length() || cookiePath.endsWith("/")
+				|| requestPath.charAt(cookiePath.length()) == '/';
+	}
+
+	private static String getDefaultPath(URI uri)
+	{
+		String path = uri != null ? uri.getPath() : null;
+		if (path == null || !path.startsWith("/")) {
+			return "/";
+		}
+		int index = path.lastIndexOf('/');
+		return index == 0 ? "/" : path.substring(0, index);
+	}
+
+	private static String getPath(HttpCookie cookie)
+	{
+		return cookie.getPath() != null ? cookie.getPath() : "/";
+	}
+
+	private static String getDomainKey(String domain)
+	{
+		String key = domain.toLowerCase(Locale.ROOT);
+		return key.startsWith(".") ? key.substring(1) : key;
+	}
+
+	private static String getCookieKey(HttpCookie cookie)
+	{
+		return cookie.getName() + "\n" + getPath(cookie);
+	}
+}
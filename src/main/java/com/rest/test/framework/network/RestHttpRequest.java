@@ -0,0 +1,110 @@
+package com.rest.test.framework.network;
+
+import java.net.CookieStore;
+import java.util.Map;
+
+import com.rest.test.framework.util.StreamingExtractor;
+
+/**
+ * This class holds the information of a HTTP request, which is handed over to the {@link RestTransport}
+ * @author SrinivasDonapati
+ *
+ */
+public class RestHttpRequest {
+	private String method;
+	private String url;
+	private String body;
+	private HeaderSet headers;
+	private CookieStore cookieStore;
+	private StreamingExtractor responseExtractor;
+
+	public RestHttpRequest(String method, String url, String body, Map<String, String> headers) {
+		this(method, url, body, headers, null);
+	}
+
+	public RestHttpRequest(String method, String url, String body, Map<String, String> headers, CookieStore cookieStore) {
+		this(method, url, body, HeaderSet.of(headers), cookieStore);
+	}
+
+	public RestHttpRequest(String method, String url, String body, HeaderSet headers, CookieStore cookieStore) {
+		this.method = method;
+		this.url = url;
+		this.body = body;
+		this.headers = headers != null ? headers : HeaderSet.EMPTY;
+		this.cookieStore = cookieStore;
+	}
+
+	/**
+	 * Returns HTTP Method of the request
+	 * @return HTTP Method (GET | POST | PUT | DELETE)
+	 */
+	public String getMethod()
+	{
+		return method;
+	}
+
+	/**
+	 * Returns the absolute URL of the request
+	 * @return
+	 */
+	public String getUrl()
+	{
+		return url;
+	}
+
+	/**
+	 * Returns the request body
+	 * @return Request body, null if the request doesn't have a body
+	 */
+	public String getBody()
+	{
+		return body;
+	}
+
+	/**
+	 * Returns the request headers
+	 * @return Unmodifiable map
+	 */
+	public Map<String, String> getHeaders()
+	{
+		return headers.toMap();
+	}
+
+	/**
+	 * Returns the request headers, merged before the request is sent
+	 * @return {@link HeaderSet}
+	 */
+	public HeaderSet getHeaderSet()
+	{
+		return headers;
+	}
+
+	/**
+	 * Returns the cookies sent and updated by the request
+	 * @return Cookie store, null if the transport uses its own cookies
+	 */
+	public CookieStore getCookieStore()
+	{
+		return cookieStore;
+	}
+
+	/**
+	 * Returns the extractor of the values read while streaming the response
+	 * @return {@link StreamingExtractor}, null if the response is read completely
+	 */
+	public StreamingExtractor getResponseExtractor()
+	{
+		return responseExtractor;
+	}
+
+	/**
+	 * Extracting the values of the paths while reading the response, instead of reading the complete response.
+	 * <br>
+	 * Transports which don't support streaming read the complete response.
+	 * @param responseExtractor
+	 */
+	public void setResponseExtractor(StreamingExtractor responseExtractor)
+	{
+		this.responseExtractor = responseExtractor;
+	}
+}
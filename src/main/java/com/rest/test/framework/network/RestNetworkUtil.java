@@ -1,24 +1,24 @@
 package com.rest.test.framework.network;
 
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.net.CookieStore;
+import java.net.URI;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 import javax.ws.rs.HttpMethod;
+
+import org.apache.http.HttpStatus;
 import com.rest.test.framework.ApiTestInfo;
 import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
 import com.rest.test.framework.util.ApiTestConstants;
+import com.rest.test.framework.util.ParsedResponse;
+import com.rest.test.framework.util.StreamingExtractor.ExtractedValues;
 
 /**
  * Network utility class used for all the HTTP operations
@@ -30,23 +30,31 @@ import com.rest.test.framework.util.ApiTestConstants;
 public class RestNetworkUtil {
 	private String restBaseUrl = null;
 	
-	private Map<String, String> headers = new HashMap<>();
+	// Replaced, never modified, by the header setters
+	private volatile HeaderSet headers = HeaderSet.EMPTY;
+	
+	// Read without locking by every request, only created or replaced under the lock
+	private volatile RestTransport transport = null;
+	private boolean ownsTransport = true;
+	
+	private CookieStore cookieStore = new RestCookieStore();
+	private volatile CredentialCache credentialCache = null;
 	
 	/**
 	 * Adding new header to the list
 	 * @param key
 	 * @param value
 	 */
-	public void addHeader(String key, String value) {
-		headers.put(key, value);
+	public synchronized void addHeader(String key, String value) {
+		headers = headers.with(key, value);
 	}
 	
 	/**
 	 * Removing header from the list
 	 * @param key
 	 */
-	public void removeHeader(String key) {
-		headers.remove(key);
+	public synchronized void removeHeader(String key) {
+		headers = headers.with(key, null);
 	}
 	
 	/**
@@ -62,8 +70,8 @@ public class RestNetworkUtil {
 	 * Resetting headers by replacing old headers
 	 * @param headers
 	 */
-	public void setHeaders(Map<String, String> headers) {
-		this.headers = headers;
+	public synchronized void setHeaders(Map<String, String> headers) {
+		this.headers = HeaderSet.of(headers);
 	}
 	
 	/**
@@ -71,10 +79,18 @@ public class RestNetworkUtil {
 	 * @return
 	 */
 	public Map getHeaders() {
-		HashMap clonedHeaders = (HashMap) ((HashMap) headers).clone();
+		HashMap clonedHeaders = new HashMap<>(headers.toMap());
 		return clonedHeaders;
 	}
 	
+	/**
+	 * Returns the headers sent with each request, without the credential headers
+	 * @return {@link HeaderSet}
+	 */
+	public HeaderSet getHeaderSet() {
+		return headers;
+	}
+	
 	/**
 	 * Returns the base url
 	 * @return
@@ -100,7 +116,10 @@ public class RestNetworkUtil {
 		
 		try {
 			// Checking the connection using base URL
-			doGet(baseUrl, getHeaders());
+			RestCallResponse response = doGet(baseUrl, getHeaders());
+			if (response != null) {
+				response.release();
+			}
 		} catch(Exception e){
 			e.printStackTrace();
 		}
@@ -110,54 +129,189 @@ public class RestNetworkUtil {
 	
 	/**
 	 * Building and sending HTTP request using {@link ApiCallInfo}
+	 * <br>
+	 * Response is stored in the {@link ApiCallInfo}, use {@code sendRequestAsync} to send requests without blocking.
 	 * @param apiCallInfo 
 	 * @throws Exception
 	 */
 	public void sendRequest(ApiCallInfo apiCallInfo) throws Exception {
-		RestCallResponse restCallResponse = null;
-		Map<String, String> headers = getHeaders();
-		if (apiCallInfo.getHeaders() != null) {
-			for (Map.Entry<String, String> entry : apiCallInfo.getHeaders().entrySet()) {
-				String key = entry.getKey();
-				String value = entry.getValue();
-				headers.put(key, value);
+		apiCallInfo.setRestCallResponse(sendRequest(apiCallInfo, apiCallInfo.getUrl(), apiCallInfo.getRequest()));
+	}
+	
+	/**
+	 * Building and sending HTTP request using {@link ApiCallInfo}, with the URL and request body resolved by the caller.
+	 * <br>
+	 * {@link ApiCallInfo} is not modified, so the same API call can be sent by many threads at the same time.
+	 * @param apiCallInfo
+	 * @param url Resolved URL, relative to the base URL or absolute
+	 * @param requestBody Resolved request body
+	 * @return {@link RestCallResponse}, null for unsupported HTTP methods
+	 * @throws Exception
+	 */
+	public RestCallResponse sendRequest(ApiCallInfo apiCallInfo, String url, String requestBody) throws Exception {
+		CredentialCache cache = credentialCache;
+		Credential credential = getCredential(cache);
+		RestHttpRequest request = buildHttpRequest(apiCallInfo, url, requestBody, credential);
+		
+		if (isFileTransfer(request)) {
+			return transferFile(request);
+		} else if (!isSupportedMethod(request.getMethod())) {
+			return null;
+		}
+		
+		RestCallResponse response = sendHttpRequest(request);
+		if (isRejected(response, credential)) {
+			// Sent once more with the credential replacing the rejected one
+			response.release();
+			response = sendHttpRequest(buildHttpRequest(apiCallInfo, url, requestBody, cache.refresh(credential)));
+		}
+		return response;
+	}
+	
+	/**
+	 * Building and sending HTTP request using {@link ApiCallInfo}, without waiting for the response.
+	 * <br>
+	 * {@link ApiCallInfo} is not modified, the response is passed through the returned future.
+	 * Upload and download requests are executed on the calling thread.
+	 * @param apiCallInfo
+	 * @return Future completed with the {@link RestCallResponse}, or with null for unsupported HTTP methods
+	 */
+	public CompletableFuture<RestCallResponse> sendRequestAsync(ApiCallInfo apiCallInfo) {
+		return sendRequestAsync(apiCallInfo, apiCallInfo.getUrl(), apiCallInfo.getRequest());
+	}
+	
+	/**
+	 * Building and sending HTTP request using {@link ApiCallInfo} with the URL and request body resolved by the caller,
+	 * without waiting for the response.
+	 * <br>
+	 * A rejected credential is refreshed on the refresh threads of the {@link CredentialCache} before the request is sent again.
+	 * @param apiCallInfo
+	 * @param url Resolved URL, relative to the base URL or absolute
+	 * @param requestBody Resolved request body
+	 * @return Future completed with the {@link RestCallResponse}, or with null for unsupported HTTP methods
+	 */
+	public CompletableFuture<RestCallResponse> sendRequestAsync(final ApiCallInfo apiCallInfo, final String url, final String requestBody) {
+		try {
+			final CredentialCache cache = credentialCache;
+			final Credential credential = getCredential(cache);
+			RestHttpRequest request = buildHttpRequest(apiCallInfo, url, requestBody, credential);
+			
+			if (isFileTransfer(request)) {
+				return CompletableFuture.completedFuture(transferFile(request));
+			} else if (!isSupportedMethod(request.getMethod())) {
+				return CompletableFuture.completedFuture(null);
 			}
+			
+			CompletableFuture<RestCallResponse> response = getTransport().executeAsync(encodeUrl(request));
+			if (credential == null) {
+				return response;
+			}
+			return response.thenCompose(new Function<RestCallResponse, CompletableFuture<RestCallResponse>>() {
+				@Override
+				public CompletableFuture<RestCallResponse> apply(RestCallResponse rejectedResponse) {
+					if (!isRejected(rejectedResponse, credential)) {
+						return CompletableFuture.completedFuture(rejectedResponse);
+					}
+					rejectedResponse.release();
+					return cache.refreshAsync(credential).thenCompose(new Function<Credential, CompletableFuture<RestCallResponse>>() {
+						@Override
+						public CompletableFuture<RestCallResponse> apply(Credential newCredential) {
+							try {
+								return getTransport().executeAsync(encodeUrl(buildHttpRequest(apiCallInfo, url, requestBody, newCredential)));
+							} catch (Exception e) {
+								CompletableFuture<RestCallResponse> future = new CompletableFuture<>();
+								future.completeExceptionally(e);
+								return future;
+							}
+						}
+					});
+				}
+			});
+		} catch (Exception e) {
+			CompletableFuture<RestCallResponse> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
 		}
+	}
+	
+	/**
+	 * Merging suite headers, credential headers and API call headers, and resolving the absolute URL of the API Call
+	 * @param apiCallInfo
+	 * @param reqUrl
+	 * @param requestBody
+	 * @param credential Credential sent with the request, null to send only the headers of the rest util
+	 * @return
+	 */
+	private RestHttpRequest buildHttpRequest(ApiCallInfo apiCallInfo, String reqUrl, String requestBody, Credential credential) {
+		// Merged sets are kept, the same API call with the same suite headers and credential is not merged again
+		HeaderSet headers = apiCallInfo.getRequestHeaders(getRequestHeaders(credential));
 		
 		String url;
-		if (apiCallInfo.getUrl().startsWith("http") || apiCallInfo.getUrl().startsWith("www")) {
-			url = apiCallInfo.getUrl();
+		if (reqUrl.startsWith("http") || reqUrl.startsWith("www")) {
+			url = reqUrl;
 		}
 		else {
-			url = restBaseUrl + apiCallInfo.getUrl();
+			url = restBaseUrl + reqUrl;
 		}
 		
-		String requestBody =  apiCallInfo.getRequest();
+		if (HttpMethod.GET.equals(apiCallInfo.getMethod()) && !isFileTransferBody(requestBody)) {
+			requestBody = null;
+		}
 		
-		if (requestBody != null && 
-				requestBody.trim().length() > 0 ) {
-			if (requestBody.startsWith(ApiTestConstants.PROPERTY_UPLOAD_REQ_PREFIX)) {
-				restCallResponse =  uploadFile(url, requestBody, headers);
-				apiCallInfo.setRestCallResponse(restCallResponse);
-				return;
-			} else if (requestBody.startsWith(ApiTestConstants.PROPERTY_DOWNLOAD_REQ_PREFIX)) {
-				restCallResponse =  downloadFile(url, apiCallInfo.getMethod(), requestBody, headers);
-				apiCallInfo.setRestCallResponse(restCallResponse);
-				return;
+		RestHttpRequest request = new RestHttpRequest(apiCallInfo.getMethod(), url, requestBody, headers, cookieStore);
+		request.setResponseExtractor(apiCallInfo.getResponseExtractor());
+		return request;
+	}
+	
+	/**
+	 * Checks whether the server rejected the credential sent with a request
+	 * @param response
+	 * @param credential Credential sent with the request
+	 * @return true if a credential was sent and the response status is 401
+	 */
+	private static boolean isRejected(RestCallResponse response, Credential credential) {
+		return credential != null && response != null && response.getStatus() == HttpStatus.SC_UNAUTHORIZED;
+	}
+	
+	/**
+	 * Checks whether the HTTP method can be sent by the API calls
+	 * @param httpMethod
+	 * @return
+	 */
+	public static boolean isSupportedMethod(String httpMethod) {
+		return HttpMethod.POST.equals(httpMethod) || HttpMethod.GET.equals(httpMethod)
+				|| HttpMethod.PUT.equals(httpMethod) || HttpMethod.DELETE.equals(httpMethod);
+	}
+	
+	private boolean isFileTransfer(RestHttpRequest request) {
+		return isFileTransferBody(request.getBody());
+	}
+	
+	private boolean isFileTransferBody(String requestBody) {
+		return requestBody != null && (requestBody.startsWith(ApiTestConstants.PROPERTY_UPLOAD_REQ_PREFIX)
+				|| requestBody.startsWith(ApiTestConstants.PROPERTY_DOWNLOAD_REQ_PREFIX));
+	}
+	
+	/**
+	 * Handling upload and download requests
+	 * @param request
+	 * @return
+	 * @throws Exception
+	 */
+	private RestCallResponse transferFile(RestHttpRequest request) throws Exception {
+		Map<String, String> headers = request.getHeaders();
+		if (request.getCookieStore() != null) {
+			// Sending the session cookies, the file transfer clients don't use the cookie store
+			String cookieHeader = RestCookieStore.getCookieHeader(request.getCookieStore(), new URI(encodeUrl(request).getUrl()));
+			if (cookieHeader != null) {
+				headers = headers != null ? new HashMap<>(headers) : new HashMap<String, String>();
+				headers.put("Cookie", cookieHeader);
 			}
 		}
-		
-		if (apiCallInfo.getMethod().equals("POST")) {
-			restCallResponse =  doPost(url, requestBody, headers);
-		} else if (apiCallInfo.getMethod().equals("GET")) {
-			restCallResponse =  doGet(url, headers);
-		}  else if (apiCallInfo.getMethod().equals("PUT")) {
-			restCallResponse =  doPut(url, requestBody, headers);
-		}  else if (apiCallInfo.getMethod().equals("DELETE")) {
-			restCallResponse =  doDelete(url, requestBody, headers);
+		if (request.getBody().startsWith(ApiTestConstants.PROPERTY_UPLOAD_REQ_PREFIX)) {
+			return uploadFile(request.getUrl(), request.getBody(), headers);
 		}
-		
-		apiCallInfo.setRestCallResponse(restCallResponse);
+		return downloadFile(request.getUrl(), request.getMethod(), request.getBody(), headers);
 	}
 	
 	/**
@@ -208,7 +362,7 @@ public class RestNetworkUtil {
 	}
 	
 	/**
-	 * Sending HTTP request
+	 * Sending HTTP request through the configured {@link RestTransport}
 	 * @param httpMethod
 	 * @param reqUrl
 	 * @param body
@@ -217,117 +371,158 @@ public class RestNetworkUtil {
 	 * @throws Exception
 	 */
 	private RestCallResponse sendHttpRequest(String httpMethod, String reqUrl, String body, Map<String, String> headers) throws Exception {
-		reqUrl = reqUrl.replaceAll(" ", "%20");
-		RestCallResponse restCallResponse = null;
-		InputStream is = null;
-		String result = null;
-		HttpURLConnection conn = null;
-		try {
-			URL url;
-			try {
-				url = new URL(reqUrl);
-			} catch (MalformedURLException e) {
-				throw new IllegalArgumentException("Invalid url: " + reqUrl);
-			}
-			
-			try {
-				conn = (HttpURLConnection) url.openConnection();
-				conn.setUseCaches(false);
-				conn.setRequestMethod(httpMethod);
-				conn.setRequestProperty("Content-Type", "application/json; charset=utf8");
-				//conn.setConnectTimeout(20*1000);
-				// adding header params
-				if (headers != null) {
-					Iterator<Entry<String, String>> iterator = headers.entrySet().iterator();
-					while (iterator.hasNext()) {
-						Entry<String, String> header = iterator.next();
-						conn.setRequestProperty(header.getKey(), header.getValue());
-					}
-				}
-				
-				byte[] bytes = null;
-				if (body != null) {
-					bytes = body.getBytes();
-					conn.setFixedLengthStreamingMode(bytes.length);
-				}
-				
-				if (httpMethod.equals(HttpMethod.POST)) {
-					conn.setDoOutput(true);
-				}
-				else if (httpMethod.equals(HttpMethod.GET)) {
-
-				}
-				else if (httpMethod.equals(HttpMethod.PUT)) {
-					conn.setDoOutput(true);
-				}
-				else if (httpMethod.equals(HttpMethod.DELETE)) {
-					
-				}
-								
-				if (body != null) {
-					OutputStream out = conn.getOutputStream();
-					out.write(bytes);
-					out.close();
-				}
-			
-				int responseCode = conn.getResponseCode();
-				if (responseCode < HttpURLConnection.HTTP_BAD_REQUEST) {
-				    is = conn.getInputStream();
-				} else {
-					is = conn.getErrorStream();
-				}
-				
-				// Convert the InputStream into a string
-				if (is != null) {
-					result = readStream(is);
-				}
-				
-				restCallResponse = new RestCallResponse();
-				restCallResponse.setStatus(responseCode);
-				restCallResponse.setResponse(result);
-				
-				Map<String, List<String>> map = conn.getHeaderFields();
-				Map<String, String> responseHeaders = null;
-				if (map != null) {
-					responseHeaders = new HashMap<>();
-					for (Map.Entry<String, List<String>> entry : map.entrySet()) {
-						String key = entry.getKey();
-						String value = conn.getHeaderField(entry.getKey());
-						responseHeaders.put(key, value);
-					}
-				}
-				restCallResponse.setHeaders(responseHeaders);
-				
-			} catch(Exception e) {
-				throw e;
-			} finally {
-				if (is != null) {
-					is.close();
-				}
-				if (conn != null) {
-					conn.disconnect();
+		CredentialCache cache = credentialCache;
+		Credential credential = getCredential(cache);
+		HeaderSet requestHeaders = HeaderSet.of(headers);
+		// Headers passed by the caller are kept over the credential headers
+		RestCallResponse response = sendHttpRequest(new RestHttpRequest(httpMethod, reqUrl, body,
+				getCredentialHeaders(credential).merge(requestHeaders), cookieStore));
+		if (isRejected(response, credential)) {
+			response.release();
+			response = sendHttpRequest(new RestHttpRequest(httpMethod, reqUrl, body,
+					getCredentialHeaders(cache.refresh(credential)).merge(requestHeaders), cookieStore));
+		}
+		return response;
+	}
+	
+	/**
+	 * Returns the headers of the rest util with the headers of a credential
+	 * @param credential Credential sent with the request, null if there is none
+	 * @return {@link HeaderSet}
+	 */
+	private HeaderSet getRequestHeaders(Credential credential) {
+		return headers.merge(getCredentialHeaders(credential));
+	}
+	
+	/**
+	 * Returns the headers of a credential
+	 * @param credential
+	 * @return {@link HeaderSet}, empty if there is no credential
+	 */
+	private static HeaderSet getCredentialHeaders(Credential credential) {
+		return credential != null ? credential.getHeaderSet() : HeaderSet.EMPTY;
+	}
+	
+	/**
+	 * Returns the cached credential
+	 * @param cache {@link CredentialCache}, null if the requests carry no credential
+	 * @return {@link Credential}, null if there is none
+	 * @throws Exception if the credential can't be fetched
+	 */
+	private static Credential getCredential(CredentialCache cache) throws Exception {
+		return cache != null ? cache.getCredential() : null;
+	}
+	
+	private RestCallResponse sendHttpRequest(RestHttpRequest request) throws Exception {
+		return getTransport().execute(encodeUrl(request));
+	}
+	
+	private RestHttpRequest encodeUrl(RestHttpRequest request) {
+		String reqUrl = request.getUrl().replaceAll(" ", "%20");
+		RestHttpRequest encodedRequest = new RestHttpRequest(request.getMethod(), reqUrl, request.getBody(), request.getHeaderSet(), request.getCookieStore());
+		encodedRequest.setResponseExtractor(request.getResponseExtractor());
+		return encodedRequest;
+	}
+	
+	/**
+	 * Returns the transport used for sending HTTP requests, created on first use.<br>
+	 * Only the creation locks the rest util, requests sent once the transport exists read it without locking.
+	 * @return {@link RestTransport}
+	 */
+	public RestTransport getTransport() {
+		RestTransport currentTransport = transport;
+		if (currentTransport == null) {
+			synchronized (this) {
+				currentTransport = transport;
+				if (currentTransport == null) {
+					currentTransport = new PooledHttpTransport();
+					transport = currentTransport;
 				}
-
 			}
-		} catch (Exception e) {
-			throw e;
-		} finally {
-			closeConnection(conn);
 		}
-
-		return restCallResponse;
+		return currentTransport;
+	}
+	
+	/**
+	 * Setting the transport used for sending HTTP requests, the previous transport is closed
+	 * @param transport {@link RestTransport}
+	 */
+	public synchronized void setTransport(RestTransport transport) {
+		if (this.transport != null && this.transport != transport && ownsTransport) {
+			this.transport.close();
+		}
+		this.transport = transport;
+		this.ownsTransport = true;
 	}
 	
+	/**
+	 * Returns the connection usage of the transport
+	 * @return {@link TransportStats}
+	 */
+	public TransportStats getTransportStats() {
+		return getTransport().getStats();
+	}
 	
-	private void closeConnection(HttpURLConnection httpURLConnection) {
-		try {
-			if (httpURLConnection != null) {
-				httpURLConnection.disconnect();
-				httpURLConnection = null;
-			}
-		} catch(Exception e) {
-			e.printStackTrace();
+	/**
+	 * Releasing the connections held by the transport.<br>
+	 * Sessions created by {@code newSession} don't own the transport, closing them doesn't release the connections.
+	 */
+	public synchronized void close() {
+		if (transport != null && ownsTransport) {
+			transport.close();
 		}
+		transport = null;
+	}
+	
+	/**
+	 * Returns the cookies of this rest util, each rest util starts with its own {@link RestCookieStore}
+	 * @return Cookie store, null if the cookies are kept by the transport
+	 */
+	public CookieStore getCookieStore() {
+		return cookieStore;
+	}
+	
+	/**
+	 * Setting the cookies sent with the requests of this rest util
+	 * @param cookieStore Cookie store, null to use the cookies kept by the transport
+	 */
+	public void setCookieStore(CookieStore cookieStore) {
+		this.cookieStore = cookieStore;
+	}
+	
+	/**
+	 * Returns the credential sent with each request
+	 * @return {@link CredentialCache}, null if the requests carry only the headers of the rest util
+	 */
+	public CredentialCache getCredentialCache() {
+		return credentialCache;
+	}
+	
+	/**
+	 * Setting the credential sent with each request, its headers are added to the headers of the rest util
+	 * and overridden by the headers of the API calls
+	 * @param credentialCache {@link CredentialCache}, null to stop sending a credential
+	 */
+	public void setCredentialCache(CredentialCache credentialCache) {
+		this.credentialCache = credentialCache;
+	}
+	
+	/**
+	 * Creating a new session sharing the base URL and the connections of this rest util.<br>
+	 * The session starts with a copy of the headers, shares the credential and has its own cookies, 
+	 * used by the virtual users of a load test to log in independently.
+	 * @return {@link RestNetworkUtil}
+	 */
+	public RestNetworkUtil newSession() {
+		RestNetworkUtil session = new RestNetworkUtil();
+		session.restBaseUrl = restBaseUrl;
+		// Header sets are immutable, the session replaces its own set when its headers are changed
+		session.headers = headers;
+		session.transport = getTransport();
+		session.ownsTransport = false;
+		session.cookieStore = new RestCookieStore();
+		session.credentialCache = credentialCache;
+		return session;
 	}
 
 	/**
@@ -365,26 +560,32 @@ public class RestNetworkUtil {
 	
 
 	/**
-	 * Reads an InputStream and converts it to a String.
+	 * Reads an InputStream and converts it to a String, decoded as UTF-8.
+	 * <br>
+	 * The white spaces of the response are kept, use {@link #readBody(InputStream, String, long)} for the raw bytes.
 	 */
 	public static String readStream(InputStream stream) {
-		BufferedReader rd = new BufferedReader(new InputStreamReader(stream));
-		String line;
-		StringBuffer response = new StringBuffer();
 		try {
-			while ((line = rd.readLine()) != null) {
-				response.append(line);
-				response.append('\n');
-			}
-			rd.close();
+			ResponseBody body = readBody(stream, null, -1);
+			String text = body.getText();
+			body.release();
+			return text;
 		} catch (IOException e) {
-			// TODO Auto-generated catch block
 			e.printStackTrace();
+			return "";
 		}
-		
-		String result = response.toString();
-		result = result.replaceAll("[\\t\\n\\r]"," ");
-		return result.trim();
+	}
+	
+	/**
+	 * Reads an InputStream completely, the text is decoded when it's used
+	 * @param stream Response stream, not closed
+	 * @param contentType Content-Type header of the response, used for the charset
+	 * @param contentLength Length of the response if known, otherwise -1
+	 * @return {@link ResponseBody}
+	 * @throws IOException
+	 */
+	public static ResponseBody readBody(InputStream stream, String contentType, long contentLength) throws IOException {
+		return ResponseBody.read(stream, contentType, contentLength);
 	}
 	
 	/**
@@ -395,7 +596,11 @@ public class RestNetworkUtil {
 	public static class RestCallResponse {
 		private int status;
 		private String response;
+		private ResponseBody body;
 		private Map<String , String> headers;
+		private RequestTimings timings;
+		private ParsedResponse parsedResponse;
+		private ExtractedValues extractedValues;
 		
 		/**
 		 * Returns HTTP status of the response
@@ -411,16 +616,51 @@ public class RestNetworkUtil {
 		}
 		
 		/**
-		 * Returns the reponse of the request
+		 * Returns the reponse of the request, decoded from the body on first use.
+		 * <br>
+		 * The text is kept by the {@link ResponseBody} within its memory budget, not by the response.
 		 * @return
 		 */
 		public String getResponse()
 		{
+			ResponseBody currentBody = body;
+			if (response == null && currentBody != null) {
+				return currentBody.getText();
+			}
 			return response;
 		}
 		public void setResponse(String response)
 		{
 			this.response = response;
+			this.body = null;
+			this.parsedResponse = null;
+		}
+		
+		/**
+		 * Returns the raw bytes of the response
+		 * @return {@link ResponseBody}, null if the response has no body or was set as text
+		 */
+		public ResponseBody getBody()
+		{
+			return body;
+		}
+		public void setBody(ResponseBody body)
+		{
+			this.body = body;
+			this.response = null;
+			this.parsedResponse = null;
+		}
+		
+		/**
+		 * Returns the response with its parsed document, shared by all the checks of the response
+		 * @return {@link ParsedResponse}
+		 */
+		public synchronized ParsedResponse getParsedResponse()
+		{
+			if (parsedResponse == null) {
+				parsedResponse = new ParsedResponse(getResponse());
+			}
+			return parsedResponse;
 		}
 		
 		public void setHeaders(Map headers) {
@@ -434,6 +674,41 @@ public class RestNetworkUtil {
 		public Map getHeaders() {
 			return this.headers;
 		}
+		
+		/**
+		 * Returns the time spent in each network phase of the request, null if the transport doesn't measure them
+		 * @return {@link RequestTimings}
+		 */
+		public RequestTimings getTimings() {
+			return timings;
+		}
+		public void setTimings(RequestTimings timings) {
+			this.timings = timings;
+		}
+		
+		/**
+		 * Returns the values extracted while streaming the response, the response text is not kept for streamed responses
+		 * @return {@link ExtractedValues}, null if the response is read completely
+		 */
+		public ExtractedValues getExtractedValues() {
+			return extractedValues;
+		}
+		public void setExtractedValues(ExtractedValues extractedValues) {
+			this.extractedValues = extractedValues;
+		}
+		
+		/**
+		 * Releasing the body and the parsed documents of the response, once the response is evaluated.<br>
+		 * Status, headers and extracted values are kept.
+		 */
+		public synchronized void release() {
+			if (body != null) {
+				body.release();
+			}
+			body = null;
+			response = null;
+			parsedResponse = null;
+		}
 	}
 	
 	
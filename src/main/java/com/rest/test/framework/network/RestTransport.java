@@ -0,0 +1,52 @@
+package com.rest.test.framework.network;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.rest.test.framework.network.RestNetworkUtil.RestCallResponse;
+
+/**
+ * Transport used by {@link RestNetworkUtil} to send HTTP requests.
+ * <br>
+ * Pass a custom implementation through {@code RestSuiteConfiguration.Builder.setRestTransport},
+ * {@link PooledHttpTransport} is used by default.
+ * @author SrinivasDonapati
+ *
+ */
+public interface RestTransport {
+
+	/**
+	 * Sending the HTTP request and reading the complete response
+	 * @param request {@link RestHttpRequest}
+	 * @return {@link RestCallResponse} object containing the HTTP response information
+	 * @throws Exception
+	 */
+	RestCallResponse execute(RestHttpRequest request) throws Exception;
+
+	/**
+	 * Sending the HTTP request without waiting for the response.
+	 * <br>
+	 * Transports without a non-blocking client execute the request on the calling thread and return a completed future.
+	 * @param request {@link RestHttpRequest}
+	 * @return Future completed with the {@link RestCallResponse}
+	 */
+	default CompletableFuture<RestCallResponse> executeAsync(RestHttpRequest request) {
+		CompletableFuture<RestCallResponse> future = new CompletableFuture<>();
+		try {
+			future.complete(execute(request));
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Returns the connection usage of the transport
+	 * @return {@link TransportStats}
+	 */
+	TransportStats getStats();
+
+	/**
+	 * Releasing all the connections held by the transport
+	 */
+	void close();
+}
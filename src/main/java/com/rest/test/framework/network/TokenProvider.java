@@ -0,0 +1,22 @@
+package com.rest.test.framework.network;
+
+/**
+ * Fetches the credential sent with the requests of a suite or a virtual user, e.g. by calling the login or token endpoint.
+ * <br>
+ * Providers are called through a {@link CredentialCache}, which calls only one of them at a time
+ * and keeps the credential until it's about to expire.
+ * @author SrinivasDonapati
+ *
+ */
+public interface TokenProvider
+{
+	/**
+	 * Fetching a new credential.
+	 * <br>
+	 * Requests sent through the rest util while fetching don't carry the cached credential.
+	 * @param restUtil Rest util of the suite or the virtual user
+	 * @return {@link Credential}, must not be null
+	 * @throws Exception if the credential can't be fetched
+	 */
+	Credential fetchCredential(RestNetworkUtil restUtil) throws Exception;
+}
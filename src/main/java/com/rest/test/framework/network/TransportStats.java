@@ -0,0 +1,75 @@
+package com.rest.test.framework.network;
+
+/**
+ * Snapshot of the connection usage of a {@link RestTransport}
+ * @author SrinivasDonapati
+ *
+ */
+public class TransportStats {
+	private long requestCount;
+	private long connectionsCreated;
+	private int leasedConnections;
+	private int availableConnections;
+
+	public TransportStats(long requestCount, long connectionsCreated, int leasedConnections, int availableConnections) {
+		this.requestCount = requestCount;
+		this.connectionsCreated = connectionsCreated;
+		this.leasedConnections = leasedConnections;
+		this.availableConnections = availableConnections;
+	}
+
+	/**
+	 * Returns number of requests sent through the transport
+	 * @return
+	 */
+	public long getRequestCount()
+	{
+		return requestCount;
+	}
+
+	/**
+	 * Returns number of connections opened by the transport
+	 * @return
+	 */
+	public long getConnectionsCreated()
+	{
+		return connectionsCreated;
+	}
+
+	/**
+	 * Returns number of requests served by an already opened connection
+	 * @return
+	 */
+	public long getConnectionsReused()
+	{
+		return Math.max(0, requestCount - connectionsCreated);
+	}
+
+	/**
+	 * Returns number of connections currently in use
+	 * @return
+	 */
+	public int getLeasedConnections()
+	{
+		return leasedConnections;
+	}
+
+	/**
+	 * Returns number of idle connections kept alive in the pool
+	 * @return
+	 */
+	public int getAvailableConnections()
+	{
+		return availableConnections;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "requests=" + requestCount
+				+ ", connectionsCreated=" + connectionsCreated
+				+ ", connectionsReused=" + getConnectionsReused()
+				+ ", leased=" + leasedConnections
+				+ ", available=" + availableConnections;
+	}
+}
@@ -0,0 +1,149 @@
+package com.rest.test.framework.network;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieStore;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.HttpMethod;
+
+import com.rest.test.framework.network.RequestTimings.Phase;
+import com.rest.test.framework.network.RestNetworkUtil.RestCallResponse;
+
+/**
+ * {@link RestTransport} implementation using {@link HttpURLConnection}.
+ * <br>
+ * Connections are not disconnected after reading the response, so the JDK can keep the socket alive.
+ * Connection reuse is handled internally by the JDK, hence every request is reported as a new connection in {@link TransportStats}.
+ * Cookies are read from and stored in the cookie store of the request,
+ * requests without a cookie store use the default {@link java.net.CookieHandler} of the JVM if one is set.
+ * <br>
+ * DNS, TCP connect and TLS handshake can't be told apart, all of them are reported as connect time.
+ * @author SrinivasDonapati
+ *
+ */
+public class UrlConnectionTransport implements RestTransport {
+	private final AtomicLong requestCount = new AtomicLong();
+
+	@Override
+	public RestCallResponse execute(RestHttpRequest request) throws Exception {
+		String httpMethod = request.getMethod();
+		String reqUrl = request.getUrl();
+		String body = request.getBody();
+		HeaderSet headers = request.getHeaderSet();
+
+		RestCallResponse restCallResponse = null;
+		InputStream is = null;
+		HttpURLConnection conn = null;
+		RequestTimings timings = new RequestTimings();
+
+		URL url;
+		try {
+			url = new URL(reqUrl);
+		} catch (MalformedURLException e) {
+			throw new IllegalArgumentException("Invalid url: " + reqUrl);
+		}
+
+		try {
+			requestCount.incrementAndGet();
+			conn = (HttpURLConnection) url.openConnection();
+			conn.setUseCaches(false);
+			conn.setRequestMethod(httpMethod);
+			if (!headers.hasContentType()) {
+				conn.setRequestProperty("Content-Type", HeaderSet.DEFAULT_CONTENT_TYPE);
+			}
+			CookieStore cookieStore = request.getCookieStore();
+			if (cookieStore != null) {
+				String cookieHeader = RestCookieStore.getCookieHeader(cookieStore, url.toURI());
+				if (cookieHeader != null) {
+					conn.setRequestProperty("Cookie", cookieHeader);
+				}
+			}
+			// adding header params
+			for (int i = 0; i < headers.size(); i++) {
+				conn.setRequestProperty(headers.getName(i), headers.getValue(i));
+			}
+
+			byte[] bytes = null;
+			if (body != null) {
+				bytes = body.getBytes();
+				conn.setFixedLengthStreamingMode(bytes.length);
+			}
+
+			if (httpMethod.equals(HttpMethod.POST) || httpMethod.equals(HttpMethod.PUT)) {
+				conn.setDoOutput(true);
+			}
+
+			long startTime = System.nanoTime();
+			conn.connect();
+			long connectedTime = System.nanoTime();
+			timings.add(Phase.CONNECT, connectedTime - startTime);
+
+			if (body != null) {
+				OutputStream out = conn.getOutputStream();
+				out.write(bytes);
+				out.close();
+			}
+			long sentTime = System.nanoTime();
+			timings.add(Phase.SEND, sentTime - connectedTime);
+
+			int responseCode = conn.getResponseCode();
+			if (cookieStore != null) {
+				RestCookieStore.storeCookies(cookieStore, url.toURI(), conn.getHeaderFields());
+			}
+			if (responseCode < HttpURLConnection.HTTP_BAD_REQUEST) {
+				is = conn.getInputStream();
+			} else {
+				is = conn.getErrorStream();
+			}
+			long receivedTime = System.nanoTime();
+			timings.add(Phase.WAIT, receivedTime - sentTime);
+
+			restCallResponse = new RestCallResponse();
+			restCallResponse.setStatus(responseCode);
+			if (is != null && request.getResponseExtractor() != null) {
+				restCallResponse.setExtractedValues(request.getResponseExtractor().extract(is, ResponseBody.getCharset(conn.getContentType())));
+			} else if (is != null) {
+				// Keeping the bytes, the text is decoded with the charset of the response when it's used
+				restCallResponse.setBody(RestNetworkUtil.readBody(is, conn.getContentType(), conn.getContentLengthLong()));
+			}
+			timings.add(Phase.DOWNLOAD, System.nanoTime() - receivedTime);
+
+			Map<String, List<String>> map = conn.getHeaderFields();
+			Map<String, String> responseHeaders = null;
+			if (map != null) {
+				responseHeaders = new HashMap<>();
+				for (Map.Entry<String, List<String>> entry : map.entrySet()) {
+					String key = entry.getKey();
+					String value = conn.getHeaderField(entry.getKey());
+					responseHeaders.put(key, value);
+				}
+			}
+			restCallResponse.setHeaders(responseHeaders);
+			restCallResponse.setTimings(timings);
+		} finally {
+			// Closing the stream returns the socket to the JDK keep-alive cache
+			if (is != null) {
+				is.close();
+			}
+		}
+
+		return restCallResponse;
+	}
+
+	@Override
+	public TransportStats getStats() {
+		long requests = requestCount.get();
+		return new TransportStats(requests, requests, 0, 0);
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -10,12 +10,14 @@ import org.json.JSONObject;
 import org.skyscreamer.jsonassert.JSONCompare;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.skyscreamer.jsonassert.JSONCompareResult;
+import org.skyscreamer.jsonassert.JSONParser;
 import org.skyscreamer.jsonassert.comparator.DefaultComparator;
 import org.skyscreamer.jsonassert.comparator.JSONComparator;
 import org.skyscreamer.jsonassert.comparator.JSONCompareUtil;
 
 import com.rest.test.framework.util.ApiTestConstants;
 import com.rest.test.framework.util.DataUtil;
+import com.rest.test.framework.util.ParsedResponse;
 
 
 /**
@@ -30,6 +32,7 @@ public class RestJsonUnitTest {
 	private String expectedJson = null;
 	private String actualJson = null;
 	private boolean isStrictMode = false;
+	private ParsedResponse actualResponse = null;
 	
 	/**
 	 * 
@@ -43,6 +46,17 @@ public class RestJsonUnitTest {
 		this.isStrictMode = strict;
 	}
 	
+	/**
+	 * Comparing with the parsed actual response, its JSON tree is reused instead of parsing the response again
+	 * @param expectedJson JSON data from expected response
+	 * @param actualResponse Actual response
+	 * @param strict JSON comparison test mode
+	 */
+	public RestJsonUnitTest(String expectedJson, ParsedResponse actualResponse, boolean strict) {
+		this(expectedJson, actualResponse.getText(), strict);
+		this.actualResponse = actualResponse;
+	}
+	
 	private void fixJsonStrings() {
 		if (expectedJson != null) {
 			expectedJson = expectedJson.replace("\\n", "");
@@ -59,6 +73,7 @@ public class RestJsonUnitTest {
 	 * Running JSON Unit
 	 */
 	public void execute() {
+		String originalActualJson = actualJson;
 		fixJsonStrings();
 		
 		if (expectedJson==actualJson) return;
@@ -69,7 +84,13 @@ public class RestJsonUnitTest {
         }
         
         JSONComparator jsonComparator =  new RestJsonComparator(isStrictMode ? JSONCompareMode.STRICT : JSONCompareMode.LENIENT);
-        JSONCompareResult result = JSONCompare.compareJSON(expectedJson, actualJson, jsonComparator);
+        JSONCompareResult result;
+        if (actualResponse != null && actualJson.equals(originalActualJson) && actualResponse.isJson()) {
+        	// Nothing fixed in the actual JSON, so its parsed tree is the same
+        	result = compareJSON(JSONParser.parseJSON(expectedJson), actualResponse.getJson(), jsonComparator);
+        } else {
+        	result = JSONCompare.compareJSON(expectedJson, actualJson, jsonComparator);
+        }
         if (result.failed()) {
         	String assertionMessage = "Exceptions while comparing JSON Data: \n";
         	assertionMessage += "Expected JSON :" + expectedJson + "\n";
@@ -79,6 +100,19 @@ public class RestJsonUnitTest {
         }
 	}
     
+    /**
+     * Comparing parsed JSON data, same as {@link JSONCompare#compareJSON(String, String, JSONComparator)}
+     */
+    private static JSONCompareResult compareJSON(Object expected, Object actual, JSONComparator comparator) {
+    	if (expected instanceof JSONObject && actual instanceof JSONObject) {
+    		return JSONCompare.compareJSON((JSONObject) expected, (JSONObject) actual, comparator);
+    	}
+    	if (expected instanceof JSONArray && actual instanceof JSONArray) {
+    		return JSONCompare.compareJSON((JSONArray) expected, (JSONArray) actual, comparator);
+    	}
+    	return new JSONCompareResult().fail("", expected, actual);
+    }
+    
     /**
      * Custom JSON comparator to handle assertion failures
      * @author SrinivasDonapati
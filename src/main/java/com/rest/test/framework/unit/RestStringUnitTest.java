@@ -11,6 +11,9 @@ public class RestStringUnitTest
 {
 	private String expectedString = null;
 	private String actualString = null;
+	private boolean isWhitespaceNormalized = false;
+	private boolean isLineBreakIgnored = true;
+	
 	public RestStringUnitTest(String expectedString, String actualString) {
 		if (expectedString != null) {
 			expectedString = expectedString.trim();
@@ -24,13 +27,33 @@ public class RestStringUnitTest
 		this.actualString = actualString;
 	}
 	
+	/**
+	 * @param expectedString
+	 * @param actualString
+	 * @param isWhitespaceNormalized true to compare tabs and line breaks of the actual string as spaces,
+	 * false to compare the white spaces as they are
+	 */
+	public RestStringUnitTest(String expectedString, String actualString, boolean isWhitespaceNormalized) {
+		this(expectedString, actualString);
+		this.isWhitespaceNormalized = isWhitespaceNormalized;
+		this.isLineBreakIgnored = isWhitespaceNormalized;
+	}
+	
 	public boolean compare() {
 		if (expectedString == null && actualString == null) {
 			return true;
 		}
 		
-		actualString = actualString == null ? "" : actualString.replaceAll("\n", "").replaceAll("\r", "").trim();
-		expectedString = expectedString == null ? "" : expectedString.replaceAll("\n", "").replaceAll("\r", "").trim();
+		actualString = actualString == null ? "" : actualString;
+		expectedString = expectedString == null ? "" : expectedString;
+		if (isWhitespaceNormalized) {
+			// Tabs and line breaks of the response are compared as spaces
+			actualString = actualString.replaceAll("\\r\\n|[\\t\\n\\r]", " ");
+		}
+		if (isLineBreakIgnored) {
+			actualString = actualString.replaceAll("\n", "").replaceAll("\r", "").trim();
+			expectedString = expectedString.replaceAll("\n", "").replaceAll("\r", "").trim();
+		}
 		
 		
 		if (expectedString.equalsIgnoreCase(actualString)) {
@@ -23,12 +23,24 @@ import com.rest.test.framework.util.DataUtil;
 public class RestXmlUnitTest {
 	public String expectedXMLResponse = null;
 	public String actualXMLResponse = null;
+	private boolean isWhitespaceNormalized = true;
 	
 	public RestXmlUnitTest(String expectedXMLResponse, String actualXMLResponse) {
 		this.actualXMLResponse = actualXMLResponse;
 		this.expectedXMLResponse = expectedXMLResponse;
 	}
 	
+	/**
+	 * @param expectedXMLResponse
+	 * @param actualXMLResponse
+	 * @param isWhitespaceNormalized true to compare tabs and line breaks of the text values as spaces,
+	 * false to compare the white spaces as they are
+	 */
+	public RestXmlUnitTest(String expectedXMLResponse, String actualXMLResponse, boolean isWhitespaceNormalized) {
+		this(expectedXMLResponse, actualXMLResponse);
+		this.isWhitespaceNormalized = isWhitespaceNormalized;
+	}
+	
 	public void execute() {
 		Diff myDiff = DiffBuilder.compare(Input.fromString(expectedXMLResponse))
 				.withTest(Input.fromString(actualXMLResponse))
@@ -77,7 +89,7 @@ public class RestXmlUnitTest {
 				}
 				
 				// Handling Plain String values
-				RestStringUnitTest restStringUnitTest = new RestStringUnitTest(expectedValue, actualValue);
+				RestStringUnitTest restStringUnitTest = new RestStringUnitTest(expectedValue, actualValue, isWhitespaceNormalized);
 				if (restStringUnitTest.compare()) {
 					return ComparisonResult.EQUAL;
 				}
@@ -91,7 +103,7 @@ public class RestXmlUnitTest {
 				String actualValue = ((Attr) testNode).getValue();
 			
 				// Handling Plain String values
-				RestStringUnitTest restStringUnitTest = new RestStringUnitTest(expectedValue, actualValue);
+				RestStringUnitTest restStringUnitTest = new RestStringUnitTest(expectedValue, actualValue, isWhitespaceNormalized);
 				if (restStringUnitTest.compare()) {
 					return ComparisonResult.EQUAL;
 				}
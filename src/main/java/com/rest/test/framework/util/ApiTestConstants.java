@@ -24,6 +24,8 @@ public class ApiTestConstants {
 	public static final String PROPERTY_POLL_TIME			= "POLL_TIME";
 	public static final String PROPERTY_POLL_INTERVAL		= "POLL_INTERVAL";
 	public static final String PROPERTY_LOG_MSG				= "LOG_MSG";
+	public static final String PROPERTY_STREAM_RESPONSE		= "STREAM_RESPONSE";
+	public static final String PROPERTY_COMPARE_WHITESPACE	= "COMPARE_WHITESPACE";
 	
 	public static final String PROPERTY_TEST_DETAILS		= "TEST_DETAILS";
 	
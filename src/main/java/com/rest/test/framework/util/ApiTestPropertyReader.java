@@ -1,154 +1,328 @@
 package com.rest.test.framework.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Properties;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.rest.test.framework.ApiTestInfo;
 import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
 
 /**
  * Custom property reader to parse the test files
- * 
+ * <br>
+ * The file is parsed in a single pass into a {@link TestPlan}, each property is dispatched by its name
+ * to the setter compiling it. Plans are cached by the hash of the file content,
+ * so a test file read again by the suites and load tests of the JVM is not parsed again.
+ *
  * @author SrinivasDonapati
  */
-public class ApiTestPropertyReader extends Properties
+public class ApiTestPropertyReader
 {
-	private static final long serialVersionUID = 1L;
-	private List<String> propertyList = new ArrayList<String>();
+	private static final Map<String, TestPlan> PLAN_CACHE = new ConcurrentHashMap<>();
 
+	private TestPlan testPlan;
+
+	/**
+	 * Properties of an API call, dispatched by their name
+	 */
+	private enum ApiCallProperty
+	{
+		URL(ApiTestConstants.PROPERTY_URL) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setUrl(value);
+			}
+		},
+		METHOD(ApiTestConstants.PROPERTY_REQ_METHOD) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setMethod(value);
+			}
+		},
+		REQUEST(ApiTestConstants.PROPERTY_REQUEST) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setRequest(value);
+			}
+		},
+		POLL(ApiTestConstants.PROPERTY_POLL) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setPoll(true);
+			}
+		},
+		RESPONSE(ApiTestConstants.PROPERTY_RESPONSE) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setResponse(value);
+			}
+		},
+		STATUS(ApiTestConstants.PROPERTY_REQ_STATUES) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setReqStatus(Integer.parseInt(value));
+			}
+		},
+		TEST_CONDITION(ApiTestConstants.PROPERTY_TEST_CONDITION) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setTestCondition(value);
+			}
+		},
+		COMPARE_RESPONSE(ApiTestConstants.PROPERTY_COMPARE_RESPONSE) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				if (isOn(value)) {
+					apiCallInfo.setCompareResponse(true);
+				}
+			}
+		},
+		VARS(ApiTestConstants.PROPERTY_VARS) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setVariableInfo(value);
+			}
+		},
+		WAIT_TIME(ApiTestConstants.PROPERTY_TEST_WAIT_TIME) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setWaitTime(Integer.parseInt(value));
+			}
+		},
+		POLL_TIME(ApiTestConstants.PROPERTY_POLL_TIME) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setPollTime(Integer.parseInt(value));
+			}
+		},
+		POLL_INTERVAL(ApiTestConstants.PROPERTY_POLL_INTERVAL) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setPollInterval(Integer.parseInt(value));
+			}
+		},
+		HEADERS(ApiTestConstants.PROPERTY_HEADERS) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setHeaders(value);
+			}
+		},
+		LOG_MSG(ApiTestConstants.PROPERTY_LOG_MSG) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				apiCallInfo.setLogMessage(value);
+			}
+		},
+		STREAM_RESPONSE(ApiTestConstants.PROPERTY_STREAM_RESPONSE) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				if (isOn(value)) {
+					apiCallInfo.setStreamResponse(true);
+				}
+			}
+		},
+		COMPARE_WHITESPACE(ApiTestConstants.PROPERTY_COMPARE_WHITESPACE) {
+			@Override
+			void apply(ApiCallInfo apiCallInfo, String value) {
+				if (isOn(value)) {
+					apiCallInfo.setCompareWhitespace(true);
+				}
+			}
+		};
+
+		private static final Map<String, ApiCallProperty> BY_NAME = new HashMap<>();
+		static {
+			for (ApiCallProperty property : values()) {
+				BY_NAME.put(property.name, property);
+			}
+		}
+
+		private final String name;
+
+		ApiCallProperty(String name)
+		{
+			this.name = name;
+		}
+
+		abstract void apply(ApiCallInfo apiCallInfo, String value);
+
+		static ApiCallProperty forName(String name)
+		{
+			return BY_NAME.get(name);
+		}
+
+		private static boolean isOn(String value)
+		{
+			return value != null && (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("on"));
+		}
+	}
+
+	/**
+	 * Reading the test file, the stream is closed
+	 * @param fis Test file
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the test file has errors, e.g. a property of an API call is used before API_TEST,
+	 * a number is not valid or TEST_VARS is not a JSON array
+	 */
 	public void load(InputStream fis) throws IOException
 	{
-		Scanner in = new Scanner(fis);
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-		while (in.hasNext()) {
-			String lineTxt = in.nextLine(); // .replace("\\", "\\\\");
-			
-			propertyList.add(lineTxt);
-			
-			out.write(lineTxt.getBytes());
-			out.write("\n".getBytes());
+		TestPlan plan = compile(fis);
+		if (!plan.getErrors().isEmpty()) {
+			String message = "Errors in the test file :";
+			for (String error : plan.getErrors()) {
+				message += "\n" + error;
+			}
+			throw new IllegalArgumentException(message);
 		}
+		testPlan = plan;
+	}
 
+	/**
+	 * Compiling the test file, the stream is closed.
+	 * <br>
+	 * Lines with errors are skipped and reported by {@link TestPlan#getErrors()}, so all the errors of a file are found at once.
+	 * @param fis Test file
+	 * @return {@link TestPlan}
+	 * @throws IOException
+	 */
+	public static TestPlan compile(InputStream fis) throws IOException
+	{
+		byte[] content;
 		try {
-			in.close();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = fis.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+			content = out.toByteArray();
+		} finally {
+			fis.close();
 		}
-		catch (Exception e) {
-			e.printStackTrace();
+
+		String hash = hash(content);
+		TestPlan plan = PLAN_CACHE.get(hash);
+		if (plan == null) {
+			List<String> errors = new ArrayList<>();
+			ApiTestInfo apiTestInfo = parse(new String(content, StandardCharsets.UTF_8), errors);
+			plan = new TestPlan(hash, apiTestInfo, errors);
+			TestPlan cachedPlan = PLAN_CACHE.putIfAbsent(hash, plan);
+			if (cachedPlan != null) {
+				plan = cachedPlan;
+			}
 		}
+		return plan;
+	}
 
-		InputStream is = new ByteArrayInputStream(out.toByteArray());
-		super.load(is);
+	/**
+	 * Returns the compiled test file
+	 * @return {@link TestPlan}, null if no file is loaded
+	 */
+	public TestPlan getTestPlan()
+	{
+		return testPlan;
 	}
 
+	/**
+	 * Returns a new test info of the loaded test file
+	 * @return {@link ApiTestInfo}
+	 */
 	public ApiTestInfo getApiTestInfo()
+	{
+		if (testPlan == null) {
+			return new ApiTestInfo();
+		}
+		return testPlan.newApiTestInfo();
+	}
+
+	/**
+	 * Removing the compiled test files, the files are parsed again when they are loaded next time
+	 */
+	public static void clearPlanCache()
+	{
+		PLAN_CACHE.clear();
+	}
+
+	/**
+	 * Parsing the lines of the test file
+	 * @param content
+	 * @param errors Errors of the lines, with their line numbers
+	 * @return Parsed test file
+	 */
+	private static ApiTestInfo parse(String content, List<String> errors)
 	{
 		ApiTestInfo apiTestInfo = new ApiTestInfo();
 		ApiCallInfo apiCallInfo = null;
-		
-		int lineNumber = 0;
 
-		for (String property : propertyList) {
+		int lineNumber = 0;
+		int start = 0;
+		int length = content.length();
+		while (start < length) {
+			int end = content.indexOf('\n', start);
+			if (end == -1) {
+				end = length;
+			}
+			int lineEnd = end > start && content.charAt(end - 1) == '\r' ? end - 1 : end;
+			String property = content.substring(start, lineEnd);
+			start = end + 1;
 			lineNumber++;
-			
-			if (property == null || property.trim().length() == 0 ||
-					property.trim().startsWith("#")) {
+
+			String trimmedProperty = property.trim();
+			if (trimmedProperty.length() == 0 || trimmedProperty.startsWith("#")) {
 				continue;
 			}
-			
-			if (property.startsWith(ApiTestConstants.PROPERTY_TEST_NAME)) {
-				apiTestInfo.setTestName(getPropertyValue(property));
-			}
 
-			else if (property.startsWith(ApiTestConstants.PROPERTY_API)) {
-				String apiName = getPropertyValue(property);
-				apiCallInfo = apiTestInfo.createApiCallInfo(apiName, lineNumber);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_URL)) {
-				String url = getPropertyValue(property);
-				apiCallInfo.setUrl(url);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_REQ_METHOD)) {
-				String requestMethod = getPropertyValue(property);
-				apiCallInfo.setMethod(requestMethod);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_REQUEST)) {
-				String request = getPropertyValue(property);
-				apiCallInfo.setRequest(request);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_POLL)) {
-				apiCallInfo.setPoll(true);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_RESPONSE)) {
-				String response = getPropertyValue(property);
-				apiCallInfo.setResponse(response);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_REQ_STATUES)) {
-				String status = getPropertyValue(property);
-				apiCallInfo.setReqStatus(Integer.parseInt(status));
+			int propertyValIndex = property.indexOf('=');
+			String name = (propertyValIndex == -1 ? property : property.substring(0, propertyValIndex)).trim();
+			String value = propertyValIndex == -1 ? null : property.substring(propertyValIndex + 1).trim();
+
+			if (name.equals(ApiTestConstants.PROPERTY_TEST_NAME)) {
+				apiTestInfo.setTestName(value);
 			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_TEST_CONDITION)) {
-				String testCondition = getPropertyValue(property);
-				apiCallInfo.setTestCondition(testCondition);
+			else if (name.equals(ApiTestConstants.PROPERTY_API)) {
+				apiCallInfo = apiTestInfo.createApiCallInfo(value, lineNumber);
 			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_COMPARE_RESPONSE)) {
-				String compareResponse = getPropertyValue(property);
-				if (compareResponse != null
-						&& (compareResponse.trim().equalsIgnoreCase("true") || compareResponse.trim()
-								.equalsIgnoreCase("on"))) {
-					apiCallInfo.setCompareResponse(true);
+			else {
+				ApiCallProperty apiCallProperty = ApiCallProperty.forName(name);
+				if (apiCallProperty == null) {
+					continue;
+				}
+				if (apiCallInfo == null) {
+					errors.add("line " + lineNumber + ": " + name + " is not inside an " + ApiTestConstants.PROPERTY_API);
+					continue;
+				}
+				try {
+					apiCallProperty.apply(apiCallInfo, value);
+				} catch (RuntimeException e) {
+					// Invalid JSON, number or entry
+					errors.add("line " + lineNumber + ": Invalid " + name + " : " + e.getMessage());
 				}
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_VARS)) {
-				String vars = getPropertyValue(property);
-				apiCallInfo.setVariableInfo(vars);
-			} 
-			else if (property.startsWith(ApiTestConstants.PROPERTY_TEST_WAIT_TIME)) {
-				String str = getPropertyValue(property);
-				int waitTime = Integer.parseInt(str);
-				apiCallInfo.setWaitTime(waitTime);
-			} 
-			else if (property.startsWith(ApiTestConstants.PROPERTY_POLL_TIME)) {
-				String str = getPropertyValue(property);
-				int pollTime = Integer.parseInt(str);
-				apiCallInfo.setPollTime(pollTime);
-			} 
-			else if (property.startsWith(ApiTestConstants.PROPERTY_POLL_INTERVAL)) {
-				String str = getPropertyValue(property);
-				int pollInterval = Integer.parseInt(str);
-				apiCallInfo.setPollInterval(pollInterval);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_HEADERS)) {
-				String headersStr = getPropertyValue(property);
-				apiCallInfo.setHeaders(headersStr);
-			}
-			else if (property.startsWith(ApiTestConstants.PROPERTY_LOG_MSG)) {
-				String logMessage = getPropertyValue(property);
-				apiCallInfo.setLogMessage(logMessage);
 			}
 		}
 
 		return apiTestInfo;
 	}
 
-	private String getPropertyValue(String property)
+	private static String hash(byte[] content)
 	{
-		String propertyValue = null;
-		int propertyValIndex = property.indexOf('=');
-		if (propertyValIndex != -1 && propertyValIndex < property.length()) {
-			propertyValue = property.substring(propertyValIndex + 1, property.length());
-		}
-
-		if (propertyValue != null) {
-			propertyValue = propertyValue.trim();
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			StringBuilder hash = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hash.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM provides SHA-256
+			throw new IllegalStateException(e);
 		}
-		return propertyValue;
 	}
-
 }
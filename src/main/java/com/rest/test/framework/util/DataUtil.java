@@ -2,23 +2,33 @@ package com.rest.test.framework.util;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonOrgJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JsonOrgMappingProvider;
 
 /**
  * Utility class to handle data
@@ -31,6 +41,23 @@ public class DataUtil
 	
 	private static final String XPATH_PREFIX = "XPATH:";
 	private static final String JSON_PATH_PREFIX = "$";
+	// JSON paths are read from the org.json tree of the response, which is also used for comparing responses
+	private static final Configuration JSON_PATH_CONFIGURATION = Configuration.builder()
+			.jsonProvider(new NullSafeJsonOrgProvider())
+			.mappingProvider(new JsonOrgMappingProvider())
+			.build();
+	
+	// Compiled paths, the same few paths of the test files are evaluated for every response
+	private static final int MAX_CACHED_PATHS = 1024;
+	private static final ConcurrentHashMap<String, JsonPath> JSON_PATH_CACHE = new ConcurrentHashMap<>();
+	private static final ThreadLocal<XmlParser> XML_PARSER = new ThreadLocal<XmlParser>() {
+		@Override
+		protected XmlParser initialValue() {
+			return new XmlParser();
+		}
+	};
+	private static final AtomicLong pathCacheHits = new AtomicLong();
+	private static final AtomicLong pathCacheMisses = new AtomicLong();
 	
 	/**
 	 * Parsing XML and fetching value for the XPath
@@ -39,32 +66,53 @@ public class DataUtil
 	 * @return
 	 */
 	public static String getXpathValue(String xPath, String xml) {
+		return getXpathValue(xPath, new ParsedResponse(xml));
+	}
+	
+	/**
+	 * Fetching value for the XPath from the parsed response
+	 * @param xPath
+	 * @param response Response, parsed on first use
+	 * @return
+	 */
+	public static String getXpathValue(String xPath, ParsedResponse response) {
 
 		if (xPath.startsWith(XPATH_PREFIX)) {
 			xPath = xPath.replace(XPATH_PREFIX, "");
 		}
 		
 		String xpathVal = null;
+		Document document = response.getXmlDocument();
+		if (document == null) {
+			String assertionMessage = "Unable to parse XPath  : " + xPath;
+			throw new AssertionError(assertionMessage);
+		}
 		try {
-			InputSource source = new InputSource(new StringReader(xml));
-
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db;
-			db = dbf.newDocumentBuilder();
-			
-			Document document = db.parse(source);
-
-			XPathFactory xpathFactory = XPathFactory.newInstance();
-			XPath xpath = xpathFactory.newXPath();
-
-			xpathVal = xpath.evaluate(xPath, document);
-		} catch (ParserConfigurationException | SAXException | IOException | XPathExpressionException e) {
+			xpathVal = XML_PARSER.get().compile(xPath).evaluate(document);
+		} catch (XPathExpressionException e) {
 			String assertionMessage = "Unable to parse XPath  : " + xPath;
 			throw new AssertionError(assertionMessage);
 		}
 		return xpathVal;
 	}
 	
+	/**
+	 * Parsing XML data
+	 * @param xml
+	 * @return DOM, null if the data is not valid XML
+	 */
+	public static Document parseXml(String xml) {
+		if (xml == null) {
+			return null;
+		}
+		try {
+			// White spaces before the XML declaration are not accepted by the parser
+			return XML_PARSER.get().parse(xml.trim());
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			return null;
+		}
+	}
+	
 	/**
 	 * Checks if the passed data is XML or not
 	 * @param data
@@ -85,35 +133,27 @@ public class DataUtil
 	 * @param data
 	 * @return
 	 */
-	 public static boolean isValidJson(String jsonString) {
-			try {
-				JSONObject obj = new JSONObject(jsonString);
-				return true;
-			} catch (Exception objCreateExcepetion) {
-				try {
-					JSONArray arr = new JSONArray(jsonString);
-					return true;
-				} catch (Exception arrayCreateException) {
-
-				}
-			}
-			return false;
-		}
+	public static boolean isValidJson(String jsonString) {
+		return parseJson(jsonString) != null;
+	}
 	
 	/**
-	 * Configuring JSON Path
-	 * @param json
-	 * @return
+	 * Parsing JSON object or array, the data is parsed once whatever its type is
+	 * @param jsonString
+	 * @return org.json JSONObject or JSONArray, null if the data is not a JSON object or array
 	 */
-	private static Object configJsonPath (String json) {
-		Object jsonDoc = null;
+	public static Object parseJson(String jsonString) {
+		if (jsonString == null) {
+			return null;
+		}
 		try {
-			jsonDoc = Configuration.defaultConfiguration().jsonProvider().parse(json);
-		} catch(InvalidJsonException IJE) {
-			String assertionMessage = "Invalid JSON : " + json;
-			throw new AssertionError(assertionMessage);
+			Object json = new JSONTokener(jsonString).nextValue();
+			if (json instanceof JSONObject || json instanceof JSONArray) {
+				return json;
+			}
+		} catch (Exception e) {
 		}
-		return jsonDoc;
+		return null;
 	}
 	
 	/**
@@ -123,11 +163,25 @@ public class DataUtil
 	 * @return
 	 */
 	public static Object getJsonPathValue(String jsonPath, String jsonData) {
-		Object jsonDoc = configJsonPath(jsonData);		
+		return getJsonPathValue(jsonPath, new ParsedResponse(jsonData));
+	}
+	
+	/**
+	 * Fetching the value for the passed JSON Path from the parsed response
+	 * @param jsonPath
+	 * @param response Response, parsed on first use
+	 * @return
+	 */
+	public static Object getJsonPathValue(String jsonPath, ParsedResponse response) {
+		Object jsonDoc = response.getJson();
+		if (jsonDoc == null) {
+			String assertionMessage = "Invalid JSON : " + response.getText();
+			throw new AssertionError(assertionMessage);
+		}
 		try {
-			Object result = JsonPath.read(jsonDoc, jsonPath);
-			if (result instanceof net.minidev.json.JSONArray) {
-				return ((net.minidev.json.JSONArray) result).get(0);
+			Object result = compileJsonPath(jsonPath).read(jsonDoc, JSON_PATH_CONFIGURATION);
+			if (result instanceof JSONArray) {
+				return ((JSONArray) result).get(0);
 			} else {
 				return result;
 			}
@@ -138,6 +192,76 @@ public class DataUtil
 	}
 	
 	
+	/**
+	 * Returns the compiled JSON path, compiled paths are shared by all the threads
+	 * @param jsonPath
+	 * @return
+	 */
+	private static JsonPath compileJsonPath(String jsonPath) {
+		JsonPath compiledPath = JSON_PATH_CACHE.get(jsonPath);
+		if (compiledPath != null) {
+			pathCacheHits.incrementAndGet();
+			return compiledPath;
+		}
+		pathCacheMisses.incrementAndGet();
+		compiledPath = JsonPath.compile(jsonPath);
+		if (JSON_PATH_CACHE.size() >= MAX_CACHED_PATHS) {
+			// Paths are not generated at runtime, so the cache is only full with unusual test files
+			Iterator<String> paths = JSON_PATH_CACHE.keySet().iterator();
+			if (paths.hasNext()) {
+				paths.next();
+				paths.remove();
+			}
+		}
+		JSON_PATH_CACHE.putIfAbsent(jsonPath, compiledPath);
+		return compiledPath;
+	}
+	
+	/**
+	 * Returns the number of JSON paths and XPaths found compiled in the cache
+	 * @return
+	 */
+	public static long getPathCacheHits() {
+		return pathCacheHits.get();
+	}
+	
+	/**
+	 * Returns the number of JSON paths and XPaths compiled
+	 * @return
+	 */
+	public static long getPathCacheMisses() {
+		return pathCacheMisses.get();
+	}
+	
+	/**
+	 * Returns list of variable names used in passed String.
+	 * <b>{variable_name}</b> format is used to find variables used.
+	 * @param source
+	 * @return
+	 */
+	public static List<String> fetchVariableNamesUsed(String source) {
+		if (source == null || source.trim().length() == 0) { return null; }
+		
+		List<String> varsList = new ArrayList<String>();
+		int index = 0;
+		while (index != -1 && index < source.length()) {
+			int startIndex = source.indexOf("{", index);
+			int endIndex = -1;
+			if (startIndex != -1) {
+				endIndex = source.indexOf("}", startIndex);
+				if (endIndex != -1) {
+					String var = source.substring(startIndex + 1, endIndex);
+					if (!var.contains(":")) {
+						varsList.add(var);
+					}
+				}
+			}
+			
+			index = (startIndex == -1 ? startIndex : startIndex + 1);
+		}
+		return varsList;
+	}
+	
 	/**
 	 * Returns the type of the data
 	 * @param value
@@ -155,6 +279,54 @@ public class DataUtil
 		return VARIABLE_VALUE_TYPE.CONSTANT;
 	}
 	
+	/**
+	 * XML parser and compiled XPaths of a thread, as neither DocumentBuilder nor XPathExpression is thread safe
+	 */
+	private static class XmlParser {
+		private DocumentBuilder documentBuilder;
+		private final XPath xpath = XPathFactory.newInstance().newXPath();
+		private final Map<String, XPathExpression> expressions = new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+				return size() > MAX_CACHED_PATHS;
+			}
+		};
+		
+		Document parse(String xml) throws ParserConfigurationException, SAXException, IOException {
+			if (documentBuilder == null) {
+				documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+			} else {
+				documentBuilder.reset();
+			}
+			return documentBuilder.parse(new InputSource(new StringReader(xml)));
+		}
+		
+		XPathExpression compile(String xPath) throws XPathExpressionException {
+			XPathExpression expression = expressions.get(xPath);
+			if (expression != null) {
+				pathCacheHits.incrementAndGet();
+				return expression;
+			}
+			pathCacheMisses.incrementAndGet();
+			expression = xpath.compile(xPath);
+			expressions.put(xPath, expression);
+			return expression;
+		}
+	}
+	
+	/**
+	 * org.json provider of JSON Path, keeping null values of the results as JSONObject.NULL
+	 * (org.json arrays drop null, so reading a null value failed)
+	 */
+	private static class NullSafeJsonOrgProvider extends JsonOrgJsonProvider {
+		@Override
+		public void setArrayIndex(Object array, int index, Object newValue) {
+			super.setArrayIndex(array, index, newValue == null ? JSONObject.NULL : newValue);
+		}
+	}
+	
 	public enum VARIABLE_VALUE_TYPE	{
 		JSON_PATH, XML_PATH, CONSTANT
 	}
@@ -0,0 +1,154 @@
+package com.rest.test.framework.util;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histogram of an API call, recording response times with microsecond resolution.
+ * <br>
+ * Based on HdrHistogram: recording is wait-free from any number of threads, the memory used is fixed
+ * whatever the number of samples, and histograms of several threads or runs can be merged.
+ * Times up to an hour are tracked with 3 significant digits, longer times are recorded as an hour.
+ * @author SrinivasDonapati
+ *
+ */
+public class LatencyHistogram
+{
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Histogram histogram;
+
+	public LatencyHistogram()
+	{
+		histogram = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+	}
+
+	/**
+	 * Recording a response time
+	 * @param nanos Time in nanoseconds, measured with {@link System#nanoTime()}
+	 */
+	public void record(long nanos)
+	{
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		histogram.recordValue(Math.max(1, Math.min(micros, HIGHEST_TRACKABLE_MICROS)));
+	}
+
+	/**
+	 * Adding all the samples of another histogram to this one
+	 * @param other
+	 */
+	public void add(LatencyHistogram other)
+	{
+		histogram.add(other.histogram);
+	}
+
+	/**
+	 * Returns the number of samples recorded
+	 * @return
+	 */
+	public long getCount()
+	{
+		return histogram.getTotalCount();
+	}
+
+	/**
+	 * Returns the response time at the percentile
+	 * @param percentile Value between 0 and 100 (e.g. 99.9)
+	 * @return Time in milliseconds, 0 if nothing is recorded
+	 */
+	public double getPercentile(double percentile)
+	{
+		return toMillis(histogram.getValueAtPercentile(percentile));
+	}
+
+	/**
+	 * @return Time in milliseconds, 0 if nothing is recorded
+	 */
+	public double getMin()
+	{
+		return getCount() == 0 ? 0 : toMillis(histogram.getMinValue());
+	}
+
+	/**
+	 * @return Time in milliseconds, 0 if nothing is recorded
+	 */
+	public double getMean()
+	{
+		return getCount() == 0 ? 0 : histogram.getMean() / 1000.0;
+	}
+
+	/**
+	 * @return Time in milliseconds, 0 if nothing is recorded
+	 */
+	public double getMax()
+	{
+		return toMillis(histogram.getMaxValue());
+	}
+
+	private static double toMillis(long micros)
+	{
+		return micros / 1000.0;
+	}
+
+	/**
+	 * Encoding the histogram into a compact text, used for storing it in reports
+	 * @return Base64 text
+	 */
+	public String encode()
+	{
+		return Base64.getEncoder().encodeToString(toBytes());
+	}
+
+	/**
+	 * Encoding the histogram into compressed bytes
+	 * @return
+	 */
+	public byte[] toBytes()
+	{
+		Histogram copy = histogram.copy();
+		ByteBuffer buffer = ByteBuffer.allocate(copy.getNeededByteBufferCapacity());
+		int length = copy.encodeIntoCompressedByteBuffer(buffer);
+		byte[] bytes = new byte[length];
+		buffer.rewind();
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Decoding a histogram encoded by {@code encode}
+	 * @param encodedHistogram
+	 * @return {@link LatencyHistogram}
+	 * @throws DataFormatException if the text is not an encoded histogram
+	 */
+	public static LatencyHistogram decode(String encodedHistogram) throws DataFormatException
+	{
+		try {
+			return fromBytes(Base64.getDecoder().decode(encodedHistogram.trim()));
+		} catch (IllegalArgumentException e) {
+			throw new DataFormatException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Decoding a histogram encoded by {@code toBytes}
+	 * @param bytes
+	 * @return {@link LatencyHistogram}
+	 * @throws DataFormatException if the bytes are not an encoded histogram
+	 */
+	public static LatencyHistogram fromBytes(byte[] bytes) throws DataFormatException
+	{
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		try {
+			latencyHistogram.histogram.add(Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), HIGHEST_TRACKABLE_MICROS));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new DataFormatException(e.getMessage());
+		}
+		return latencyHistogram;
+	}
+}
@@ -0,0 +1,83 @@
+package com.rest.test.framework.util;
+
+import org.w3c.dom.Document;
+
+/**
+ * Response text with its parsed document, parsed on first use and shared by all the checks of the response.
+ * <br>
+ * TEST_VARS with JSON paths and the JSON comparison use the same JSON tree, XPaths the same DOM,
+ * so a response is parsed at most once however many variables are fetched from it.
+ * The documents are only read, they must not be modified by the users.
+ * @author SrinivasDonapati
+ *
+ */
+public class ParsedResponse
+{
+	private final String text;
+
+	private boolean isJsonParsed;
+	private Object json;
+	private boolean isXmlParsed;
+	private Document xmlDocument;
+
+	/**
+	 * @param text Response text, can be null
+	 */
+	public ParsedResponse(String text)
+	{
+		this.text = text;
+	}
+
+	/**
+	 * Returns the response text
+	 * @return
+	 */
+	public String getText()
+	{
+		return text;
+	}
+
+	/**
+	 * Checks if the response is a JSON object or array
+	 * @return
+	 */
+	public boolean isJson()
+	{
+		return getJson() != null;
+	}
+
+	/**
+	 * Returns the parsed JSON
+	 * @return org.json JSONObject or JSONArray, null if the response is not JSON
+	 */
+	public synchronized Object getJson()
+	{
+		if (!isJsonParsed) {
+			json = DataUtil.parseJson(text);
+			isJsonParsed = true;
+		}
+		return json;
+	}
+
+	/**
+	 * Checks if the response looks like XML, the response is not parsed
+	 * @return
+	 */
+	public boolean isXml()
+	{
+		return DataUtil.isXMLData(text);
+	}
+
+	/**
+	 * Returns the parsed XML
+	 * @return DOM of the response, null if the response is not valid XML
+	 */
+	public synchronized Document getXmlDocument()
+	{
+		if (!isXmlParsed) {
+			xmlDocument = DataUtil.parseXml(text);
+			isXmlParsed = true;
+		}
+		return xmlDocument;
+	}
+}
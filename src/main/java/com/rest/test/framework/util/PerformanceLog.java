@@ -0,0 +1,435 @@
+package com.rest.test.framework.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+/**
+ * Append-only binary log of the performance results of a test class, one record per run.
+ * <br>
+ * The log ({@code <test>.perf}) keeps the results of every API call of a run, including its latency histogram.
+ * The index ({@code <test>.perf.idx}) has a fixed size entry per run with the position of its record,
+ * so a run is appended without reading the previous ones and any run can be read directly.
+ * <br>
+ * CSV and HTML views are generated from the log on demand, see {@link PerformanceReportWriter}:
+ * <pre>
+ * java -cp ... com.rest.test.framework.util.PerformanceLog src/test/resources/Performance/Twitter/tweet_test.perf
+ * </pre>
+ * @author SrinivasDonapati
+ *
+ */
+public class PerformanceLog
+{
+	public static final String LOG_FILE_EXTENSION = ".perf";
+	public static final String INDEX_FILE_EXTENSION = ".idx";
+
+	private static final int LOG_MAGIC = 0x52504c47; // RPLG
+	private static final int INDEX_MAGIC = 0x52504c49; // RPLI
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	// offset, length and time of the run
+	private static final int INDEX_ENTRY_SIZE = 8 + 4 + 8;
+
+	private final File logFile;
+	private final File indexFile;
+
+	/**
+	 * @param logFilePath Path of the log file, the index is kept next to it
+	 */
+	public PerformanceLog(String logFilePath)
+	{
+		this.logFile = new File(logFilePath);
+		this.indexFile = new File(logFilePath + INDEX_FILE_EXTENSION);
+	}
+
+	public File getLogFile()
+	{
+		return logFile;
+	}
+
+	/**
+	 * Appending the results of a run.<br>
+	 * The log is locked while writing, so test runs of several JVMs can share it.
+	 * A record left incomplete by an interrupted run is overwritten.
+	 * @param run {@link RunRecord}
+	 * @throws IOException
+	 */
+	public void append(RunRecord run) throws IOException
+	{
+		byte[] record = toBytes(run);
+
+		File dir = logFile.getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.exists()) {
+			dir.mkdirs();
+		}
+
+		RandomAccessFile log = new RandomAccessFile(logFile, "rw");
+		try {
+			FileLock lock = log.getChannel().lock();
+			RandomAccessFile index = new RandomAccessFile(indexFile, "rw");
+			try {
+				if (log.length() < HEADER_SIZE) {
+					writeHeader(log, LOG_MAGIC);
+				} else {
+					checkHeader(log, LOG_MAGIC);
+				}
+				if (index.length() < HEADER_SIZE) {
+					writeHeader(index, INDEX_MAGIC);
+				} else {
+					checkHeader(index, INDEX_MAGIC);
+				}
+
+				int runCount = getRunCount(index);
+				long offset = HEADER_SIZE;
+				if (runCount > 0) {
+					index.seek(HEADER_SIZE + (long) (runCount - 1) * INDEX_ENTRY_SIZE);
+					offset = index.readLong() + index.readInt();
+				}
+
+				log.setLength(offset);
+				log.seek(offset);
+				log.write(record);
+
+				index.setLength(HEADER_SIZE + (long) runCount * INDEX_ENTRY_SIZE);
+				index.seek(index.length());
+				index.writeLong(offset);
+				index.writeInt(record.length);
+				index.writeLong(run.getTime());
+			} finally {
+				index.close();
+				lock.release();
+			}
+		} finally {
+			log.close();
+		}
+	}
+
+	/**
+	 * Returns the number of runs in the log
+	 * @return
+	 * @throws IOException
+	 */
+	public int getRunCount() throws IOException
+	{
+		if (!indexFile.exists()) {
+			return 0;
+		}
+		RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+		try {
+			return getRunCount(index);
+		} finally {
+			index.close();
+		}
+	}
+
+	/**
+	 * Reading all the runs
+	 * @return Runs in the order they were appended
+	 * @throws IOException
+	 */
+	public List<RunRecord> readRuns() throws IOException
+	{
+		return readLastRuns(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Reading the latest runs, only their records are read from the log
+	 * @param maxRuns Maximum number of runs
+	 * @return Runs in the order they were appended
+	 * @throws IOException
+	 */
+	public List<RunRecord> readLastRuns(int maxRuns) throws IOException
+	{
+		if (!indexFile.exists() || !logFile.exists()) {
+			return Collections.emptyList();
+		}
+
+		List<RunRecord> runs = new ArrayList<>();
+		RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+		RandomAccessFile log = new RandomAccessFile(logFile, "r");
+		try {
+			checkHeader(index, INDEX_MAGIC);
+			checkHeader(log, LOG_MAGIC);
+			int runCount = getRunCount(index);
+			int firstRun = Math.max(0, runCount - maxRuns);
+			index.seek(HEADER_SIZE + (long) firstRun * INDEX_ENTRY_SIZE);
+			for (int i = firstRun; i < runCount; i++) {
+				long offset = index.readLong();
+				int length = index.readInt();
+				index.readLong();
+
+				byte[] record = new byte[length];
+				log.seek(offset);
+				log.readFully(record);
+				runs.add(fromBytes(record));
+			}
+		} finally {
+			index.close();
+			log.close();
+		}
+		return runs;
+	}
+
+	private static int getRunCount(RandomAccessFile index) throws IOException
+	{
+		return (int) (Math.max(0, index.length() - HEADER_SIZE) / INDEX_ENTRY_SIZE);
+	}
+
+	private static void writeHeader(RandomAccessFile file, int magic) throws IOException
+	{
+		file.setLength(0);
+		file.writeInt(magic);
+		file.writeInt(VERSION);
+	}
+
+	private void checkHeader(RandomAccessFile file, int magic) throws IOException
+	{
+		file.seek(0);
+		if (file.readInt() != magic) {
+			throw new IOException("Not a performance log: " + logFile);
+		}
+		int version = file.readInt();
+		if (version > VERSION) {
+			throw new IOException("Unsupported performance log version " + version + ": " + logFile);
+		}
+	}
+
+	private static byte[] toBytes(RunRecord run) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeLong(run.getTime());
+		out.writeInt(run.getApiRecords().size());
+		for (ApiRecord api : run.getApiRecords()) {
+			out.writeUTF(api.getApiName());
+			out.writeUTF(api.getUrl());
+			out.writeLong(api.getRequestTime());
+			out.writeBoolean(api.isRunStatus());
+			out.writeLong(api.getDuration());
+			out.writeLong(api.getTimingsCount());
+			long[] phaseTimes = api.getPhaseTimes();
+			out.writeInt(phaseTimes.length);
+			for (long phaseTime : phaseTimes) {
+				out.writeLong(phaseTime);
+			}
+			byte[] histogram = api.getLatency().toBytes();
+			out.writeInt(histogram.length);
+			out.write(histogram);
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private RunRecord fromBytes(byte[] record) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+		RunRecord run = new RunRecord(in.readLong());
+		int apiCount = in.readInt();
+		for (int i = 0; i < apiCount; i++) {
+			ApiRecord api = new ApiRecord();
+			api.setApiName(in.readUTF());
+			api.setUrl(in.readUTF());
+			api.setRequestTime(in.readLong());
+			api.setRunStatus(in.readBoolean());
+			api.setDuration(in.readLong());
+			api.setTimingsCount(in.readLong());
+			long[] phaseTimes = new long[in.readInt()];
+			for (int j = 0; j < phaseTimes.length; j++) {
+				phaseTimes[j] = in.readLong();
+			}
+			api.setPhaseTimes(phaseTimes);
+			byte[] histogram = new byte[in.readInt()];
+			in.readFully(histogram);
+			try {
+				api.setLatency(LatencyHistogram.fromBytes(histogram));
+			} catch (DataFormatException e) {
+				throw new IOException("Corrupted latency histogram in " + logFile, e);
+			}
+			run.addApiRecord(api);
+		}
+		return run;
+	}
+
+	/**
+	 * Generating the CSV and HTML views of a performance log, next to the log file
+	 * <li>{@code <test>.csv} Time of each run</li>
+	 * <li>{@code <test>_latency.csv} Percentiles and phases of all the runs</li>
+	 * <li>{@code <test>.html} Both of them</li>
+	 * @param args Path of the log file, and optionally the maximum number of runs
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length == 0) {
+			System.out.println("Usage: PerformanceLog <log file" + LOG_FILE_EXTENSION + "> [max runs]");
+			return;
+		}
+		int maxRuns = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+		PerformanceLog performanceLog = new PerformanceLog(args[0]);
+		for (File file : PerformanceReportWriter.writeReports(performanceLog.readLastRuns(maxRuns), performanceLog.getReportBasePath())) {
+			System.out.println("Generated " + file.getPath());
+		}
+	}
+
+	/**
+	 * Returns the path of the log without the extension, used for naming the views
+	 * @return
+	 */
+	public String getReportBasePath()
+	{
+		String path = logFile.getPath();
+		return path.endsWith(LOG_FILE_EXTENSION) ? path.substring(0, path.length() - LOG_FILE_EXTENSION.length()) : path;
+	}
+
+	/**
+	 * Results of a single run of a test class
+	 */
+	public static class RunRecord
+	{
+		private final long time;
+		private final List<ApiRecord> apiRecords = new ArrayList<>();
+
+		/**
+		 * @param time Time of the run in milliseconds
+		 */
+		public RunRecord(long time)
+		{
+			this.time = time;
+		}
+
+		public long getTime()
+		{
+			return time;
+		}
+
+		/**
+		 * Returns the results of the API calls, in the order of the property file
+		 * @return
+		 */
+		public List<ApiRecord> getApiRecords()
+		{
+			return apiRecords;
+		}
+
+		public void addApiRecord(ApiRecord apiRecord)
+		{
+			apiRecords.add(apiRecord);
+		}
+	}
+
+	/**
+	 * Results of an API call in a run
+	 */
+	public static class ApiRecord
+	{
+		private String apiName;
+		private String url;
+		private long requestTime;
+		private boolean runStatus;
+		private long duration;
+		private long timingsCount;
+		private long[] phaseTimes = new long[0];
+		private LatencyHistogram latency = new LatencyHistogram();
+
+		public String getApiName()
+		{
+			return apiName;
+		}
+
+		public void setApiName(String apiName)
+		{
+			this.apiName = apiName;
+		}
+
+		public String getUrl()
+		{
+			return url;
+		}
+
+		public void setUrl(String url)
+		{
+			this.url = url;
+		}
+
+		/**
+		 * @return Time of the last request in milliseconds
+		 */
+		public long getRequestTime()
+		{
+			return requestTime;
+		}
+
+		public void setRequestTime(long requestTime)
+		{
+			this.requestTime = requestTime;
+		}
+
+		public boolean isRunStatus()
+		{
+			return runStatus;
+		}
+
+		public void setRunStatus(boolean runStatus)
+		{
+			this.runStatus = runStatus;
+		}
+
+		/**
+		 * @return Time between the first start and the last end of the requests, in milliseconds
+		 */
+		public long getDuration()
+		{
+			return duration;
+		}
+
+		public void setDuration(long duration)
+		{
+			this.duration = duration;
+		}
+
+		/**
+		 * @return Number of API calls whose phases are summed
+		 */
+		public long getTimingsCount()
+		{
+			return timingsCount;
+		}
+
+		public void setTimingsCount(long timingsCount)
+		{
+			this.timingsCount = timingsCount;
+		}
+
+		/**
+		 * @return Total time of each phase in nanoseconds, in the order of {@code RequestTimings.Phase}
+		 */
+		public long[] getPhaseTimes()
+		{
+			return phaseTimes;
+		}
+
+		public void setPhaseTimes(long[] phaseTimes)
+		{
+			this.phaseTimes = phaseTimes;
+		}
+
+		public LatencyHistogram getLatency()
+		{
+			return latency;
+		}
+
+		public void setLatency(LatencyHistogram latency)
+		{
+			this.latency = latency;
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package com.rest.test.framework.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.rest.test.framework.network.RequestTimings.Phase;
+import com.rest.test.framework.util.PerformanceLog.ApiRecord;
+import com.rest.test.framework.util.PerformanceLog.RunRecord;
+
+/**
+ * Writes the CSV and HTML views of performance results, for a single run or all the runs of a {@link PerformanceLog}.
+ * <br>
+ * API calls of different runs are matched by their name.
+ * @author SrinivasDonapati
+ *
+ */
+public class PerformanceReportWriter
+{
+	private static final String COMMA_DELIMITER = ",";
+	private static final String NEW_LINE_SEPARATOR = "\n";
+
+	private static final String FILE_HEADER_SNO = "S.No";
+	private static final String FILE_HEADER_API = "API";
+	private static final String FILE_HEADER_URL = "URL";
+	private static final String FILE_HEADER_TIME= "Time";
+	private static final String FILE_HEADER_STATUS= "Status";
+	private static final String FILE_HEADER_AVGTIME= "Avg.Time(ms)";
+	private static final String LATENCY_FILE_HEADER = "S.No,API,URL,Count,P50(ms),P90(ms),P99(ms),P99.9(ms),Max(ms),Duration(ms),Throughput(req/s)";
+	private static final String LATENCY_FILE_HEADER_HISTOGRAM = "Histogram";
+
+	public static final String LATENCY_FILE_SUFFIX = "_latency";
+
+	/**
+	 * Writing all the views of the runs
+	 * @param runs Runs in the order they were run
+	 * @param basePath Path of the views without extension
+	 * @return Files written
+	 * @throws IOException
+	 */
+	public static List<File> writeReports(List<RunRecord> runs, String basePath) throws IOException
+	{
+		List<File> files = new ArrayList<>();
+		files.add(writeCsv(runs, new File(basePath + ".csv")));
+		files.add(writeLatencyCsv(runs, new File(basePath + LATENCY_FILE_SUFFIX + ".csv")));
+		files.add(writeHtml(runs, new File(basePath + ".html")));
+		return files;
+	}
+
+	/**
+	 * Writing the time and status of each API call for every run, with the average time of all the runs.<br>
+	 * A single run has only the Time and Status columns.
+	 * @param runs
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static File writeCsv(List<RunRecord> runs, File file) throws IOException
+	{
+		Writer fileWriter = new FileWriter(file);
+		try {
+			boolean isSingleRun = runs.size() == 1;
+			StringBuilder header = new StringBuilder(FILE_HEADER_SNO + COMMA_DELIMITER + FILE_HEADER_API + COMMA_DELIMITER + FILE_HEADER_URL);
+			for (int i = 1; i <= runs.size(); i++) {
+				String suffix = isSingleRun ? "" : "(" + i + ")";
+				header.append(COMMA_DELIMITER + FILE_HEADER_TIME + suffix + COMMA_DELIMITER + FILE_HEADER_STATUS + suffix);
+			}
+			if (!isSingleRun) {
+				header.append(COMMA_DELIMITER + FILE_HEADER_AVGTIME);
+			}
+			fileWriter.append(header).append(NEW_LINE_SEPARATOR);
+
+			int sNo = 1;
+			for (Map.Entry<String, ApiRecord[]> row : groupByApi(runs).entrySet()) {
+				ApiRecord[] apiRecords = row.getValue();
+				ApiRecord latest = getLatest(apiRecords);
+				StringBuilder rowData = new StringBuilder();
+				rowData.append(sNo++).append(COMMA_DELIMITER).append(latest.getApiName()).append(COMMA_DELIMITER).append(latest.getUrl());
+
+				long totalTime = 0;
+				int trialCount = 0;
+				for (ApiRecord apiRecord : apiRecords) {
+					if (apiRecord == null) {
+						rowData.append(COMMA_DELIMITER).append(COMMA_DELIMITER);
+						continue;
+					}
+					rowData.append(COMMA_DELIMITER).append((float) apiRecord.getRequestTime())
+							.append(COMMA_DELIMITER).append(apiRecord.isRunStatus() ? "T" : "F");
+					totalTime += apiRecord.getRequestTime();
+					trialCount++;
+				}
+				if (!isSingleRun) {
+					rowData.append(COMMA_DELIMITER).append(trialCount > 0 ? totalTime / trialCount : 0);
+				}
+				fileWriter.append(rowData).append(NEW_LINE_SEPARATOR);
+			}
+		} finally {
+			fileWriter.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Writing the latency percentiles and the average phase times of each API call, merged from all the runs
+	 * @param runs
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static File writeLatencyCsv(List<RunRecord> runs, File file) throws IOException
+	{
+		Phase[] phases = Phase.values();
+		Writer fileWriter = new FileWriter(file);
+		try {
+			fileWriter.append(LATENCY_FILE_HEADER);
+			for (Phase phase : phases) {
+				fileWriter.append(COMMA_DELIMITER + phase.getLabel() + "(ms)");
+			}
+			fileWriter.append(COMMA_DELIMITER + LATENCY_FILE_HEADER_HISTOGRAM + NEW_LINE_SEPARATOR);
+
+			int sNo = 1;
+			for (ApiSummary summary : summarize(runs)) {
+				LatencyHistogram latency = summary.latency;
+				fileWriter.append(sNo++ + COMMA_DELIMITER
+						+ summary.apiName + COMMA_DELIMITER
+						+ summary.url + COMMA_DELIMITER
+						+ latency.getCount() + COMMA_DELIMITER
+						+ format(latency.getPercentile(50)) + COMMA_DELIMITER
+						+ format(latency.getPercentile(90)) + COMMA_DELIMITER
+						+ format(latency.getPercentile(99)) + COMMA_DELIMITER
+						+ format(latency.getPercentile(99.9)) + COMMA_DELIMITER
+						+ format(latency.getMax()) + COMMA_DELIMITER
+						+ summary.duration + COMMA_DELIMITER
+						+ format(summary.getThroughput()));
+				for (Phase phase : phases) {
+					fileWriter.append(COMMA_DELIMITER + format(summary.getAvgPhaseTime(phase)));
+				}
+				fileWriter.append(COMMA_DELIMITER + latency.encode() + NEW_LINE_SEPARATOR);
+			}
+		} finally {
+			fileWriter.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Writing a HTML page with the latency summary and the time of each run
+	 * @param runs
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static File writeHtml(List<RunRecord> runs, File file) throws IOException
+	{
+		Writer writer = new FileWriter(file);
+		try {
+			String title = escape(file.getName().replaceAll("\\.html$", ""));
+			writer.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>").append(title).append("</title>\n")
+					.append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:24px}")
+					.append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:nth-child(-n+2),td:nth-child(-n+2){text-align:left}")
+					.append(".F{color:#c00}</style>\n</head>\n<body>\n");
+			writer.append("<h2>").append(title).append("</h2>\n");
+			writer.append("<p>").append(String.valueOf(runs.size())).append(" run(s)");
+			if (!runs.isEmpty()) {
+				writer.append(", ").append(escape(new Date(runs.get(0).getTime()).toString()))
+						.append(" - ").append(escape(new Date(runs.get(runs.size() - 1).getTime()).toString()));
+			}
+			writer.append("</p>\n");
+
+			writer.append("<h3>Latency</h3>\n<table>\n<tr><th>API</th><th>URL</th><th>Count</th><th>P50(ms)</th><th>P90(ms)</th>")
+					.append("<th>P99(ms)</th><th>P99.9(ms)</th><th>Max(ms)</th><th>Throughput(req/s)</th>");
+			for (Phase phase : Phase.values()) {
+				writer.append("<th>").append(phase.getLabel()).append("(ms)</th>");
+			}
+			writer.append("</tr>\n");
+			for (ApiSummary summary : summarize(runs)) {
+				LatencyHistogram latency = summary.latency;
+				writer.append("<tr><td>").append(escape(summary.apiName)).append("</td><td>").append(escape(summary.url)).append("</td>")
+						.append(cell(String.valueOf(latency.getCount())))
+						.append(cell(format(latency.getPercentile(50))))
+						.append(cell(format(latency.getPercentile(90))))
+						.append(cell(format(latency.getPercentile(99))))
+						.append(cell(format(latency.getPercentile(99.9))))
+						.append(cell(format(latency.getMax())))
+						.append(cell(format(summary.getThroughput())));
+				for (Phase phase : Phase.values()) {
+					writer.append(cell(format(summary.getAvgPhaseTime(phase))));
+				}
+				writer.append("</tr>\n");
+			}
+			writer.append("</table>\n");
+
+			writer.append("<h3>Runs</h3>\n<table>\n<tr><th>API</th><th>URL</th>");
+			for (int i = 1; i <= runs.size(); i++) {
+				writer.append("<th>").append(String.valueOf(i)).append("</th>");
+			}
+			writer.append("</tr>\n");
+			for (ApiRecord[] apiRecords : groupByApi(runs).values()) {
+				ApiRecord latest = getLatest(apiRecords);
+				writer.append("<tr><td>").append(escape(latest.getApiName())).append("</td><td>").append(escape(latest.getUrl())).append("</td>");
+				for (ApiRecord apiRecord : apiRecords) {
+					if (apiRecord == null) {
+						writer.append("<td></td>");
+					} else {
+						writer.append("<td class=\"").append(apiRecord.isRunStatus() ? "T" : "F").append("\">")
+								.append(String.valueOf(apiRecord.getRequestTime())).append("</td>");
+					}
+				}
+				writer.append("</tr>\n");
+			}
+			writer.append("</table>\n</body>\n</html>\n");
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Grouping the results of the API calls by name, in the order of the latest run
+	 * @param runs
+	 * @return Results of each API call, indexed by run, null if the API call is not in a run
+	 */
+	private static Map<String, ApiRecord[]> groupByApi(List<RunRecord> runs)
+	{
+		Map<String, ApiRecord[]> apiRecords = new LinkedHashMap<>();
+		for (int i = runs.size() - 1; i >= 0; i--) {
+			for (ApiRecord apiRecord : runs.get(i).getApiRecords()) {
+				ApiRecord[] records = apiRecords.get(apiRecord.getApiName());
+				if (records == null) {
+					records = new ApiRecord[runs.size()];
+					apiRecords.put(apiRecord.getApiName(), records);
+				}
+				if (records[i] == null) {
+					records[i] = apiRecord;
+				}
+			}
+		}
+		return apiRecords;
+	}
+
+	private static ApiRecord getLatest(ApiRecord[] apiRecords)
+	{
+		for (int i = apiRecords.length - 1; i >= 0; i--) {
+			if (apiRecords[i] != null) {
+				return apiRecords[i];
+			}
+		}
+		return null;
+	}
+
+	private static List<ApiSummary> summarize(List<RunRecord> runs)
+	{
+		List<ApiSummary> summaries = new ArrayList<>();
+		for (ApiRecord[] apiRecords : groupByApi(runs).values()) {
+			ApiRecord latest = getLatest(apiRecords);
+			ApiSummary summary = new ApiSummary(latest.getApiName(), latest.getUrl());
+			for (ApiRecord apiRecord : apiRecords) {
+				if (apiRecord != null) {
+					summary.add(apiRecord);
+				}
+			}
+			summaries.add(summary);
+		}
+		return summaries;
+	}
+
+	private static String cell(String value)
+	{
+		return "<td>" + value + "</td>";
+	}
+
+	private static String escape(String value)
+	{
+		if (value == null) {
+			return "";
+		}
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static String format(double value)
+	{
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	/**
+	 * Results of an API call merged from several runs
+	 */
+	private static class ApiSummary
+	{
+		private final String apiName;
+		private final String url;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final long[] phaseTimes = new long[Phase.values().length];
+		private long timingsCount;
+		private long duration;
+
+		ApiSummary(String apiName, String url)
+		{
+			this.apiName = apiName;
+			this.url = url;
+		}
+
+		void add(ApiRecord apiRecord)
+		{
+			latency.add(apiRecord.getLatency());
+			duration += apiRecord.getDuration();
+			timingsCount += apiRecord.getTimingsCount();
+			long[] recordPhaseTimes = Arrays.copyOf(apiRecord.getPhaseTimes(), phaseTimes.length);
+			for (int i = 0; i < phaseTimes.length; i++) {
+				phaseTimes[i] += recordPhaseTimes[i];
+			}
+		}
+
+		double getThroughput()
+		{
+			return duration > 0 ? latency.getCount() * 1000.0 / duration : 0;
+		}
+
+		/**
+		 * @return Time in milliseconds
+		 */
+		double getAvgPhaseTime(Phase phase)
+		{
+			return timingsCount > 0 ? phaseTimes[phase.ordinal()] / 1000000.0 / timingsCount : 0;
+		}
+	}
+}
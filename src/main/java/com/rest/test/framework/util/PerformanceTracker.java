@@ -1,41 +1,38 @@
 package com.rest.test.framework.util;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import com.rest.test.framework.ApiTestInfo;
 import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.network.RequestTimings;
+import com.rest.test.framework.network.RequestTimings.Phase;
+import com.rest.test.framework.util.PerformanceLog.ApiRecord;
+import com.rest.test.framework.util.PerformanceLog.RunRecord;
 
 /**
  * This class tracks the time taken by each network call. <br>
  * Generates a CSV  for each test class.
+ * <br>
+ * Response times of each API call are also recorded in a {@link LatencyHistogram}, written with the percentiles
+ * to {@code <test>_latency.csv}, along with the average time of each phase of the calls ({@link RequestTimings}).
+ * <br>
+ * In append mode each run is appended to a binary {@link PerformanceLog} instead,
+ * CSV and HTML views of all the runs are generated from the log by {@code generateReports}.
  * @author SrinivasDonapati
  *
  */
 public class PerformanceTracker
 {
-	private static final String COMMA_DELIMITER = ",";
-	private static final String NEW_LINE_SEPARATOR = "\n";
-	
-	private static final String FILE_HEADER_SNO = "S.No";
-	private static final String FILE_HEADER_API = "API";
-	private static final String FILE_HEADER_URL = "URL";
-	private static final String FILE_HEADER_TIME= "Time";
-	private static final String FILE_HEADER_STATUS= "Status";
-	private static final String FILE_HEADER_AVGTIME= "Avg.Time(ms)";
-
 	private static final String DEFAULT_RECORD_LOCATION = "src/test/resources/Performance";
 	private String folderName;
 	private String testName;
-	private LinkedHashMap<Long, ApiPerformanceInfo> apiList = null;
+	// API ids follow the declaration order, keeps the rows stable when the calls finish in any order
+	private TreeMap<Long, ApiPerformanceInfo> apiList = null;
 	private boolean isAppendOn;
 	private String recordLocation;
 
@@ -51,30 +48,30 @@ public class PerformanceTracker
 		else {
 			testName = propertyFilePath;
 		}
-		testName += ".csv";
-		apiList = new LinkedHashMap<>();
+		apiList = new TreeMap<>();
 	}
 	
 	public void setRecordLocation(String recorrdLocation) {
 		this.recordLocation = recorrdLocation;
 	}
 
-	public void setApiInfo(ApiCallInfo apiInfo)
+	public synchronized void setApiInfo(ApiCallInfo apiInfo)
 	{
-		ApiPerformanceInfo apiPerformanceInfo = new ApiPerformanceInfo();
+		// Repeated calls keep recording into the same histogram
+		ApiPerformanceInfo apiPerformanceInfo = apiList.get(apiInfo.getId());
+		if (apiPerformanceInfo == null) {
+			apiPerformanceInfo = new ApiPerformanceInfo();
+		}
 		apiPerformanceInfo.setApiName(apiInfo.getName());
 		String url = apiInfo.getUrl();
 		if (url != null) {
 			url = url.split("\\?")[0];
+			// Declared URL can have variables in the host, which URI doesn't accept
 			if (url.startsWith("www") || url.startsWith("http")) {
-				try {
-					URI uri = new URI(url);
-					String domain = uri.getHost();
-					url= url.split(domain)[1];
-				}
-				catch (URISyntaxException e) {
-					e.printStackTrace();
-				}
+				int hostStart = url.indexOf("://");
+				hostStart = hostStart == -1 ? 0 : hostStart + 3;
+				int pathStart = url.indexOf('/', hostStart);
+				url = pathStart == -1 ? "" : url.substring(pathStart);
 			}
 		}
 		
@@ -83,15 +80,44 @@ public class PerformanceTracker
 		apiList.put(apiInfo.getId(), apiPerformanceInfo);
 	}
 
-	public void setRequestTime(long apiId, long time)
+	public synchronized void setRequestTime(long apiId, long time)
 	{
 		ApiPerformanceInfo apiPerformanceInfo = apiList.get(apiId);
 		if (apiPerformanceInfo != null) {
 			apiPerformanceInfo.setRequestTime(time);
+			apiPerformanceInfo.getLatency().record(TimeUnit.MILLISECONDS.toNanos(time));
+		}
+	}
+
+	/**
+	 * Recording the response time of an API call
+	 * @param apiId
+	 * @param startTime Start of the request, from {@link System#nanoTime()}
+	 * @param endTime End of the request, from {@link System#nanoTime()}
+	 */
+	public synchronized void recordRequestTime(long apiId, long startTime, long endTime)
+	{
+		ApiPerformanceInfo apiPerformanceInfo = apiList.get(apiId);
+		if (apiPerformanceInfo != null) {
+			apiPerformanceInfo.setRequestTime(TimeUnit.NANOSECONDS.toMillis(endTime - startTime));
+			apiPerformanceInfo.record(startTime, endTime);
+		}
+	}
+
+	/**
+	 * Recording the time spent in each phase of an API call
+	 * @param apiId
+	 * @param timings {@link RequestTimings}
+	 */
+	public synchronized void recordTimings(long apiId, RequestTimings timings)
+	{
+		ApiPerformanceInfo apiPerformanceInfo = apiList.get(apiId);
+		if (apiPerformanceInfo != null && timings != null) {
+			apiPerformanceInfo.addTimings(timings);
 		}
 	}
 
-	public void setRequestStatus(long apiId, boolean status)
+	public synchronized void setRequestStatus(long apiId, boolean status)
 	{
 		ApiPerformanceInfo apiPerformanceInfo  = apiList.get(apiId);
 		if (apiPerformanceInfo != null) { 
@@ -99,166 +125,130 @@ public class PerformanceTracker
 		}
 	}
 
-	public void downloadReport()
+	/**
+	 * Writing the results of the run.<br>
+	 * In append mode the run is appended to the performance log of the test class, whose CSV and HTML views are
+	 * generated by {@code generateReports}. Otherwise the CSV views of this run are written.
+	 */
+	public synchronized void downloadReport()
 	{
-		String FILE_PATH = recordLocation != null ? recordLocation : DEFAULT_RECORD_LOCATION;
-
-		String filePath = FILE_PATH;
-
-		if (folderName != null) {
-			File dir = new File( FILE_PATH + "/" + folderName);
-			if (!dir.exists() || !dir.isDirectory()) {
-				dir.mkdir();
-			}
-			filePath +=  "/" + folderName + "/" + testName;
-		}
-		else {
-			filePath +=  "/" + testName;
+		RunRecord run = new RunRecord(System.currentTimeMillis());
+		for (ApiPerformanceInfo apiPerformanceInfo : apiList.values()) {
+			run.addApiRecord(apiPerformanceInfo.toApiRecord());
 		}
 
-		File file = new File(filePath);
-		
-		List<String> oldFileData = null;
-		if (isAppendOn && file.exists()) {
-			Scanner scanner;
-			try {
-				oldFileData   = new ArrayList<String>();
-				scanner = new Scanner(file);
-				while (scanner.hasNextLine()) {
-					oldFileData . add(scanner.nextLine());
-				}
+		try {
+			if (isAppendOn) {
+				getPerformanceLog().append(run);
 			}
-			catch (FileNotFoundException e) {
-				e.printStackTrace();
+			else {
+				String basePath = getReportPath("");
+				PerformanceReportWriter.writeCsv(Collections.singletonList(run), new File(basePath + ".csv"));
+				PerformanceReportWriter.writeLatencyCsv(Collections.singletonList(run),
+						new File(basePath + PerformanceReportWriter.LATENCY_FILE_SUFFIX + ".csv"));
 			}
 		}
-		
-		if (file.exists()) {
-			file.delete();
+		catch (IOException e) {
+			e.printStackTrace();
 		}
+	}
 
-		FileWriter fileWriter = null;
+	/**
+	 * Generating the CSV and HTML views of all the runs appended to the performance log
+	 * @return Files written
+	 * @throws IOException
+	 */
+	public synchronized List<File> generateReports() throws IOException
+	{
+		PerformanceLog performanceLog = getPerformanceLog();
+		return PerformanceReportWriter.writeReports(performanceLog.readRuns(), performanceLog.getReportBasePath());
+	}
 
-		try {
-			fileWriter = new FileWriter(file);
+	/**
+	 * Returns the performance log of the test class
+	 * @return {@link PerformanceLog}
+	 */
+	public PerformanceLog getPerformanceLog()
+	{
+		return new PerformanceLog(getReportPath(PerformanceLog.LOG_FILE_EXTENSION));
+	}
+	
+	/**
+	 * Returns the path of a report of the test class
+	 * @param suffix Suffix added to the test name
+	 * @return
+	 */
+	private String getReportPath(String suffix)
+	{
+		String FILE_PATH = recordLocation != null ? recordLocation : DEFAULT_RECORD_LOCATION;
 
-			String header = getHeader(oldFileData ,  0) + NEW_LINE_SEPARATOR;
-			// Write the CSV file header
-			fileWriter.append(header);
+		String filePath = FILE_PATH;
 
-			int sNo = 1;
-			for (Long key : apiList.keySet()) {
-				ApiPerformanceInfo apiPerformanceInfo = apiList.get(key);
-				String rowData = getRowData(oldFileData, sNo++, apiPerformanceInfo) + NEW_LINE_SEPARATOR;
-				fileWriter.append(rowData);
+		if (folderName != null) {
+			File dir = new File( FILE_PATH + "/" + folderName);
+			if (!dir.exists() || !dir.isDirectory()) {
+				dir.mkdir();
 			}
-
-		}
-		catch (Exception e) {
-			e.printStackTrace();
+			filePath +=  "/" + folderName + "/" + testName + suffix;
 		}
-		finally {
-			try {
-				fileWriter.flush();
-				fileWriter.close();
-			}
-			catch (IOException e) {
-				e.printStackTrace();
-			}
+		else {
+			filePath +=  "/" + testName + suffix;
 		}
+		return filePath;
 	}
-	
-	private String getRowData(List<String> oldFileData, int sNo, ApiPerformanceInfo apiPerformanceInfo)
+
+	private class ApiPerformanceInfo
 	{
-		String rowData = null;
-		if (oldFileData != null && oldFileData.size() > sNo) {
-			rowData = oldFileData.get(sNo);
+		private String apiName;
+		private String url;
+		private long requestTime;
+		private boolean runStatus;
+		private LatencyHistogram latency = new LatencyHistogram();
+		private long firstStartTime;
+		private long lastEndTime;
+		private long duration;
+		private RequestTimings timings = new RequestTimings();
+		private long timingsCount;
+
+		public void addTimings(RequestTimings requestTimings)
+		{
+			timings.add(requestTimings);
+			timingsCount++;
 		}
-		
-		float time =apiPerformanceInfo.getRequestTime();
-		String status = apiPerformanceInfo.isRunStatus() ? "T" : "F";
-		
-		if (rowData == null || rowData.trim().length() == 0) {
-			rowData = sNo + COMMA_DELIMITER 
-					+ apiPerformanceInfo.getApiName() + COMMA_DELIMITER 
-					+ apiPerformanceInfo.getUrl() + COMMA_DELIMITER 
-					+ time + COMMA_DELIMITER 
-					+ status;
-			return rowData;
+
+		public RequestTimings getTimings()
+		{
+			return timings;
 		}
-		
-		String[] rowParts = rowData.split(COMMA_DELIMITER);
-		
-		float totalTime = time;
-		int trialCount = 0;
-		
-		if(rowParts != null && rowParts.length > 3 ) {
-			int length = rowParts.length % 2 == 0 ? rowParts.length - 1 : rowParts.length;
-			for (int i = 3; i < length; i+=2) {
-				try {
-					totalTime += Float.parseFloat(rowParts[i]);
-					trialCount++;
-				} catch(Exception e){
-					e.printStackTrace();
-				}
-			}
-			
-			rowData = "";
-			for (int i = 0; i < length; i++) {
-				rowData += rowParts[i] + COMMA_DELIMITER;
-			}
-			rowData += time + COMMA_DELIMITER + status + COMMA_DELIMITER;
-			rowData += (int)(totalTime /(trialCount + 1));
+
+		public long getTimingsCount()
+		{
+			return timingsCount;
 		}
-		
-		return rowData;
-	}
 
-	private String getHeader(List<String> prevFileData, int index)
-	{
-		String header = null;
-		String extHeader = null;
-		if (prevFileData != null && prevFileData.size() > index) {
-			extHeader = prevFileData.get(index);
+		/**
+		 * Recording a request, the duration covers the time between the first start and the last end
+		 */
+		public void record(long startTime, long endTime)
+		{
+			latency.record(endTime - startTime);
+			if (duration == 0 || startTime < firstStartTime) {
+				firstStartTime = startTime;
+			}
+			lastEndTime = Math.max(lastEndTime, endTime);
+			duration = lastEndTime - firstStartTime;
 		}
-		if (extHeader == null || extHeader.trim().length() == 0) { 
-			return FILE_HEADER_SNO + COMMA_DELIMITER
-				+ FILE_HEADER_API + COMMA_DELIMITER 
-				+ FILE_HEADER_URL + COMMA_DELIMITER
-				+ FILE_HEADER_TIME + COMMA_DELIMITER 
-				+ FILE_HEADER_STATUS; 
+
+		public LatencyHistogram getLatency()
+		{
+			return latency;
 		}
-		
-		extHeader = extHeader.replace(COMMA_DELIMITER + FILE_HEADER_AVGTIME, "");
-		String[] headerParts = extHeader.split(COMMA_DELIMITER);
-		
-		header = FILE_HEADER_SNO + COMMA_DELIMITER + FILE_HEADER_API + COMMA_DELIMITER + FILE_HEADER_URL + COMMA_DELIMITER;
-		
-		if(headerParts != null && headerParts.length > 3) {
-			for (int i = 3; i < headerParts.length; i++) {
-				String column = headerParts[i];
-				if(!column.contains("(" + ((i-1)/2) + ")")) {
-					column = column + "(" + ((i-1)/2) + ")";
-				}
-				header += column + COMMA_DELIMITER;
-			}
-			
-			header += FILE_HEADER_TIME + "(" + (headerParts.length -1) / 2 + ")" + COMMA_DELIMITER;
-			header += FILE_HEADER_STATUS + "(" + (headerParts.length -1) / 2 + ")" + COMMA_DELIMITER;
+
+		public long getDuration()
+		{
+			return duration;
 		}
-		
-		
-		header += FILE_HEADER_AVGTIME;
-		return header;
-	}
-	
 
-	private class ApiPerformanceInfo
-	{
-		private String apiName;
-		private String url;
-		private long requestTime;
-		private boolean runStatus;
 		public String getApiName()
 		{
 			return apiName;
@@ -298,5 +288,25 @@ public class PerformanceTracker
 		{
 			this.url = url;
 		}
+
+		public ApiRecord toApiRecord()
+		{
+			ApiRecord apiRecord = new ApiRecord();
+			apiRecord.setApiName(apiName);
+			apiRecord.setUrl(url);
+			apiRecord.setRequestTime(requestTime);
+			apiRecord.setRunStatus(runStatus);
+			apiRecord.setDuration(TimeUnit.NANOSECONDS.toMillis(duration));
+			apiRecord.setTimingsCount(timingsCount);
+			long[] phaseTimes = new long[Phase.values().length];
+			for (Phase phase : Phase.values()) {
+				phaseTimes[phase.ordinal()] = timings.get(phase);
+			}
+			apiRecord.setPhaseTimes(phaseTimes);
+			LatencyHistogram latencyCopy = new LatencyHistogram();
+			latencyCopy.add(latency);
+			apiRecord.setLatency(latencyCopy);
+			return apiRecord;
+		}
 	}
 }
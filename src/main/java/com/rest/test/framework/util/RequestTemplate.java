@@ -0,0 +1,240 @@
+package com.rest.test.framework.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Text of an API call (URL, request body, test condition, log message) compiled into literal and placeholder segments.
+ * <br>
+ * A placeholder is a variable name inside braces without ':' (e.g. {@code {userId}}), JSON objects are kept as literal text.
+ * RANDOM_VALUE and SYSTEM_TIME in the literal text are placeholders too.
+ * <br>
+ * Templates are compiled once while reading the property file and never modified, rendering them
+ * appends the segments into a buffer reused by the thread, values are inserted as they are.
+ * @author SrinivasDonapati
+ *
+ */
+public class RequestTemplate
+{
+	/**
+	 * Provides the values of the variables used in a template
+	 */
+	public interface VariableResolver
+	{
+		/**
+		 * Returns the value of the variable
+		 * @param variableName
+		 * @return null if the variable is not defined
+		 */
+		String getVariableValue(String variableName);
+	}
+
+	private static final byte LITERAL = 0;
+	private static final byte VARIABLE = 1;
+	private static final byte RANDOM_VALUE = 2;
+	private static final byte SYSTEM_TIME = 3;
+
+	private static final int INITIAL_BUFFER_SIZE = 256;
+	// Larger buffers are not kept, so a single huge body doesn't stay in memory
+	private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+	private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(INITIAL_BUFFER_SIZE);
+		}
+	};
+
+	private final String source;
+	private final byte[] segmentTypes;
+	private final String[] segmentValues;
+	private final List<String> variableNames;
+
+	private RequestTemplate(String source, List<Byte> types, List<String> values)
+	{
+		this.source = source;
+		this.segmentTypes = new byte[types.size()];
+		this.segmentValues = values.toArray(new String[values.size()]);
+		Set<String> variables = new LinkedHashSet<>();
+		for (int i = 0; i < segmentTypes.length; i++) {
+			segmentTypes[i] = types.get(i);
+			if (segmentTypes[i] == VARIABLE) {
+				variables.add(segmentValues[i]);
+			}
+		}
+		this.variableNames = Collections.unmodifiableList(new ArrayList<>(variables));
+	}
+
+	/**
+	 * Compiling the text into a template
+	 * @param source Text, can be null
+	 * @return {@link RequestTemplate}
+	 */
+	public static RequestTemplate compile(String source)
+	{
+		List<Byte> types = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		if (source == null) {
+			return new RequestTemplate(null, types, values);
+		}
+
+		int literalStart = 0;
+		int index = source.indexOf('{');
+		while (index != -1) {
+			int endIndex = source.indexOf('}', index);
+			if (endIndex == -1) {
+				break;
+			}
+			int nextStart = source.indexOf('{', index + 1);
+			if (nextStart != -1 && nextStart < endIndex) {
+				// Only the innermost braces can be a placeholder
+				index = nextStart;
+				continue;
+			}
+
+			String variableName = source.substring(index + 1, endIndex);
+			if (variableName.length() > 0 && variableName.indexOf(':') == -1) {
+				addLiteral(source.substring(literalStart, index), types, values);
+				types.add(VARIABLE);
+				values.add(variableName);
+				literalStart = endIndex + 1;
+			}
+			index = source.indexOf('{', endIndex + 1);
+		}
+		addLiteral(source.substring(literalStart), types, values);
+		return new RequestTemplate(source, types, values);
+	}
+
+	/**
+	 * Adding literal text, RANDOM_VALUE and SYSTEM_TIME are split into their own segments
+	 */
+	private static void addLiteral(String literal, List<Byte> types, List<String> values)
+	{
+		int start = 0;
+		while (start < literal.length()) {
+			int randomIndex = literal.indexOf(ApiTestConstants.PROPERTY_VARIABLE_RANDOM, start);
+			int timeIndex = literal.indexOf(ApiTestConstants.PROPERTY_VARIABLE_SYS_TIME, start);
+			int index;
+			byte type;
+			String token;
+			if (randomIndex != -1 && (timeIndex == -1 || randomIndex < timeIndex)) {
+				index = randomIndex;
+				type = RANDOM_VALUE;
+				token = ApiTestConstants.PROPERTY_VARIABLE_RANDOM;
+			} else if (timeIndex != -1) {
+				index = timeIndex;
+				type = SYSTEM_TIME;
+				token = ApiTestConstants.PROPERTY_VARIABLE_SYS_TIME;
+			} else {
+				break;
+			}
+
+			if (index > start) {
+				types.add(LITERAL);
+				values.add(literal.substring(start, index));
+			}
+			types.add(type);
+			values.add(token);
+			start = index + token.length();
+		}
+		if (start < literal.length()) {
+			types.add(LITERAL);
+			values.add(literal.substring(start));
+		}
+	}
+
+	/**
+	 * Returns the text the template is compiled from
+	 * @return
+	 */
+	public String getSource()
+	{
+		return source;
+	}
+
+	/**
+	 * Returns the names of the variables used, in the order of their first use
+	 * @return
+	 */
+	public List<String> getVariableNames()
+	{
+		return variableNames;
+	}
+
+	/**
+	 * Checks whether the template has no placeholders
+	 * @return
+	 */
+	public boolean isConstant()
+	{
+		return segmentTypes.length == 0 || (segmentTypes.length == 1 && segmentTypes[0] == LITERAL);
+	}
+
+	/**
+	 * Rendering the template
+	 * @param resolver Values of the variables
+	 * @param randomValue Value of RANDOM_VALUE, null keeps it as it is
+	 * @param systemTime Value of SYSTEM_TIME, null keeps it as it is
+	 * @param type Part of the API call rendered, used in the error message
+	 * @return Rendered text, null if the template is compiled from null
+	 * @throws AssertionError if a variable is not defined
+	 */
+	public String render(VariableResolver resolver, String randomValue, String systemTime, String type)
+	{
+		if (source == null || isConstant()) {
+			return source;
+		}
+
+		StringBuilder buffer = BUFFER.get();
+		buffer.setLength(0);
+		for (int i = 0; i < segmentTypes.length; i++) {
+			String value = segmentValues[i];
+			switch (segmentTypes[i]) {
+			case VARIABLE:
+				String variableValue = resolver.getVariableValue(value);
+				if (variableValue == null) {
+					throw missingVariableError(value, type);
+				}
+				buffer.append(variableValue);
+				break;
+			case RANDOM_VALUE:
+				buffer.append(randomValue != null ? randomValue : value);
+				break;
+			case SYSTEM_TIME:
+				buffer.append(systemTime != null ? systemTime : value);
+				break;
+			default:
+				buffer.append(value);
+			}
+		}
+
+		String result = buffer.toString();
+		if (buffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+			BUFFER.remove();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the error of a variable without value
+	 * @param variableName
+	 * @param type Part of the API call using the variable
+	 * @return
+	 */
+	public static AssertionError missingVariableError(String variableName, String type)
+	{
+		String assertionMessage =  "Unable find the dynamic field : " + "{" + variableName + "}"  + " used in " + type + "\n";
+		assertionMessage += "Resolve this issue by intializing the field in TEST_VARS\n";
+		assertionMessage += "1. [ .., " + variableName + "=<some constant value>" + "] or \n" ;
+		assertionMessage += "2. [ .., " + variableName + "=<JSON PATH>" + "]\n\n" ;
+		return new AssertionError(assertionMessage);
+	}
+
+	@Override
+	public String toString()
+	{
+		return source;
+	}
+}
@@ -0,0 +1,816 @@
+package com.rest.test.framework.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.json.JSONArray;
+import org.json.JSONTokener;
+
+/**
+ * Extracting the values of TEST_VARS while reading the response, without keeping the response or building its tree.
+ * <br>
+ * Only simple paths can be streamed:
+ * <li>JSON paths of fixed keys and array indices, e.g. {@code $.data.items[0].id} or {@code $['data']['id']}</li>
+ * <li>Absolute XPaths of element names and positions, optionally ending with an attribute or text(),
+ * e.g. {@code XPATH:/export/item[2]/@id}</li>
+ * <br>
+ * Reading stops once all the values are found, so the memory used depends on the depth of the paths and not on the size of the response.
+ * Values are the same as the ones fetched by {@link DataUtil} from the complete response.
+ * @author SrinivasDonapati
+ *
+ */
+public class StreamingExtractor
+{
+	private static final String XPATH_PREFIX = "XPATH:";
+	// Bytes read after the last value, so the connection can still be reused if only a small part of the response is left
+	private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+	private static final XMLInputFactory XML_INPUT_FACTORY;
+	static {
+		// Same view of the document as the DOM used for XPaths, which is not namespace aware
+		XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+	}
+
+	private final List<String> paths;
+	private final JsonNode jsonRoot;
+	private final List<XmlPath> xmlPaths;
+
+	private StreamingExtractor(List<String> paths, boolean isXml)
+	{
+		this.paths = Collections.unmodifiableList(paths);
+		if (isXml) {
+			jsonRoot = null;
+			xmlPaths = new ArrayList<>();
+			for (String path : paths) {
+				xmlPaths.add(XmlPath.parse(path));
+			}
+		} else {
+			jsonRoot = new JsonNode();
+			xmlPaths = null;
+			for (String path : paths) {
+				JsonNode node = jsonRoot;
+				for (Object step : parseJsonPath(path)) {
+					node = node.child(step);
+				}
+				node.paths.add(path);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the value of the path can be extracted while streaming the response
+	 * @param path JSON path or XPath of TEST_VARS
+	 * @return
+	 */
+	public static boolean isStreamable(String path)
+	{
+		if (path == null) {
+			return false;
+		}
+		if (path.startsWith(XPATH_PREFIX)) {
+			return XmlPath.parse(path) != null;
+		}
+		return parseJsonPath(path) != null;
+	}
+
+	/**
+	 * Compiling the paths extracted from a response
+	 * @param paths JSON paths or XPaths, all of the same kind
+	 * @return {@link StreamingExtractor}
+	 * @throws IllegalArgumentException if a path can't be streamed, or JSON paths and XPaths are mixed
+	 */
+	public static StreamingExtractor compile(Collection<String> paths)
+	{
+		if (paths.isEmpty()) {
+			throw new IllegalArgumentException("No paths to extract");
+		}
+		List<String> uniquePaths = new ArrayList<>(new LinkedHashSet<>(paths));
+		boolean isXml = uniquePaths.get(0).startsWith(XPATH_PREFIX);
+		for (String path : uniquePaths) {
+			if (!isStreamable(path)) {
+				throw new IllegalArgumentException("Path can't be streamed: " + path);
+			}
+			if (path.startsWith(XPATH_PREFIX) != isXml) {
+				throw new IllegalArgumentException("JSON paths and XPaths can't be streamed from the same response");
+			}
+		}
+		return new StreamingExtractor(uniquePaths, isXml);
+	}
+
+	/**
+	 * Returns the paths extracted
+	 * @return
+	 */
+	public List<String> getPaths()
+	{
+		return paths;
+	}
+
+	/**
+	 * Reading the values from the response stream, the stream is not closed.
+	 * <br>
+	 * If all the values are found before the end of the response, the rest of the response is not read.
+	 * @param stream Response body
+	 * @param charset Charset of the response, null for UTF-8
+	 * @return {@link ExtractedValues}
+	 * @throws IOException if reading the stream fails
+	 */
+	public ExtractedValues extract(InputStream stream, Charset charset) throws IOException
+	{
+		ExtractedValues values = new ExtractedValues();
+		PushbackReader reader = new PushbackReader(new InputStreamReader(stream, charset == null ? StandardCharsets.UTF_8 : charset));
+		skipLeadingWhitespace(reader);
+		if (xmlPaths != null) {
+			extractXml(reader, values);
+		} else {
+			extractJson(reader, values);
+		}
+		if (values.isComplete) {
+			drain(stream);
+		}
+		return values;
+	}
+
+	private static void drain(InputStream stream) throws IOException
+	{
+		byte[] buffer = new byte[8192];
+		int remaining = MAX_DRAIN_BYTES;
+		int count;
+		while (remaining > 0 && (count = stream.read(buffer, 0, Math.min(buffer.length, remaining))) != -1) {
+			remaining -= count;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "StreamingExtractor" + paths;
+	}
+
+	/**
+	 * Values extracted from a response
+	 */
+	public static class ExtractedValues
+	{
+		private final Map<String, String> values = new HashMap<>();
+		private String error;
+		private boolean isComplete;
+
+		/**
+		 * Returns the value of the path
+		 * @param path
+		 * @return null if the path is not found in the response
+		 */
+		public String getValue(String path)
+		{
+			return values.get(path);
+		}
+
+		/**
+		 * Returns the error of parsing the response
+		 * @return null if the response is valid up to the last value
+		 */
+		public String getError()
+		{
+			return error;
+		}
+
+		/**
+		 * Checks whether reading stopped before the end of the response, as all the values were found
+		 * @return
+		 */
+		public boolean isComplete()
+		{
+			return isComplete;
+		}
+	}
+
+	/**
+	 * Skipping the white spaces before the document, the XML parser doesn't accept them before the XML declaration
+	 */
+	private static void skipLeadingWhitespace(PushbackReader reader) throws IOException
+	{
+		int c;
+		while ((c = reader.read()) != -1) {
+			if (!Character.isWhitespace(c)) {
+				reader.unread(c);
+				return;
+			}
+		}
+	}
+
+	/*
+	 * JSON
+	 */
+
+	/**
+	 * Parsing a JSON path of keys and array indices
+	 * @param path
+	 * @return Keys (String) and indices (Integer), null if the path is not simple
+	 */
+	private static List<Object> parseJsonPath(String path)
+	{
+		if (!path.startsWith("$")) {
+			return null;
+		}
+		List<Object> steps = new ArrayList<>();
+		int index = 1;
+		int length = path.length();
+		while (index < length) {
+			char c = path.charAt(index);
+			if (c == '.') {
+				int start = ++index;
+				while (index < length && isKeyChar(path.charAt(index))) {
+					index++;
+				}
+				if (index == start) {
+					return null;
+				}
+				steps.add(path.substring(start, index));
+			} else if (c == '[') {
+				int endIndex = path.indexOf(']', index);
+				if (endIndex == -1) {
+					return null;
+				}
+				String step = path.substring(index + 1, endIndex).trim();
+				if (step.length() > 2 && (step.charAt(0) == '\'' || step.charAt(0) == '"')
+						&& step.charAt(step.length() - 1) == step.charAt(0)) {
+					String key = step.substring(1, step.length() - 1);
+					if (key.indexOf('\'') != -1 || key.indexOf('"') != -1 || key.indexOf('\\') != -1) {
+						return null;
+					}
+					steps.add(key);
+				} else if (step.length() > 0 && step.length() < 10 && isDigits(step)) {
+					steps.add(Integer.valueOf(step));
+				} else {
+					return null;
+				}
+				index = endIndex + 1;
+			} else {
+				return null;
+			}
+		}
+		return steps;
+	}
+
+	private static boolean isKeyChar(char c)
+	{
+		return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '$';
+	}
+
+	private static boolean isDigits(String value)
+	{
+		for (int i = 0; i < value.length(); i++) {
+			if (!Character.isDigit(value.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Node of the tree of the JSON paths extracted, children are keyed by JSON key (String) or array index (Integer)
+	 */
+	private static class JsonNode
+	{
+		private final Map<Object, JsonNode> children = new HashMap<>();
+		// Paths whose value is this node
+		private final List<String> paths = new ArrayList<>();
+
+		JsonNode child(Object step)
+		{
+			JsonNode child = children.get(step);
+			if (child == null) {
+				child = new JsonNode();
+				children.put(step, child);
+			}
+			return child;
+		}
+
+		int countPaths()
+		{
+			int count = paths.size();
+			for (JsonNode child : children.values()) {
+				count += child.countPaths();
+			}
+			return count;
+		}
+	}
+
+	private void extractJson(Reader reader, ExtractedValues values) throws IOException
+	{
+		JsonStreamReader json = new JsonStreamReader(reader, values, jsonRoot.countPaths());
+		try {
+			int c = json.nextClean();
+			if (c != '{' && c != '[') {
+				throw json.error("Expected a JSON object or array");
+			}
+			json.readValue(jsonRoot);
+		} catch (JsonSyntaxException e) {
+			values.error = e.getMessage();
+		}
+	}
+
+	private static class JsonSyntaxException extends Exception
+	{
+		private static final long serialVersionUID = 1L;
+
+		JsonSyntaxException(String message)
+		{
+			super(message);
+		}
+	}
+
+	/**
+	 * Pull reader of JSON, values outside the paths are skipped without being stored
+	 */
+	private static class JsonStreamReader
+	{
+		private final Reader reader;
+		private final ExtractedValues values;
+		private final char[] buffer = new char[8192];
+		private int position;
+		private int limit;
+		private long offset;
+		// Paths whose value is not read yet
+		private int remainingPaths;
+		// Text of the value being read, null if the value is not kept
+		private StringBuilder capture;
+
+		JsonStreamReader(Reader reader, ExtractedValues values, int pathCount)
+		{
+			this.reader = reader;
+			this.values = values;
+			this.remainingPaths = pathCount;
+		}
+
+		/**
+		 * Reading a value
+		 * @param node Node of the path tree the value belongs to, null if no path uses the value
+		 * @return true if all the paths are read
+		 */
+		boolean readValue(JsonNode node) throws IOException, JsonSyntaxException
+		{
+			if (node == null) {
+				skipValue();
+				return false;
+			}
+			if (!node.paths.isEmpty()) {
+				return readPathValue(node);
+			}
+
+			int c = nextClean();
+			if (c == '{') {
+				next();
+				if (nextClean() == '}') {
+					next();
+					return false;
+				}
+				while (true) {
+					if (nextClean() != '"') {
+						throw error("Expected a key");
+					}
+					String key = readString();
+					if (nextClean() != ':') {
+						throw error("Expected ':'");
+					}
+					next();
+					if (readValue(node.children.get(key))) {
+						return true;
+					}
+					c = nextClean();
+					next();
+					if (c == '}') {
+						return false;
+					}
+					if (c != ',') {
+						throw error("Expected ',' or '}'");
+					}
+				}
+			} else if (c == '[') {
+				next();
+				if (nextClean() == ']') {
+					next();
+					return false;
+				}
+				for (int index = 0; ; index++) {
+					if (readValue(node.children.get(index))) {
+						return true;
+					}
+					c = nextClean();
+					next();
+					if (c == ']') {
+						return false;
+					}
+					if (c != ',') {
+						throw error("Expected ',' or ']'");
+					}
+				}
+			}
+			skipValue();
+			return false;
+		}
+
+		/**
+		 * Reading the value of a path, converted as DataUtil.getJsonPathValue does:
+		 * the first item of an array, objects as JSON text.
+		 */
+		private boolean readPathValue(JsonNode node) throws IOException, JsonSyntaxException
+		{
+			nextClean();
+			capture = new StringBuilder();
+			skipValue();
+			String text = capture.toString();
+			capture = null;
+
+			String value;
+			try {
+				Object parsed = new JSONTokener(text).nextValue();
+				if (parsed instanceof JSONArray) {
+					JSONArray array = (JSONArray) parsed;
+					parsed = array.length() > 0 ? array.get(0) : null;
+				}
+				value = parsed != null ? String.valueOf(parsed) : null;
+			} catch (Exception e) {
+				throw error("Invalid value " + text);
+			}
+			if (value != null) {
+				for (String path : node.paths) {
+					values.values.put(path, value);
+				}
+			}
+			remainingPaths -= node.paths.size();
+
+			if (!node.children.isEmpty()) {
+				// Longer paths inside the value are read from its text
+				JsonNode children = new JsonNode();
+				children.children.putAll(node.children);
+				int childPaths = children.countPaths();
+				new JsonStreamReader(new StringReader(text), values, childPaths).readValue(children);
+				remainingPaths -= childPaths;
+			}
+
+			if (remainingPaths <= 0) {
+				values.isComplete = true;
+				return true;
+			}
+			return false;
+		}
+
+		private String readString() throws IOException, JsonSyntaxException
+		{
+			StringBuilder value = new StringBuilder();
+			next();
+			while (true) {
+				int c = next();
+				if (c == '"') {
+					return value.toString();
+				}
+				if (c == '\\') {
+					c = next();
+					switch (c) {
+					case 'b':
+						value.append('\b');
+						break;
+					case 't':
+						value.append('\t');
+						break;
+					case 'n':
+						value.append('\n');
+						break;
+					case 'f':
+						value.append('\f');
+						break;
+					case 'r':
+						value.append('\r');
+						break;
+					case 'u':
+						char[] hex = new char[4];
+						for (int i = 0; i < hex.length; i++) {
+							int h = next();
+							if (h == -1) {
+								throw error("Unterminated string");
+							}
+							hex[i] = (char) h;
+						}
+						try {
+							value.append((char) Integer.parseInt(new String(hex), 16));
+						} catch (NumberFormatException e) {
+							throw error("Invalid escape");
+						}
+						break;
+					case -1:
+						throw error("Unterminated string");
+					default:
+						value.append((char) c);
+					}
+				} else if (c == -1 || c == '\n' || c == '\r') {
+					throw error("Unterminated string");
+				} else {
+					value.append((char) c);
+				}
+			}
+		}
+
+		/**
+		 * Skipping a value without storing it, nested objects and arrays are counted instead of parsed
+		 */
+		private void skipValue() throws IOException, JsonSyntaxException
+		{
+			int c = nextClean();
+			if (c == -1) {
+				throw error("Unexpected end of the response");
+			}
+			if (c != '{' && c != '[' && c != '"') {
+				// Number, true, false or null
+				while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && c > ' ') {
+					next();
+				}
+				return;
+			}
+
+			int depth = 0;
+			boolean inString = false;
+			while ((c = next()) != -1) {
+				if (inString) {
+					if (c == '\\') {
+						next();
+					} else if (c == '"') {
+						inString = false;
+						if (depth == 0) {
+							return;
+						}
+					}
+				} else if (c == '"') {
+					inString = true;
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					if (--depth == 0) {
+						return;
+					}
+				}
+			}
+			throw error("Unexpected end of the response");
+		}
+
+		private int peek() throws IOException
+		{
+			if (position == limit) {
+				offset += limit;
+				position = 0;
+				limit = Math.max(0, reader.read(buffer, 0, buffer.length));
+				if (limit == 0) {
+					return -1;
+				}
+			}
+			return buffer[position];
+		}
+
+		private int next() throws IOException
+		{
+			int c = peek();
+			if (c != -1) {
+				position++;
+				if (capture != null) {
+					capture.append((char) c);
+				}
+			}
+			return c;
+		}
+
+		/**
+		 * Skipping white spaces, tabs, line breaks and other control characters as org.json does
+		 */
+		private int nextClean() throws IOException
+		{
+			int c = peek();
+			while (c != -1 && c <= ' ') {
+				position++;
+				c = peek();
+			}
+			return c;
+		}
+
+		private JsonSyntaxException error(String message)
+		{
+			return new JsonSyntaxException(message + " at character " + (offset + position + 1) + " of the response");
+		}
+	}
+
+	/*
+	 * XML
+	 */
+
+	/**
+	 * Absolute XPath of element names with optional positions, ending with an element, an attribute or text()
+	 */
+	private static class XmlPath
+	{
+		private final String path;
+		private final List<String> names = new ArrayList<>();
+		// Position of each element among its siblings of the same name, 0 for any
+		private final List<Integer> positions = new ArrayList<>();
+		private String attribute;
+		private boolean isText;
+
+		private XmlPath(String path)
+		{
+			this.path = path;
+		}
+
+		/**
+		 * @param path XPath with the XPATH: prefix
+		 * @return null if the XPath is not simple
+		 */
+		static XmlPath parse(String path)
+		{
+			String xPath = path.substring(XPATH_PREFIX.length()).trim();
+			if (!xPath.startsWith("/") || xPath.startsWith("//") || xPath.endsWith("/")) {
+				return null;
+			}
+			XmlPath xmlPath = new XmlPath(path);
+			String[] steps = xPath.substring(1).split("/", -1);
+			for (int i = 0; i < steps.length; i++) {
+				String step = steps[i].trim();
+				boolean isLast = i > 0 && i == steps.length - 1;
+				if (isLast && step.startsWith("@") && isName(step.substring(1))) {
+					xmlPath.attribute = step.substring(1);
+					continue;
+				}
+				if (isLast && step.equals("text()")) {
+					xmlPath.isText = true;
+					continue;
+				}
+				int position = 0;
+				int bracket = step.indexOf('[');
+				if (bracket != -1) {
+					if (!step.endsWith("]")) {
+						return null;
+					}
+					String index = step.substring(bracket + 1, step.length() - 1).trim();
+					if (index.isEmpty() || index.length() > 9 || !isDigits(index) || Integer.parseInt(index) < 1) {
+						return null;
+					}
+					position = Integer.parseInt(index);
+					step = step.substring(0, bracket).trim();
+				}
+				if (!isName(step)) {
+					return null;
+				}
+				xmlPath.names.add(step);
+				xmlPath.positions.add(position);
+			}
+			return xmlPath;
+		}
+
+		private static boolean isName(String name)
+		{
+			if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+				return false;
+			}
+			for (int i = 1; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		boolean matches(int depth, String name, int position)
+		{
+			int expectedPosition = positions.get(depth - 1);
+			return names.get(depth - 1).equals(name) && (expectedPosition == 0 || expectedPosition == position);
+		}
+	}
+
+	/**
+	 * Reading the XPaths, the value of an XPath is the first node matching it, as XPath evaluation returns
+	 */
+	private void extractXml(Reader reader, ExtractedValues values) throws IOException
+	{
+		int pathCount = xmlPaths.size();
+		// Number of leading steps of each path matching the current element and its ancestors
+		int[] matchedDepths = new int[pathCount];
+		// Text of the matched element of each path, null while it is not reached
+		StringBuilder[] texts = new StringBuilder[pathCount];
+		boolean[] isFound = new boolean[pathCount];
+		int remainingPaths = pathCount;
+
+		// Number of children of each open element by name, for the positions
+		List<Map<String, Integer>> childCounts = new ArrayList<>();
+		childCounts.add(new HashMap<String, Integer>());
+		XMLStreamReader xml = null;
+		try {
+			xml = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+			int depth = 0;
+			while (remainingPaths > 0 && xml.hasNext()) {
+				int event = xml.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+					String name = xml.getLocalName();
+					Map<String, Integer> siblings = childCounts.get(depth - 1);
+					Integer count = siblings.get(name);
+					int position = count == null ? 1 : count + 1;
+					siblings.put(name, position);
+					if (childCounts.size() == depth) {
+						childCounts.add(new HashMap<String, Integer>());
+					} else {
+						childCounts.get(depth).clear();
+					}
+
+					for (int i = 0; i < pathCount; i++) {
+						XmlPath xmlPath = xmlPaths.get(i);
+						if (isFound[i] || matchedDepths[i] != depth - 1 || depth > xmlPath.names.size()
+								|| !xmlPath.matches(depth, name, position)) {
+							continue;
+						}
+						matchedDepths[i] = depth;
+						if (depth < xmlPath.names.size()) {
+							continue;
+						}
+						if (xmlPath.attribute != null) {
+							String value = xml.getAttributeValue(null, xmlPath.attribute);
+							values.values.put(xmlPath.path, value == null ? "" : value);
+							isFound[i] = true;
+							remainingPaths--;
+						} else {
+							texts[i] = new StringBuilder();
+						}
+					}
+				} else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+						|| event == XMLStreamConstants.SPACE) {
+					for (int i = 0; i < pathCount; i++) {
+						if (isFound[i] || texts[i] == null) {
+							continue;
+						}
+						if (!xmlPaths.get(i).isText) {
+							texts[i].append(xml.getText());
+						} else if (matchedDepths[i] == depth) {
+							// text() is the first text node of the element
+							values.values.put(xmlPaths.get(i).path, xml.getText());
+							isFound[i] = true;
+							remainingPaths--;
+						}
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					for (int i = 0; i < pathCount; i++) {
+						if (isFound[i] || matchedDepths[i] != depth) {
+							continue;
+						}
+						if (texts[i] != null && !xmlPaths.get(i).isText) {
+							values.values.put(xmlPaths.get(i).path, texts[i].toString());
+							isFound[i] = true;
+							remainingPaths--;
+						}
+						texts[i] = null;
+						matchedDepths[i] = depth - 1;
+					}
+					depth--;
+				}
+			}
+
+			if (remainingPaths == 0) {
+				values.isComplete = true;
+			} else {
+				// Like XPath evaluation, paths not in the document are empty
+				for (int i = 0; i < pathCount; i++) {
+					if (!isFound[i]) {
+						values.values.put(xmlPaths.get(i).path, "");
+					}
+				}
+			}
+		} catch (XMLStreamException e) {
+			values.values.clear();
+			values.error = e.getMessage();
+		} finally {
+			if (xml != null) {
+				try {
+					xml.close();
+				} catch (XMLStreamException e) {
+				}
+			}
+		}
+	}
+}
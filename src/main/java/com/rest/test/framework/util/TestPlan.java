@@ -0,0 +1,88 @@
+package com.rest.test.framework.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.rest.test.framework.ApiTestInfo;
+
+/**
+ * Compiled test file, the API calls with their templates, conditions and paths compiled once.
+ * <br>
+ * A plan is not modified after it's read, each run of the test file gets its own {@link ApiTestInfo}
+ * sharing the compiled values, so the same plan is used by all the suites and load tests running the file.
+ * @author SrinivasDonapati
+ *
+ */
+public class TestPlan
+{
+	private final String hash;
+	private final ApiTestInfo apiTestInfo;
+	private final List<String> errors;
+
+	/**
+	 * @param hash Hash of the test file content
+	 * @param apiTestInfo Parsed test file, must not be used by any run
+	 * @param errors Errors of the lines
+	 */
+	TestPlan(String hash, ApiTestInfo apiTestInfo, List<String> errors)
+	{
+		this.hash = hash;
+		this.apiTestInfo = apiTestInfo;
+		this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the test file content
+	 * @return
+	 */
+	public String getHash()
+	{
+		return hash;
+	}
+
+	/**
+	 * Returns the TEST_NAME of the test file
+	 * @return
+	 */
+	public String getTestName()
+	{
+		return apiTestInfo.getTestName();
+	}
+
+	/**
+	 * Returns the number of API calls of the test file
+	 * @return
+	 */
+	public int getApiCallCount()
+	{
+		return apiTestInfo.getApiReqList().size();
+	}
+
+	/**
+	 * Returns the errors found while reading the test file, the lines with errors are skipped
+	 * @return Errors with their line numbers, empty if the file is valid
+	 */
+	public List<String> getErrors()
+	{
+		return errors;
+	}
+
+	/**
+	 * Returns the parsed test file, only read by the classes of this package
+	 * @return
+	 */
+	ApiTestInfo getApiTestInfo()
+	{
+		return apiTestInfo;
+	}
+
+	/**
+	 * Creating the test info for a run of the test file
+	 * @return {@link ApiTestInfo}
+	 */
+	public ApiTestInfo newApiTestInfo()
+	{
+		return apiTestInfo.copy();
+	}
+}
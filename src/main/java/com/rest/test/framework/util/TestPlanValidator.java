@@ -0,0 +1,251 @@
+package com.rest.test.framework.util;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.rest.test.framework.ApiTestInfo;
+import com.rest.test.framework.ApiTestInfo.ApiCallInfo;
+import com.rest.test.framework.ApiTestInfo.VariableInfo;
+import com.rest.test.framework.network.RestNetworkUtil;
+
+/**
+ * Reading and checking all the test files of a suite before any API is called.
+ * <br>
+ * The files are compiled in parallel on the common fork-join pool, the compiled plans are cached
+ * and used again when the tests of the files are created. The checks are:
+ * <li>Syntax of the files, e.g. TEST_VARS and API_HEADERS which are not JSON arrays, numbers which are not valid</li>
+ * <li>HTTP methods which can't be sent</li>
+ * <li>Test conditions which can't be parsed, unless the conditions are evaluated by the script engine.
+ * The error points to the script engine conditions, which older test files using other JavaScript need</li>
+ * <li>Variables used by URLs, requests, conditions and log messages which are not declared by any TEST_VARS of the suite,
+ * or of the file itself if each file has its own variables</li>
+ * <li>RANDOM_VALUE and SYSTEM_TIME written as variables in braces, only the bare tokens are replaced</li>
+ * <br>
+ * All the errors of all the files are returned together, each with its file and line.
+ * @author SrinivasDonapati
+ *
+ */
+public class TestPlanValidator
+{
+	// Conditions written for the script engine of older versions may use JavaScript the built-in expressions don't support
+	private static final String SCRIPT_ENGINE_HINT = " (conditions using other JavaScript, e.g. typeof, array literals or regular expression literals,"
+			+ " need script engine conditions, see RestSuiteConfiguration.Builder.setScriptEngineConditions)";
+
+	private final ClassLoader classLoader;
+	private final Map<String, TestPlan> testPlans = new LinkedHashMap<>();
+
+	/**
+	 * @param classLoader Class loader of the test files
+	 */
+	public TestPlanValidator(ClassLoader classLoader)
+	{
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Compiling the test files in parallel
+	 * @param propertyFiles Paths of the test files
+	 * @return Errors of the files, empty if all the files are read
+	 */
+	public List<String> load(Collection<String> propertyFiles)
+	{
+		List<Callable<List<String>>> tasks = new ArrayList<>();
+		final Map<String, TestPlan> loadedPlans = new ConcurrentHashMap<>();
+		for (final String propertyFile : new LinkedHashSet<>(propertyFiles)) {
+			tasks.add(new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws Exception {
+					List<String> errors = new ArrayList<>();
+					InputStream in = classLoader.getResourceAsStream(propertyFile);
+					if (in == null) {
+						errors.add(propertyFile + " : Test file is not found");
+						return errors;
+					}
+					TestPlan testPlan = ApiTestPropertyReader.compile(in);
+					for (String error : testPlan.getErrors()) {
+						errors.add(propertyFile + " " + error);
+					}
+					loadedPlans.put(propertyFile, testPlan);
+					return errors;
+				}
+			});
+		}
+
+		List<String> errors = new ArrayList<>();
+		for (Future<List<String>> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+			errors.addAll(getResult(result));
+		}
+		for (String propertyFile : propertyFiles) {
+			TestPlan testPlan = loadedPlans.get(propertyFile);
+			if (testPlan != null) {
+				testPlans.put(propertyFile, testPlan);
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * Checking the API calls of the loaded test files, variables declared by any file are visible to all the files
+	 * @param definedVariables Variables defined outside the test files, e.g. by setUpSuite
+	 * @param isScriptEngineConditions true if test conditions are evaluated by the script engine, they are not parsed by the framework
+	 * @param isVariableCheck false if variables can be defined by other tests of the suite, e.g. custom test classes
+	 * @return Errors of the API calls, empty if all the API calls are valid
+	 */
+	public List<String> validate(Collection<String> definedVariables, boolean isScriptEngineConditions, boolean isVariableCheck)
+	{
+		return validate(definedVariables, isScriptEngineConditions, isVariableCheck, false);
+	}
+
+	/**
+	 * Checking the API calls of the loaded test files
+	 * @param definedVariables Variables defined outside the test files, e.g. by setUpSuite
+	 * @param isScriptEngineConditions true if test conditions are evaluated by the script engine, they are not parsed by the framework
+	 * @param isVariableCheck false if variables can be defined by other tests of the suite, e.g. custom test classes
+	 * @param isFileVariables true if each file stores its variables in its own scope (parallel files, load tests),
+	 * a file then only sees the defined variables and the variables it declares itself
+	 * @return Errors of the API calls, empty if all the API calls are valid
+	 */
+	public List<String> validate(Collection<String> definedVariables, final boolean isScriptEngineConditions, final boolean isVariableCheck,
+			final boolean isFileVariables)
+	{
+		final Set<String> suiteVariables = new HashSet<>(definedVariables);
+		if (!isFileVariables) {
+			for (TestPlan testPlan : testPlans.values()) {
+				addDeclaredVariables(testPlan.getApiTestInfo(), suiteVariables);
+			}
+		}
+
+		List<Callable<List<String>>> tasks = new ArrayList<>();
+		for (final Map.Entry<String, TestPlan> entry : testPlans.entrySet()) {
+			tasks.add(new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws Exception {
+					Set<String> variables = suiteVariables;
+					if (isFileVariables) {
+						variables = new HashSet<>(suiteVariables);
+						addDeclaredVariables(entry.getValue().getApiTestInfo(), variables);
+					}
+					return validate(entry.getKey(), entry.getValue().getApiTestInfo(), variables, isScriptEngineConditions, isVariableCheck,
+							isFileVariables);
+				}
+			});
+		}
+
+		List<String> errors = new ArrayList<>();
+		for (Future<List<String>> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+			errors.addAll(getResult(result));
+		}
+		return errors;
+	}
+
+	/**
+	 * Returns the compiled test files
+	 * @return Test plans by their file paths
+	 */
+	public Map<String, TestPlan> getTestPlans()
+	{
+		return testPlans;
+	}
+
+	/**
+	 * Builds the message of the errors
+	 * @param errors
+	 * @return
+	 */
+	public static String getErrorMessage(List<String> errors)
+	{
+		StringBuilder message = new StringBuilder();
+		message.append(errors.size()).append(errors.size() == 1 ? " error" : " errors").append(" in the test files :");
+		for (String error : errors) {
+			message.append("\n").append(error);
+		}
+		return message.toString();
+	}
+
+	private static List<String> validate(String propertyFile, ApiTestInfo apiTestInfo, Set<String> variables,
+			boolean isScriptEngineConditions, boolean isVariableCheck, boolean isFileVariables)
+	{
+		List<String> errors = new ArrayList<>();
+		for (ApiCallInfo apiCallInfo : apiTestInfo.getApiReqList()) {
+			String location = propertyFile + " line " + apiCallInfo.getLineNumberInPropertyFile() + " (" + apiCallInfo.getName() + ")";
+
+			String request = apiCallInfo.getRequest();
+			boolean isFileTransfer = request != null && (request.startsWith(ApiTestConstants.PROPERTY_UPLOAD_REQ_PREFIX)
+					|| request.startsWith(ApiTestConstants.PROPERTY_DOWNLOAD_REQ_PREFIX));
+			if (!isFileTransfer && !RestNetworkUtil.isSupportedMethod(apiCallInfo.getMethod())) {
+				errors.add(location + ": Unsupported " + ApiTestConstants.PROPERTY_REQ_METHOD + " " + apiCallInfo.getMethod());
+			}
+
+			if (!isScriptEngineConditions && apiCallInfo.getTestConditionError() != null) {
+				errors.add(location + ": Invalid " + ApiTestConstants.PROPERTY_TEST_CONDITION + " : " + apiCallInfo.getTestConditionError()
+						+ SCRIPT_ENGINE_HINT);
+			}
+
+			if (isVariableCheck) {
+				Set<String> undefinedVariables = new LinkedHashSet<>();
+				addUndefinedVariables(apiCallInfo.getUrlTemplate(), variables, undefinedVariables);
+				addUndefinedVariables(apiCallInfo.getRequestTemplate(), variables, undefinedVariables);
+				addUndefinedVariables(apiCallInfo.getTestConditionTemplate(), variables, undefinedVariables);
+				addUndefinedVariables(apiCallInfo.getLogMessageTemplate(), variables, undefinedVariables);
+				for (String variableName : undefinedVariables) {
+					if (ApiTestConstants.PROPERTY_VARIABLE_RANDOM.equals(variableName)
+							|| ApiTestConstants.PROPERTY_VARIABLE_SYS_TIME.equals(variableName)) {
+						// Only the bare tokens are replaced, {RANDOM_VALUE} is looked up as a variable
+						errors.add(location + ": " + variableName + " is used as variable {" + variableName + "}, write it without braces");
+					} else {
+						errors.add(location + ": Variable {" + variableName + "} is not declared by "
+								+ (isFileVariables ? "the " + ApiTestConstants.PROPERTY_VARS + " of this file" : "any " + ApiTestConstants.PROPERTY_VARS));
+					}
+				}
+			}
+		}
+		return errors;
+	}
+
+	private static void addDeclaredVariables(ApiTestInfo apiTestInfo, Set<String> variables)
+	{
+		for (ApiCallInfo apiCallInfo : apiTestInfo.getApiReqList()) {
+			for (VariableInfo variableInfo : apiCallInfo.getVariableList()) {
+				variables.add(variableInfo.getVariableName());
+			}
+		}
+	}
+
+	private static void addUndefinedVariables(RequestTemplate template, Set<String> variables, Set<String> undefinedVariables)
+	{
+		if (template == null) {
+			return;
+		}
+		for (String variableName : template.getVariableNames()) {
+			if (!variables.contains(variableName)) {
+				undefinedVariables.add(variableName);
+			}
+		}
+	}
+
+	private static List<String> getResult(Future<List<String>> result)
+	{
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Reading the test files is interrupted", e);
+		} catch (ExecutionException e) {
+			List<String> errors = new ArrayList<>();
+			errors.add(String.valueOf(e.getCause()));
+			return errors;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.rest.test.framework.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class creating the threads used for running tests, API calls and virtual users.
+ * <br>
+ * Virtual threads are used if they are requested and the JVM supports them (Java 21 or later),
+ * otherwise platform daemon threads are created. The framework is compiled for Java 8,
+ * hence virtual threads are looked up through reflection.
+ * @author SrinivasDonapati
+ *
+ */
+public class ThreadUtil
+{
+	private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+	/**
+	 * Checks whether the JVM supports virtual threads
+	 * @return
+	 */
+	public static boolean isVirtualThreadSupported()
+	{
+		return VIRTUAL_THREAD_FACTORY != null;
+	}
+
+	/**
+	 * Returns a thread factory naming the threads {@code <namePrefix>-<thread number>}
+	 * @param namePrefix Prefix of the thread names
+	 * @param isVirtual Creates virtual threads if the JVM supports them
+	 * @return {@link ThreadFactory}
+	 */
+	public static ThreadFactory newThreadFactory(final String namePrefix, boolean isVirtual)
+	{
+		final ThreadFactory virtualThreadFactory = isVirtual ? VIRTUAL_THREAD_FACTORY : null;
+		final AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				String name = namePrefix + "-" + threadCount.incrementAndGet();
+				if (virtualThreadFactory != null) {
+					Thread thread = virtualThreadFactory.newThread(runnable);
+					thread.setName(name);
+					return thread;
+				}
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * Creating the factory of virtual threads, {@code Thread.ofVirtual().factory()}
+	 * @return null if the JVM doesn't support virtual threads
+	 */
+	private static ThreadFactory createVirtualThreadFactory()
+	{
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			Object builder = ofVirtual.invoke(null);
+			Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+			return (ThreadFactory) factory.invoke(builder);
+		} catch (Exception e) {
+			// Java 20 or older, or preview features are not enabled
+			return null;
+		}
+	}
+}